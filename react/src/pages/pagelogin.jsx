@@ -101,48 +101,6 @@ function PageLogin() {
         localStorage.removeItem('rememberedUsername');
       }
 
-
-      try {
-        setTimeout(async () => {
-          try {
-            // Vérifier que le token est bien présent
-            const token = localStorage.getItem('token');
-            if (token) {
-              try {
-                await axiosInstance.post(`/rendezvous/cancel-old`);
-                console.log('Vieux rendez-vous annulés avec succès');
-              } catch (cancelError) {
-                if (cancelError.response?.status === 403) {
-                  console.warn('Droits insuffisants pour annuler les vieux rendez-vous ou endpoint non disponible');
-                } else if (cancelError.response?.status === 404) {
-                  console.warn('Endpoint pour annuler les vieux rendez-vous non disponible sur le backend');
-                } else if (cancelError.response?.status === 500) {
-                  console.warn('Erreur serveur lors de l\'annulation des vieux rendez-vous');
-                } else if (cancelError.code === 'NETWORK_ERROR') {
-                  console.warn('Erreur réseau lors de l\'annulation des vieux rendez-vous');
-                } else {
-                  console.warn('Erreur lors de l\'annulation des vieux rendez-vous:', cancelError.message || 'Erreur inconnue');
-                }
-              }
-            } else {
-              console.warn('Token non trouvé, impossible d\'annuler les vieux rendez-vous');
-            }
-          } catch (cancelError) {
-            console.error('Erreur inattendue lors de l\'annulation des vieux rendez-vous:', cancelError);
-            // Ne pas bloquer la connexion si cet appel échoue
-            // Log plus détaillé pour le debugging
-            if (cancelError.response) {
-              console.error('Status:', cancelError.response.status);
-              console.error('Data:', cancelError.response.data);
-              console.error('Headers:', cancelError.response.headers);
-            }
-          }
-        }, 100); // Attendre 100ms pour s'assurer que le token est bien enregistré
-      } catch (outerError) {
-        // Si même le setTimeout échoue, on log mais on ne bloque pas la connexion
-        console.error('Erreur critique lors de la configuration de l\'annulation des vieux rendez-vous:', outerError);
-      }
-
       // Notification de succès
       if (window.showNotification) {
         window.showNotification('Connexion réussie !', 'success', 3000);
@@ -364,7 +364,15 @@ export const connectWebSocket = (userId, onMessageReceived, onConnected) => {
         }
     }
     
+    const token = localStorage.getItem('jwtToken') || 
+                  localStorage.getItem('token') || 
+                  localStorage.getItem('accessToken');
+
     stompClient = new StompClient({
+        // Le jeton authentifie la session STOMP (présence, files /user/queue/...)
+        connectHeaders: {
+            Authorization: `Bearer ${token}`
+        },
         webSocketFactory: () => {
             console.log("🔌 Création de la connexion SockJS...");
             const sock = new SockJS(`${API_BASE}/ws`);
@@ -0,0 +1,77 @@
+package com.example.GestionClinique.configuration.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Fournit à hibernate-jcache un gestionnaire de caches Caffeine dont chaque région est créée
+ * d'avance, bornée par {@code clinique.cache.taille.<région>} ; la région des requêtes prend
+ * {@code clinique.cache.taille-defaut} à défaut. La région des horodatages n'est jamais bornée : une
+ * entrée évincée ferait passer pour à jour les résultats de requêtes en cache sur cette table. Une
+ * région sans taille déclarée fait échouer le démarrage au lieu de grandir sans limite.
+ * <p>
+ * Le cache est local : avec plusieurs instances, une écriture sur l'une n'invalide pas les autres.
+ * Il est réservé aux entités dont une copie de quelques minutes n'est pas gênante, ou qui ne sont
+ * modifiées que par l'application elle-même sur une seule instance.
+ */
+@Component
+public class CacheNiveau2Caffeine implements HibernatePropertiesCustomizer {
+
+    public static final String TAILLE_DEFAUT = "clinique.cache.taille-defaut";
+    public static final String PREFIXE_TAILLE = "clinique.cache.taille.";
+    private static final long TAILLE_PAR_DEFAUT = 1000;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (!"jcache".equals(hibernateProperties.get(AvailableSettings.CACHE_REGION_FACTORY))
+                || !Boolean.parseBoolean(String.valueOf(hibernateProperties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE)))
+                || hibernateProperties.containsKey(ConfigSettings.CACHE_MANAGER)) {
+            return;
+        }
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Un gestionnaire par unité de persistance : Hibernate le ferme à l'arrêt de la SessionFactory.
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("clinique-" + UUID.randomUUID()), CacheNiveau2Caffeine.class.getClassLoader());
+
+        hibernateProperties.forEach((cle, valeur) -> {
+            if (cle.startsWith(PREFIXE_TAILLE)) {
+                creer(cacheManager, cle.substring(PREFIXE_TAILLE.length()), OptionalLong.of(taille(valeur)));
+            }
+        });
+        String requetes = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+        if (cacheManager.getCache(requetes) == null) {
+            Object defaut = hibernateProperties.get(TAILLE_DEFAUT);
+            creer(cacheManager, requetes, OptionalLong.of(defaut == null ? TAILLE_PAR_DEFAUT : taille(defaut)));
+        }
+        creer(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, OptionalLong.empty());
+
+        hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+    }
+
+    private static void creer(CacheManager cacheManager, String region, OptionalLong taille) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(taille);
+        // Compteurs natifs de Caffeine (taille, évictions), exportés par CacheNiveau2Metrics.
+        configuration.setNativeStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+
+    private static long taille(Object valeur) {
+        return Long.parseLong(valeur.toString().trim());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.GestionClinique.configuration.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Exporte les statistiques des régions du cache de second niveau sous les noms de métriques de cache
+ * de Micrometer, étiquetés par région : {@code /actuator/metrics/cache.gets?tag=cache:reference.role}.
+ * Lectures et ajouts viennent des statistiques de Hibernate ({@code hibernate.generate_statistics}),
+ * taille et évictions, que Hibernate ne connaît pas, des compteurs du cache Caffeine de la région.
+ */
+@Component
+public class CacheNiveau2Metrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheNiveau2Metrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (!(sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory regions)) {
+            return;
+        }
+        Statistics statistics = sessionFactory.getStatistics();
+        for (String region : regions.getCacheManager().getCacheNames()) {
+            Tags tags = Tags.of("cache", region, "cache.manager", "hibernate");
+            compteur(registry, "cache.gets", statistics, region, CacheRegionStatistics::getHitCount, tags.and("result", "hit"));
+            compteur(registry, "cache.gets", statistics, region, CacheRegionStatistics::getMissCount, tags.and("result", "miss"));
+            compteur(registry, "cache.puts", statistics, region, CacheRegionStatistics::getPutCount, tags);
+
+            Cache<?, ?> caffeine = regions.getCacheManager().getCache(region).unwrap(Cache.class);
+            FunctionCounter.builder("cache.evictions", caffeine, cache -> cache.stats().evictionCount())
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("cache.size", caffeine, Cache::estimatedSize)
+                    .tags(tags)
+                    .description("Entrées présentes dans la région")
+                    .register(registry);
+        }
+    }
+
+    private static void compteur(MeterRegistry registry, String nom, Statistics statistics, String region,
+                                 ToLongFunction<CacheRegionStatistics> valeur, Tags tags) {
+        FunctionCounter.builder(nom, statistics, stats -> {
+                    CacheRegionStatistics regionStats = stats.getCacheRegionStatistics(region);
+                    return regionStats == null ? 0 : valeur.applyAsLong(regionStats);
+                })
+                .tags(tags)
+                .register(registry);
+    }
+}
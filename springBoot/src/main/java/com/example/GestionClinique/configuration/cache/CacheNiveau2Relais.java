@@ -0,0 +1,33 @@
+package com.example.GestionClinique.configuration.cache;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Les régions de {@link CacheNiveau2Caffeine} sont propres à chaque nœud et ne voient pas les écritures
+ * des autres : en mode {@code websocket.broker=relais}, le cache de second niveau et le cache de
+ * requêtes sont désactivés, quelle que soit la configuration. Appliqué en premier pour qu'aucun
+ * gestionnaire de caches ne soit créé.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker", havingValue = "relais")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CacheNiveau2Relais implements HibernatePropertiesCustomizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheNiveau2Relais.class);
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        logger.info("Mode relais : cache de second niveau et cache de requêtes désactivés");
+        hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, false);
+    }
+}
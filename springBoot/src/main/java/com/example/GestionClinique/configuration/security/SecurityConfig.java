@@ -70,7 +70,6 @@ public class SecurityConfig {
                         .requestMatchers("/Api/V1/clinique/login").permitAll()
                         .requestMatchers("/Api/V1/clinique/historiqueActions").permitAll()
                         .requestMatchers("/Api/V1/clinique/historiqueActions/**").permitAll()
-                        .requestMatchers("/Api/V1/clinique/rendezvous/cancel-old").permitAll()
                         .requestMatchers("/Api/V1/clinique/ws/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers(HttpMethod.POST, "/Api/V1/clinique/utilisateurs").hasRole("ADMIN")
@@ -1,7 +1,8 @@
 package com.example.GestionClinique.configuration.security.jwtConfig;
 
-import com.example.GestionClinique.model.entity.Utilisateur;
-import com.example.GestionClinique.service.UtilisateurService;
+import com.example.GestionClinique.service.authService.CachePrincipaux;
+import com.example.GestionClinique.service.authService.MonUserDetailsCustom;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,7 +10,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,21 +20,23 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
-import static com.example.GestionClinique.model.entity.enumElem.StatusConnect.DECONNECTE;
-
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
-    private final @Lazy UtilisateurService utilisateurService;
+    private final CachePrincipaux cachePrincipaux;
+    private final SuiviPresence suiviPresence;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
                                    @Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService,
-                                   @Lazy UtilisateurService utilisateurService) {
+                                   CachePrincipaux cachePrincipaux,
+                                   SuiviPresence suiviPresence) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
-        this.utilisateurService = utilisateurService;
+        this.cachePrincipaux = cachePrincipaux;
+        this.suiviPresence = suiviPresence;
     }
 
     @Override
@@ -59,31 +61,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            userEmail = jwtUtil.extractUsername(jwt);
+            // Un seul parse par jeton : les appels suivants sont servis par le cache de JwtUtil.
+            JwtUtil.JetonVerifie jeton = jwtUtil.verifier(jwt);
+            userEmail = jeton.username();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = cachePrincipaux.obtenir(userEmail, userDetailsService::loadUserByUsername);
 
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userEmail.equals(userDetails.getUsername())) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails, null, userDetails.getAuthorities()
                             );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authToken.setDetails(detailsSource.buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    if (userDetails instanceof MonUserDetailsCustom principal) {
+                        suiviPresence.activite(principal.getId());
+                    }
                 }
             }
         } catch (ExpiredJwtException e) {
+            // Pas d'écriture DECONNECTE ici : SuiviPresence déconnecte l'utilisateur une fois inactif.
             System.err.println("JWT expiré : " + e.getMessage());
 
-            userEmail = e.getClaims().getSubject();
-            if (userEmail != null) {
-                Utilisateur user = utilisateurService.findUtilisateurByEmail(userEmail);
-                if (user != null) {
-                    utilisateurService.updateUserConnectStatus(user.getId(), DECONNECTE);
-                }
-            }
-
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("JWT expiré ou invalide : " + e.getMessage());
             return;
@@ -1,18 +1,25 @@
 package com.example.GestionClinique.configuration.security.jwtConfig;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
@@ -20,16 +27,83 @@ public class JwtUtil {
 
     private String secret ="PeO2546SF3Sfs5fs3bds3MH2SFsdfDS5s";
     private long expiration = 9000000;
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    /**
+     * Jetons déjà vérifiés, indexés par l'empreinte SHA-256 du jeton (le jeton brut n'est pas conservé).
+     * Une entrée n'est servie que jusqu'à l'expiration du jeton ; au-delà le jeton est re-parsé
+     * pour que l'{@link io.jsonwebtoken.ExpiredJwtException} remonte comme avant.
+     */
+    private final Map<String, JetonVerifie> jetonsVerifies = new ConcurrentHashMap<>();
+    private final int maxJetons;
+
+    public JwtUtil(@Value("${jwt.cache.max-entries:10000}") int maxJetons) {
+        this.maxJetons = maxJetons;
+    }
+
+    public record JetonVerifie(String username, Date expiration) {
+
+        public boolean estExpire() {
+            return expiration.getTime() <= System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Vérifie signature et expiration en un seul parse, puis sert le résultat depuis le cache
+     * tant que le jeton n'a pas expiré.
+     */
+    public JetonVerifie verifier(String token) {
+        String empreinte = empreinte(token);
+        JetonVerifie jeton = jetonsVerifies.get(empreinte);
+        if (jeton != null && !jeton.estExpire()) {
+            return jeton;
+        }
+        if (jeton != null) {
+            jetonsVerifies.remove(empreinte);
+        }
+
+        Claims claims = extractAllClaims(token);
+        jeton = new JetonVerifie(claims.getSubject(), claims.getExpiration());
+        if (jeton.username() != null && jeton.expiration() != null) {
+            if (jetonsVerifies.size() >= maxJetons) {
+                purgerJetonsExpires();
+            }
+            if (jetonsVerifies.size() < maxJetons) {
+                jetonsVerifies.put(empreinte, jeton);
+            }
+        }
+        return jeton;
+    }
+
+    public void oublier(String token) {
+        jetonsVerifies.remove(empreinte(token));
+    }
+
+    public int getNombreJetonsEnCache() {
+        return jetonsVerifies.size();
+    }
+
+    private void purgerJetonsExpires() {
+        jetonsVerifies.values().removeIf(JetonVerifie::estExpire);
+    }
+
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verifier(token).username();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verifier(token).expiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -38,15 +112,11 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     Boolean isTokenExpired(String token, UserDetails userDetails) {
-        return extractExpiration(token).before(new Date());
+        return verifier(token).estExpire();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -60,12 +130,12 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token, userDetails));
+        final JetonVerifie jeton = verifier(token);
+        return (jeton.username().equals(userDetails.getUsername()) && !jeton.estExpire());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.example.GestionClinique.configuration.utils;
+
+import com.example.GestionClinique.repository.projection.VersionLigne;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+/**
+ * GET conditionnel à partir d'une {@link VersionLigne} : la version est lue avant la réponse et,
+ * si le client la détient déjà (If-None-Match, à défaut If-Modified-Since), la réponse est un 304
+ * sans que la réponse ne soit construite, donc sans charger ni mapper les entités.
+ * <p>
+ * Les ETags sont faibles : la version décrit les données, pas les octets du JSON. Last-Modified
+ * n'est envoyé que pour une entité seule ; pour une liste, la date la plus récente ne change pas
+ * quand une ligne est supprimée et seul l'ETag, qui contient le nombre de lignes, est fiable.
+ * La version étant lue avant les données, une écriture concurrente donne au plus une réponse
+ * récente étiquetée d'une version plus ancienne, que le client retéléchargera.
+ */
+public final class ReponseConditionnelle {
+
+    private static final CacheControl REVALIDER = CacheControl.noCache().cachePrivate();
+
+    private ReponseConditionnelle() {
+    }
+
+    public static <T> ResponseEntity<T> entite(WebRequest requete, VersionLigne version, Supplier<ResponseEntity<T>> reponse) {
+        if (version.nombre() == 0) {
+            return reponse.get();
+        }
+        Instant derniereModification = version.derniereModification() == null ? null
+                : version.derniereModification().atZone(ZoneId.systemDefault()).toInstant();
+        return repondre(requete, etiquette(version), derniereModification, reponse);
+    }
+
+    public static <T> ResponseEntity<T> collection(WebRequest requete, VersionLigne version, Supplier<ResponseEntity<T>> reponse) {
+        return repondre(requete, etiquette(version), null, reponse);
+    }
+
+    /** Version calculée par l'appelant, par exemple l'empreinte du dossier d'un patient. */
+    public static <T> ResponseEntity<T> version(WebRequest requete, String version, Supplier<ResponseEntity<T>> reponse) {
+        return repondre(requete, version, null, reponse);
+    }
+
+    private static String etiquette(VersionLigne version) {
+        long micros = version.derniereModification() == null ? 0
+                : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), version.derniereModification());
+        return version.nombre() + "." + version.jointes() + "." + Long.toHexString(micros);
+    }
+
+    private static <T> ResponseEntity<T> repondre(WebRequest requete, String version, Instant derniereModification,
+                                                  Supplier<ResponseEntity<T>> reponse) {
+        String etag = "W/\"" + version + "\"";
+        HttpHeaders entetes = new HttpHeaders();
+        entetes.setETag(etag);
+        entetes.setCacheControl(REVALIDER);
+        if (derniereModification != null) {
+            entetes.setLastModified(derniereModification);
+        }
+        String ifNoneMatch = requete.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean inchange = ifNoneMatch != null
+                ? correspond(ifNoneMatch, version)
+                : nonModifieDepuis(requete.getHeader(HttpHeaders.IF_MODIFIED_SINCE), derniereModification);
+        if (inchange) {
+            return new ResponseEntity<>(entetes, HttpStatus.NOT_MODIFIED);
+        }
+        ResponseEntity<T> resultat = reponse.get();
+        if (!resultat.getStatusCode().is2xxSuccessful()) {
+            return resultat;
+        }
+        entetes.addAll(resultat.getHeaders());
+        return new ResponseEntity<>(resultat.getBody(), entetes, resultat.getStatusCode());
+    }
+
+    // If-None-Match contient une liste d'ETags, comparés en faible : le préfixe W/ est ignoré.
+    private static boolean correspond(String ifNoneMatch, String version) {
+        String attendu = "\"" + version + "\"";
+        for (String etag : ifNoneMatch.split(",")) {
+            String valeur = etag.trim();
+            if (valeur.startsWith("W/")) {
+                valeur = valeur.substring(2);
+            }
+            if (valeur.equals(attendu)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean nonModifieDepuis(String ifModifiedSince, Instant derniereModification) {
+        if (ifModifiedSince == null || derniereModification == null) {
+            return false;
+        }
+        try {
+            Instant depuis = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return !derniereModification.truncatedTo(ChronoUnit.SECONDS).isAfter(depuis);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.GestionClinique.configuration.webocket;
+
+import com.example.GestionClinique.service.authService.MonUserDetailsCustom;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
+import lombok.AllArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+/**
+ * Ouverture et fermeture des sessions STOMP authentifiées par {@link StompAuthInterceptor}.
+ */
+@Component
+@AllArgsConstructor
+public class PresenceWebSocketListener {
+
+    private final SuiviPresence suiviPresence;
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        if (event.getUser() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof MonUserDetailsCustom principal) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+            suiviPresence.ouvertureSession(sessionId, principal.getId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        suiviPresence.fermetureSession(event.getSessionId());
+    }
+}
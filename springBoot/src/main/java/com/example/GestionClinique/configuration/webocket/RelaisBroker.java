@@ -0,0 +1,150 @@
+package com.example.GestionClinique.configuration.webocket;
+
+import com.example.GestionClinique.service.relaisService.RelaisTransport;
+import com.example.GestionClinique.service.relaisService.TrameRelais;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Mode {@code websocket.broker=relais} : plusieurs instances derrière le répartiteur partagent leurs
+ * messages sans broker externe. Chaque instance garde son broker simple et ses abonnements ; les
+ * messages envoyés à une destination du broker ({@code /topic}, {@code /queue}, {@code /user/{nom}})
+ * sont en plus publiés sur le {@link RelaisTransport}, et ceux des autres instances sont réinjectés
+ * dans le {@code brokerChannel} local. Une destination {@code /user/...} est donc résolue sur chaque
+ * instance avec ses propres sessions.
+ * <p>
+ * Les messages déjà résolus vers une session ({@code /queue/...-user{session}}) et ceux reçus du
+ * relais ne sont pas republiés.
+ * <p>
+ * Le même transport porte les événements d'invalidation des index tenus en mémoire par chaque
+ * nœud : leurs trames ont une destination en {@link #PREFIXE_EVENEMENT}, ne passent jamais par le
+ * broker et sont remises au récepteur enregistré par {@link #surEvenement(Consumer)}.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker", havingValue = "relais")
+public class RelaisBroker implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelaisBroker.class);
+    static final String ENTETE_ORIGINE = "relaisOrigine";
+    public static final String PREFIXE_EVENEMENT = "evenement:";
+
+    private final RelaisTransport transport;
+    private final MessageChannel brokerChannel;
+    private final String noeud;
+    private volatile Consumer<TrameRelais> evenements = trame -> { };
+
+    private final Counter publiees;
+    private final Counter recues;
+    private final Counter echecs;
+
+    public RelaisBroker(RelaisTransport transport,
+                        @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                        MeterRegistry meterRegistry,
+                        @Value("${websocket.relais.noeud:}") String noeud) {
+        this.transport = transport;
+        this.brokerChannel = brokerChannel;
+        this.noeud = noeud.isBlank() ? UUID.randomUUID().toString() : noeud;
+
+        this.publiees = Counter.builder("websocket.relais.publiees")
+                .register(meterRegistry);
+        this.recues = Counter.builder("websocket.relais.recues")
+                .register(meterRegistry);
+        this.echecs = Counter.builder("websocket.relais.echecs")
+                .description("Messages non publiés sur le relais (transport indisponible)")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        transport.demarrer(noeud, this::recevoir);
+        logger.info("Relais WebSocket démarré pour le nœud {}", noeud);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || destination == null
+                || headers.containsKey(ENTETE_ORIGINE)
+                || headers.containsKey(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION)
+                || !(destination.startsWith("/topic/") || destination.startsWith("/queue/") || destination.startsWith("/user/"))) {
+            return message;
+        }
+        byte[] contenu = switch (message.getPayload()) {
+            case byte[] octets -> octets;
+            case String texte -> texte.getBytes(StandardCharsets.UTF_8);
+            default -> null;
+        };
+        if (contenu == null) {
+            return message;
+        }
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        try {
+            transport.publier(new TrameRelais(noeud, destination, contentType != null ? contentType.toString() : null, contenu));
+            publiees.increment();
+        } catch (RuntimeException e) {
+            echecs.increment();
+            logger.warn("Publication sur le relais de {} impossible, seuls les abonnés locaux le recevront : {}",
+                    destination, e.getMessage());
+        }
+        return message;
+    }
+
+    /** Publie un événement sérialisé pour les autres nœuds ; une erreur du transport est propagée. */
+    public void publierEvenement(String type, byte[] contenu) {
+        transport.publier(new TrameRelais(noeud, PREFIXE_EVENEMENT + type, "application/json", contenu));
+        publiees.increment();
+    }
+
+    public void surEvenement(Consumer<TrameRelais> reception) {
+        this.evenements = reception;
+    }
+
+    void recevoir(TrameRelais trame) {
+        if (trame.destination().startsWith(PREFIXE_EVENEMENT)) {
+            evenements.accept(trame);
+            recues.increment();
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(trame.destination());
+        if (trame.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(trame.contentType()));
+        }
+        accessor.setHeader(ENTETE_ORIGINE, trame.noeud());
+        brokerChannel.send(MessageBuilder.createMessage(trame.contenu(), accessor.getMessageHeaders()));
+        recues.increment();
+    }
+
+    public String getNoeud() {
+        return noeud;
+    }
+
+    @PreDestroy
+    public void arreter() {
+        transport.arreter();
+    }
+}
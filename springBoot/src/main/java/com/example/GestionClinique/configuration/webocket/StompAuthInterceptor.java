@@ -0,0 +1,76 @@
+package com.example.GestionClinique.configuration.webocket;
+
+import com.example.GestionClinique.configuration.security.jwtConfig.JwtUtil;
+import com.example.GestionClinique.service.authService.CachePrincipaux;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentifie la session STOMP à partir de l'en-tête {@code Authorization: Bearer} du frame CONNECT
+ * et relaie les heartbeats des clients au suivi de présence. Une session sans jeton valide reste
+ * anonyme : elle n'est pas comptée dans la présence et ne reçoit pas les files {@code /user/...}.
+ */
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthInterceptor.class);
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final CachePrincipaux cachePrincipaux;
+    private final SuiviPresence suiviPresence;
+
+    public StompAuthInterceptor(JwtUtil jwtUtil,
+                                @Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService,
+                                CachePrincipaux cachePrincipaux,
+                                SuiviPresence suiviPresence) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.cachePrincipaux = cachePrincipaux;
+        this.suiviPresence = suiviPresence;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageType.HEARTBEAT.equals(SimpMessageHeaderAccessor.getMessageType(message.getHeaders()))) {
+            suiviPresence.heartbeat(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            return message;
+        }
+
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authentifier(accessor);
+        }
+        return message;
+    }
+
+    private void authentifier(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return;
+        }
+        try {
+            JwtUtil.JetonVerifie jeton = jwtUtil.verifier(authHeader.substring(7).trim());
+            UserDetails userDetails = cachePrincipaux.obtenir(jeton.username(), userDetailsService::loadUserByUsername);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        } catch (JwtException | UsernameNotFoundException | IllegalArgumentException e) {
+            logger.debug("Session STOMP {} non authentifiée : {}", accessor.getSessionId(), e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.GestionClinique.configuration.webocket;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -9,10 +14,37 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final StompAuthInterceptor stompAuthInterceptor;
+    private final ObjectProvider<RelaisBroker> relaisBroker;
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(StompAuthInterceptor stompAuthInterceptor, ObjectProvider<RelaisBroker> relaisBroker) {
+        this.stompAuthInterceptor = stompAuthInterceptor;
+        this.relaisBroker = relaisBroker;
+    }
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        // Heartbeats dans les deux sens (10 s, valeur par défaut de @stomp/stompjs) : ils alimentent
+        // la présence et permettent au broker de fermer les sessions dont le client a disparu.
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{10000, 10000})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/app");
+        // websocket.broker=relais : les messages envoyés au broker sont aussi partagés avec les autres instances.
+        relaisBroker.ifAvailable(relais -> config.configureBrokerChannel().interceptors(relais));
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthInterceptor);
+        relaisBroker.ifAvailable(registration::interceptors);
     }
 
     @Override
@@ -22,4 +54,3 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 }
-
@@ -0,0 +1,84 @@
+package com.example.GestionClinique.controller;
+
+import com.example.GestionClinique.service.archivageService.ArchivageService;
+import com.example.GestionClinique.service.archivageService.ArchiveInfo;
+import com.example.GestionClinique.service.archivageService.PartitionInfo;
+import com.example.GestionClinique.service.archivageService.TableArchivee;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.GestionClinique.configuration.utils.Constants.API_NAME;
+
+@Tag(name = "ARCHIVAGE", description = "API d'administration des partitions et archives de l'historique et des notifications")
+@RestController
+@AllArgsConstructor
+@RequestMapping(API_NAME + "/archivage")
+public class ArchivageController {
+
+    private final ArchivageService archivageService;
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping(path = "/partitions", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les partitions",
+            description = "Partitions mensuelles de historique_action et notification avec leur nombre de lignes (estimé) et leur taille sur disque")
+    public ResponseEntity<List<PartitionInfo>> getPartitions() {
+        return ResponseEntity.ok(archivageService.partitions());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping(path = "/archives", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les archives",
+            description = "Fichiers NDJSON compressés des périodes archivées, en indiquant celles actuellement restaurées")
+    public ResponseEntity<List<ArchiveInfo>> getArchives() {
+        return ResponseEntity.ok(archivageService.archives());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping(path = "/execution", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lancer l'archivage",
+            description = "Exécute immédiatement le traitement nocturne et renvoie le nombre de lignes archivées par table")
+    public ResponseEntity<Map<String, Long>> executerArchivage() {
+        return ResponseEntity.ok(archivageService.executer());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping(path = "/{table}/partitionnement", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Partitionner une table",
+            description = "Convertit la table en table partitionnée par mois (PostgreSQL, archivage.partitionnement=true), " +
+                    "en une seule transaction sous verrou exclusif ; sans effet si elle l'est déjà")
+    public ResponseEntity<Map<String, Object>> partitionner(
+            @Parameter(description = "Table archivée", example = "historique_action") @PathVariable String table) {
+        TableArchivee tableArchivee = TableArchivee.depuisNom(table);
+        boolean convertie = archivageService.partitionner(tableArchivee);
+        return ResponseEntity.ok(Map.of("table", tableArchivee.nomTable(), "convertie", convertie));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping(path = "/{table}/{periode}/restauration", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Restaurer une période archivée",
+            description = "Réinsère en base les lignes d'une archive mensuelle ; la période ne doit plus contenir de lignes")
+    public ResponseEntity<Map<String, Object>> restaurer(
+            @Parameter(description = "Table archivée", example = "historique_action") @PathVariable String table,
+            @Parameter(description = "Mois au format YYYY-MM", example = "2023-01") @PathVariable String periode) {
+        TableArchivee tableArchivee = TableArchivee.depuisNom(table);
+        YearMonth mois;
+        try {
+            mois = YearMonth.parse(periode);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Période invalide, format attendu YYYY-MM : " + periode);
+        }
+        long lignes = archivageService.restaurer(tableArchivee, mois);
+        return ResponseEntity.ok(Map.of("table", tableArchivee.nomTable(), "periode", mois.toString(), "lignes", lignes));
+    }
+}
@@ -3,7 +3,9 @@ package com.example.GestionClinique.controller;
 import com.example.GestionClinique.configuration.security.jwtConfig.JwtUtil;
 import com.example.GestionClinique.dto.dtoConnexion.LoginRequest;
 import com.example.GestionClinique.dto.dtoConnexion.LoginResponse;
+import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
 import com.example.GestionClinique.service.HistoriqueActionService;
+import com.example.GestionClinique.service.UtilisateurService;
 import com.example.GestionClinique.service.authService.MonUserDetailsCustom;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -31,6 +33,7 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final HistoriqueActionService historiqueActionService;
+    private final UtilisateurService utilisateurService;
 
     @PostMapping(path = API_NAME
             + "/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -54,6 +57,7 @@ public class AuthController {
                     ? "/api/utilisateurs/" + userDetails.getId() + "/photo"
                     : null;
 
+            utilisateurService.updateUserConnectStatus(userDetails.getId(), StatusConnect.CONNECTE);
             historiqueActionService.enregistrerAction(
                     "Connexion avec le nom d'utilisateur : " + loginRequest.getUsername(),
                     userDetails.getId());
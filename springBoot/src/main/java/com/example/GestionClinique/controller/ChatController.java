@@ -4,8 +4,11 @@ import com.example.GestionClinique.dto.RequestDto.messageRequestDto.Conversation
 import com.example.GestionClinique.dto.RequestDto.messageRequestDto.GroupeRequestDto;
 import com.example.GestionClinique.dto.RequestDto.messageRequestDto.MessageRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.ConversationResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.GroupeResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.MessageResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.ResumeConversationResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.SynchronisationMessagesResponseDto;
 import com.example.GestionClinique.mapper.ConversationMapper;
 import com.example.GestionClinique.mapper.GroupeMapper;
 import com.example.GestionClinique.mapper.MessageMapper;
@@ -13,7 +16,11 @@ import com.example.GestionClinique.model.entity.Conversation;
 import com.example.GestionClinique.model.entity.Groupe;
 import com.example.GestionClinique.model.entity.Message;
 import com.example.GestionClinique.service.authService.MonUserDetailsCustom;
+import com.example.GestionClinique.service.chatService.SynchronisationMessages;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import com.example.GestionClinique.service.serviceImpl.ChatService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -88,6 +95,52 @@ public class ChatController {
         return ResponseEntity.ok(dtos);
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
+    @GetMapping("/conversations/{id}/messages/page")
+    @Operation(summary = "Historique des messages par curseur",
+            description = "Sans curseur ou avec avant : du plus récent au plus ancien ; avec apres : messages suivant le curseur, du plus ancien au plus récent")
+    public ResponseEntity<PageResponseDto<MessageResponseDto>> getMessagesPage(
+            @PathVariable("id") Long conversationId,
+            @Parameter(description = "Messages antérieurs à ce curseur (curseurSuivant d'une page précédente)")
+            @RequestParam(required = false) String avant,
+            @Parameter(description = "Messages postérieurs à ce curseur")
+            @RequestParam(required = false) String apres,
+            @Parameter(description = "Nombre de messages par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille) {
+        Long userId = getAuthenticatedUserId();
+        if (!chatService.isUserInConversation(conversationId, userId)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        PageCurseur<Message> page = chatService.getMessagesPage(conversationId, avant, apres, taille);
+        return ResponseEntity.ok(new PageResponseDto<>(messageMapper.toDtoList(page.contenu()), page.curseurSuivant(), null));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
+    @GetMapping("/conversations/{id}/messages/sync")
+    @Operation(summary = "Synchroniser une conversation",
+            description = "Messages envoyés, modifiés et supprimés depuis le jeton ; sans jeton, renvoie seulement la position actuelle. Rappeler avec le nouveau jeton tant que complet vaut false")
+    public ResponseEntity<SynchronisationMessagesResponseDto> synchroniser(
+            @PathVariable("id") Long conversationId,
+            @Parameter(description = "Jeton renvoyé par la synchronisation précédente")
+            @RequestParam(required = false) String depuis) {
+        Long userId = getAuthenticatedUserId();
+        if (!chatService.isUserInConversation(conversationId, userId)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        SynchronisationMessages sync = chatService.synchroniser(conversationId, depuis);
+        return ResponseEntity.ok(new SynchronisationMessagesResponseDto(
+                messageMapper.toDtoList(sync.nouveaux()), messageMapper.toDtoList(sync.modifies()),
+                sync.supprimes(), sync.jeton(), sync.complet()));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
+    @GetMapping("/conversations/resumes")
+    @Operation(summary = "Résumé des conversations",
+            description = "Nombre de messages non lus et dernier message de chaque conversation de l'utilisateur connecté")
+    public ResponseEntity<List<ResumeConversationResponseDto>> getResumesConversations() {
+        return ResponseEntity.ok(conversationMapper.fromResumes(chatService.getResumesConversations(getAuthenticatedUserId())));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
     @GetMapping("/conversations")
     public ResponseEntity<List<ConversationResponseDto>> getUserConversations(Authentication authentication) {
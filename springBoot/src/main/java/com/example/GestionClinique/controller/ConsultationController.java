@@ -1,5 +1,7 @@
 package com.example.GestionClinique.controller;
 
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
 import com.example.GestionClinique.service.authService.MonUserDetailsCustom;
 import com.example.GestionClinique.dto.RequestDto.ConsultationRequestDto;
 import com.example.GestionClinique.dto.RequestDto.PrescriptionRequestDto;
@@ -12,11 +14,14 @@ import com.example.GestionClinique.mapper.PrescriptionMapper;
 import com.example.GestionClinique.mapper.RendezVousMapper;
 import com.example.GestionClinique.model.entity.*;
 import com.example.GestionClinique.service.ConsultationService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +30,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static com.example.GestionClinique.configuration.utils.Constants.API_NAME;
@@ -109,11 +115,32 @@ public class ConsultationController {
     @Operation(summary = "Lister toutes les consultations",
             description = "Récupère la liste complète des consultations enregistrées")
     public ResponseEntity<List<ConsultationResponseDto>> findAll() {
-        List<Consultation> consultations = consultationService.findAll();
+        List<ConsultationLigne> consultations = consultationService.findAll();
         if (consultations.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(consultationMapper.toDtoList(consultations));
+        return ResponseEntity.ok(consultationMapper.fromLignes(consultations));
+    }
+
+    @PreAuthorize("hasAnyRole('MEDECIN')")
+    @GetMapping(path = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les consultations page par page",
+            description = "Pagination par curseur, des plus récentes aux plus anciennes, avec filtres optionnels par date et médecin")
+    public ResponseEntity<PageResponseDto<ConsultationResponseDto>> findPage(
+            @Parameter(description = "Consultations à partir de ce jour inclus (YYYY-MM-DD)", example = "2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Consultations jusqu'à ce jour inclus (YYYY-MM-DD)", example = "2025-07-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au,
+            @Parameter(description = "ID du médecin", example = "2")
+            @RequestParam(required = false) Long medecinId,
+            @Parameter(description = "Jeton renvoyé par la page précédente (curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre d'éléments par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille,
+            @Parameter(description = "Calculer le nombre total d'éléments correspondant aux filtres")
+            @RequestParam(defaultValue = "false") boolean avecTotal) {
+        PageCurseur<ConsultationLigne> page = consultationService.findPage(du, au, medecinId, new DemandePage(curseur, taille, avecTotal));
+        return ResponseEntity.ok(new PageResponseDto<>(consultationMapper.fromLignes(page.contenu()), page.curseurSuivant(), page.total()));
     }
 
     @PreAuthorize("hasAnyRole('MEDECIN')")
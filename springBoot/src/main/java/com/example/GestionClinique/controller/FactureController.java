@@ -2,6 +2,7 @@ package com.example.GestionClinique.controller;
 
 import com.example.GestionClinique.dto.RequestDto.FactureRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.FactureResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.PatientResponseDto;
 import com.example.GestionClinique.mapper.FactureMapper;
 import com.example.GestionClinique.mapper.PatientMapper;
@@ -9,7 +10,10 @@ import com.example.GestionClinique.model.entity.Facture;
 import com.example.GestionClinique.model.entity.Patient;
 import com.example.GestionClinique.model.entity.enumElem.ModePaiement;
 import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
+import com.example.GestionClinique.repository.projection.FactureLigne;
 import com.example.GestionClinique.service.FactureService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,11 +22,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static com.example.GestionClinique.configuration.utils.Constants.API_NAME;
@@ -42,11 +48,34 @@ public class FactureController {
     @Operation(summary = "afficher les factures impayées",
             description = "Récupère les factures si impayées.")
     public ResponseEntity<List<FactureResponseDto>> findAllFacturesIMPAYE() {
-        List<Facture> factures = factureService.findAllFacturesIMPAYE();
+        List<FactureLigne> factures = factureService.findAllFacturesIMPAYE();
         if (factures.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(factureMapper.toDtoList(factures));
+        return ResponseEntity.ok(factureMapper.fromLignes(factures));
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE')")
+    @GetMapping(path = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les factures page par page",
+            description = "Pagination par curseur, des plus récentes aux plus anciennes, avec filtres optionnels par date d'émission, statut de paiement et médecin du rendez-vous")
+    public ResponseEntity<PageResponseDto<FactureResponseDto>> findFacturesPage(
+            @Parameter(description = "Factures émises à partir de ce jour inclus (YYYY-MM-DD)", example = "2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Factures émises jusqu'à ce jour inclus (YYYY-MM-DD)", example = "2025-07-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au,
+            @Parameter(description = "Statut de paiement", example = "IMPAYEE")
+            @RequestParam(required = false) StatutPaiement statut,
+            @Parameter(description = "ID du médecin du rendez-vous facturé", example = "2")
+            @RequestParam(required = false) Long medecinId,
+            @Parameter(description = "Jeton renvoyé par la page précédente (curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre d'éléments par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille,
+            @Parameter(description = "Calculer le nombre total d'éléments correspondant aux filtres")
+            @RequestParam(defaultValue = "false") boolean avecTotal) {
+        PageCurseur<FactureLigne> page = factureService.findFacturesPage(du, au, statut, medecinId, new DemandePage(curseur, taille, avecTotal));
+        return ResponseEntity.ok(new PageResponseDto<>(factureMapper.fromLignes(page.contenu()), page.curseurSuivant(), page.total()));
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE')")
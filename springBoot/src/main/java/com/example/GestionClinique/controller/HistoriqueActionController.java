@@ -1,12 +1,17 @@
 package com.example.GestionClinique.controller;
 
 import com.example.GestionClinique.dto.ResponseDto.HistoriqueActionResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
 import com.example.GestionClinique.mapper.HistoriqueActionMapper;
 import com.example.GestionClinique.model.entity.HistoriqueAction;
+import com.example.GestionClinique.repository.projection.HistoriqueActionLigne;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -40,4 +45,27 @@ public class HistoriqueActionController {
         }
         return ResponseEntity.ok(historiqueActionMapper.toDtoList(actions));
     }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping(path = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Rechercher dans l'historique des actions page par page",
+            description = "Pagination par curseur, des plus récentes aux plus anciennes, avec filtres optionnels par période, utilisateur et mot-clé dans la description")
+    public ResponseEntity<PageResponseDto<HistoriqueActionResponseDto>> findHistoriquePage(
+            @Parameter(description = "Actions enregistrées à partir de ce jour inclus (YYYY-MM-DD)", example = "2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Actions enregistrées jusqu'à ce jour inclus (YYYY-MM-DD)", example = "2025-07-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au,
+            @Parameter(description = "ID de l'utilisateur auteur des actions", example = "1")
+            @RequestParam(required = false) Long utilisateurId,
+            @Parameter(description = "Mots recherchés dans la description de l'action", example = "facture")
+            @RequestParam(required = false) String motCle,
+            @Parameter(description = "Jeton renvoyé par la page précédente (curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre d'éléments par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille,
+            @Parameter(description = "Calculer le nombre total d'éléments correspondant aux filtres")
+            @RequestParam(defaultValue = "false") boolean avecTotal) {
+        PageCurseur<HistoriqueActionLigne> page = historiqueActionService.findHistoriquePage(du, au, utilisateurId, motCle, new DemandePage(curseur, taille, avecTotal));
+        return ResponseEntity.ok(new PageResponseDto<>(historiqueActionMapper.fromLignes(page.contenu()), page.curseurSuivant(), page.total()));
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.GestionClinique.controller;
 
+import com.example.GestionClinique.configuration.utils.ReponseConditionnelle;
 import com.example.GestionClinique.dto.ResponseDto.NotificationResponseDto;
 import com.example.GestionClinique.mapper.NotificationMapper;
 import com.example.GestionClinique.model.entity.Utilisateur;
@@ -11,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,25 +31,30 @@ public class NotificationController {
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
     @Operation(summary = "Récupérer toutes les notifications d'un utilisateur")
     @GetMapping("/utilisateur/{userId}")
-    public ResponseEntity<List<NotificationResponseDto>> getAllNotifications(@PathVariable Long userId) {
-        Utilisateur utilisateur = utilisateurRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-        List<NotificationResponseDto> dtos = notificationMapper.toDtos(
-                notificationService.getNotificationsByUtilisateur(utilisateur)
-        );
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<NotificationResponseDto>> getAllNotifications(@PathVariable Long userId, WebRequest requete) {
+        return ReponseConditionnelle.collection(requete, notificationService.findVersionByUtilisateurId(userId), () -> {
+            Utilisateur utilisateur = utilisateurRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+            List<NotificationResponseDto> dtos = notificationMapper.toDtos(
+                    notificationService.getNotificationsByUtilisateur(utilisateur)
+            );
+            return ResponseEntity.ok(dtos);
+        });
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
     @Operation(summary = "Récupérer les notifications non lues d'un utilisateur")
     @GetMapping("/utilisateur/{userId}/non-lues")
-    public ResponseEntity<List<NotificationResponseDto>> getUnreadNotifications(@PathVariable Long userId) {
-        Utilisateur utilisateur = utilisateurRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-        List<NotificationResponseDto> dtos = notificationMapper.toDtos(
-                notificationService.getUnreadNotifications(utilisateur)
-        );
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<NotificationResponseDto>> getUnreadNotifications(@PathVariable Long userId, WebRequest requete) {
+        // Une notification lue change de date de modification : la version de toutes suffit.
+        return ReponseConditionnelle.collection(requete, notificationService.findVersionByUtilisateurId(userId), () -> {
+            Utilisateur utilisateur = utilisateurRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+            List<NotificationResponseDto> dtos = notificationMapper.toDtos(
+                    notificationService.getUnreadNotifications(utilisateur)
+            );
+            return ResponseEntity.ok(dtos);
+        });
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
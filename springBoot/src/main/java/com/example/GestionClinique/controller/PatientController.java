@@ -1,23 +1,38 @@
 package com.example.GestionClinique.controller;
 
 import com.example.GestionClinique.configuration.utils.Constants;
+import com.example.GestionClinique.configuration.utils.ReponseConditionnelle;
 import com.example.GestionClinique.dto.RequestDto.PatientRequestDto;
+import com.example.GestionClinique.dto.ResponseDto.DossierPatientResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.PatientResponseDto;
+import com.example.GestionClinique.mapper.ConsultationMapper;
+import com.example.GestionClinique.mapper.DossierMedicalMapper;
+import com.example.GestionClinique.mapper.FactureMapper;
 import com.example.GestionClinique.mapper.PatientMapper;
 import com.example.GestionClinique.mapper.RendezVousMapper;
 import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
 import com.example.GestionClinique.service.PatientService;
+import com.example.GestionClinique.service.dossierService.DossierPatient;
+import com.example.GestionClinique.service.dossierService.DossierPatientService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.rechercheService.RechercheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "Gestion des Patients", description = "API pour la gestion des patients de la clinique")
@@ -29,6 +44,11 @@ public class PatientController {
     private final PatientService patientService;
     private final PatientMapper patientMapper;
     private final RendezVousMapper rendezVousMapper;
+    private final RechercheService rechercheService;
+    private final DossierPatientService dossierPatientService;
+    private final DossierMedicalMapper dossierMedicalMapper;
+    private final ConsultationMapper consultationMapper;
+    private final FactureMapper factureMapper;
 
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN')")
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -63,11 +83,60 @@ public class PatientController {
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Lister tous les patients",
             description = "Récupère la liste complète des patients enregistrés dans le système")
-    public ResponseEntity<List<PatientResponseDto>> findAllPatients() {
-        List<Patient> patients = patientService.findAllPatients();
-        if (patients.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
+    public ResponseEntity<List<PatientResponseDto>> findAllPatients(WebRequest requete) {
+        return ReponseConditionnelle.collection(requete, patientService.findVersion(), () -> {
+            List<Patient> patients = patientService.findAllPatients();
+            if (patients.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(patientMapper.toDtoList(patients));
+        });
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
+    @GetMapping(path = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les patients page par page",
+            description = "Pagination par curseur, des plus récemment enregistrés aux plus anciens, avec filtre optionnel sur la date d'enregistrement")
+    public ResponseEntity<PageResponseDto<PatientResponseDto>> findPatientsPage(
+            @Parameter(description = "Patients enregistrés à partir de ce jour inclus (YYYY-MM-DD)", example = "2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Patients enregistrés jusqu'à ce jour inclus (YYYY-MM-DD)", example = "2025-07-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au,
+            @Parameter(description = "Jeton renvoyé par la page précédente (curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre d'éléments par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille,
+            @Parameter(description = "Calculer le nombre total d'éléments correspondant aux filtres")
+            @RequestParam(defaultValue = "false") boolean avecTotal) {
+        PageCurseur<Patient> page = patientService.findPatientsPage(du, au, new DemandePage(curseur, taille, avecTotal));
+        return ResponseEntity.ok(new PageResponseDto<>(patientMapper.toDtoList(page.contenu()), page.curseurSuivant(), page.total()));
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Rechercher des patients",
+            description = "Recherche approchée pour la saisie au fil de l'eau : sans accents, tolérante aux fautes de frappe, " +
+                    "sur le nom, le prénom, l'email et le téléphone. Moins de 3 caractères : début du nom uniquement")
+    public ResponseEntity<List<PatientResponseDto>> searchPatients(
+            @Parameter(description = "Terme saisi", required = true, example = "ateb")
+            @RequestParam String terme,
+            @Parameter(description = "Nombre maximal de patients (1 à 100)", example = "20")
+            @RequestParam(defaultValue = "20") int limite) {
+        List<Patient> patients = rechercheService.rechercherPatients(terme, limite);
+        return ResponseEntity.ok(patientMapper.toDtoList(patients));
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
+    @GetMapping(path = "/autocomplete", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Autocompléter un patient",
+            description = "Suggestions pour la saisie au fil de l'eau à l'accueil, servies par un index en mémoire : " +
+                    "chaque mot saisi doit commencer le nom, le prénom, l'email ou le téléphone du patient")
+    public ResponseEntity<List<PatientResponseDto>> autocompletePatients(
+            @Parameter(description = "Début du nom, du prénom, de l'email ou du téléphone", required = true, example = "ateb jea")
+            @RequestParam String terme,
+            @Parameter(description = "Nombre maximal de suggestions (1 à 100)", example = "10")
+            @RequestParam(defaultValue = "10") int limite) {
+        List<Patient> patients = rechercheService.autocompleterPatients(terme, limite);
         return ResponseEntity.ok(patientMapper.toDtoList(patients));
     }
 
@@ -77,9 +146,43 @@ public class PatientController {
             description = "Récupère les détails complets d'un patient spécifique")
     public ResponseEntity<PatientResponseDto> findById(
             @Parameter(description = "ID du patient à récupérer", required = true, example = "1")
-            @PathVariable("id") Long id) {
-        Patient patient = patientService.findById(id);
-        return ResponseEntity.ok(patientMapper.toDto(patient));
+            @PathVariable("id") Long id,
+            WebRequest requete) {
+        return ReponseConditionnelle.entite(requete, patientService.findVersionById(id),
+                () -> ResponseEntity.ok(patientMapper.toDto(patientService.findById(id))));
+    }
+
+    @PreAuthorize("hasAnyRole('MEDECIN', 'SECRETAIRE', 'ADMIN')")
+    @GetMapping(path = "/{id}/chart", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Obtenir le dossier complet d'un patient",
+            description = "Patient, dossier médical et consultations des plus récentes aux plus anciennes par page, " +
+                    "avec leurs prescriptions et leurs factures. L'ETag renvoyé peut être présenté dans If-None-Match : " +
+                    "si rien n'a changé, la réponse est 304 sans contenu")
+    public ResponseEntity<DossierPatientResponseDto> findChart(
+            @Parameter(description = "ID du patient", required = true, example = "1")
+            @PathVariable("id") Long id,
+            @Parameter(description = "Jeton renvoyé par la page précédente (consultations.curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre de consultations par page (1 à 200)", example = "20")
+            @RequestParam(defaultValue = "20") int taille,
+            @Parameter(description = "Calculer le nombre total de consultations")
+            @RequestParam(defaultValue = "false") boolean avecTotal,
+            WebRequest requete) {
+        DemandePage demande = new DemandePage(curseur, taille, avecTotal);
+        // Revalidation : seule la requête de version est exécutée.
+        String version = dossierPatientService.version(id, demande);
+        return ReponseConditionnelle.version(requete, version, () -> {
+            DossierPatient dossier = dossierPatientService.charger(id, demande, version);
+            PageCurseur<ConsultationLigne> consultations = dossier.consultations();
+            return ResponseEntity.ok(new DossierPatientResponseDto(
+                    patientMapper.toDto(dossier.patient()),
+                    dossier.patient().getDossierMedical() == null ? null
+                            : dossierMedicalMapper.toDtoSansDetails(dossier.patient().getDossierMedical()),
+                    new PageResponseDto<>(consultationMapper.fromLignes(consultations.contenu()),
+                            consultations.curseurSuivant(), consultations.total()),
+                    factureMapper.fromLignes(dossier.factures()),
+                    dossier.version()));
+        });
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN')")
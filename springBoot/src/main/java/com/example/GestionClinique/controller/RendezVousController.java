@@ -1,10 +1,23 @@
 package com.example.GestionClinique.controller;
 
+import com.example.GestionClinique.configuration.utils.ReponseConditionnelle;
 import com.example.GestionClinique.dto.RequestDto.RendezVousRequestDto;
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.RendezVousBatchResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.RendezVousResponseDto;
 import com.example.GestionClinique.mapper.RendezVousMapper;
 import com.example.GestionClinique.model.entity.RendezVous;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
 import com.example.GestionClinique.service.RendezVousService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.planningService.RechercheCreneauxLibres;
+import com.example.GestionClinique.service.planningService.ResultatReservation;
+import com.example.GestionClinique.service.rechercheService.CibleRecherche;
+import com.example.GestionClinique.service.rechercheService.RechercheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,7 +29,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -30,6 +49,9 @@ public class RendezVousController {
 
     private final RendezVousService rendezVousService;
     private final RendezVousMapper rendezVousMapper;
+    private final RechercheCreneauxLibres rechercheCreneauxLibres;
+    private final RechercheService rechercheService;
+    private final ObjectMapper objectMapper;
 
     @PreAuthorize("hasAnyRole('SECRETAIRE')")
     @PostMapping(path = "/createRendezVous", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -44,15 +66,36 @@ public class RendezVousController {
         return new ResponseEntity<>(responseDto, HttpStatus.CREATED);
     }
 
+    @PreAuthorize("hasAnyRole('SECRETAIRE')")
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Créer plusieurs rendez-vous en une fois",
+            description = "Programme une série de rendez-vous (ex: suivi hebdomadaire). Chaque demande reçoit son propre résultat : CREE, CONFLIT ou REJETE ; un conflit n'empêche pas la création des autres.")
+    public ResponseEntity<List<RendezVousBatchResponseDto>> createRendezVousBatch(
+            @Parameter(description = "Liste des rendez-vous à créer", required = true)
+            @RequestBody List<RendezVousRequestDto> rendezVousRequestDtos) {
+        List<RendezVous> demandes = rendezVousRequestDtos.stream()
+                .map(rendezVousMapper::toEntityWithReferences)
+                .toList();
+        List<RendezVousBatchResponseDto> resultats = rendezVousService.createRendezVousBatch(demandes).stream()
+                .map(resultat -> new RendezVousBatchResponseDto(
+                        resultat.index(),
+                        resultat.statut().name(),
+                        resultat.statut() == ResultatReservation.Statut.CREE ? rendezVousMapper.toDto(resultat.rendezVous()) : null,
+                        resultat.message()))
+                .toList();
+        return ResponseEntity.ok(resultats);
+    }
+
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'MEDECIN', 'ADMIN')")
     @GetMapping(path = "/{idRendezVous}", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Obtenir un rendez-vous par son ID",
             description = "Récupère les informations détaillées d'un rendez-vous spécifique")
     public ResponseEntity<RendezVousResponseDto> findRendezVousById(
             @Parameter(description = "ID du rendez-vous à récupérer", required = true, example = "123")
-            @PathVariable("idRendezVous") Long id) {
-        RendezVous rendezVous = rendezVousService.findRendezVousById(id);
-        return ResponseEntity.ok(rendezVousMapper.toDto(rendezVous));
+            @PathVariable("idRendezVous") Long id,
+            WebRequest requete) {
+        return ReponseConditionnelle.entite(requete, rendezVousService.findVersionById(id),
+                () -> ResponseEntity.ok(rendezVousMapper.toDto(rendezVousService.findRendezVousById(id))));
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE')")
@@ -85,12 +128,54 @@ public class RendezVousController {
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Lister tous les rendez-vous",
             description = "Récupère la liste complète de tous les rendez-vous programmés")
-    public ResponseEntity<List<RendezVousResponseDto>> findAllRendezVous() {
-        List<RendezVous> rendezvousList = rendezVousService.findAllRendezVous();
-        if (rendezvousList.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(rendezVousMapper.toDtoList(rendezvousList));
+    public ResponseEntity<List<RendezVousResponseDto>> findAllRendezVous(WebRequest requete) {
+        return ReponseConditionnelle.collection(requete, rendezVousService.findVersion(), () -> {
+            List<RendezVousLigne> rendezvousList = rendezVousService.findAllRendezVous();
+            if (rendezvousList.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(rendezVousMapper.fromLignes(rendezvousList));
+        });
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE', 'MEDECIN', 'ADMIN')")
+    @GetMapping(path = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les rendez-vous page par page",
+            description = "Pagination par curseur, des plus récents aux plus anciens, avec filtres optionnels par jour, statut et médecin")
+    public ResponseEntity<PageResponseDto<RendezVousResponseDto>> findRendezVousPage(
+            @Parameter(description = "Rendez-vous à partir de ce jour inclus (YYYY-MM-DD)", example = "2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Rendez-vous jusqu'à ce jour inclus (YYYY-MM-DD)", example = "2025-07-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au,
+            @Parameter(description = "Statut du rendez-vous", example = "CONFIRME")
+            @RequestParam(required = false) StatutRDV statut,
+            @Parameter(description = "ID du médecin", example = "2")
+            @RequestParam(required = false) Long medecinId,
+            @Parameter(description = "Jeton renvoyé par la page précédente (curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre d'éléments par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille,
+            @Parameter(description = "Calculer le nombre total d'éléments correspondant aux filtres")
+            @RequestParam(defaultValue = "false") boolean avecTotal) {
+        PageCurseur<RendezVousLigne> page = rendezVousService.findRendezVousPage(du, au, statut, medecinId,
+                new DemandePage(curseur, taille, avecTotal));
+        return ResponseEntity.ok(new PageResponseDto<>(rendezVousMapper.fromLignes(page.contenu()), page.curseurSuivant(), page.total()));
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE', 'MEDECIN', 'ADMIN')")
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Rechercher des rendez-vous par patient ou par médecin",
+            description = "Recherche approchée (sans accents, tolérante aux fautes de frappe) sur le nom, le prénom, l'email " +
+                    "ou le téléphone du patient ou du médecin ; un terme numérique désigne aussi son ID")
+    public ResponseEntity<List<RendezVousResponseDto>> searchRendezVous(
+            @Parameter(description = "Terme saisi", required = true, example = "ateb")
+            @RequestParam String terme,
+            @Parameter(description = "Chercher parmi les patients (PATIENT) ou les médecins (UTILISATEUR)", example = "PATIENT")
+            @RequestParam(defaultValue = "PATIENT") CibleRecherche par,
+            @Parameter(description = "Nombre maximal de rendez-vous (1 à 100)", example = "20")
+            @RequestParam(defaultValue = "20") int limite) {
+        List<RendezVous> rendezVous = rechercheService.rechercherRendezVous(par, terme, limite);
+        return ResponseEntity.ok(rendezVousMapper.toDtoList(rendezVous));
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'MEDECIN')")
@@ -99,12 +184,15 @@ public class RendezVousController {
             description = "Récupère une liste de tous les rendez-vous programmés pour une date spécifique.")
     public ResponseEntity<List<RendezVousResponseDto>> findRendezVousByJour(
             @Parameter(description = "Date du jour à rechercher (format yyyy-MM-dd)", required = true, example = "2025-06-28")
-            @PathVariable("jour") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jour) {
-        List<RendezVous> rendezvousList = rendezVousService.findRendezVousByJour(jour);
-        if (rendezvousList.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(rendezVousMapper.toDtoList(rendezvousList));
+            @PathVariable("jour") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jour,
+            WebRequest requete) {
+        return ReponseConditionnelle.collection(requete, rendezVousService.findVersionByJour(jour), () -> {
+            List<RendezVousLigne> rendezvousList = rendezVousService.findRendezVousByJour(jour);
+            if (rendezvousList.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(rendezVousMapper.fromLignes(rendezvousList));
+        });
     }
 
     @PreAuthorize("hasAnyRole('SECRETAIRE')")
@@ -118,14 +206,6 @@ public class RendezVousController {
         return ResponseEntity.ok(rendezVousMapper.toDto(canceledRendezVous));
     }
 
-    @PostMapping("/cancel-old")
-    @Operation(summary = "Annuler un rendez-vous et supprimer facture liée",
-            description = "annuler un vieux rendezVous et supprimer la facture liée")
-    public ResponseEntity<String> cancelOldRendezVous() {
-        rendezVousService.cancelRendezVousByJour();
-        return ResponseEntity.ok("Tous les rendez-vous antérieurs à la date d'aujourd'hui ont été annulés.");
-    }
-
     @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
     @GetMapping("/utilisateurs/{idUtilisateur}/confirmed/month/{year}/{month}")
     @Operation(summary = "Obtenir les rendez-vous confirmés d'un utilisateur pour un mois donné",
@@ -134,8 +214,8 @@ public class RendezVousController {
             @PathVariable @Parameter(description = "ID de l'utilisateur") Long idUtilisateur,
             @PathVariable @Parameter(description = "Année des rendez-vous") int year,
             @PathVariable @Parameter(description = "Mois des rendez-vous (1-12)") int month) {
-        List<RendezVous> rendezVousEntities = rendezVousService.findUtilisateurConfirmedRendezVousByMonth(idUtilisateur, year, month);
-        List<RendezVousResponseDto> rendezVousDtos = rendezVousMapper.toDtoList(rendezVousEntities);
+        List<RendezVousLigne> rendezVousLignes = rendezVousService.findUtilisateurConfirmedRendezVousByMonth(idUtilisateur, year, month);
+        List<RendezVousResponseDto> rendezVousDtos = rendezVousMapper.fromLignes(rendezVousLignes);
         return ResponseEntity.ok(rendezVousDtos);
     }
 
@@ -145,9 +225,38 @@ public class RendezVousController {
             description = "Récupère tous les rendez-vous dans un mois et une année donnés.")
     public ResponseEntity<List<RendezVousResponseDto>> getRendezVousByMonth(
             @PathVariable @Parameter(description = "Année des rendez-vous") int year,
-            @PathVariable @Parameter(description = "Mois des rendez-vous (1-12)") int month) {
-        List<RendezVous> rendezVousEntities = rendezVousService.findRendezVousByMonth(year, month);
-        List<RendezVousResponseDto> rendezVousDtos = rendezVousMapper.toDtoList(rendezVousEntities);
-        return ResponseEntity.ok(rendezVousDtos);
+            @PathVariable @Parameter(description = "Mois des rendez-vous (1-12)") int month,
+            WebRequest requete) {
+        return ReponseConditionnelle.collection(requete, rendezVousService.findVersionByMonth(year, month),
+                () -> ResponseEntity.ok(rendezVousMapper.fromLignes(rendezVousService.findRendezVousByMonth(year, month))));
+    }
+
+    @PreAuthorize("hasAnyRole('SECRETAIRE', 'ADMIN', 'MEDECIN')")
+    @GetMapping(path = "/free-slots", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Rechercher les créneaux libres d'un service médical",
+            description = "Retourne, une ligne JSON par créneau, tous les couples (médecin, salle) libres pour chaque jour et heure de la plage. Le résultat est transmis en flux.")
+    public ResponseEntity<StreamingResponseBody> findFreeSlots(
+            @RequestParam @Parameter(description = "Service médical concerné", required = true) ServiceMedical serviceMedical,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Parameter(description = "Premier jour (YYYY-MM-DD)", example = "2025-07-21") LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Parameter(description = "Dernier jour inclus (YYYY-MM-DD)", example = "2025-07-27") LocalDate to,
+            @RequestParam(defaultValue = "30") @Parameter(description = "Durée d'un créneau en minutes", example = "30") int slotMinutes) {
+        rechercheCreneauxLibres.verifierParametres(from, to, slotMinutes);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            try {
+                rechercheCreneauxLibres.parcourir(serviceMedical, from, to, slotMinutes, creneau -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(creneau));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 }
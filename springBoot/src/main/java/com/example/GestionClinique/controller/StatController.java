@@ -2,13 +2,16 @@ package com.example.GestionClinique.controller;
 
 import com.example.GestionClinique.dto.ResponseDto.stats.StatDuJourResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.stats.StatParMoisResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.stats.StatSeriesResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.stats.StatsSurLanneeResponseDto;
 import com.example.GestionClinique.mapper.StatMapper;
 import com.example.GestionClinique.service.StatService;
+import com.example.GestionClinique.service.statService.StatPeriod;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,7 +19,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 
 import static com.example.GestionClinique.configuration.utils.Constants.API_NAME;
 
@@ -26,6 +33,8 @@ import static com.example.GestionClinique.configuration.utils.Constants.API_NAME
 @RequestMapping(API_NAME + "/stats")
 public class StatController {
 
+    private static final int MAX_PERIODES_SERIE = 1000;
+
     private final StatService statService;
     private final StatMapper statMapper;
 
@@ -45,25 +54,26 @@ public class StatController {
     @PreAuthorize("hasAnyRole('ADMIN')")
     @GetMapping("/monthly")
     @Operation(summary = "Obtenir les statistiques mensuelles",
-            description = "Récupère les statistiques agrégées pour un mois donné.")
+            description = "Récupère les statistiques agrégées pour un mois d'une année donnée.")
     public ResponseEntity<?> getMonthlyStats(
-            @RequestParam @Parameter(description = "Numéro du mois (1-12) ou mot-clé ('last', 'current').", example = "7") String month) {
-        int monthNumber;
+            @RequestParam @Parameter(description = "Numéro du mois (1-12) ou mot-clé ('last', 'current').", example = "7") String month,
+            @RequestParam(required = false) @Parameter(description = "Année (ex: 2025). Si omise, l'année en cours est utilisée. Ignorée pour 'last'/'current'.", example = "2025") Integer year) {
+        YearMonth mois;
         switch (month.toLowerCase()) {
             case "last":
-                monthNumber = LocalDate.now().minusMonths(1).getMonthValue();
+                mois = YearMonth.now().minusMonths(1);
                 break;
             case "current":
-                monthNumber = LocalDate.now().getMonthValue();
+                mois = YearMonth.now();
                 break;
             default:
                 try {
-                    monthNumber = Integer.parseInt(month);
-                } catch (NumberFormatException e) {
+                    mois = YearMonth.of(year != null ? year : Year.now().getValue(), Integer.parseInt(month));
+                } catch (NumberFormatException | DateTimeException e) {
                     return ResponseEntity.badRequest().body("Le paramètre 'month' doit être un numéro (1-12) ou 'last'/'current'.");
                 }
         }
-        StatParMoisResponseDto stats = statMapper.toStatParMoisDto(statService.getOrCreateStatParMois(monthNumber));
+        StatParMoisResponseDto stats = statMapper.toStatParMoisDto(statService.getOrCreateStatParMois(mois.getYear(), mois.getMonthValue()));
         return ResponseEntity.ok(stats);
     }
 
@@ -76,4 +86,36 @@ public class StatController {
         StatsSurLanneeResponseDto stats = statMapper.toStatsSurLanneeDto(statService.getOrCreateStatsSurLannee(year));
         return ResponseEntity.ok(stats);
     }
-}
\ No newline at end of file
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/series")
+    @Operation(summary = "Obtenir une série temporelle de statistiques",
+            description = "Retourne, en colonnes, les statistiques de chaque jour ou de chaque mois entre deux dates incluses.")
+    public ResponseEntity<?> getStatSeries(
+            @RequestParam @Parameter(description = "Granularité : 'day' ou 'month'.", example = "day") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Parameter(description = "Date de début (YYYY-MM-DD)", example = "2025-07-01") LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Parameter(description = "Date de fin incluse (YYYY-MM-DD)", example = "2025-07-31") LocalDate to) {
+        StatPeriod.Granularite granularite;
+        long nbrPeriodes;
+        switch (granularity.toLowerCase()) {
+            case "day":
+                granularite = StatPeriod.Granularite.JOUR;
+                nbrPeriodes = ChronoUnit.DAYS.between(from, to) + 1;
+                break;
+            case "month":
+                granularite = StatPeriod.Granularite.MOIS;
+                nbrPeriodes = ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to)) + 1;
+                break;
+            default:
+                return ResponseEntity.badRequest().body("Le paramètre 'granularity' doit valoir 'day' ou 'month'.");
+        }
+        if (nbrPeriodes < 1) {
+            return ResponseEntity.badRequest().body("La date 'from' doit précéder ou égaler la date 'to'.");
+        }
+        if (nbrPeriodes > MAX_PERIODES_SERIE) {
+            return ResponseEntity.badRequest().body("La série est limitée à " + MAX_PERIODES_SERIE + " périodes.");
+        }
+        StatSeriesResponseDto series = statMapper.toStatSeriesDto(statService.getSeries(granularite, from, to));
+        return ResponseEntity.ok(series);
+    }
+}
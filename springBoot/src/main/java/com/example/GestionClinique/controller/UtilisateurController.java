@@ -2,6 +2,7 @@ package com.example.GestionClinique.controller;
 
 import com.example.GestionClinique.dto.RequestDto.UpdatePasswordRequestDto;
 import com.example.GestionClinique.dto.RequestDto.UtilisateurRequestDto;
+import com.example.GestionClinique.dto.ResponseDto.PageResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.RendezVousResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.UtilisateurResponseDto;
 import com.example.GestionClinique.mapper.RendezVousMapper;
@@ -10,8 +11,12 @@ import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.Utilisateur;
 import com.example.GestionClinique.model.entity.enumElem.RoleType;
 import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
 import com.example.GestionClinique.service.UtilisateurService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import com.example.GestionClinique.service.photoService.FileStorageService;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -30,6 +35,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.nio.file.Files;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -45,6 +51,7 @@ public class UtilisateurController {
     private final UtilisateurMapper utilisateurMapper;
     private final RendezVousMapper rendezVousMapper;
     private final FileStorageService fileStorageService;
+    private final SuiviPresence suiviPresence;
 
     @PreAuthorize("hasAnyRole('ADMIN')")
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -95,6 +102,27 @@ public class UtilisateurController {
         return ResponseEntity.ok(utilisateurMapper.toDtoList(utilisateurs));
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
+    @GetMapping(path = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Lister les utilisateurs page par page",
+            description = "Pagination par curseur, des plus récemment créés aux plus anciens, avec filtres optionnels par date de création et rôle")
+    public ResponseEntity<PageResponseDto<UtilisateurResponseDto>> findUtilisateursPage(
+            @Parameter(description = "Utilisateurs créés à partir de ce jour inclus (YYYY-MM-DD)", example = "2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Utilisateurs créés jusqu'à ce jour inclus (YYYY-MM-DD)", example = "2025-07-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au,
+            @Parameter(description = "Type de rôle", example = "MEDECIN")
+            @RequestParam(required = false) RoleType roleType,
+            @Parameter(description = "Jeton renvoyé par la page précédente (curseurSuivant)")
+            @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre d'éléments par page (1 à 200)", example = "50")
+            @RequestParam(defaultValue = "50") int taille,
+            @Parameter(description = "Calculer le nombre total d'éléments correspondant aux filtres")
+            @RequestParam(defaultValue = "false") boolean avecTotal) {
+        PageCurseur<Utilisateur> page = utilisateurService.findUtilisateursPage(du, au, roleType, new DemandePage(curseur, taille, avecTotal));
+        return ResponseEntity.ok(new PageResponseDto<>(utilisateurMapper.toDtoList(page.contenu()), page.curseurSuivant(), page.total()));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN')")
     @PutMapping(path = "/{idUtilisateur}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Mettre à jour les informations d'un utilisateur",
@@ -157,11 +185,15 @@ public class UtilisateurController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MEDECIN', 'SECRETAIRE')")
     @GetMapping("/search")
     @Operation(summary = "Rechercher des utilisateurs",
-            description = "Recherche des utilisateurs par nom, prénom, email, téléphone, rôle ou statut de connexion. Requiert un terme de recherche d'au moins 2 caractères.")
+            description = "Recherche approchée, sans accents et tolérante aux fautes de frappe, sur le nom, le prénom, l'email, " +
+                    "le téléphone, le service médical et le rôle ; les mieux classés d'abord, au plus `limite` résultats. " +
+                    "Un terme de 2 caractères ne cherche que le début du nom. Requiert un terme d'au moins 2 caractères.")
     public ResponseEntity<?> searchUsers(
-            @RequestParam @Parameter(description = "Terme à rechercher (nom, prénom, email, téléphone, rôle, ou statut de connexion). Minimum 2 caractères.") String searchTerm) {
+            @RequestParam @Parameter(description = "Terme à rechercher (nom, prénom, email, téléphone, service ou rôle). Minimum 2 caractères.") String searchTerm,
+            @Parameter(description = "Nombre maximal d'utilisateurs (1 à 100)", example = "20")
+            @RequestParam(defaultValue = "20") int limite) {
 
-        List<Utilisateur> utilisateurs = utilisateurService.searchUsers(searchTerm);
+        List<Utilisateur> utilisateurs = utilisateurService.searchUsers(searchTerm, limite);
         if (utilisateurs.isEmpty() && (searchTerm == null || searchTerm.trim().length() < 2)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Le terme de recherche doit contenir au moins 2 caractères.");
         }
@@ -183,10 +215,19 @@ public class UtilisateurController {
     @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
     @GetMapping("/connected/last-activity")
     @Operation(summary = "Lister les utilisateurs connectés triés par dernière activité",
-            description = "Récupère la liste des utilisateurs actuellement connectés, triés par leur date de dernière connexion (les plus récents en premier).")
+            description = "Récupère la liste des utilisateurs actuellement connectés, triés par leur dernière activité (les plus récents en premier). Les changements sont aussi diffusés sur /topic/presence.")
     public ResponseEntity<List<UtilisateurResponseDto>> getConnectedUsersByLastActivity() {
         List<Utilisateur> users = utilisateurService.findUsersWithStatusConnectedByOrderLastConnected();
-        return ResponseEntity.ok(utilisateurMapper.toDtoList(users));
+        List<UtilisateurResponseDto> dtos = utilisateurMapper.toDtoList(users);
+        // La base n'est mise à jour qu'au prochain vidage du suivi de présence.
+        for (UtilisateurResponseDto dto : dtos) {
+            LocalDateTime derniereActivite = suiviPresence.derniereActivite(dto.getId());
+            if (derniereActivite != null) {
+                dto.setLastLoginDate(derniereActivite);
+            }
+            dto.setStatusConnect(StatusConnect.CONNECTE);
+        }
+        return ResponseEntity.ok(dtos);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN', 'SECRETAIRE', 'MEDECIN')")
@@ -195,7 +236,15 @@ public class UtilisateurController {
             description = "Récupère la liste des utilisateurs actuellement déconnectés, triés par leur date de dernière déconnexion (les plus récents en premier).")
     public ResponseEntity<List<UtilisateurResponseDto>> getDisconnectedUsersByLastActivity() {
         List<Utilisateur> users = utilisateurService.findUsersWithStatusDisconnectedByOrderLastDeConnected();
-        return ResponseEntity.ok(utilisateurMapper.toDtoList(users));
+        List<UtilisateurResponseDto> dtos = utilisateurMapper.toDtoList(users);
+        for (UtilisateurResponseDto dto : dtos) {
+            LocalDateTime derniereDeconnexion = suiviPresence.derniereDeconnexion(dto.getId());
+            if (derniereDeconnexion != null) {
+                dto.setLastLogoutDate(derniereDeconnexion);
+            }
+            dto.setStatusConnect(StatusConnect.DECONNECTE);
+        }
+        return ResponseEntity.ok(dtos);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN', 'MEDECIN', 'SECRETAIRE')")
@@ -0,0 +1,18 @@
+package com.example.GestionClinique.dto.ResponseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DossierPatientResponseDto {
+    private PatientResponseDto patient;
+    private DossierMedicalResponseDto dossierMedical;
+    private PageResponseDto<ConsultationResponseDto> consultations;
+    private List<FactureResponseDto> factures;
+    private String version;
+}
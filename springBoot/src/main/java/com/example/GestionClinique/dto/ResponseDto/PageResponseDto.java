@@ -0,0 +1,18 @@
+package com.example.GestionClinique.dto.ResponseDto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageResponseDto<T> {
+    private List<T> contenu;
+    private String curseurSuivant;
+    private Long total;
+}
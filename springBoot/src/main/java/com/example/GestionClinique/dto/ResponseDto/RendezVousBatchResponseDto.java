@@ -0,0 +1,15 @@
+package com.example.GestionClinique.dto.ResponseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RendezVousBatchResponseDto {
+    private int index;
+    private String statut;
+    private RendezVousResponseDto rendezVous;
+    private String message;
+}
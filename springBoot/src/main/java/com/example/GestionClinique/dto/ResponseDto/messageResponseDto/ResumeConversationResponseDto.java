@@ -0,0 +1,21 @@
+package com.example.GestionClinique.dto.ResponseDto.messageResponseDto;
+
+import com.example.GestionClinique.model.entity.enumElem.TypeConversation;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ResumeConversationResponseDto {
+    private Long conversationId;
+    private TypeConversation typeConversation;
+    private String titre;
+    private int unreadCount;
+    private LocalDateTime lastReadAt;
+    private Long dernierMessageId;
+    private String dernierMessageContenu;
+    private LocalDateTime dernierMessageDate;
+    private Long expediteurId;
+    private String expediteurNom;
+    private String expediteurPrenom;
+}
@@ -0,0 +1,18 @@
+package com.example.GestionClinique.dto.ResponseDto.messageResponseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SynchronisationMessagesResponseDto {
+    private List<MessageResponseDto> nouveaux;
+    private List<MessageResponseDto> modifies;
+    private List<Long> supprimes;
+    private String jeton;
+    private boolean complet;
+}
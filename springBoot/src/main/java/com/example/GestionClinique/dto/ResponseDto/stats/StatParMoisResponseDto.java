@@ -7,6 +7,8 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class StatParMoisResponseDto extends BaseEntity {
+    private Integer annee;
+    private Integer numeroMois;
     private String mois;
     private Long nbrRendezVousCONFIRME;
     private Long nbrRendezANNULE;
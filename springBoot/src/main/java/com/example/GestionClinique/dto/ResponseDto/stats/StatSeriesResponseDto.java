@@ -0,0 +1,17 @@
+package com.example.GestionClinique.dto.ResponseDto.stats;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class StatSeriesResponseDto {
+    private String granularite;
+    private List<LocalDate> periodes;
+    private long[] nbrRendezVousCONFIRME;
+    private long[] nbrRendezANNULE;
+    private long[] nbrPatientEnrg;
+    private long[] nbrConsultation;
+    private double[] revenu;
+}
@@ -3,6 +3,7 @@ package com.example.GestionClinique.mapper;
 import com.example.GestionClinique.dto.RequestDto.ConsultationRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.ConsultationResponseDto;
 import com.example.GestionClinique.model.entity.Consultation;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -30,6 +31,13 @@ public interface ConsultationMapper {
 
     List<ConsultationResponseDto> toDtoList(List<Consultation> entities);
 
+    @Mapping(target = "medecinNomComplet", expression = "java(ligne.medecinNom() != null ? ligne.medecinNom() + \" \" + ligne.medecinPrenom() : null)")
+    @Mapping(target = "patientNomComplet", expression = "java(ligne.patientNom() != null ? ligne.patientNom() + \" \" + ligne.patientPrenom() : null)")
+    @Mapping(target = "serviceMedecin", expression = "java(ligne.medecinServiceMedical() != null ? ligne.medecinServiceMedical().name() : null)")
+    ConsultationResponseDto fromLigne(ConsultationLigne ligne);
+
+    List<ConsultationResponseDto> fromLignes(List<ConsultationLigne> lignes);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "dossierMedical", ignore = true)
     @Mapping(target = "medecin", ignore = true)
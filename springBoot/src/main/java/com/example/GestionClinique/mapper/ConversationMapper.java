@@ -3,10 +3,12 @@ package com.example.GestionClinique.mapper;
 import com.example.GestionClinique.dto.RequestDto.messageRequestDto.ConversationRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.UtilisateurResponseDto;
 import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.ConversationResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.messageResponseDto.ResumeConversationResponseDto;
 import com.example.GestionClinique.model.entity.Conversation;
 import com.example.GestionClinique.model.entity.ConversationParticipant;
 import com.example.GestionClinique.model.entity.Utilisateur;
 import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.repository.projection.ResumeConversationLigne;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -40,6 +42,10 @@ public abstract class ConversationMapper {
 
     public abstract List<ConversationResponseDto> toDtoList(List<Conversation> entities);
 
+    public abstract ResumeConversationResponseDto fromResume(ResumeConversationLigne ligne);
+
+    public abstract List<ResumeConversationResponseDto> fromResumes(List<ResumeConversationLigne> lignes);
+
     @Named("mapParticipantIdsToParticipants")
     public List<ConversationParticipant> mapParticipantIdsToParticipants(List<Long> participantIds) {
         if (participantIds == null || participantIds.isEmpty()) {
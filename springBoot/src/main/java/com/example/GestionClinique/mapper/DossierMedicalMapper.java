@@ -19,6 +19,12 @@ public interface DossierMedicalMapper {
     @Mapping(source = "patient", target = "patient")
     DossierMedicalResponseDto toDto(DossierMedical entity);
 
+    // Sans le patient ni les consultations, servis à part par le dossier patient.
+    @Named("sansDetails")
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "consultations", ignore = true)
+    DossierMedicalResponseDto toDtoSansDetails(DossierMedical entity);
+
     void updateEntityFromDto(DossierMedicalRequestDto dto, @MappingTarget DossierMedical entity);
 
     List<DossierMedicalResponseDto> toDtoList(List<DossierMedical> entities);
@@ -3,6 +3,7 @@ package com.example.GestionClinique.mapper;
 import com.example.GestionClinique.dto.RequestDto.FactureRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.FactureResponseDto;
 import com.example.GestionClinique.model.entity.Facture;
+import com.example.GestionClinique.repository.projection.FactureLigne;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.Mapping;
@@ -31,6 +32,14 @@ public interface FactureMapper {
 
     List<FactureResponseDto> toDtoList(List<Facture> entities);
 
+    @Mapping(target = "patientNomComplet",
+            expression = "java(ligne.patientNom() != null ? ligne.patientNom() + \" \" + ligne.patientPrenom() : null)")
+    @Mapping(target = "serviceMedicalNom",
+            expression = "java(getServiceMedicalName(ligne))")
+    FactureResponseDto fromLigne(FactureLigne ligne);
+
+    List<FactureResponseDto> fromLignes(List<FactureLigne> lignes);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "modificationDate", ignore = true)
@@ -53,4 +62,11 @@ public interface FactureMapper {
 
         return null;
     }
+
+    default String getServiceMedicalName(FactureLigne ligne) {
+        if (ligne.serviceConsultation() != null) {
+            return ligne.serviceConsultation().name();
+        }
+        return ligne.serviceRendezVous() != null ? ligne.serviceRendezVous().name() : null;
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.example.GestionClinique.dto.RequestDto.HistoriqueActionRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.HistoriqueActionResponseDto;
 
 import com.example.GestionClinique.model.entity.HistoriqueAction;
+import com.example.GestionClinique.repository.projection.HistoriqueActionLigne;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -25,6 +26,14 @@ public interface HistoriqueActionMapper {
 
     List<HistoriqueActionResponseDto> toDtoList(List<HistoriqueAction> entities);
 
+    @Mapping(target = "utilisateur.id", source = "utilisateurId")
+    @Mapping(target = "utilisateur.nom", source = "utilisateurNom")
+    @Mapping(target = "utilisateur.prenom", source = "utilisateurPrenom")
+    @Mapping(target = "utilisateur.email", source = "utilisateurEmail")
+    HistoriqueActionResponseDto fromLigne(HistoriqueActionLigne ligne);
+
+    List<HistoriqueActionResponseDto> fromLignes(List<HistoriqueActionLigne> lignes);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "utilisateur", ignore = true)
     void updateEntityFromDto(HistoriqueActionRequestDto dto, @MappingTarget HistoriqueAction entity);
@@ -7,6 +7,8 @@ import org.mapstruct.Mapper;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring", uses = {UtilisateurMapper.class, GroupeMapper.class})
 public interface MessageMapper {
 
@@ -15,11 +17,15 @@ public interface MessageMapper {
     @Mapping(target = "modificationDate", ignore = true)
     @Mapping(target = "expediteur", ignore = true)
     @Mapping(target = "conversation", ignore = true)
+    @Mapping(target = "supprime", ignore = true)
     Message toEntity(MessageRequestDto dto);
 
     @Mapping(target = "expediteur", source = "expediteur")
     @Mapping(target = "conversationId", source = "conversation.id")
     MessageResponseDto toDto(Message entity);
 
+    List<MessageResponseDto> toDtoList(List<Message> entities);
+
+    @Mapping(target = "supprime", ignore = true)
     void updateEntityFromDto(MessageRequestDto dto, @MappingTarget Message entity);
 }
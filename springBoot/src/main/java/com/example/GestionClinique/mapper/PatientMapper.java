@@ -20,6 +20,7 @@ public interface PatientMapper {
         @Mapping(target = "adresse", source = "adresse")
         @Mapping(target = "genre", source = "genre")
         @Mapping(target = "dossierMedical", source = "dossierMedical") // Map the nested DTO to entity
+        @Mapping(target = "recherche", ignore = true)
         Patient toEntity(PatientRequestDto patientRequestDto);
 
         PatientResponseDto toDto(Patient patient);
@@ -27,5 +28,6 @@ public interface PatientMapper {
         List<PatientResponseDto> toDtoList(List<Patient> patients);
 
         @Mapping(target = "dossierMedical", ignore = true)
+        @Mapping(target = "recherche", ignore = true)
         void updateEntityFromDto(PatientRequestDto patientRequestDto, @MappingTarget Patient patient);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.GestionClinique.mapper;
 import com.example.GestionClinique.dto.RequestDto.PrescriptionRequestDto;
 import com.example.GestionClinique.dto.ResponseDto.PrescriptionResponseDto;
 import com.example.GestionClinique.model.entity.Prescription;
+import com.example.GestionClinique.repository.projection.PrescriptionLigne;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -32,6 +33,10 @@ public interface PrescriptionMapper {
 
     List<PrescriptionResponseDto> toDtoList(List<Prescription> entities);
 
+    @Mapping(target = "medecinNomComplet", expression = "java(ligne.medecinId() != null ? ligne.medecinNom() + \" \" + ligne.medecinPrenom() : null)")
+    @Mapping(target = "patientNomComplet", expression = "java(ligne.patientId() != null ? ligne.patientNom() + \" \" + ligne.patientPrenom() : null)")
+    PrescriptionResponseDto fromLigne(PrescriptionLigne ligne);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "modificationDate", ignore = true)
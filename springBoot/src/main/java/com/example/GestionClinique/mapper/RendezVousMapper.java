@@ -7,6 +7,7 @@ import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.Utilisateur;
 import com.example.GestionClinique.repository.PatientRepository;
 import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
 import com.example.GestionClinique.service.RendezVousService;
 import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,20 @@ public abstract class RendezVousMapper {
     @Mapping(target = "modificationDate", ignore = true)
     public abstract RendezVous toEntity(RendezVousRequestDto dto);
 
+    // Pour les traitements groupés : patient et médecin ne portent que leur ID et sont
+    // chargés en une fois par le service.
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "patient.id", source = "patientId")
+    @Mapping(target = "medecin.id", source = "medecinId")
+    @Mapping(target = "salle", ignore = true)
+    @Mapping(target = "statut", ignore = true)
+    @Mapping(target = "facture", ignore = true)
+    @Mapping(target = "consultation", ignore = true)
+    @Mapping(target = "notifications", ignore = true)
+    @Mapping(target = "creationDate", ignore = true)
+    @Mapping(target = "modificationDate", ignore = true)
+    public abstract RendezVous toEntityWithReferences(RendezVousRequestDto dto);
+
     @Mapping(source = "patient.id", target = "patientId")
     @Mapping(source = "medecin.id", target = "medecinId")
     @Mapping(source = "salle.id", target = "salleId") // Still map ID from entity to response DTO
@@ -50,6 +65,15 @@ public abstract class RendezVousMapper {
 
     public abstract List<RendezVousResponseDto> toDtoList(List<RendezVous> entities);
 
+    // Listes : tout vient de la projection, aucune association n'est chargée.
+    @Mapping(target = "patientNomComplet", expression = "java(ligne.patientId() != null ? " +
+            "ligne.patientPrenom() + \" \" + ligne.patientNom() : null)")
+    @Mapping(target = "medecinNomComplet", expression = "java(ligne.medecinId() != null ? " +
+            "ligne.medecinPrenom() + \" \" + ligne.medecinNom() : null)")
+    public abstract RendezVousResponseDto fromLigne(RendezVousLigne ligne);
+
+    public abstract List<RendezVousResponseDto> fromLignes(List<RendezVousLigne> lignes);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "patient", ignore = true)
     @Mapping(target = "medecin", ignore = true)
@@ -2,6 +2,7 @@ package com.example.GestionClinique.mapper;
 
 import com.example.GestionClinique.dto.ResponseDto.stats.*;
 import com.example.GestionClinique.model.entity.stats.*;
+import com.example.GestionClinique.service.statService.StatSeries;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.NullValuePropertyMappingStrategy;
@@ -15,4 +16,6 @@ public interface StatMapper {
 
     @Mapping(source = "annee", target = "annee")
     StatsSurLanneeResponseDto toStatsSurLanneeDto(StatsSurLannee entity);
+
+    StatSeriesResponseDto toStatSeriesDto(StatSeries series);
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ public interface UtilisateurMapper {
     @Mapping(target = "lastLoginDate", ignore = true)
     @Mapping(target = "lastLogoutDate", ignore = true)
     @Mapping(target = "statusConnect", ignore = true)
+    @Mapping(target = "recherche", ignore = true)
     Utilisateur toEntity(UtilisateurRequestDto dto);
 
     @Mapping(target = "lastLoginDate", source = "lastLoginDate")
@@ -37,5 +38,6 @@ public interface UtilisateurMapper {
     @Mapping(target = "password", ignore = true)
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "modificationDate", ignore = true)
+    @Mapping(target = "recherche", ignore = true)
     void updateEntityFromDto(UtilisateurRequestDto dto, @MappingTarget Utilisateur utilisateur);
 }
@@ -1,5 +1,6 @@
 package com.example.GestionClinique.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -39,4 +40,18 @@ public abstract class InfoPersonnel extends BaseEntity {
     @Column(name = "genre", nullable = false)
     protected String genre;
 
+    /** Texte normalisé indexé par trigrammes, voir {@code RechercheRepository}. */
+    @JsonIgnore
+    @Column(name = "recherche", length = 1024)
+    protected String recherche;
+
+    protected String texteRecherche() {
+        return TexteRecherche.composer(nom, prenom, email, telephone);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void majRecherche() {
+        this.recherche = texteRecherche();
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.GestionClinique.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forme normalisée des textes recherchés : minuscules, sans accents, et toute suite de caractères
+ * autres que lettres et chiffres réduite à une espace. « Ébodé-Ngono » et « ebode ngono » ont ainsi
+ * la même forme, côté colonne {@code recherche} comme côté terme saisi.
+ */
+public final class TexteRecherche {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    private TexteRecherche() {
+    }
+
+    public static String normaliser(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATEURS.matcher(sansAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public static String composer(Object... parties) {
+        StringBuilder texte = new StringBuilder();
+        for (Object partie : parties) {
+            if (partie != null) {
+                texte.append(partie).append(' ');
+            }
+        }
+        return normaliser(texte.toString());
+    }
+}
@@ -16,7 +16,10 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(indexes = {
+        @Index(name = "idx_consultation_creation_date", columnList = "creation_date"),
+        @Index(name = "idx_consultation_dossier_creation", columnList = "dossier_medical_id, creation_date, id")
+})
 public class Consultation extends BaseEntity {
 
     @Column(nullable = false)
@@ -15,7 +15,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "factures")
+@Table(name = "factures", indexes = {
+        @Index(name = "idx_factures_statut_date_emission", columnList = "statut_paiement, date_emission"),
+        @Index(name = "idx_factures_creation_date_id", columnList = "creation_date, id"),
+        @Index(name = "idx_factures_patient", columnList = "patient_id"),
+        @Index(name = "idx_factures_consultation", columnList = "consultation_id")
+})
 public class Facture extends BaseEntity {
 
     @Column(nullable = false)
@@ -11,7 +11,10 @@ import java.time.LocalDate;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(indexes = {
+        @Index(name = "idx_historique_action_creation_date_id", columnList = "creation_date, id"),
+        @Index(name = "idx_historique_action_utilisateur_creation", columnList = "utilisateur_id, creation_date, id")
+})
 public class HistoriqueAction extends BaseEntity {
 
     @Column(name = "date_action", nullable = false)
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor @AllArgsConstructor
 @Entity
-@Table
+@Table(indexes = @Index(name = "idx_historique_message_message_creation", columnList = "message_id, creation_date, id"))
 public class HistoriqueMessage extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
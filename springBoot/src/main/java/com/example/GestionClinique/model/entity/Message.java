@@ -3,6 +3,7 @@ package com.example.GestionClinique.model.entity;
 import com.example.GestionClinique.model.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +13,7 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(indexes = @Index(name = "idx_message_conversation_creation", columnList = "conversation_id, creation_date, id"))
 public class Message extends BaseEntity {
 
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -21,6 +22,11 @@ public class Message extends BaseEntity {
     @Column(nullable = false)
     private boolean lu;
 
+    // Suppression logique : la ligne reste référencée par HistoriqueMessage et sert à la synchronisation.
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean supprime;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "conversation_id", nullable = false)
     private Conversation conversation;
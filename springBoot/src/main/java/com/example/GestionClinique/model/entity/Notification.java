@@ -15,7 +15,10 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(indexes = {
+        @Index(name = "idx_notification_utilisateur_date", columnList = "id_utilisateur, date_creation"),
+        @Index(name = "idx_notification_creation_date", columnList = "creation_date")
+})
 public class Notification extends BaseEntity {
 
     @Enumerated(EnumType.STRING)
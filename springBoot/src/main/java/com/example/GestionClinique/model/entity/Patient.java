@@ -11,7 +11,9 @@ import java.util.*;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(indexes = {
+        @Index(name = "idx_patient_creation_date", columnList = "creation_date")
+})
 public class Patient extends InfoPersonnel {
 
     @OneToOne(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -11,6 +11,9 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_prescription_consultation", columnList = "consultation_id")
+})
 public class Prescription extends BaseEntity {
 
     @Column(nullable = false)
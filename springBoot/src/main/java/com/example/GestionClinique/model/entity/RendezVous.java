@@ -24,6 +24,11 @@ import lombok.NoArgsConstructor;
 @Table(uniqueConstraints = {
         @UniqueConstraint(columnNames = {"jour", "heure", "medecin_id"}),
         @UniqueConstraint(columnNames = {"jour", "heure", "salle_id"})
+}, indexes = {
+        @Index(name = "idx_rendez_vous_statut_jour", columnList = "statut, jour"),
+        @Index(name = "idx_rendez_vous_creation_date_id", columnList = "creation_date, id"),
+        @Index(name = "idx_rendez_vous_patient_jour", columnList = "patient_id, jour, heure"),
+        @Index(name = "idx_rendez_vous_medecin_jour", columnList = "medecin_id, jour, heure")
 })
 public class RendezVous extends BaseEntity {
 
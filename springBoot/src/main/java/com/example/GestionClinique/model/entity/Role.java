@@ -4,6 +4,8 @@ import com.example.GestionClinique.model.BaseEntity;
 import com.example.GestionClinique.model.entity.enumElem.RoleType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @EqualsAndHashCode(callSuper = true)
 @Entity
@@ -11,6 +13,8 @@ import lombok.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.role")
 public class Role extends BaseEntity {
     @Enumerated(EnumType.STRING)
     @Column(unique = true, nullable = false)
@@ -1,6 +1,7 @@
 package com.example.GestionClinique.model.entity;
 
 import com.example.GestionClinique.model.InfoPersonnel;
+import com.example.GestionClinique.model.TexteRecherche;
 import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
 import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -18,7 +19,7 @@ import java.util.*;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table
+@Table(indexes = @Index(name = "idx_utilisateur_statut_deconnexion", columnList = "status_connect, last_logout_date"))
 public class Utilisateur extends InfoPersonnel {
 
     @Column(unique = true, nullable = false)
@@ -38,6 +39,12 @@ public class Utilisateur extends InfoPersonnel {
     @Column
     private String photoProfil;
 
+    @Override
+    protected String texteRecherche() {
+        return TexteRecherche.composer(nom, prenom, email, telephone, serviceMedical,
+                role != null ? role.getRoleType() : null);
+    }
+
     public Collection<? extends GrantedAuthority> getAuthorities() {
         if (this.role == null) {
             return Collections.emptyList();
@@ -2,6 +2,9 @@ package com.example.GestionClinique.model.entity.stats;
 
 import com.example.GestionClinique.model.BaseEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -10,6 +13,8 @@ import java.time.LocalDate;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_stat_du_jour_jour", columnList = "jour"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_stat_du_jour_jour", columnNames = "jour"))
 public class StatDuJour extends BaseEntity {
     private String jour = LocalDate.now().toString();
     private Long nbrRendezVousCONFIRME;
@@ -2,6 +2,8 @@ package com.example.GestionClinique.model.entity.stats;
 
 import com.example.GestionClinique.model.BaseEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -9,7 +11,10 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"annee", "numero_mois"}))
 public class StatsMois extends BaseEntity {
+    private Integer annee;
+    private Integer numeroMois;
     private String mois;
     private Long nbrRendezVousCONFIRME;
     private Long nbrRendezANNULE;
@@ -2,6 +2,8 @@ package com.example.GestionClinique.model.entity.stats;
 
 import com.example.GestionClinique.model.BaseEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -11,6 +13,7 @@ import java.time.Year;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Data
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_stats_sur_lannee_annee", columnNames = "annee"))
 public class StatsSurLannee extends BaseEntity {
     private String annee = Year.now().toString();
     private Long nbrRendezVousCONFIRME;
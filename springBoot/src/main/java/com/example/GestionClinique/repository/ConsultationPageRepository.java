@@ -0,0 +1,18 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Listes paginées des consultations, construites selon les filtres renseignés ({@link RequetePage}). */
+public interface ConsultationPageRepository {
+
+    List<ConsultationLigne> findLignesPage(LocalDateTime debut, LocalDateTime fin, Long medecinId,
+                                           LocalDateTime curseurDate, Long curseurId, Pageable limite);
+
+    List<ConsultationLigne> findLignesByDossierPage(Long dossierId, LocalDateTime curseurDate, Long curseurId, Pageable limite);
+
+    long countPage(LocalDateTime debut, LocalDateTime fin, Long medecinId);
+}
@@ -0,0 +1,42 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ConsultationPageRepositoryImpl implements ConsultationPageRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ConsultationLigne> findLignesPage(LocalDateTime debut, LocalDateTime fin, Long medecinId,
+                                                  LocalDateTime curseurDate, Long curseurId, Pageable limite) {
+        return filtres(RequetePage.de(ConsultationRepository.LIGNE), debut, fin, medecinId)
+                .page(em, ConsultationLigne.class, "c", curseurDate, curseurId, limite);
+    }
+
+    @Override
+    public List<ConsultationLigne> findLignesByDossierPage(Long dossierId, LocalDateTime curseurDate, Long curseurId,
+                                                           Pageable limite) {
+        return RequetePage.de(ConsultationRepository.LIGNE)
+                .filtre("d.id = :dossierId", "dossierId", dossierId)
+                .page(em, ConsultationLigne.class, "c", curseurDate, curseurId, limite);
+    }
+
+    @Override
+    public long countPage(LocalDateTime debut, LocalDateTime fin, Long medecinId) {
+        return filtres(RequetePage.de("SELECT COUNT(c) FROM Consultation c"), debut, fin, medecinId)
+                .count(em);
+    }
+
+    private static RequetePage filtres(RequetePage requete, LocalDateTime debut, LocalDateTime fin, Long medecinId) {
+        return requete.filtre("c.creationDate >= :debut", "debut", debut)
+                .filtre("c.creationDate < :fin", "fin", fin)
+                .filtre("c.medecin.id = :medecinId", "medecinId", medecinId);
+    }
+}
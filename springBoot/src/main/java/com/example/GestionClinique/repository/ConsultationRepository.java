@@ -1,21 +1,34 @@
 package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.Consultation;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
-public interface ConsultationRepository extends JpaRepository<Consultation, Long> {
-    @Query("SELECT COUNT(c) FROM Consultation c WHERE DATE(c.creationDate) = :date")
-    Long countByDateConsultation(@Param("date") LocalDate date);
+public interface ConsultationRepository extends JpaRepository<Consultation, Long>, ConsultationPageRepository {
 
-    @Query("SELECT COUNT(c) FROM Consultation c WHERE YEAR(c.creationDate) = :year")
-    Long countByYearConsultation(@Param("year") int year);
+    String LIGNE = "SELECT new com.example.GestionClinique.repository.projection.ConsultationLigne(c.id, c.creationDate, " +
+            "c.modificationDate, c.poids, c.taille, c.tensionArterielle, c.temperature, c.motifs, c.diagnostic, " +
+            "c.compteRendu, m.nom, m.prenom, m.serviceMedical, p.nom, p.prenom) FROM Consultation c " +
+            "LEFT JOIN c.medecin m LEFT JOIN c.dossierMedical d LEFT JOIN d.patient p ";
 
-    @Query("SELECT COUNT(c) FROM Consultation c WHERE MONTH(c.creationDate) = :month")
-    long countByMonth(@Param("month") int month);
-}
+    @Query("SELECT COUNT(c) FROM Consultation c WHERE c.creationDate >= :debut AND c.creationDate < :fin")
+    long countByCreationDateRange(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+    @Query("SELECT truncate(c.creationDate, day), COUNT(c) FROM Consultation c " +
+            "WHERE c.creationDate >= :debut AND c.creationDate < :fin GROUP BY truncate(c.creationDate, day)")
+    List<Object[]> countGroupedByJour(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 
+    @Query("SELECT truncate(c.creationDate, month), COUNT(c) FROM Consultation c " +
+            "WHERE c.creationDate >= :debut AND c.creationDate < :fin GROUP BY truncate(c.creationDate, month)")
+    List<Object[]> countGroupedByMois(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 
+    @Query(LIGNE + "ORDER BY c.id")
+    List<ConsultationLigne> findAllLignes();
+
+    long countByDossierMedicalId(Long dossierId);
+}
@@ -1,10 +1,29 @@
 package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.ConversationParticipant;
+import com.example.GestionClinique.repository.projection.DestinataireLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface ConversationParticipantRepository extends JpaRepository<ConversationParticipant, Long> {
     Optional<ConversationParticipant> findByConversationIdAndUtilisateurId(Long conversationId, Long utilisateurId);
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.DestinataireLigne(u.id, u.username) " +
+            "FROM ConversationParticipant cp JOIN cp.utilisateur u " +
+            "WHERE cp.conversation.id = :conversationId AND u.id <> :expediteurId")
+    List<DestinataireLigne> findDestinataires(@Param("conversationId") Long conversationId,
+                                              @Param("expediteurId") Long expediteurId);
+
+    @Modifying
+    @Query("UPDATE ConversationParticipant cp SET cp.unreadCount = cp.unreadCount + 1, cp.modificationDate = :maintenant " +
+            "WHERE cp.conversation.id = :conversationId AND cp.utilisateur.id <> :expediteurId")
+    int incrementUnreadCount(@Param("conversationId") Long conversationId,
+                             @Param("expediteurId") Long expediteurId,
+                             @Param("maintenant") LocalDateTime maintenant);
 }
@@ -0,0 +1,51 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.enumElem.TypeConversation;
+import com.example.GestionClinique.repository.projection.ResumeConversationLigne;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Résumé des conversations d'un utilisateur en une requête : le dernier message de chacune est
+ * trouvé par une sous-requête corrélée qui ne lit qu'une entrée de idx_message_conversation_creation.
+ */
+@Repository
+@AllArgsConstructor
+public class ConversationResumeRepository {
+
+    private static final String SELECT_RESUMES =
+            "SELECT cp.conversation_id, c.type_conversation, c.titre, cp.unread_count, cp.last_read_at, " +
+            "m.id AS message_id, m.contenu, m.creation_date AS message_date, u.id AS expediteur_id, u.nom, u.prenom " +
+            "FROM conversation_participant cp " +
+            "JOIN conversation c ON c.id = cp.conversation_id " +
+            "LEFT JOIN message m ON m.id = (SELECT d.id FROM message d WHERE d.conversation_id = cp.conversation_id " +
+            "AND d.supprime = false ORDER BY d.creation_date DESC, d.id DESC LIMIT 1) " +
+            "LEFT JOIN utilisateur u ON u.id = m.expediteur_id " +
+            "WHERE cp.utilisateur_id = :utilisateurId " +
+            "ORDER BY COALESCE(m.creation_date, c.creation_date) DESC, cp.conversation_id DESC";
+
+    private static final RowMapper<ResumeConversationLigne> LIGNE = (rs, i) -> new ResumeConversationLigne(
+            rs.getLong("conversation_id"),
+            TypeConversation.valueOf(rs.getString("type_conversation")),
+            rs.getString("titre"),
+            rs.getInt("unread_count"),
+            rs.getObject("last_read_at", LocalDateTime.class),
+            rs.getObject("message_id", Long.class),
+            rs.getString("contenu"),
+            rs.getObject("message_date", LocalDateTime.class),
+            rs.getObject("expediteur_id", Long.class),
+            rs.getString("nom"),
+            rs.getString("prenom"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<ResumeConversationLigne> findResumes(Long utilisateurId) {
+        return jdbcTemplate.query(SELECT_RESUMES, new MapSqlParameterSource("utilisateurId", utilisateurId), LIGNE);
+    }
+}
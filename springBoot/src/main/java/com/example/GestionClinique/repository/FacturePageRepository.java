@@ -0,0 +1,17 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
+import com.example.GestionClinique.repository.projection.FactureLigne;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Liste paginée des factures, construite selon les filtres renseignés ({@link RequetePage}). */
+public interface FacturePageRepository {
+
+    List<FactureLigne> findLignesPage(LocalDateTime debut, LocalDateTime fin, StatutPaiement statut, Long medecinId,
+                                      LocalDateTime curseurDate, Long curseurId, Pageable limite);
+
+    long countPage(LocalDateTime debut, LocalDateTime fin, StatutPaiement statut, Long medecinId);
+}
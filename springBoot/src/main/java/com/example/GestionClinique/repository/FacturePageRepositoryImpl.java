@@ -0,0 +1,37 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
+import com.example.GestionClinique.repository.projection.FactureLigne;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class FacturePageRepositoryImpl implements FacturePageRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<FactureLigne> findLignesPage(LocalDateTime debut, LocalDateTime fin, StatutPaiement statut, Long medecinId,
+                                             LocalDateTime curseurDate, Long curseurId, Pageable limite) {
+        return filtres(RequetePage.de(FactureRepository.LIGNE), debut, fin, statut, medecinId)
+                .page(em, FactureLigne.class, "f", curseurDate, curseurId, limite);
+    }
+
+    @Override
+    public long countPage(LocalDateTime debut, LocalDateTime fin, StatutPaiement statut, Long medecinId) {
+        return filtres(RequetePage.de("SELECT COUNT(f) FROM Facture f LEFT JOIN f.rendezVous r"), debut, fin, statut, medecinId)
+                .count(em);
+    }
+
+    private static RequetePage filtres(RequetePage requete, LocalDateTime debut, LocalDateTime fin,
+                                       StatutPaiement statut, Long medecinId) {
+        return requete.filtre("f.dateEmission >= :debut", "debut", debut)
+                .filtre("f.dateEmission < :fin", "fin", fin)
+                .filtre("f.statutPaiement = :statut", "statut", statut)
+                .filtre("r.medecin.id = :medecinId", "medecinId", medecinId);
+    }
+}
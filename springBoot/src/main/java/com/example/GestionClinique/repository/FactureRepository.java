@@ -3,26 +3,53 @@ package com.example.GestionClinique.repository;
 import com.example.GestionClinique.model.entity.Facture;
 import com.example.GestionClinique.model.entity.enumElem.ModePaiement;
 import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
+import com.example.GestionClinique.repository.projection.FactureLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface FactureRepository extends JpaRepository<Facture, Long> {
+public interface FactureRepository extends JpaRepository<Facture, Long>, FacturePageRepository {
+
+    String LIGNE = "SELECT new com.example.GestionClinique.repository.projection.FactureLigne(f.id, f.creationDate, " +
+            "f.modificationDate, f.montant, p.nom, p.prenom, f.dateEmission, cm.serviceMedical, r.serviceMedical, " +
+            "f.statutPaiement, f.modePaiement) FROM Facture f LEFT JOIN f.patient p LEFT JOIN f.consultation c " +
+            "LEFT JOIN c.medecin cm LEFT JOIN f.rendezVous r ";
+
     List<Facture> findByStatutPaiement(StatutPaiement statutPaiement);
     List<Facture> findByModePaiement(ModePaiement modePaiement);
     Optional<Facture> findByRendezVousId(Long id);
 
-    @Query("SELECT COALESCE(SUM(f.montant), 0.0) FROM Facture f WHERE DATE(f.dateEmission) = :date")
-    Double sumMontantTotalByDateFacture(@Param("date") LocalDate date);
+    @Query("SELECT COALESCE(SUM(f.montant), 0.0) FROM Facture f WHERE f.statutPaiement = 'PAYEE' " +
+            "AND f.dateEmission >= :debut AND f.dateEmission < :fin")
+    Double sumMontantPayeByDateEmissionRange(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+    @Query("SELECT truncate(f.dateEmission, day), SUM(f.montant) FROM Facture f WHERE f.statutPaiement = 'PAYEE' " +
+            "AND f.dateEmission >= :debut AND f.dateEmission < :fin GROUP BY truncate(f.dateEmission, day)")
+    List<Object[]> sumMontantPayeGroupedByJour(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+    @Query("SELECT truncate(f.dateEmission, month), SUM(f.montant) FROM Facture f WHERE f.statutPaiement = 'PAYEE' " +
+            "AND f.dateEmission >= :debut AND f.dateEmission < :fin GROUP BY truncate(f.dateEmission, month)")
+    List<Object[]> sumMontantPayeGroupedByMois(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 
-    @Query("SELECT COALESCE(SUM(f.montant), 0.0) FROM Facture f WHERE YEAR(f.dateEmission) = :year")
-    Double sumMontantTotalByYearFacture(@Param("year") int year);
     Optional<Object> findByConsultationId(Long consultationId);
 
-    @Query("SELECT SUM(f.montant) FROM Facture f WHERE MONTH(f.creationDate) = :month")
-    Double sumRevenueByMonth(@Param("month") int month);
+    @Modifying
+    @Query("DELETE FROM Facture f WHERE f.statutPaiement = 'IMPAYEE' AND f.rendezVous.id IN " +
+            "(SELECT r.id FROM RendezVous r WHERE r.id IN :rendezVousIds " +
+            "AND r.statut = com.example.GestionClinique.model.entity.enumElem.StatutRDV.ANNULE)")
+    int deleteImpayeesByRendezVousAnnules(@Param("rendezVousIds") Collection<Long> rendezVousIds);
+
+    @Query(LIGNE + "WHERE f.statutPaiement = :statut ORDER BY f.dateEmission DESC")
+    List<FactureLigne> findLignesByStatutPaiement(@Param("statut") StatutPaiement statut);
+
+    // Factures des consultations, directement ou par leur rendez-vous.
+    @Query(LIGNE + "LEFT JOIN r.consultation rc WHERE c.id IN :consultationIds OR rc.id IN :consultationIds " +
+            "ORDER BY f.dateEmission DESC, f.id DESC")
+    List<FactureLigne> findLignesByConsultationIds(@Param("consultationIds") Collection<Long> consultationIds);
 }
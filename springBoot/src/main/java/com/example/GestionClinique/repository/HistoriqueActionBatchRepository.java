@@ -0,0 +1,39 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.service.historiqueService.ActionAudit;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Insertion groupée des actions tracées : seul l'identifiant de l'utilisateur est écrit,
+ * sans chargement de l'entité.
+ */
+@Repository
+@AllArgsConstructor
+public class HistoriqueActionBatchRepository {
+
+    private static final String INSERT_ACTION =
+            "INSERT INTO historique_action (date_action, action_description, utilisateur_id, creation_date, modification_date) " +
+            "VALUES (:date, :description, :utilisateurId, :horodatage, :horodatage)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void insertActions(List<ActionAudit> actions) {
+        if (actions.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] params = actions.stream()
+                .map(a -> new MapSqlParameterSource()
+                        .addValue("date", a.date())
+                        .addValue("description", a.description())
+                        .addValue("utilisateurId", a.utilisateurId())
+                        .addValue("horodatage", a.horodatage()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_ACTION, params);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.repository.projection.HistoriqueActionLigne;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recherche paginée dans l'historique des actions. Seuls les filtres renseignés sont ajoutés à la
+ * requête, pour que chaque combinaison profite de son index : (creation_date, id) pour la période
+ * et le curseur, (utilisateur_id, creation_date, id) pour un utilisateur.
+ * <p>
+ * Sous PostgreSQL, le mot-clé est cherché en plein texte ({@code plainto_tsquery}, configuration
+ * {@code french}) sur un index GIN créé au démarrage ; les autres bases (H2 en test) retombent sur
+ * un {@code LIKE} insensible à la casse.
+ */
+@Repository
+public class HistoriqueActionRechercheRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoriqueActionRechercheRepository.class);
+
+    static final String INDEX_TEXTE =
+            "CREATE INDEX IF NOT EXISTS idx_historique_action_fts ON historique_action " +
+            "USING GIN (to_tsvector('french', action_description))";
+
+    private static final String SELECT_LIGNE =
+            "SELECT h.id, h.creation_date, h.modification_date, h.date_action, h.action_description, " +
+            "u.id AS utilisateur_id, u.nom, u.prenom, u.email " +
+            "FROM historique_action h JOIN utilisateur u ON u.id = h.utilisateur_id WHERE 1 = 1";
+
+    private static final String MOT_CLE_TEXTE =
+            " AND to_tsvector('french', h.action_description) @@ plainto_tsquery('french', :motCle)";
+    private static final String MOT_CLE_LIKE =
+            " AND LOWER(h.action_description) LIKE :motCle";
+
+    private static final RowMapper<HistoriqueActionLigne> LIGNE = (rs, i) -> new HistoriqueActionLigne(
+            rs.getLong("id"),
+            rs.getObject("creation_date", LocalDateTime.class),
+            rs.getObject("modification_date", LocalDateTime.class),
+            rs.getObject("date_action", LocalDate.class),
+            rs.getString("action_description"),
+            rs.getLong("utilisateur_id"),
+            rs.getString("nom"),
+            rs.getString("prenom"),
+            rs.getString("email"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean rechercheTexte;
+
+    public HistoriqueActionRechercheRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        String base = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connexion -> connexion.getMetaData().getDatabaseProductName());
+        this.rechercheTexte = "PostgreSQL".equalsIgnoreCase(base);
+    }
+
+    /** L'index plein texte n'est pas exprimable en JPA : il est créé après la mise à jour du schéma. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void creerIndexTexte() {
+        if (!rechercheTexte) {
+            return;
+        }
+        try {
+            jdbcTemplate.getJdbcTemplate().execute(INDEX_TEXTE);
+        } catch (RuntimeException e) {
+            logger.error("Création de l'index plein texte de l'historique impossible : {}", e.getMessage());
+        }
+    }
+
+    public boolean isRechercheTexte() {
+        return rechercheTexte;
+    }
+
+    /**
+     * {@code fin} est exclusive. La liste contient au plus {@code limite} lignes, des plus récentes
+     * aux plus anciennes, à partir de la position ({@code curseurDate}, {@code curseurId}) exclue.
+     */
+    public List<HistoriqueActionLigne> findLignesPage(LocalDateTime debut, LocalDateTime fin, Long utilisateurId, String motCle,
+                                                      LocalDateTime curseurDate, Long curseurId, int limite) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(SELECT_LIGNE);
+        ajouterFiltres(sql, params, debut, fin, utilisateurId, motCle);
+        if (curseurDate != null) {
+            // Borne sargable : l'index (creation_date, id) part du curseur au lieu de relire les pages précédentes.
+            sql.append(" AND h.creation_date <= :curseurDate AND (h.creation_date < :curseurDate OR h.id < :curseurId)");
+            params.addValue("curseurDate", curseurDate).addValue("curseurId", curseurId);
+        }
+        sql.append(" ORDER BY h.creation_date DESC, h.id DESC LIMIT :limite");
+        params.addValue("limite", limite);
+        return jdbcTemplate.query(sql.toString(), params, LIGNE);
+    }
+
+    public long countPage(LocalDateTime debut, LocalDateTime fin, Long utilisateurId, String motCle) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM historique_action h WHERE 1 = 1");
+        ajouterFiltres(sql, params, debut, fin, utilisateurId, motCle);
+        Long total = jdbcTemplate.queryForObject(sql.toString(), params, Long.class);
+        return total == null ? 0 : total;
+    }
+
+    private void ajouterFiltres(StringBuilder sql, MapSqlParameterSource params, LocalDateTime debut, LocalDateTime fin,
+                                Long utilisateurId, String motCle) {
+        if (debut != null) {
+            sql.append(" AND h.creation_date >= :debut");
+            params.addValue("debut", debut);
+        }
+        if (fin != null) {
+            sql.append(" AND h.creation_date < :fin");
+            params.addValue("fin", fin);
+        }
+        if (utilisateurId != null) {
+            sql.append(" AND h.utilisateur_id = :utilisateurId");
+            params.addValue("utilisateurId", utilisateurId);
+        }
+        if (motCle != null) {
+            if (rechercheTexte) {
+                sql.append(MOT_CLE_TEXTE);
+                params.addValue("motCle", motCle);
+            } else {
+                sql.append(MOT_CLE_LIKE);
+                params.addValue("motCle", "%" + motCle.toLowerCase(Locale.ROOT) + "%");
+            }
+        }
+    }
+}
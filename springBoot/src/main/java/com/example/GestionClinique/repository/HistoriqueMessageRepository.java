@@ -1,6 +1,28 @@
 package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.HistoriqueMessage;
+import com.example.GestionClinique.repository.projection.ChangementMessageLigne;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface HistoriqueMessageRepository extends JpaRepository<HistoriqueMessage, Long> {}
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HistoriqueMessageRepository extends JpaRepository<HistoriqueMessage, Long> {
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.ChangementMessageLigne(h.id, h.creationDate, m.id, h.action) " +
+            "FROM HistoriqueMessage h JOIN h.message m WHERE m.conversation.id = :conversationId " +
+            "AND h.creationDate >= :curseurDate AND (h.creationDate > :curseurDate OR h.id > :curseurId) " +
+            "ORDER BY h.creationDate ASC, h.id ASC")
+    List<ChangementMessageLigne> findChangementsApres(@Param("conversationId") Long conversationId,
+                                                     @Param("curseurDate") LocalDateTime curseurDate,
+                                                     @Param("curseurId") Long curseurId,
+                                                     Pageable limite);
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.ChangementMessageLigne(h.id, h.creationDate, m.id, h.action) " +
+            "FROM HistoriqueMessage h JOIN h.message m WHERE m.conversation.id = :conversationId " +
+            "ORDER BY h.creationDate DESC, h.id DESC")
+    List<ChangementMessageLigne> findDerniersChangements(@Param("conversationId") Long conversationId, Pageable limite);
+}
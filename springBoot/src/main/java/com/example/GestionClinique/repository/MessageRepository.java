@@ -4,7 +4,46 @@ import com.example.GestionClinique.model.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    Page<Message> findByConversationIdOrderByCreationDateDesc(Long conversationId, Pageable pageable);
+    Page<Message> findByConversationIdAndSupprimeFalseOrderByCreationDateDesc(Long conversationId, Pageable pageable);
+
+    // Historique par curseur sur (creation_date, id) : index idx_message_conversation_creation, sans OFFSET.
+    @Query("SELECT m FROM Message m JOIN FETCH m.expediteur e JOIN FETCH e.role " +
+            "WHERE m.conversation.id = :conversationId AND m.supprime = false " +
+            "ORDER BY m.creationDate DESC, m.id DESC")
+    List<Message> findPlusRecents(@Param("conversationId") Long conversationId, Pageable limite);
+
+    // La borne creationDate <= :curseurDate fait démarrer le parcours de l'index au curseur.
+    @Query("SELECT m FROM Message m JOIN FETCH m.expediteur e JOIN FETCH e.role " +
+            "WHERE m.conversation.id = :conversationId AND m.supprime = false " +
+            "AND m.creationDate <= :curseurDate AND (m.creationDate < :curseurDate OR m.id < :curseurId) " +
+            "ORDER BY m.creationDate DESC, m.id DESC")
+    List<Message> findPageAvant(@Param("conversationId") Long conversationId,
+                                @Param("curseurDate") LocalDateTime curseurDate,
+                                @Param("curseurId") Long curseurId,
+                                Pageable limite);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.expediteur e JOIN FETCH e.role " +
+            "WHERE m.conversation.id = :conversationId AND m.supprime = false " +
+            "AND m.creationDate >= :curseurDate AND (m.creationDate > :curseurDate OR m.id > :curseurId) " +
+            "ORDER BY m.creationDate ASC, m.id ASC")
+    List<Message> findPageApres(@Param("conversationId") Long conversationId,
+                                @Param("curseurDate") LocalDateTime curseurDate,
+                                @Param("curseurId") Long curseurId,
+                                Pageable limite);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.expediteur e JOIN FETCH e.role " +
+            "WHERE m.id IN :ids AND m.supprime = false ORDER BY m.creationDate ASC, m.id ASC")
+    List<Message> findVisiblesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Inclut les messages supprimés : ils font partie de la position de synchronisation.
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.creationDate DESC, m.id DESC")
+    List<Message> findDerniers(@Param("conversationId") Long conversationId, Pageable limite);
 }
@@ -0,0 +1,61 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.Notification;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insertion groupée des notifications d'une diffusion (message de groupe) : un seul batch JDBC
+ * quel que soit le nombre de destinataires. Les entités reçues sont complétées avec leur
+ * identifiant et leurs dates, comme dans {@link RendezVousBatchRepository}.
+ */
+@Repository
+@AllArgsConstructor
+public class NotificationBatchRepository {
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notification (type, contenu, lu, date_creation, id_utilisateur, id_message, id_rendezvous, " +
+            "creation_date, modification_date) VALUES (:type, :contenu, :lu, :dateCreation, :utilisateurId, :messageId, " +
+            ":rendezVousId, :maintenant, :maintenant)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void insertNotifications(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        SqlParameterSource[] params = notifications.stream()
+                .map(n -> new MapSqlParameterSource()
+                        .addValue("type", n.getType().name())
+                        .addValue("contenu", n.getContenu())
+                        .addValue("lu", n.isLu())
+                        .addValue("dateCreation", n.getDateCreation())
+                        .addValue("utilisateurId", n.getUtilisateur().getId())
+                        .addValue("messageId", n.getMessage() != null ? n.getMessage().getId() : null)
+                        .addValue("rendezVousId", n.getRendezVous() != null ? n.getRendezVous().getId() : null)
+                        .addValue("maintenant", maintenant))
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, params, keyHolder, new String[]{"id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != notifications.size()) {
+            throw new IllegalStateException("Clés générées inattendues : " + keys.size() + " pour " + notifications.size() + " lignes");
+        }
+        for (int i = 0; i < notifications.size(); i++) {
+            notifications.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            notifications.get(i).setCreationDate(maintenant);
+            notifications.get(i).setModificationDate(maintenant);
+        }
+    }
+}
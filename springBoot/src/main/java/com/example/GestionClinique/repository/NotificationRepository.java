@@ -2,7 +2,10 @@ package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.Notification;
 import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.projection.VersionLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,8 @@ import java.util.List;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUtilisateurOrderByDateCreationDesc(Utilisateur utilisateur);
     List<Notification> findByUtilisateurAndLuFalseOrderByDateCreationDesc(Utilisateur utilisateur);
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.VersionLigne(MAX(n.modificationDate), COUNT(n)) " +
+            "FROM Notification n WHERE n.utilisateur.id = :utilisateurId")
+    VersionLigne findVersionByUtilisateurId(@Param("utilisateurId") Long utilisateurId);
 }
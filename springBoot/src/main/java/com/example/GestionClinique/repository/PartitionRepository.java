@@ -0,0 +1,269 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.service.archivageService.PartitionInfo;
+import com.example.GestionClinique.service.archivageService.TableArchivee;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.rowset.SqlRowSetMetaData;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Partitionnement mensuel (PostgreSQL uniquement) et lecture/écriture en masse des tables
+ * archivées. Les méthodes qui enchaînent plusieurs ordres DDL doivent être appelées dans une
+ * transaction. Sur les autres bases (H2 en test), seules les opérations par période sont
+ * disponibles, sous forme de SELECT/DELETE sur {@code creation_date}.
+ */
+@Repository
+public class PartitionRepository {
+
+    private static final RowMapper<Map<String, Object>> LIGNE = new ColumnMapRowMapper();
+    private static final String PERIODE = "creation_date >= :debut AND creation_date < :fin";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate lecture;
+    private final boolean postgres;
+
+    public PartitionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Sous PostgreSQL, un fetch size n'évite de charger tout le résultat qu'à l'intérieur d'une transaction.
+        this.lecture = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        this.lecture.setFetchSize(1000);
+        String base = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connexion -> connexion.getMetaData().getDatabaseProductName());
+        this.postgres = "PostgreSQL".equalsIgnoreCase(base);
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    public boolean estPartitionnee(TableArchivee table) {
+        if (!postgres) {
+            return false;
+        }
+        Integer n = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                "WHERE c.oid = to_regclass(:table)",
+                new MapSqlParameterSource("table", table.nomTable()), Integer.class);
+        return n != null && n > 0;
+    }
+
+    /**
+     * Remplace la table par une table partitionnée par mois sur {@code creation_date}, de
+     * {@code depuis} à {@code jusqua} inclus, plus une partition par défaut pour le reste.
+     * La clé primaire devient (id, creation_date) ; l'identité est remplacée par une séquence
+     * repositionnée après le plus grand ID ; index non uniques et clés étrangères sont recréés.
+     * <p>
+     * À appeler dans une transaction : le DDL de PostgreSQL est transactionnel, un échec en cours
+     * de route laisse la table d'origine intacte. La table est verrouillée avant d'être relue, un
+     * second appel, même concurrent, ne fait rien et renvoie {@code false}.
+     */
+    public boolean partitionner(TableArchivee table, YearMonth depuis, YearMonth jusqua) {
+        String nom = table.nomTable();
+        String ancienne = nom + "_avant_partition";
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+
+        jdbc.execute("LOCK TABLE " + nom + " IN ACCESS EXCLUSIVE MODE");
+        if (estPartitionnee(table)) {
+            return false;
+        }
+        if (existe(ancienne) || existe(table.partitionParDefaut())) {
+            throw new IllegalArgumentException("Conversion de " + nom + " impossible : " + ancienne + " ou "
+                    + table.partitionParDefaut() + " existe déjà et doit être examinée à la main");
+        }
+        jdbc.execute("ALTER TABLE " + nom + " RENAME TO " + ancienne);
+        List<String> index = jdbc.queryForList(
+                "SELECT i.indexdef FROM pg_indexes i WHERE i.tablename = ? AND i.indexdef NOT LIKE 'CREATE UNIQUE%'",
+                String.class, ancienne);
+        List<Map<String, Object>> clesEtrangeres = jdbc.queryForList(
+                "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint " +
+                "WHERE conrelid = to_regclass(?) AND contype = 'f'", ancienne);
+
+        jdbc.execute("UPDATE " + ancienne + " SET creation_date = COALESCE(modification_date, now()) WHERE creation_date IS NULL");
+        jdbc.execute("CREATE TABLE " + nom + " (LIKE " + ancienne + " INCLUDING DEFAULTS) PARTITION BY RANGE (creation_date)");
+        jdbc.execute("ALTER TABLE " + nom + " ALTER COLUMN creation_date SET NOT NULL");
+        jdbc.execute("ALTER TABLE " + nom + " ADD CONSTRAINT pk_" + nom + "_partition PRIMARY KEY (id, creation_date)");
+        jdbc.execute("CREATE TABLE " + table.partitionParDefaut() + " PARTITION OF " + nom + " DEFAULT");
+        for (YearMonth mois = depuis; !mois.isAfter(jusqua); mois = mois.plusMonths(1)) {
+            jdbc.execute(ddlPartition(table, mois));
+        }
+        jdbc.execute("INSERT INTO " + nom + " SELECT * FROM " + ancienne);
+        jdbc.execute("DROP TABLE " + ancienne);
+
+        for (String definition : index) {
+            jdbc.execute(definition.replace(" " + ancienne + " USING", " " + nom + " USING")
+                    .replace("." + ancienne + " USING", "." + nom + " USING"));
+        }
+        for (Map<String, Object> cle : clesEtrangeres) {
+            jdbc.execute("ALTER TABLE " + nom + " ADD CONSTRAINT " + cle.get("conname") + " " + cle.get("definition"));
+        }
+        jdbc.execute("CREATE SEQUENCE IF NOT EXISTS " + nom + "_id_seq OWNED BY " + nom + ".id");
+        jdbc.execute("ALTER TABLE " + nom + " ALTER COLUMN id SET DEFAULT nextval('" + nom + "_id_seq')");
+        jdbc.execute("SELECT setval('" + nom + "_id_seq', COALESCE((SELECT MAX(id) FROM " + nom + "), 0) + 1, false)");
+        return true;
+    }
+
+    /**
+     * Crée la partition du mois si elle n'existe pas. Les lignes de ce mois déjà tombées dans la
+     * partition par défaut y sont déplacées : PostgreSQL refuse sinon la création.
+     */
+    public void creerPartition(TableArchivee table, YearMonth mois) {
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        if (existe(table.partition(mois))) {
+            return;
+        }
+        String defaut = table.partitionParDefaut();
+        String periode = " WHERE creation_date >= '" + mois.atDay(1) + "' AND creation_date < '" + mois.plusMonths(1).atDay(1) + "'";
+        Boolean aDeplacer = jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM " + defaut + periode + ")", Boolean.class);
+        if (!Boolean.TRUE.equals(aDeplacer)) {
+            jdbc.execute(ddlPartition(table, mois));
+            return;
+        }
+        jdbc.execute("ALTER TABLE " + table.nomTable() + " DETACH PARTITION " + defaut);
+        jdbc.execute(ddlPartition(table, mois));
+        jdbc.execute("INSERT INTO " + table.nomTable() + " SELECT * FROM " + defaut + periode);
+        jdbc.execute("DELETE FROM " + defaut + periode);
+        jdbc.execute("ALTER TABLE " + table.nomTable() + " ATTACH PARTITION " + defaut + " DEFAULT");
+    }
+
+    public List<PartitionInfo> partitions(TableArchivee table) {
+        if (estPartitionnee(table)) {
+            return jdbcTemplate.query(
+                    "SELECT c.relname AS nom, CAST(GREATEST(c.reltuples, 0) AS bigint) AS lignes, pg_total_relation_size(c.oid) AS taille " +
+                    "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "WHERE i.inhparent = to_regclass(:table) ORDER BY c.relname",
+                    new MapSqlParameterSource("table", table.nomTable()),
+                    (rs, i) -> {
+                        String nom = rs.getString("nom");
+                        return new PartitionInfo(table.nomTable(), nom, periode(table, nom), rs.getLong("lignes"), rs.getLong("taille"));
+                    });
+        }
+        return jdbcTemplate.query(
+                "SELECT EXTRACT(YEAR FROM creation_date) AS annee, EXTRACT(MONTH FROM creation_date) AS mois, COUNT(*) AS lignes " +
+                "FROM " + table.nomTable() + " GROUP BY EXTRACT(YEAR FROM creation_date), EXTRACT(MONTH FROM creation_date) " +
+                "ORDER BY annee, mois",
+                new MapSqlParameterSource(),
+                (rs, i) -> {
+                    if (rs.getObject("annee") == null) {
+                        return new PartitionInfo(table.nomTable(), table.nomTable(), "defaut", rs.getLong("lignes"), null);
+                    }
+                    YearMonth mois = YearMonth.of(rs.getInt("annee"), rs.getInt("mois"));
+                    return new PartitionInfo(table.nomTable(), table.nomTable(), mois.toString(), rs.getLong("lignes"), null);
+                });
+    }
+
+    public LocalDateTime plusAncienne(TableArchivee table) {
+        return jdbcTemplate.queryForObject("SELECT MIN(creation_date) FROM " + table.nomTable(),
+                new MapSqlParameterSource(), LocalDateTime.class);
+    }
+
+    public long compter(TableArchivee table, YearMonth mois) {
+        Long n = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table.nomTable() + " WHERE " + PERIODE,
+                periode(mois), Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /** Parcourt les lignes du mois par paquets, sans les charger toutes en mémoire. */
+    public void parcourir(TableArchivee table, YearMonth mois, Consumer<Map<String, Object>> consommateur) {
+        new NamedParameterJdbcTemplate(lecture).query(
+                "SELECT * FROM " + table.nomTable() + " WHERE " + PERIODE + " ORDER BY creation_date, id",
+                periode(mois), (RowCallbackHandler) rs -> consommateur.accept(LIGNE.mapRow(rs, rs.getRow())));
+    }
+
+    /** Supprime les lignes du mois ; sous PostgreSQL partitionné, la partition entière est supprimée. */
+    public int supprimer(TableArchivee table, YearMonth mois) {
+        if (estPartitionnee(table) && existe(table.partition(mois))) {
+            jdbcTemplate.getJdbcTemplate().execute("DROP TABLE " + table.partition(mois));
+        }
+        return jdbcTemplate.update("DELETE FROM " + table.nomTable() + " WHERE " + PERIODE, periode(mois));
+    }
+
+    /**
+     * Réinsère des lignes archivées. Seules les colonnes existant dans la table sont écrites ; les
+     * dates, lues comme chaînes ISO, sont reconverties selon le type de la colonne.
+     */
+    public void inserer(TableArchivee table, List<Map<String, Object>> lignes) {
+        if (lignes.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> types = colonnes(table);
+        List<String> noms = lignes.get(0).keySet().stream()
+                .filter(colonne -> types.containsKey(colonne.toLowerCase()))
+                .toList();
+        String sql = "INSERT INTO " + table.nomTable() + " (" + String.join(", ", noms) + ") VALUES (" +
+                noms.stream().map(colonne -> ":" + colonne).collect(Collectors.joining(", ")) + ")";
+
+        List<SqlParameterSource> params = new ArrayList<>(lignes.size());
+        for (Map<String, Object> ligne : lignes) {
+            MapSqlParameterSource source = new MapSqlParameterSource();
+            for (String colonne : noms) {
+                source.addValue(colonne, convertir(ligne.get(colonne), types.get(colonne.toLowerCase())));
+            }
+            params.add(source);
+        }
+        jdbcTemplate.batchUpdate(sql, params.toArray(SqlParameterSource[]::new));
+    }
+
+    private Map<String, Integer> colonnes(TableArchivee table) {
+        SqlRowSetMetaData meta = jdbcTemplate.queryForRowSet(
+                "SELECT * FROM " + table.nomTable() + " WHERE 1 = 0", new MapSqlParameterSource()).getMetaData();
+        Map<String, Integer> types = new LinkedHashMap<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            types.put(meta.getColumnName(i).toLowerCase(), meta.getColumnType(i));
+        }
+        return types;
+    }
+
+    private static Object convertir(Object valeur, int type) {
+        if (!(valeur instanceof String texte)) {
+            return valeur instanceof Integer entier && type == Types.BIGINT ? entier.longValue() : valeur;
+        }
+        return switch (type) {
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> Timestamp.valueOf(LocalDateTime.parse(texte));
+            case Types.DATE -> java.sql.Date.valueOf(LocalDate.parse(texte));
+            default -> texte;
+        };
+    }
+
+    private static MapSqlParameterSource periode(YearMonth mois) {
+        return new MapSqlParameterSource()
+                .addValue("debut", mois.atDay(1).atStartOfDay())
+                .addValue("fin", mois.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    private static String periode(TableArchivee table, String partition) {
+        if (partition.equals(table.partitionParDefaut())) {
+            return "defaut";
+        }
+        String suffixe = partition.substring(partition.length() - 6);
+        return YearMonth.of(Integer.parseInt(suffixe.substring(0, 4)), Integer.parseInt(suffixe.substring(4))).toString();
+    }
+
+    private boolean existe(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(:relation) IS NOT NULL",
+                new MapSqlParameterSource("relation", relation), Boolean.class));
+    }
+
+    private static String ddlPartition(TableArchivee table, YearMonth mois) {
+        return "CREATE TABLE IF NOT EXISTS " + table.partition(mois) + " PARTITION OF " + table.nomTable() +
+                " FOR VALUES FROM ('" + mois.atDay(1) + "') TO ('" + mois.plusMonths(1).atDay(1) + "')";
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.Patient;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Liste paginée des patients, construite selon les filtres renseignés ({@link RequetePage}). */
+public interface PatientPageRepository {
+
+    List<Patient> findPage(LocalDateTime debut, LocalDateTime fin, LocalDateTime curseurDate, Long curseurId, Pageable limite);
+
+    long countPage(LocalDateTime debut, LocalDateTime fin);
+}
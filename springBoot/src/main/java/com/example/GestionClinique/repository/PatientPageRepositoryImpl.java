@@ -0,0 +1,32 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class PatientPageRepositoryImpl implements PatientPageRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Patient> findPage(LocalDateTime debut, LocalDateTime fin, LocalDateTime curseurDate, Long curseurId,
+                                  Pageable limite) {
+        return filtres(RequetePage.de("SELECT p FROM Patient p"), debut, fin)
+                .page(em, Patient.class, "p", curseurDate, curseurId, limite);
+    }
+
+    @Override
+    public long countPage(LocalDateTime debut, LocalDateTime fin) {
+        return filtres(RequetePage.de("SELECT COUNT(p) FROM Patient p"), debut, fin).count(em);
+    }
+
+    private static RequetePage filtres(RequetePage requete, LocalDateTime debut, LocalDateTime fin) {
+        return requete.filtre("p.creationDate >= :debut", "debut", debut)
+                .filtre("p.creationDate < :fin", "fin", fin);
+    }
+}
@@ -1,30 +1,50 @@
 package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.repository.projection.VersionDossierLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface PatientRepository extends JpaRepository<Patient, Long> {
-    @Query("SELECT p FROM Patient p WHERE " +
-            "LOWER(p.nom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(p.prenom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(p.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Patient> searchByTerm(String searchTerm);
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientPageRepository {
+    List<Patient> findTop500ByRechercheIsNull();
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.VersionLigne(MAX(p.modificationDate), COUNT(p)) FROM Patient p")
+    VersionLigne findVersion();
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.VersionLigne(MAX(p.modificationDate), COUNT(p)) FROM Patient p WHERE p.id = :id")
+    VersionLigne findVersionById(@Param("id") Long id);
+
+    @Query("SELECT p FROM Patient p LEFT JOIN FETCH p.dossierMedical WHERE p.id = :id")
+    Optional<Patient> findAvecDossier(@Param("id") Long id);
+
+    @Query("SELECT new com.example.GestionClinique.repository.projection.VersionDossierLigne(p.modificationDate, " +
+            "d.modificationDate, " +
+            "(SELECT COUNT(c) FROM Consultation c WHERE c.dossierMedical = d), " +
+            "(SELECT MAX(c.modificationDate) FROM Consultation c WHERE c.dossierMedical = d), " +
+            "(SELECT COUNT(pr) FROM Prescription pr WHERE pr.consultation.dossierMedical = d), " +
+            "(SELECT MAX(pr.modificationDate) FROM Prescription pr WHERE pr.consultation.dossierMedical = d), " +
+            "(SELECT COUNT(f) FROM Facture f WHERE f.patient = p), " +
+            "(SELECT MAX(f.modificationDate) FROM Facture f WHERE f.patient = p)) " +
+            "FROM Patient p LEFT JOIN p.dossierMedical d WHERE p.id = :id")
+    Optional<VersionDossierLigne> findVersionDossier(@Param("id") Long id);
 
     List<Patient> findByNom(String nom);
     Optional<Patient> findByEmail(String email);
 
-    @Query("SELECT COUNT(p) FROM Patient p WHERE DATE(p.creationDate) = :date")
-    Long countByDateEnregistrement(@Param("date") LocalDate date);
+    @Query("SELECT COUNT(p) FROM Patient p WHERE p.creationDate >= :debut AND p.creationDate < :fin")
+    long countByCreationDateRange(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 
-    @Query("SELECT COUNT(p) FROM Patient p WHERE YEAR(p.creationDate) = :year")
-    Long countByYearEnregistrement(@Param("year") int year);
+    @Query("SELECT truncate(p.creationDate, day), COUNT(p) FROM Patient p " +
+            "WHERE p.creationDate >= :debut AND p.creationDate < :fin GROUP BY truncate(p.creationDate, day)")
+    List<Object[]> countGroupedByJour(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 
-    @Query("SELECT COUNT(p) FROM Patient p WHERE MONTH(p.creationDate) = :month")
-    long countByMonth(@Param("month") int month);
+    @Query("SELECT truncate(p.creationDate, month), COUNT(p) FROM Patient p " +
+            "WHERE p.creationDate >= :debut AND p.creationDate < :fin GROUP BY truncate(p.creationDate, month)")
+    List<Object[]> countGroupedByMois(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 }
@@ -1,14 +1,23 @@
 package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.Prescription;
+import com.example.GestionClinique.repository.projection.PrescriptionLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
     List<Prescription> findByMedecinId(Long medecinId);
     List<Prescription> findByPatientId(Long patientId);
     List<Prescription> findByConsultationId(Long consultationId);
-}
-
 
+    @Query("SELECT new com.example.GestionClinique.repository.projection.PrescriptionLigne(pr.id, pr.creationDate, " +
+            "pr.modificationDate, m.id, m.nom, m.prenom, p.id, p.nom, p.prenom, pr.typePrescription, pr.medicaments, " +
+            "pr.instructions, pr.dureePrescription, pr.quantite, c.motifs, c.id) FROM Prescription pr " +
+            "LEFT JOIN pr.medecin m LEFT JOIN pr.patient p JOIN pr.consultation c " +
+            "WHERE c.id IN :consultationIds ORDER BY pr.id")
+    List<PrescriptionLigne> findLignesByConsultationIds(@Param("consultationIds") Collection<Long> consultationIds);
+}
@@ -0,0 +1,140 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.repository.projection.PatientCleLigne;
+import com.example.GestionClinique.repository.projection.TexteRechercheLigne;
+import com.example.GestionClinique.service.rechercheService.CibleRecherche;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Recherche approchée sur la colonne {@code recherche} (voir {@code TexteRecherche}) des patients et
+ * des utilisateurs. Sous PostgreSQL, l'extension {@code pg_trgm} et deux index par table sont créés
+ * au démarrage : un GIN {@code gin_trgm_ops} pour la similarité et le {@code LIKE '%terme%'}, un
+ * B-tree {@code text_pattern_ops} pour le préfixe. Si l'extension ne peut pas être installée, ou
+ * sur les autres bases (H2 en test), {@link #isTrigrammes()} est faux et la recherche passe par
+ * l'index n-grammes en mémoire du {@code RechercheService}.
+ */
+@Repository
+public class RechercheRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(RechercheRepository.class);
+
+    static final String EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+    static final String INDEX_TRIGRAMMES =
+            "CREATE INDEX IF NOT EXISTS idx_%1$s_recherche_trgm ON %1$s USING GIN (recherche gin_trgm_ops)";
+    static final String INDEX_PREFIXE =
+            "CREATE INDEX IF NOT EXISTS idx_%1$s_recherche_prefixe ON %1$s (recherche text_pattern_ops)";
+
+    // Les mots commençant par le terme d'abord, puis par similarité décroissante.
+    private static final String SELECT_SIMILAIRES =
+            "SELECT id FROM %s WHERE recherche LIKE :contient OR :terme <%% recherche " +
+            "ORDER BY CASE WHEN recherche LIKE :debut OR recherche LIKE :mot THEN 0 ELSE 1 END, " +
+            "word_similarity(:terme, recherche) DESC, id LIMIT :limite";
+
+    private static final String SELECT_PREFIXE =
+            "SELECT id FROM %s WHERE recherche LIKE :debut ORDER BY recherche, id LIMIT :limite";
+
+    private static final String SELECT_TEXTES =
+            "SELECT id, recherche, modification_date FROM %s WHERE recherche IS NOT NULL";
+
+    private static final String SELECT_CLES_PATIENTS = "SELECT id, nom, prenom, email, telephone FROM patient";
+    private static final int TAILLE_LOT_LECTURE = 1000;
+
+    private static final RowMapper<TexteRechercheLigne> LIGNE = (rs, i) -> new TexteRechercheLigne(
+            rs.getLong("id"),
+            rs.getString("recherche"),
+            rs.getObject("modification_date", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile boolean trigrammes;
+
+    public RechercheRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        String base = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connexion -> connexion.getMetaData().getDatabaseProductName());
+        this.trigrammes = "PostgreSQL".equalsIgnoreCase(base);
+    }
+
+    /** Les index d'opérateurs {@code pg_trgm} ne sont pas exprimables en JPA : ils sont créés après la mise à jour du schéma. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void creerIndex() {
+        if (!trigrammes) {
+            return;
+        }
+        try {
+            jdbcTemplate.getJdbcTemplate().execute(EXTENSION);
+            for (CibleRecherche cible : CibleRecherche.values()) {
+                jdbcTemplate.getJdbcTemplate().execute(INDEX_TRIGRAMMES.formatted(cible.getTable()));
+                jdbcTemplate.getJdbcTemplate().execute(INDEX_PREFIXE.formatted(cible.getTable()));
+            }
+        } catch (RuntimeException e) {
+            trigrammes = false;
+            logger.error("Index trigrammes indisponibles, recherche par l'index en mémoire : {}", e.getMessage());
+        }
+    }
+
+    public boolean isTrigrammes() {
+        return trigrammes;
+    }
+
+    /** {@code terme} est déjà normalisé et ne contient donc ni {@code %} ni {@code _}. */
+    public List<Long> findSimilaires(CibleRecherche cible, String terme, int limite) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("terme", terme)
+                .addValue("contient", "%" + terme + "%")
+                .addValue("debut", terme + "%")
+                .addValue("mot", "% " + terme + "%")
+                .addValue("limite", limite);
+        return jdbcTemplate.queryForList(SELECT_SIMILAIRES.formatted(cible.getTable()), params, Long.class);
+    }
+
+    /** Textes commençant par {@code debut}, c'est-à-dire par le nom : seul cas servi par l'index B-tree. */
+    public List<Long> findParPrefixe(CibleRecherche cible, String debut, int limite) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("debut", debut + "%")
+                .addValue("limite", limite);
+        return jdbcTemplate.queryForList(SELECT_PREFIXE.formatted(cible.getTable()), params, Long.class);
+    }
+
+    /** Toutes les lignes si {@code depuis} est nul, sinon celles modifiées à partir de {@code depuis}. */
+    public List<TexteRechercheLigne> findTextes(CibleRecherche cible, LocalDateTime depuis) {
+        String sql = SELECT_TEXTES.formatted(cible.getTable());
+        if (depuis == null) {
+            return jdbcTemplate.query(sql, LIGNE);
+        }
+        return jdbcTemplate.query(sql + " AND modification_date >= :depuis",
+                new MapSqlParameterSource("depuis", depuis), LIGNE);
+    }
+
+    /**
+     * Lit tous les patients sans les garder en mémoire. Sous PostgreSQL, le curseur ne lit par lots
+     * de {@link #TAILLE_LOT_LECTURE} que dans une transaction : l'appelant doit en ouvrir une.
+     */
+    public void parcourirPatients(Consumer<PatientCleLigne> traitement) {
+        jdbcTemplate.getJdbcTemplate().query(connexion -> {
+            PreparedStatement statement = connexion.prepareStatement(SELECT_CLES_PATIENTS);
+            statement.setFetchSize(TAILLE_LOT_LECTURE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            traitement.accept(new PatientCleLigne(
+                    rs.getLong("id"),
+                    rs.getString("nom"),
+                    rs.getString("prenom"),
+                    rs.getString("email"),
+                    rs.getString("telephone")));
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.repository.projection.TrameRelaisLigne;
+import com.example.GestionClinique.service.relaisService.TrameRelais;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Table {@code websocket_relais} partagée par les nœuds en mode relais : chaque trame publiée y est
+ * insérée et les autres nœuds la lisent par identifiant croissant. Sous PostgreSQL, chaque insertion
+ * est suivie d'un {@code NOTIFY} sur {@link #CANAL} pour réveiller les nœuds en attente.
+ * <p>
+ * La table n'est pas une entité : elle est créée au démarrage du relais, seulement s'il est activé.
+ */
+@Repository
+public class RelaisRepository {
+
+    public static final String CANAL = "websocket_relais";
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS websocket_relais (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+            "noeud VARCHAR(64) NOT NULL, " +
+            "destination VARCHAR(255) NOT NULL, " +
+            "content_type VARCHAR(100), " +
+            "contenu %s NOT NULL, " +
+            "creation_date TIMESTAMP NOT NULL)";
+
+    private static final String INSERT_TRAME =
+            "INSERT INTO websocket_relais (noeud, destination, content_type, contenu, creation_date) " +
+            "VALUES (:noeud, :destination, :contentType, :contenu, :maintenant)";
+
+    // Les trames du nœud sont relues sans leur contenu : leurs identifiants ne doivent pas passer pour des trous.
+    private static final String SELECT_TRAMES =
+            "SELECT id, noeud, destination, content_type, " +
+            "CASE WHEN noeud = :noeud THEN NULL ELSE contenu END AS contenu FROM websocket_relais WHERE ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public RelaisRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        String base = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connexion -> connexion.getMetaData().getDatabaseProductName());
+        this.postgres = "PostgreSQL".equalsIgnoreCase(base);
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    public void creerTable() {
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_TABLE.formatted(postgres ? "BYTEA" : "VARBINARY"));
+    }
+
+    public void inserer(TrameRelais trame) {
+        jdbcTemplate.update(INSERT_TRAME, new MapSqlParameterSource()
+                .addValue("noeud", trame.noeud())
+                .addValue("destination", trame.destination())
+                .addValue("contentType", trame.contentType())
+                .addValue("contenu", trame.contenu())
+                .addValue("maintenant", LocalDateTime.now()));
+        if (postgres) {
+            jdbcTemplate.getJdbcTemplate().execute("NOTIFY " + CANAL);
+        }
+    }
+
+    /**
+     * Trames d'identifiant supérieur à {@code depuis}, plus celles des {@code trous} : identifiants
+     * sautés lors d'une lecture précédente, dont l'insertion n'était peut-être pas encore validée.
+     */
+    public List<TrameRelaisLigne> lireDepuis(long depuis, Collection<Long> trous, String noeud, int limite) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("depuis", depuis)
+                .addValue("noeud", noeud)
+                .addValue("limite", limite);
+        String filtre = "id > :depuis";
+        if (!trous.isEmpty()) {
+            filtre = "(" + filtre + " OR id IN (:trous))";
+            params.addValue("trous", trous);
+        }
+        return jdbcTemplate.query(SELECT_TRAMES + filtre + " ORDER BY id LIMIT :limite", params,
+                (rs, i) -> new TrameRelaisLigne(
+                        rs.getLong("id"),
+                        rs.getString("noeud"),
+                        rs.getString("destination"),
+                        rs.getString("content_type"),
+                        rs.getBytes("contenu")));
+    }
+
+    public long dernierId() {
+        Long id = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(id) FROM websocket_relais", Long.class);
+        return id != null ? id : 0L;
+    }
+
+    public int purger(LocalDateTime avant) {
+        return jdbcTemplate.update("DELETE FROM websocket_relais WHERE creation_date < :avant",
+                new MapSqlParameterSource("avant", avant));
+    }
+}
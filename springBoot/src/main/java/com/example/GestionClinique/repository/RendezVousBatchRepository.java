@@ -0,0 +1,144 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.Facture;
+import com.example.GestionClinique.model.entity.RendezVous;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insertions groupées en JDBC : les identifiants IDENTITY empêchent Hibernate de regrouper
+ * les INSERT, on passe donc par un batch JDBC qui récupère les clés générées. Les entités
+ * reçues sont complétées avec leur identifiant et leurs dates.
+ * <p>
+ * Les rendez-vous sont insérés dans un point de sauvegarde : si un créneau a été pris entre la
+ * vérification et l'insertion, le lot est annulé seul (PostgreSQL refuserait sinon toute la suite
+ * de la transaction) puis rejoué ligne par ligne pour isoler les créneaux perdus.
+ */
+@Repository
+@AllArgsConstructor
+public class RendezVousBatchRepository {
+
+    private static final String INSERT_RENDEZ_VOUS =
+            "INSERT INTO rendez_vous (heure, jour, statut, notes, service_medical, patient_id, medecin_id, salle_id, " +
+            "creation_date, modification_date) VALUES (:heure, :jour, :statut, :notes, :serviceMedical, :patientId, " +
+            ":medecinId, :salleId, :maintenant, :maintenant)";
+
+    private static final String INSERT_FACTURE =
+            "INSERT INTO factures (montant, date_emission, statut_paiement, mode_paiement, patient_id, rendez_vous_id, " +
+            "creation_date, modification_date) VALUES (:montant, :dateEmission, :statutPaiement, :modePaiement, " +
+            ":patientId, :rendezVousId, :maintenant, :maintenant)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère les rendez-vous et renvoie ceux dont le créneau a été pris entre-temps (violation
+     * d'unicité médecin ou salle) ; ces derniers ne sont pas insérés et restent sans identifiant.
+     * Doit être appelé dans une transaction, qui porte les points de sauvegarde.
+     */
+    public List<RendezVous> insertRendezVous(List<RendezVous> rendezVous) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        try {
+            dansPointDeSauvegarde(() -> inserer(rendezVous, maintenant));
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            // Le lot a été annulé jusqu'au point de sauvegarde : rejoue chaque ligne isolément.
+            List<RendezVous> enConflit = new ArrayList<>();
+            for (RendezVous r : rendezVous) {
+                try {
+                    dansPointDeSauvegarde(() -> inserer(List.of(r), maintenant));
+                } catch (DuplicateKeyException conflit) {
+                    enConflit.add(r);
+                }
+            }
+            return enConflit;
+        }
+    }
+
+    /**
+     * Les points de sauvegarde JPA ne sont pas pris en charge par le dialecte Hibernate : on les pose
+     * directement sur la connexion JDBC de la transaction en cours, partagée avec l'EntityManager.
+     */
+    private void dansPointDeSauvegarde(Runnable action) {
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connexion -> {
+            Savepoint savepoint = connexion.setSavepoint();
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                connexion.rollback(savepoint);
+                throw e;
+            }
+            connexion.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private void inserer(List<RendezVous> rendezVous, LocalDateTime maintenant) {
+        SqlParameterSource[] params = rendezVous.stream()
+                .map(r -> new MapSqlParameterSource()
+                        .addValue("heure", r.getHeure())
+                        .addValue("jour", r.getJour())
+                        .addValue("statut", r.getStatut().name())
+                        .addValue("notes", r.getNotes())
+                        .addValue("serviceMedical", r.getServiceMedical().name())
+                        .addValue("patientId", r.getPatient().getId())
+                        .addValue("medecinId", r.getMedecin().getId())
+                        .addValue("salleId", r.getSalle().getId())
+                        .addValue("maintenant", maintenant))
+                .toArray(SqlParameterSource[]::new);
+        List<Long> ids = batchInsert(INSERT_RENDEZ_VOUS, params);
+        for (int i = 0; i < rendezVous.size(); i++) {
+            rendezVous.get(i).setId(ids.get(i));
+            rendezVous.get(i).setCreationDate(maintenant);
+            rendezVous.get(i).setModificationDate(maintenant);
+        }
+    }
+
+    public void insertFactures(List<Facture> factures) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        SqlParameterSource[] params = factures.stream()
+                .map(f -> new MapSqlParameterSource()
+                        .addValue("montant", f.getMontant())
+                        .addValue("dateEmission", f.getDateEmission())
+                        .addValue("statutPaiement", f.getStatutPaiement().name())
+                        .addValue("modePaiement", f.getModePaiement().name())
+                        .addValue("patientId", f.getPatient() != null ? f.getPatient().getId() : null)
+                        .addValue("rendezVousId", f.getRendezVous().getId())
+                        .addValue("maintenant", maintenant))
+                .toArray(SqlParameterSource[]::new);
+        List<Long> ids = batchInsert(INSERT_FACTURE, params);
+        for (int i = 0; i < factures.size(); i++) {
+            factures.get(i).setId(ids.get(i));
+            factures.get(i).setCreationDate(maintenant);
+            factures.get(i).setModificationDate(maintenant);
+        }
+    }
+
+    private List<Long> batchInsert(String sql, SqlParameterSource[] params) {
+        if (params.length == 0) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, params, keyHolder, new String[]{"id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != params.length) {
+            throw new IllegalStateException("Clés générées inattendues : " + keys.size() + " pour " + params.length + " lignes");
+        }
+        return keys.stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Liste paginée des rendez-vous, construite selon les filtres renseignés ({@link RequetePage}). */
+public interface RendezVousPageRepository {
+
+    List<RendezVousLigne> findLignesPage(LocalDate du, LocalDate au, StatutRDV statut, Long medecinId,
+                                         LocalDateTime curseurDate, Long curseurId, Pageable limite);
+
+    long countPage(LocalDate du, LocalDate au, StatutRDV statut, Long medecinId);
+}
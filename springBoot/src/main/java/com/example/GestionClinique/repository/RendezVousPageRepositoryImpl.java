@@ -0,0 +1,37 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class RendezVousPageRepositoryImpl implements RendezVousPageRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<RendezVousLigne> findLignesPage(LocalDate du, LocalDate au, StatutRDV statut, Long medecinId,
+                                                LocalDateTime curseurDate, Long curseurId, Pageable limite) {
+        return filtres(RequetePage.de(RendezVousRepository.LIGNE), du, au, statut, medecinId)
+                .page(em, RendezVousLigne.class, "r", curseurDate, curseurId, limite);
+    }
+
+    @Override
+    public long countPage(LocalDate du, LocalDate au, StatutRDV statut, Long medecinId) {
+        return filtres(RequetePage.de("SELECT COUNT(r) FROM RendezVous r"), du, au, statut, medecinId)
+                .count(em);
+    }
+
+    private static RequetePage filtres(RequetePage requete, LocalDate du, LocalDate au, StatutRDV statut, Long medecinId) {
+        return requete.filtre("r.jour >= :du", "du", du)
+                .filtre("r.jour <= :au", "au", au)
+                .filtre("r.statut = :statut", "statut", statut)
+                .filtre("r.medecin.id = :medecinId", "medecinId", medecinId);
+    }
+}
@@ -2,26 +2,70 @@ package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface RendezVousRepository extends JpaRepository<RendezVous, Long> {
+public interface RendezVousRepository extends JpaRepository<RendezVous, Long>, RendezVousPageRepository {
+
+    String LIGNE = "SELECT new com.example.GestionClinique.repository.projection.RendezVousLigne(r.id, r.creationDate, " +
+            "r.modificationDate, p.id, p.prenom, p.nom, r.jour, r.heure, r.statut, r.notes, r.serviceMedical, " +
+            "m.id, m.prenom, m.nom, s.id, s.numeroSalle, f.id) FROM RendezVous r LEFT JOIN r.patient p " +
+            "LEFT JOIN r.medecin m LEFT JOIN r.salle s LEFT JOIN r.facture f ";
+
+    // Les dates des patients, médecins et factures affichés dans la ligne ; une facture liée ne modifie pas le rendez-vous.
+    String VERSION = "SELECT new com.example.GestionClinique.repository.projection.VersionLigne(MAX(r.modificationDate), " +
+            "MAX(p.modificationDate), MAX(m.modificationDate), MAX(f.modificationDate), COUNT(r), COUNT(f)) " +
+            "FROM RendezVous r LEFT JOIN r.patient p LEFT JOIN r.medecin m LEFT JOIN r.facture f ";
+
     List<RendezVous> findByJour(LocalDate jour);
+
+    @Query("SELECT r.heure, r.medecin.id, r.salle.id, r.statut FROM RendezVous r WHERE r.jour = :jour")
+    List<Object[]> findCreneauxByJour(@Param("jour") LocalDate jour);
+
+    @Query("SELECT r.id, r.jour FROM RendezVous r WHERE r.statut = :statut " +
+            "AND r.jour >= :debut AND r.jour < :fin AND r.id > :apresId ORDER BY r.id")
+    List<Object[]> findIdAndJourByStatutAndJourRangeAfterId(@Param("statut") StatutRDV statut,
+                                                            @Param("debut") LocalDate debut,
+                                                            @Param("fin") LocalDate fin,
+                                                            @Param("apresId") Long apresId,
+                                                            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE RendezVous r SET r.statut = :nouveauStatut, r.modificationDate = :maintenant " +
+            "WHERE r.id IN :ids AND r.statut = :ancienStatut")
+    int updateStatutByIds(@Param("ids") Collection<Long> ids,
+                          @Param("ancienStatut") StatutRDV ancienStatut,
+                          @Param("nouveauStatut") StatutRDV nouveauStatut,
+                          @Param("maintenant") LocalDateTime maintenant);
+
+    @Query("SELECT r.jour, r.heure, r.medecin.id, r.salle.id FROM RendezVous r " +
+            "WHERE r.jour >= :debut AND r.jour < :fin AND (r.medecin.id IN :medecinIds OR r.salle.id IN :salleIds)")
+    List<Object[]> findCreneauxByJourRange(@Param("debut") LocalDate debut,
+                                           @Param("fin") LocalDate fin,
+                                           @Param("medecinIds") Collection<Long> medecinIds,
+                                           @Param("salleIds") Collection<Long> salleIds);
     Optional<RendezVous> findByJourAndHeureAndSalleId(LocalDate jour, LocalTime heure, Long salleId);
     Optional<RendezVous> findByJourAndHeureAndMedecinId(LocalDate jour, LocalTime heure, Long medecinId);
 
-    @Query("SELECT r FROM RendezVous r WHERE " +
-            "LOWER(r.patient.nom) LIKE LOWER(CONCAT('%', :patientSearchTerm, '%')) OR " +
-            "LOWER(r.patient.prenom) LIKE LOWER(CONCAT('%', :patientSearchTerm, '%')) OR " +
-            "LOWER(r.patient.email) LIKE LOWER(CONCAT('%', :patientSearchTerm, '%')) OR " +
-            "CAST(r.patient.id AS string) LIKE CONCAT('%', :patientSearchTerm, '%')")
-    List<RendezVous> findRendezVousByPatientSearchTerm(@Param("patientSearchTerm") String patientSearchTerm);
+    /** Les {@code parPersonne} rendez-vous les plus récents de chacun des patients. */
+    @Query("SELECT r FROM RendezVous r JOIN FETCH r.patient JOIN FETCH r.medecin WHERE r.id IN (" +
+            "SELECT d.id FROM (SELECT x.id AS id, ROW_NUMBER() OVER (PARTITION BY x.patient.id " +
+            "ORDER BY x.jour DESC, x.heure DESC) AS rang FROM RendezVous x WHERE x.patient.id IN :patientIds) d " +
+            "WHERE d.rang <= :parPersonne)")
+    List<RendezVous> findPlusRecentsParPatient(@Param("patientIds") Collection<Long> patientIds,
+                                               @Param("parPersonne") int parPersonne);
 
     @Query("SELECT r FROM RendezVous r WHERE " +
             "(LOWER(r.patient.nom) LIKE LOWER(CONCAT('%', :patientName, '%')) OR " +
@@ -44,12 +88,13 @@ public interface RendezVousRepository extends JpaRepository<RendezVous, Long> {
             @Param("statut") StatutRDV statut
     );
 
-    @Query("SELECT r FROM RendezVous r WHERE " +
-            "LOWER(r.medecin.nom) LIKE LOWER(CONCAT('%', :medecinSearchTerm, '%')) OR " +
-            "LOWER(r.medecin.prenom) LIKE LOWER(CONCAT('%', :medecinSearchTerm, '%')) OR " +
-            "LOWER(r.medecin.email) LIKE LOWER(CONCAT('%', :medecinSearchTerm, '%')) OR " +
-            "CAST(r.medecin.id AS string) LIKE CONCAT('%', :medecinSearchTerm, '%')")
-    List<RendezVous> findRendezVousByMedecinSearchTerm(@Param("medecinSearchTerm") String medecinSearchTerm);
+    /** Les {@code parPersonne} rendez-vous les plus récents de chacun des médecins. */
+    @Query("SELECT r FROM RendezVous r JOIN FETCH r.patient JOIN FETCH r.medecin WHERE r.id IN (" +
+            "SELECT d.id FROM (SELECT x.id AS id, ROW_NUMBER() OVER (PARTITION BY x.medecin.id " +
+            "ORDER BY x.jour DESC, x.heure DESC) AS rang FROM RendezVous x WHERE x.medecin.id IN :medecinIds) d " +
+            "WHERE d.rang <= :parPersonne)")
+    List<RendezVous> findPlusRecentsParMedecin(@Param("medecinIds") Collection<Long> medecinIds,
+                                               @Param("parPersonne") int parPersonne);
 
     @Query("SELECT r FROM RendezVous r WHERE " +
             "(LOWER(r.medecin.nom) LIKE LOWER(CONCAT('%', :medecinName, '%')) OR " +
@@ -78,15 +123,50 @@ public interface RendezVousRepository extends JpaRepository<RendezVous, Long> {
 
     List<RendezVous> findByJourBetween(LocalDate startDate, LocalDate endDate);
 
-    @Query("SELECT COUNT(r) FROM RendezVous r WHERE DATE(r.jour) = :date AND r.statut = :statut")
-    Long countByJourAndStatut(@Param("date") LocalDate date, @Param("statut") StatutRDV statut);
+    @Query("SELECT COUNT(r) FROM RendezVous r WHERE r.statut = :statut AND r.jour >= :debut AND r.jour < :fin")
+    long countByStatutAndJourRange(@Param("statut") StatutRDV statut,
+                                   @Param("debut") LocalDate debut,
+                                   @Param("fin") LocalDate fin);
+
+    @Query("SELECT r.jour, r.statut, COUNT(r) FROM RendezVous r WHERE r.statut IN :statuts " +
+            "AND r.jour >= :debut AND r.jour < :fin GROUP BY r.jour, r.statut")
+    List<Object[]> countByStatutGroupedByJour(@Param("statuts") List<StatutRDV> statuts,
+                                              @Param("debut") LocalDate debut,
+                                              @Param("fin") LocalDate fin);
 
-    @Query("SELECT COUNT(r) FROM RendezVous r WHERE YEAR(r.jour) = :year AND r.statut = :statut")
-    Long countByAnneeAndStatut(@Param("year") int year, @Param("statut") StatutRDV statut);
+    @Query("SELECT truncate(r.jour, month), r.statut, COUNT(r) FROM RendezVous r WHERE r.statut IN :statuts " +
+            "AND r.jour >= :debut AND r.jour < :fin GROUP BY truncate(r.jour, month), r.statut")
+    List<Object[]> countByStatutGroupedByMois(@Param("statuts") List<StatutRDV> statuts,
+                                              @Param("debut") LocalDate debut,
+                                              @Param("fin") LocalDate fin);
 
     @Query("SELECT r FROM RendezVous r WHERE r.jour < :today")
     List<RendezVous> findByJourBefore(@Param("today") LocalDate jourBefore);
 
-    @Query("SELECT COUNT(r) FROM RendezVous r WHERE r.statut = :status AND MONTH(r.creationDate) = :month")
-    long countByStatusAndMonth(@Param("status") StatutRDV status, @Param("month") int month);
+    @Query(VERSION)
+    VersionLigne findVersion();
+
+    @Query(VERSION + "WHERE r.id = :id")
+    VersionLigne findVersionById(@Param("id") Long id);
+
+    @Query(VERSION + "WHERE r.jour = :jour")
+    VersionLigne findVersionByJour(@Param("jour") LocalDate jour);
+
+    @Query(VERSION + "WHERE r.jour BETWEEN :debut AND :fin")
+    VersionLigne findVersionByJourBetween(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin);
+
+    @Query(LIGNE + "ORDER BY r.id")
+    List<RendezVousLigne> findAllLignes();
+
+    @Query(LIGNE + "WHERE r.jour = :jour ORDER BY r.heure")
+    List<RendezVousLigne> findLignesByJour(@Param("jour") LocalDate jour);
+
+    @Query(LIGNE + "WHERE r.jour BETWEEN :debut AND :fin ORDER BY r.jour, r.heure")
+    List<RendezVousLigne> findLignesByJourBetween(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin);
+
+    @Query(LIGNE + "WHERE m.id = :medecinId AND r.statut = :statut AND r.jour BETWEEN :debut AND :fin ORDER BY r.jour, r.heure")
+    List<RendezVousLigne> findLignesByMedecinAndStatutAndJourBetween(@Param("medecinId") Long medecinId,
+                                                                     @Param("statut") StatutRDV statut,
+                                                                     @Param("debut") LocalDate debut,
+                                                                     @Param("fin") LocalDate fin);
 }
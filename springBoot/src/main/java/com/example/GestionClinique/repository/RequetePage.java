@@ -0,0 +1,83 @@
+package com.example.GestionClinique.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requête JPQL d'une liste paginée par curseur sur (creationDate desc, id desc). Seuls les filtres
+ * renseignés sont ajoutés, et le curseur porte une borne {@code creationDate <= :curseurDate} que
+ * l'index (creation_date, id) sait parcourir : une page profonde coûte autant que la première.
+ */
+final class RequetePage {
+
+    private final StringBuilder jpql;
+    private final Map<String, Object> params = new LinkedHashMap<>();
+
+    private RequetePage(String debut) {
+        this.jpql = new StringBuilder(debut).append(" WHERE 1 = 1");
+    }
+
+    /** {@code select} se termine par la clause FROM et ses jointures, sans WHERE. */
+    static RequetePage de(String select) {
+        return new RequetePage(select);
+    }
+
+    /** Ajoute {@code condition}, qui référence {@code :nom}, seulement si {@code valeur} est renseignée. */
+    RequetePage filtre(String condition, String nom, Object valeur) {
+        if (valeur != null) {
+            jpql.append(" AND ").append(condition);
+            params.put(nom, valeur);
+        }
+        return this;
+    }
+
+    /**
+     * Au plus {@code limite.getPageSize()} lignes à partir de la position ({@code curseurDate},
+     * {@code curseurId}) exclue, {@code alias} désignant l'entité paginée. Les lignes anciennes sans
+     * creationDate viennent en tête (ordre natif d'un parcours descendant de l'index sous PostgreSQL),
+     * par id décroissant ; leur curseur n'a pas de date.
+     */
+    <T> List<T> page(EntityManager em, Class<T> type, String alias,
+                     LocalDateTime curseurDate, Long curseurId, Pageable limite) {
+        int taille = limite.getPageSize();
+        String ordre = " ORDER BY " + alias + ".creationDate DESC NULLS FIRST, " + alias + ".id DESC";
+        if (curseurId == null) {
+            return executer(em, type, jpql + ordre, Map.of(), taille);
+        }
+        if (curseurDate != null) {
+            String bornes = " AND " + alias + ".creationDate <= :curseurDate AND ("
+                    + alias + ".creationDate < :curseurDate OR " + alias + ".id < :curseurId)";
+            return executer(em, type, jpql + bornes + ordre,
+                    Map.of("curseurDate", curseurDate, "curseurId", curseurId), taille);
+        }
+        // Curseur sur une ligne sans date : fin des lignes sans date, puis début des lignes datées.
+        List<T> lignes = new ArrayList<>(executer(em, type,
+                jpql + " AND " + alias + ".creationDate IS NULL AND " + alias + ".id < :curseurId ORDER BY " + alias + ".id DESC",
+                Map.of("curseurId", curseurId), taille));
+        if (lignes.size() < taille) {
+            lignes.addAll(executer(em, type, jpql + " AND " + alias + ".creationDate IS NOT NULL" + ordre,
+                    Map.of(), taille - lignes.size()));
+        }
+        return lignes;
+    }
+
+    private <T> List<T> executer(EntityManager em, Class<T> type, String requete, Map<String, Object> curseur, int taille) {
+        TypedQuery<T> query = em.createQuery(requete, type);
+        params.forEach(query::setParameter);
+        curseur.forEach(query::setParameter);
+        return query.setMaxResults(taille).getResultList();
+    }
+
+    long count(EntityManager em) {
+        TypedQuery<Long> query = em.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+}
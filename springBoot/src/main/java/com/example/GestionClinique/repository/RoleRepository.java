@@ -2,13 +2,17 @@ package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.Role;
 import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT r FROM Role r WHERE r.roleType = :roleType")
     Optional<Role> findFirstByRoleType(@Param("roleType") RoleType roleType);
 }
@@ -4,8 +4,11 @@ package com.example.GestionClinique.repository;
 import com.example.GestionClinique.model.entity.Salle;
 import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
 import com.example.GestionClinique.model.entity.enumElem.StatutSalle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
@@ -16,5 +19,6 @@ import java.util.Optional;
 public interface SalleRepository extends JpaRepository<Salle, Long> {
     List<Salle> findByStatutSalle(StatutSalle statutSalle);
     Optional<Salle> findByNumeroSalle(String numeroSalle);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Salle findByServiceMedical(ServiceMedical serviceMedical);
 }
\ No newline at end of file
@@ -2,8 +2,29 @@ package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.stats.StatDuJour;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface StatDuJourRepository extends JpaRepository<StatDuJour, Long> {
     Optional<StatDuJour> findByJour(String jour);
-}
\ No newline at end of file
+    List<StatDuJour> findByJourBetween(String debut, String fin);
+
+    @Modifying
+    @Query("UPDATE StatDuJour s SET " +
+            "s.nbrRendezVousCONFIRME = COALESCE(s.nbrRendezVousCONFIRME, 0) + :confirme, " +
+            "s.nbrRendezANNULE = COALESCE(s.nbrRendezANNULE, 0) + :annule, " +
+            "s.nbrPatientEnrg = COALESCE(s.nbrPatientEnrg, 0) + :patients, " +
+            "s.nbrConsultation = COALESCE(s.nbrConsultation, 0) + :consultations, " +
+            "s.revenu = COALESCE(s.revenu, 0.0) + :revenu " +
+            "WHERE s.jour = :jour")
+    int applyDelta(@Param("jour") String jour,
+                   @Param("confirme") long confirme,
+                   @Param("annule") long annule,
+                   @Param("patients") long patients,
+                   @Param("consultations") long consultations,
+                   @Param("revenu") double revenu);
+}
@@ -3,9 +3,30 @@ package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.stats.StatsMois;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface StatsMoisRepository extends JpaRepository<StatsMois, Long> {
-    Optional<StatsMois> findByMois(String mois);
-}
\ No newline at end of file
+    Optional<StatsMois> findByAnneeAndNumeroMois(Integer annee, Integer numeroMois);
+    List<StatsMois> findByAnneeBetween(Integer debut, Integer fin);
+
+    @Modifying
+    @Query("UPDATE StatsMois s SET " +
+            "s.nbrRendezVousCONFIRME = COALESCE(s.nbrRendezVousCONFIRME, 0) + :confirme, " +
+            "s.nbrRendezANNULE = COALESCE(s.nbrRendezANNULE, 0) + :annule, " +
+            "s.nbrPatientEnrg = COALESCE(s.nbrPatientEnrg, 0) + :patients, " +
+            "s.nbrConsultation = COALESCE(s.nbrConsultation, 0) + :consultations, " +
+            "s.revenu = COALESCE(s.revenu, 0.0) + :revenu " +
+            "WHERE s.annee = :annee AND s.numeroMois = :numeroMois")
+    int applyDelta(@Param("annee") int annee,
+                   @Param("numeroMois") int numeroMois,
+                   @Param("confirme") long confirme,
+                   @Param("annule") long annule,
+                   @Param("patients") long patients,
+                   @Param("consultations") long consultations,
+                   @Param("revenu") double revenu);
+}
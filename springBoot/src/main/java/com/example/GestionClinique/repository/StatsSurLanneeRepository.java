@@ -2,8 +2,27 @@ package com.example.GestionClinique.repository;
 
 import com.example.GestionClinique.model.entity.stats.StatsSurLannee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface StatsSurLanneeRepository extends JpaRepository<StatsSurLannee, Long> {
     Optional<StatsSurLannee> findByAnnee(String annee);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE StatsSurLannee s SET " +
+            "s.nbrRendezVousCONFIRME = COALESCE(s.nbrRendezVousCONFIRME, 0) + :confirme, " +
+            "s.nbrRendezANNULE = COALESCE(s.nbrRendezANNULE, 0) + :annule, " +
+            "s.nbrPatientEnrg = COALESCE(s.nbrPatientEnrg, 0) + :patients, " +
+            "s.nbrConsultation = COALESCE(s.nbrConsultation, 0) + :consultations, " +
+            "s.revenu = COALESCE(s.revenu, 0.0) + :revenu " +
+            "WHERE s.annee = :annee")
+    int applyDelta(@Param("annee") String annee,
+                   @Param("confirme") long confirme,
+                   @Param("annule") long annule,
+                   @Param("patients") long patients,
+                   @Param("consultations") long consultations,
+                   @Param("revenu") double revenu);
+}
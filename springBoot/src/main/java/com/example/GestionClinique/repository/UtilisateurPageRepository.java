@@ -0,0 +1,17 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Liste paginée des utilisateurs, construite selon les filtres renseignés ({@link RequetePage}). */
+public interface UtilisateurPageRepository {
+
+    List<Utilisateur> findPage(LocalDateTime debut, LocalDateTime fin, RoleType roleType,
+                               LocalDateTime curseurDate, Long curseurId, Pageable limite);
+
+    long countPage(LocalDateTime debut, LocalDateTime fin, RoleType roleType);
+}
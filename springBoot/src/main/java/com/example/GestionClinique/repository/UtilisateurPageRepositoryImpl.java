@@ -0,0 +1,34 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class UtilisateurPageRepositoryImpl implements UtilisateurPageRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Utilisateur> findPage(LocalDateTime debut, LocalDateTime fin, RoleType roleType,
+                                      LocalDateTime curseurDate, Long curseurId, Pageable limite) {
+        return filtres(RequetePage.de("SELECT u FROM Utilisateur u"), debut, fin, roleType)
+                .page(em, Utilisateur.class, "u", curseurDate, curseurId, limite);
+    }
+
+    @Override
+    public long countPage(LocalDateTime debut, LocalDateTime fin, RoleType roleType) {
+        return filtres(RequetePage.de("SELECT COUNT(u) FROM Utilisateur u"), debut, fin, roleType).count(em);
+    }
+
+    private static RequetePage filtres(RequetePage requete, LocalDateTime debut, LocalDateTime fin, RoleType roleType) {
+        return requete.filtre("u.creationDate >= :debut", "debut", debut)
+                .filtre("u.creationDate < :fin", "fin", fin)
+                .filtre("u.role.roleType = :roleType", "roleType", roleType);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.GestionClinique.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Écriture groupée des changements relevés par le suivi de présence : un batch JDBC par type
+ * de changement et par vidage, quelle que soit la date propre à chaque utilisateur. Une ligne
+ * n'est jamais ramenée à un état plus ancien que celui écrit par une connexion ou une
+ * déconnexion explicite entre-temps.
+ */
+@Repository
+@AllArgsConstructor
+public class UtilisateurPresenceRepository {
+
+    private static final String UPDATE_ACTIVITE =
+            "UPDATE utilisateur SET status_connect = 'CONNECTE', last_login_date = :vuA " +
+            "WHERE id = :id AND (last_logout_date IS NULL OR last_logout_date < :vuA)";
+
+    private static final String UPDATE_DECONNEXION =
+            "UPDATE utilisateur SET status_connect = 'DECONNECTE', last_logout_date = :vuA " +
+            "WHERE id = :id AND (last_login_date IS NULL OR last_login_date <= :vuA)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void updateActivites(Map<Long, LocalDateTime> activites) {
+        batchUpdate(UPDATE_ACTIVITE, activites);
+    }
+
+    public void updateDeconnexions(Map<Long, LocalDateTime> deconnexions) {
+        batchUpdate(UPDATE_DECONNEXION, deconnexions);
+    }
+
+    private void batchUpdate(String sql, Map<Long, LocalDateTime> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] params = dates.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("id", e.getKey())
+                        .addValue("vuA", e.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(sql, params);
+    }
+}
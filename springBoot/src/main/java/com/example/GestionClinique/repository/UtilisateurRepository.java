@@ -4,18 +4,22 @@ import com.example.GestionClinique.model.entity.Utilisateur;
 import com.example.GestionClinique.model.entity.enumElem.RoleType;
 import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
 import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long> {
+public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>, UtilisateurPageRepository {
         Optional<Utilisateur> findByEmail(String email);
 
         Optional<Utilisateur> findByUsername(String username);
@@ -26,21 +30,36 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>
 
         List<Utilisateur> findByStatusConnect(StatusConnect status);
 
-        @Query("SELECT u FROM Utilisateur u WHERE " +
-                        "LOWER(u.nom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-                        "LOWER(u.prenom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-                        "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-                        "LOWER(u.telephone) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-                        "UPPER(u.role) = UPPER(:searchTerm) OR " +
-                        "LOWER(u.serviceMedical) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-        List<Utilisateur> searchByTerm(@Param("searchTerm") String searchTerm);
+        List<Utilisateur> findTop500ByRechercheIsNull();
 
         List<Utilisateur> findByStatusConnectOrderByLastLoginDateDesc(StatusConnect status);
 
         List<Utilisateur> findByStatusConnectOrderByLastLogoutDateDesc(StatusConnect status);
 
+        /**
+         * Utilisateurs déconnectés, du plus récemment parti au plus ancien, hors ceux qui ne se sont jamais
+         * connectés. {@code sortiesNonEcrites} ajoute les déconnexions pas encore vidées en base et
+         * {@code connectes} retire ceux que la présence en mémoire voit en ligne.
+         */
+        @Query("SELECT u FROM Utilisateur u WHERE " +
+                        "((u.statusConnect = com.example.GestionClinique.model.entity.enumElem.StatusConnect.DECONNECTE " +
+                        "AND u.lastLogoutDate IS NOT NULL) OR u.id IN :sortiesNonEcrites) " +
+                        "AND u.id NOT IN :connectes " +
+                        "ORDER BY u.lastLogoutDate DESC NULLS LAST, u.id")
+        List<Utilisateur> findDeconnectes(@Param("sortiesNonEcrites") Collection<Long> sortiesNonEcrites,
+                        @Param("connectes") Collection<Long> connectes);
+
         List<Utilisateur> findByServiceMedical(ServiceMedical serviceMedical);
 
+        List<Utilisateur> findByServiceMedicalAndRole_RoleType(ServiceMedical serviceMedical, RoleType roleType);
+
+        /** Effectif d'un service, en cache de requêtes : invalidé à chaque écriture sur la table utilisateur. */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+        @Query("SELECT u.id FROM Utilisateur u WHERE u.serviceMedical = :serviceMedical " +
+                        "AND u.role.roleType = :roleType ORDER BY u.id")
+        List<Long> findIdsByServiceMedicalAndRoleType(@Param("serviceMedical") ServiceMedical serviceMedical,
+                        @Param("roleType") RoleType roleType);
+
         @Query("SELECT u FROM Utilisateur u WHERE " +
                         "u.serviceMedical = :serviceMedical " +
                         "AND u.role.roleType = com.example.GestionClinique.model.entity.enumElem.RoleType.MEDECIN " +
@@ -0,0 +1,9 @@
+package com.example.GestionClinique.repository.projection;
+
+import com.example.GestionClinique.model.entity.enumElem.Action;
+
+import java.time.LocalDateTime;
+
+/** Ligne de HistoriqueMessage lue pour la synchronisation : quel message a changé et comment. */
+public record ChangementMessageLigne(Long id, LocalDateTime creationDate, Long messageId, Action action) {
+}
@@ -0,0 +1,40 @@
+package com.example.GestionClinique.repository.projection;
+
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Ligne de liste d'une consultation ; les prescriptions sont chargées à part, en une requête par page. */
+public record ConsultationLigne(Long id,
+                                LocalDateTime creationDate,
+                                LocalDateTime modificationDate,
+                                Float poids,
+                                Float taille,
+                                String tensionArterielle,
+                                Float temperature,
+                                String motifs,
+                                String diagnostic,
+                                String compteRendu,
+                                String medecinNom,
+                                String medecinPrenom,
+                                ServiceMedical medecinServiceMedical,
+                                String patientNom,
+                                String patientPrenom,
+                                List<PrescriptionLigne> prescriptions) {
+
+    /** Constructeur utilisé par l'expression JPQL. */
+    public ConsultationLigne(Long id, LocalDateTime creationDate, LocalDateTime modificationDate, Float poids,
+                             Float taille, String tensionArterielle, Float temperature, String motifs,
+                             String diagnostic, String compteRendu, String medecinNom, String medecinPrenom,
+                             ServiceMedical medecinServiceMedical, String patientNom, String patientPrenom) {
+        this(id, creationDate, modificationDate, poids, taille, tensionArterielle, temperature, motifs, diagnostic,
+                compteRendu, medecinNom, medecinPrenom, medecinServiceMedical, patientNom, patientPrenom, List.of());
+    }
+
+    public ConsultationLigne avecPrescriptions(List<PrescriptionLigne> prescriptions) {
+        return new ConsultationLigne(id, creationDate, modificationDate, poids, taille, tensionArterielle, temperature,
+                motifs, diagnostic, compteRendu, medecinNom, medecinPrenom, medecinServiceMedical, patientNom,
+                patientPrenom, prescriptions);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.GestionClinique.repository.projection;
+
+/** Destinataire d'une diffusion : l'ID pour l'écriture, le username pour le push WebSocket. */
+public record DestinataireLigne(Long utilisateurId, String username) {
+}
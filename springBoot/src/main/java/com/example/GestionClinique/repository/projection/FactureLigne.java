@@ -0,0 +1,24 @@
+package com.example.GestionClinique.repository.projection;
+
+import com.example.GestionClinique.model.entity.enumElem.ModePaiement;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de liste d'une facture. Le service médical vient du médecin de la consultation,
+ * à défaut du rendez-vous, comme dans {@code FactureMapper#getServiceMedicalName}.
+ */
+public record FactureLigne(Long id,
+                           LocalDateTime creationDate,
+                           LocalDateTime modificationDate,
+                           Double montant,
+                           String patientNom,
+                           String patientPrenom,
+                           LocalDateTime dateEmission,
+                           ServiceMedical serviceConsultation,
+                           ServiceMedical serviceRendezVous,
+                           StatutPaiement statutPaiement,
+                           ModePaiement modePaiement) {
+}
@@ -0,0 +1,19 @@
+package com.example.GestionClinique.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de liste de l'historique : seuls l'identité et l'email de l'auteur sont ramenés,
+ * par jointure, sans charger l'utilisateur.
+ */
+public record HistoriqueActionLigne(Long id,
+                                    LocalDateTime creationDate,
+                                    LocalDateTime modificationDate,
+                                    LocalDate date,
+                                    String action,
+                                    Long utilisateurId,
+                                    String utilisateurNom,
+                                    String utilisateurPrenom,
+                                    String utilisateurEmail) {
+}
@@ -0,0 +1,5 @@
+package com.example.GestionClinique.repository.projection;
+
+/** Champs d'un patient indexés pour l'autocomplétion, lus en flux au démarrage. */
+public record PatientCleLigne(long id, String nom, String prenom, String email, String telephone) {
+}
@@ -0,0 +1,21 @@
+package com.example.GestionClinique.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record PrescriptionLigne(Long id,
+                                LocalDateTime creationDate,
+                                LocalDateTime modificationDate,
+                                Long medecinId,
+                                String medecinNom,
+                                String medecinPrenom,
+                                Long patientId,
+                                String patientNom,
+                                String patientPrenom,
+                                String typePrescription,
+                                String medicaments,
+                                String instructions,
+                                String dureePrescription,
+                                Integer quantite,
+                                String motifConsultation,
+                                Long consultationId) {
+}
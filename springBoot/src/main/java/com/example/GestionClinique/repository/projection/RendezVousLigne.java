@@ -0,0 +1,32 @@
+package com.example.GestionClinique.repository.projection;
+
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Ligne de liste d'un rendez-vous, construite directement par la requête JPQL
+ * ({@link com.example.GestionClinique.repository.RendezVousRepository#LIGNE}) : aucune entité
+ * associée n'est chargée.
+ */
+public record RendezVousLigne(Long id,
+                              LocalDateTime creationDate,
+                              LocalDateTime modificationDate,
+                              Long patientId,
+                              String patientPrenom,
+                              String patientNom,
+                              LocalDate jour,
+                              LocalTime heure,
+                              StatutRDV statut,
+                              String notes,
+                              ServiceMedical serviceMedical,
+                              Long medecinId,
+                              String medecinPrenom,
+                              String medecinNom,
+                              Long salleId,
+                              String nomSalle,
+                              Long factureId) {
+}
@@ -0,0 +1,19 @@
+package com.example.GestionClinique.repository.projection;
+
+import com.example.GestionClinique.model.entity.enumElem.TypeConversation;
+
+import java.time.LocalDateTime;
+
+/** Conversation d'un utilisateur avec son compteur de non lus et son dernier message visible (absent si aucun). */
+public record ResumeConversationLigne(Long conversationId,
+                                      TypeConversation typeConversation,
+                                      String titre,
+                                      int unreadCount,
+                                      LocalDateTime lastReadAt,
+                                      Long dernierMessageId,
+                                      String dernierMessageContenu,
+                                      LocalDateTime dernierMessageDate,
+                                      Long expediteurId,
+                                      String expediteurNom,
+                                      String expediteurPrenom) {
+}
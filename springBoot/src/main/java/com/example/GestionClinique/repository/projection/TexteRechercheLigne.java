@@ -0,0 +1,7 @@
+package com.example.GestionClinique.repository.projection;
+
+import java.time.LocalDateTime;
+
+/** Colonne {@code recherche} d'un patient ou d'un utilisateur, lue pour l'index n-grammes en mémoire. */
+public record TexteRechercheLigne(long id, String recherche, LocalDateTime modificationDate) {
+}
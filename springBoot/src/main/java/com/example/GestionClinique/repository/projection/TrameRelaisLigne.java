@@ -0,0 +1,5 @@
+package com.example.GestionClinique.repository.projection;
+
+/** Ligne de {@code websocket_relais} ; le contenu n'est lu que pour les trames des autres nœuds. */
+public record TrameRelaisLigne(long id, String noeud, String destination, String contentType, byte[] contenu) {
+}
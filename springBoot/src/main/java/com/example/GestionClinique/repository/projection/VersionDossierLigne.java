@@ -0,0 +1,17 @@
+package com.example.GestionClinique.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version du dossier d'un patient : dernière modification et nombre de lignes de chaque partie.
+ * Une modification change une date, une suppression un nombre.
+ */
+public record VersionDossierLigne(LocalDateTime patient,
+                                  LocalDateTime dossier,
+                                  long consultations,
+                                  LocalDateTime derniereConsultation,
+                                  long prescriptions,
+                                  LocalDateTime dernierePrescription,
+                                  long factures,
+                                  LocalDateTime derniereFacture) {
+}
@@ -0,0 +1,24 @@
+package com.example.GestionClinique.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Version d'une ressource servie en GET conditionnel, lue par agrégat sans charger les lignes :
+ * la plus récente des dates de modification et le nombre de lignes, qui change quand une ligne
+ * est supprimée. Une liste qui affiche des champs d'entités jointes y ajoute leurs dates, et le
+ * nombre de jointures facultatives trouvées.
+ */
+public record VersionLigne(LocalDateTime derniereModification, long nombre, long jointes) {
+
+    public VersionLigne(LocalDateTime derniereModification, long nombre) {
+        this(derniereModification, nombre, 0);
+    }
+
+    public VersionLigne(LocalDateTime ligne, LocalDateTime jointeA, LocalDateTime jointeB, LocalDateTime jointeC,
+                        long nombre, long jointes) {
+        this(Stream.of(ligne, jointeA, jointeB, jointeC).filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo).orElse(null), nombre, jointes);
+    }
+}
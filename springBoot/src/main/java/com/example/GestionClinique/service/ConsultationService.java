@@ -4,14 +4,20 @@ import com.example.GestionClinique.model.entity.Consultation;
 import com.example.GestionClinique.model.entity.DossierMedical;
 import com.example.GestionClinique.model.entity.Prescription;
 import com.example.GestionClinique.model.entity.RendezVous;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ConsultationService {
     Consultation createConsultation(Consultation consultation, Long medecinId);
     Consultation updateConsultation(Long id, Consultation consultationDetails);
     Consultation findById(Long id);
-    List<Consultation> findAll();
+    List<ConsultationLigne> findAll();
+    PageCurseur<ConsultationLigne> findPage(LocalDate du, LocalDate au, Long medecinId, DemandePage demande);
+    PageCurseur<ConsultationLigne> findPageByDossier(Long dossierMedicalId, DemandePage demande);
     void deleteById(Long id);
     Consultation startConsultation(Long rendezVousId, Consultation consultationDetails, Long medecinId);
     Prescription addPrescriptionToConsultation(Long consultationId, Prescription prescription);
@@ -3,7 +3,11 @@ package com.example.GestionClinique.service;
 import com.example.GestionClinique.model.entity.Facture;
 import com.example.GestionClinique.model.entity.enumElem.ModePaiement;
 import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
+import com.example.GestionClinique.repository.projection.FactureLigne;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface FactureService {
@@ -11,7 +15,8 @@ public interface FactureService {
     Facture payerFacture(Long factureId, ModePaiement modePaiement);
     void generateInvoiceForConsultation(Long consultationId);
     List<Facture> findFacturesByStatut(StatutPaiement statutPaiement);
-    List<Facture> findAllFacturesIMPAYE();
+    List<FactureLigne> findAllFacturesIMPAYE();
+    PageCurseur<FactureLigne> findFacturesPage(LocalDate du, LocalDate au, StatutPaiement statut, Long medecinId, DemandePage demande);
     Facture findById(Long id);
     void deleteFacture(Long id);
 }
@@ -2,6 +2,9 @@ package com.example.GestionClinique.service;
 
 import com.example.GestionClinique.model.entity.HistoriqueAction;
 import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.projection.HistoriqueActionLigne;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -9,4 +12,5 @@ import java.util.List;
 public interface HistoriqueActionService {
     HistoriqueAction enregistrerAction(String actionDescription, Long utilisateurId);
     List<HistoriqueAction> findAllHistoriqueActionsDesc();
+    PageCurseur<HistoriqueActionLigne> findHistoriquePage(LocalDate du, LocalDate au, Long utilisateurId, String motCle, DemandePage demande);
 }
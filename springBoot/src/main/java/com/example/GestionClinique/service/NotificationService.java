@@ -4,13 +4,18 @@ import com.example.GestionClinique.model.entity.Message;
 import com.example.GestionClinique.model.entity.Notification;
 import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.projection.DestinataireLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
 
 import java.util.List;
 
 public interface NotificationService {
     Notification creerNotificationPourMessage(Message message, Utilisateur destinataire);
+    List<Notification> creerNotificationsPourMessage(Message message, List<DestinataireLigne> destinataires);
     Notification creerNotificationPourRendezVous(RendezVous rendezVous, Utilisateur utilisateur);
+    Notification creerNotificationPourRendezVous(List<RendezVous> rendezVous, Utilisateur utilisateur);
     List<Notification> getNotificationsByUtilisateur(Utilisateur utilisateur);
     List<Notification> getUnreadNotifications(Utilisateur utilisateur);
     void markAsRead(Long notificationId);
+    VersionLigne findVersionByUtilisateurId(Long utilisateurId);
 }
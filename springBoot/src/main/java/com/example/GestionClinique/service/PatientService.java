@@ -3,14 +3,21 @@ package com.example.GestionClinique.service;
 import com.example.GestionClinique.model.entity.Patient;
 import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.projection.VersionLigne;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface PatientService {
     Patient createPatient(Patient patient);
     Patient updatePatient(Long id, Patient patientDetails);
     List<Patient> findAllPatients();
+    PageCurseur<Patient> findPatientsPage(LocalDate du, LocalDate au, DemandePage demande);
     Patient findById(Long id);
     void deletePatient(Long id);
     List<Patient> findPatientByNom(String nom);
+    VersionLigne findVersion();
+    VersionLigne findVersionById(Long id);
 }
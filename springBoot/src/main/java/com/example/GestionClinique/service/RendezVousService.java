@@ -2,6 +2,11 @@ package com.example.GestionClinique.service;
 
 import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.planningService.ResultatReservation;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -9,15 +14,20 @@ import java.util.List;
 
 public interface RendezVousService {
     RendezVous createRendezVous(RendezVous rendezVous);
+    List<ResultatReservation> createRendezVousBatch(List<RendezVous> demandes);
     RendezVous findRendezVousById(Long id);
     RendezVous updateRendezVous(Long id, RendezVous rendezVousDetails);
     void deleteRendezVous(Long id);
-    List<RendezVous> findAllRendezVous();
+    List<RendezVousLigne> findAllRendezVous();
+    PageCurseur<RendezVousLigne> findRendezVousPage(LocalDate du, LocalDate au, StatutRDV statut, Long medecinId, DemandePage demande);
     boolean isRendezVousAvailable(LocalDate jour, LocalTime heure, Long medecinId, Long salleId);
     boolean isRendezVousAvailableForUpdate(Long rendezVousId, LocalDate jour, LocalTime heure, Long medecinId, Long salleId);
     RendezVous cancelRendezVous(Long rendezVousId);
-    List<RendezVous> findRendezVousByJour(LocalDate jour);
-    void cancelRendezVousByJour();
-    List<RendezVous> findUtilisateurConfirmedRendezVousByMonth(Long idUtilisateur, int year, int month);
-    List<RendezVous> findRendezVousByMonth(int year, int month);
+    List<RendezVousLigne> findRendezVousByJour(LocalDate jour);
+    List<RendezVousLigne> findUtilisateurConfirmedRendezVousByMonth(Long idUtilisateur, int year, int month);
+    List<RendezVousLigne> findRendezVousByMonth(int year, int month);
+    VersionLigne findVersion();
+    VersionLigne findVersionById(Long id);
+    VersionLigne findVersionByJour(LocalDate jour);
+    VersionLigne findVersionByMonth(int year, int month);
 }
\ No newline at end of file
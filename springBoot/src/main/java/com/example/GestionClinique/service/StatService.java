@@ -1,15 +1,19 @@
 package com.example.GestionClinique.service;
 
 import com.example.GestionClinique.model.entity.stats.*;
-import org.springframework.transaction.annotation.Transactional;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import com.example.GestionClinique.service.statService.StatPeriod;
+import com.example.GestionClinique.service.statService.StatSeries;
 
 import java.time.LocalDate;
 
 public interface StatService {
     StatDuJour getOrCreateStatDuJour(LocalDate date);
     StatDuJour refreshStatDuJour(LocalDate date);
-    StatsMois getOrCreateStatParMois(int month);
-    StatsMois refreshStatParMois(int moisNumber);
+    StatsMois getOrCreateStatParMois(int annee, int mois);
+    StatsMois refreshStatParMois(int annee, int mois);
     StatsSurLannee getOrCreateStatsSurLannee(int year);
     StatsSurLannee refreshStatsSurLannee(int year);
+    void applyDelta(StatDeltaEvent delta);
+    StatSeries getSeries(StatPeriod.Granularite granularite, LocalDate debut, LocalDate fin);
 }
\ No newline at end of file
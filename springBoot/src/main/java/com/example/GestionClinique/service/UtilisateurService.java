@@ -6,6 +6,8 @@ import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
 import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import jakarta.transaction.Transactional;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
@@ -25,6 +27,8 @@ public interface UtilisateurService {
 
     List<Utilisateur> findAllUtilisateur();
 
+    PageCurseur<Utilisateur> findUtilisateursPage(LocalDate du, LocalDate au, RoleType roleType, DemandePage demande);
+
     Utilisateur updateUtilisateur(Long id, Utilisateur utilisateur);
 
     void deleteUtilisateur(Long id);
@@ -39,7 +43,7 @@ public interface UtilisateurService {
 
     List<RendezVous> findConfirmedRendezVousForMedecinAndDate(Long medecinId, LocalDate date);
 
-    List<Utilisateur> searchUsers(String searchTerm);
+    List<Utilisateur> searchUsers(String searchTerm, int limite);
 
     Utilisateur updatePassword(Long utilisateurId, String newPassword, String confirmPassword);
 
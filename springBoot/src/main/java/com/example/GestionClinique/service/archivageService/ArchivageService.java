@@ -0,0 +1,375 @@
+package com.example.GestionClinique.service.archivageService;
+
+import com.example.GestionClinique.repository.PartitionRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rétention de l'historique des actions et des notifications. Sous PostgreSQL, un administrateur
+ * peut convertir chaque table en table partitionnée par mois ({@link #partitionner}, verrou exclusif
+ * le temps de la copie) ; les partitions des mois à venir des tables converties sont créées chaque nuit. Les mois plus anciens que la rétention
+ * sont exportés en NDJSON compressé ({@code <table>-AAAA-MM.ndjson.gz}) puis supprimés ; sous
+ * PostgreSQL la partition entière est supprimée, sans DELETE ligne à ligne.
+ * <p>
+ * Une période restaurée est marquée par un fichier {@code .restauree} et n'est archivée de nouveau
+ * qu'après {@code archivage.restauration-jours}. Si des lignes arrivent dans un mois déjà archivé,
+ * l'archive est réécrite avec les lignes précédentes, dédoublonnées par id.
+ */
+@Component
+public class ArchivageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivageService.class);
+    private static final String EXTENSION = ".ndjson.gz";
+    private static final String MARQUE_RESTAURATION = ".restauree";
+    private static final TypeReference<LinkedHashMap<String, Object>> LIGNE = new TypeReference<>() {
+    };
+
+    private final PartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path repertoire;
+    private final Map<TableArchivee, Integer> retentionMois = new EnumMap<>(TableArchivee.class);
+    private final int moisAnticipes;
+    private final boolean partitionnement;
+    private final Duration conservationRestauration;
+    private final int tailleLot;
+
+    private final Counter lignesArchivees;
+    private final Counter lignesRestaurees;
+    private final Counter echecs;
+    private final Timer duree;
+
+    public ArchivageService(PartitionRepository partitionRepository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${archivage.dir:data/archives}") String repertoire,
+                            @Value("${archivage.historique.retention-mois:24}") int retentionHistorique,
+                            @Value("${archivage.notification.retention-mois:6}") int retentionNotification,
+                            @Value("${archivage.mois-anticipes:3}") int moisAnticipes,
+                            @Value("${archivage.partitionnement:false}") boolean partitionnement,
+                            @Value("${archivage.restauration-jours:30}") int joursRestauration,
+                            @Value("${archivage.batch-size:500}") int tailleLot) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.repertoire = Path.of(repertoire);
+        this.retentionMois.put(TableArchivee.HISTORIQUE_ACTION, retentionHistorique);
+        this.retentionMois.put(TableArchivee.NOTIFICATION, retentionNotification);
+        this.moisAnticipes = moisAnticipes;
+        this.partitionnement = partitionnement;
+        this.conservationRestauration = Duration.ofDays(joursRestauration);
+        this.tailleLot = tailleLot;
+
+        this.lignesArchivees = Counter.builder("archivage.lignes.archivees")
+                .description("Lignes exportées puis supprimées par l'archivage")
+                .register(meterRegistry);
+        this.lignesRestaurees = Counter.builder("archivage.lignes.restaurees")
+                .register(meterRegistry);
+        this.echecs = Counter.builder("archivage.echecs")
+                .register(meterRegistry);
+        this.duree = Timer.builder("archivage.duree")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        preparerPartitions();
+    }
+
+    @Scheduled(cron = "${archivage.cron:0 0 3 * * *}")
+    public void planifier() {
+        executer();
+    }
+
+    /** Nombre de lignes archivées par table. */
+    public synchronized Map<String, Long> executer() {
+        Map<String, Long> archivees = new LinkedHashMap<>();
+        duree.record(() -> {
+            preparerPartitions();
+            for (TableArchivee table : TableArchivee.values()) {
+                try {
+                    archivees.put(table.nomTable(), archiverAnciennes(table));
+                } catch (RuntimeException e) {
+                    echecs.increment();
+                    logger.error("Échec de l'archivage de {} : {}", table.nomTable(), e.getMessage());
+                }
+            }
+        });
+        return archivees;
+    }
+
+    /**
+     * Convertit la table en table partitionnée par mois, en une seule transaction. Étape de migration
+     * explicite, refusée tant que {@code archivage.partitionnement} est désactivé ; sans effet sur une
+     * table déjà convertie.
+     *
+     * @return {@code true} si la table vient d'être convertie
+     */
+    public synchronized boolean partitionner(TableArchivee table) {
+        if (!partitionnement) {
+            throw new IllegalArgumentException("Le partitionnement est désactivé (archivage.partitionnement=false)");
+        }
+        if (!partitionRepository.isPostgres()) {
+            throw new IllegalArgumentException("Le partitionnement n'est disponible que sous PostgreSQL");
+        }
+        YearMonth jusqua = YearMonth.now().plusMonths(moisAnticipes);
+        Boolean convertie = transactionTemplate.execute(status ->
+                partitionRepository.partitionner(table, limite(table), jusqua));
+        if (Boolean.TRUE.equals(convertie)) {
+            logger.info("{} convertie en table partitionnée par mois", table.nomTable());
+        }
+        return Boolean.TRUE.equals(convertie);
+    }
+
+    /** Crée les partitions du mois courant et des mois anticipés des tables déjà converties. */
+    public void preparerPartitions() {
+        if (!partitionRepository.isPostgres()) {
+            return;
+        }
+        YearMonth courant = YearMonth.now();
+        for (TableArchivee table : TableArchivee.values()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!partitionRepository.estPartitionnee(table)) {
+                        return;
+                    }
+                    for (int i = 0; i <= moisAnticipes; i++) {
+                        partitionRepository.creerPartition(table, courant.plusMonths(i));
+                    }
+                });
+            } catch (RuntimeException e) {
+                echecs.increment();
+                logger.error("Préparation des partitions de {} impossible : {}", table.nomTable(), e.getMessage());
+            }
+        }
+    }
+
+    public long archiverAnciennes(TableArchivee table) {
+        LocalDateTime plusAncienne = partitionRepository.plusAncienne(table);
+        if (plusAncienne == null) {
+            return 0;
+        }
+        long total = 0;
+        for (YearMonth mois = YearMonth.from(plusAncienne); mois.isBefore(limite(table)); mois = mois.plusMonths(1)) {
+            if (!restaurationRecente(table, mois)) {
+                total += archiver(table, mois);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Exporte le mois puis le supprime dans la même transaction. L'archive est réécrite en entier :
+     * les lignes encore en base, puis celles de l'archive précédente dont l'id n'y est plus. Si la
+     * suppression ou le commit échoue, le passage suivant ne duplique donc aucune ligne.
+     */
+    public long archiver(TableArchivee table, YearMonth mois) {
+        Long n = transactionTemplate.execute(status -> {
+            if (partitionRepository.compter(table, mois) == 0) {
+                partitionRepository.supprimer(table, mois);
+                return 0L;
+            }
+            Path fichier = fichier(table, mois);
+            Path marque = marque(table, mois);
+            Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+            AtomicLong lignes = new AtomicLong();
+            Set<Long> enBase = new HashSet<>();
+            try {
+                Files.createDirectories(fichier.getParent());
+                try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                        Files.newOutputStream(temporaire)), StandardCharsets.UTF_8))) {
+                    partitionRepository.parcourir(table, mois, ligne -> {
+                        Map<String, Object> json = versJson(ligne);
+                        try {
+                            writer.write(objectMapper.writeValueAsString(json));
+                            writer.newLine();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        enBase.add(((Number) json.get("id")).longValue());
+                        lignes.incrementAndGet();
+                    });
+                    // Une période restaurée est entièrement en base : l'ancienne archive n'a rien à apporter.
+                    if (Files.exists(fichier) && !Files.exists(marque)) {
+                        reprendre(fichier, enBase, writer);
+                    }
+                }
+                Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(marque);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture de l'archive " + fichier + " impossible", e);
+            }
+            partitionRepository.supprimer(table, mois);
+            return lignes.get();
+        });
+        long archivees = n == null ? 0 : n;
+        if (archivees > 0) {
+            lignesArchivees.increment(archivees);
+            logger.info("{} lignes de {} archivées pour {}", archivees, table.nomTable(), mois);
+        }
+        return archivees;
+    }
+
+    /** Recopie les lignes de l'archive dont l'id n'a pas été réexporté depuis la base. */
+    private void reprendre(Path archive, Set<Long> enBase, BufferedWriter writer) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            String ligne;
+            while ((ligne = reader.readLine()) != null) {
+                if (!ligne.isBlank() && !enBase.contains(objectMapper.readTree(ligne).path("id").asLong())) {
+                    writer.write(ligne);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    public synchronized long restaurer(TableArchivee table, YearMonth mois) {
+        Path fichier = fichier(table, mois);
+        if (!Files.exists(fichier)) {
+            throw new IllegalArgumentException("Aucune archive de " + table.nomTable() + " pour " + mois);
+        }
+        Long n = transactionTemplate.execute(status -> {
+            if (partitionRepository.compter(table, mois) > 0) {
+                throw new IllegalArgumentException("La période " + mois + " de " + table.nomTable() + " est déjà présente en base");
+            }
+            if (partitionRepository.estPartitionnee(table)) {
+                partitionRepository.creerPartition(table, mois);
+            }
+            long lignes = 0;
+            List<Map<String, Object>> lot = new ArrayList<>(tailleLot);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(fichier)), StandardCharsets.UTF_8))) {
+                String ligne;
+                while ((ligne = reader.readLine()) != null) {
+                    if (ligne.isBlank()) {
+                        continue;
+                    }
+                    lot.add(objectMapper.readValue(ligne, LIGNE));
+                    if (lot.size() == tailleLot) {
+                        partitionRepository.inserer(table, lot);
+                        lignes += lot.size();
+                        lot.clear();
+                    }
+                }
+                partitionRepository.inserer(table, lot);
+                lignes += lot.size();
+                Files.writeString(marque(table, mois), LocalDateTime.now().toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture de l'archive " + fichier + " impossible", e);
+            }
+            return lignes;
+        });
+        long restaurees = n == null ? 0 : n;
+        lignesRestaurees.increment(restaurees);
+        logger.info("{} lignes de {} restaurées pour {}", restaurees, table.nomTable(), mois);
+        return restaurees;
+    }
+
+    public List<PartitionInfo> partitions() {
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (TableArchivee table : TableArchivee.values()) {
+            partitions.addAll(partitionRepository.partitions(table));
+        }
+        return partitions;
+    }
+
+    public List<ArchiveInfo> archives() {
+        List<ArchiveInfo> archives = new ArrayList<>();
+        for (TableArchivee table : TableArchivee.values()) {
+            Path dossier = repertoire.resolve(table.nomTable());
+            if (!Files.isDirectory(dossier)) {
+                continue;
+            }
+            try (Stream<Path> fichiers = Files.list(dossier)) {
+                for (Path fichier : fichiers.filter(f -> f.getFileName().toString().endsWith(EXTENSION)).sorted().toList()) {
+                    String nom = fichier.getFileName().toString();
+                    YearMonth mois = YearMonth.parse(nom.substring(table.nomTable().length() + 1, nom.length() - EXTENSION.length()));
+                    archives.add(new ArchiveInfo(table.nomTable(), mois.toString(), Files.size(fichier),
+                            LocalDateTime.ofInstant(Files.getLastModifiedTime(fichier).toInstant(), ZoneId.systemDefault()),
+                            Files.exists(marque(table, mois))));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture du dossier d'archives " + dossier + " impossible", e);
+            }
+        }
+        return archives;
+    }
+
+    /** Premier mois conservé en base. */
+    private YearMonth limite(TableArchivee table) {
+        return YearMonth.now().minusMonths(retentionMois.get(table));
+    }
+
+    private boolean restaurationRecente(TableArchivee table, YearMonth mois) {
+        Path marque = marque(table, mois);
+        try {
+            return Files.exists(marque)
+                    && Files.getLastModifiedTime(marque).toInstant().isAfter(Instant.now().minus(conservationRestauration));
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private Path fichier(TableArchivee table, YearMonth mois) {
+        return repertoire.resolve(table.nomTable()).resolve(table.nomTable() + "-" + mois + EXTENSION);
+    }
+
+    private Path marque(TableArchivee table, YearMonth mois) {
+        return repertoire.resolve(table.nomTable()).resolve(table.nomTable() + "-" + mois + MARQUE_RESTAURATION);
+    }
+
+    /** Colonnes en minuscules et dates au format ISO, relues par {@code PartitionRepository#inserer}. */
+    private static Map<String, Object> versJson(Map<String, Object> ligne) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        ligne.forEach((colonne, valeur) -> json.put(colonne.toLowerCase(), switch (valeur) {
+            case Timestamp t -> t.toLocalDateTime().toString();
+            case java.sql.Date d -> d.toLocalDate().toString();
+            case Temporal t -> t.toString();
+            case null, default -> valeur;
+        }));
+        return json;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.GestionClinique.service.archivageService;
+
+import java.time.LocalDateTime;
+
+/** Fichier d'archive d'une période ; {@code restauree} tant que ses lignes sont de retour en base. */
+public record ArchiveInfo(String table, String periode, long tailleOctets, LocalDateTime dateArchivage, boolean restauree) {
+}
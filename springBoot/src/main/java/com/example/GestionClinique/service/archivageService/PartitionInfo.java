@@ -0,0 +1,9 @@
+package com.example.GestionClinique.service.archivageService;
+
+/**
+ * Une partition mensuelle (ou la partition par défaut, {@code periode = "defaut"}). Sous PostgreSQL
+ * le nombre de lignes est l'estimation des statistiques du planificateur ; sans partitionnement,
+ * les périodes sont calculées par un regroupement et {@code tailleOctets} est nul.
+ */
+public record PartitionInfo(String table, String nom, String periode, long lignes, Long tailleOctets) {
+}
@@ -0,0 +1,39 @@
+package com.example.GestionClinique.service.archivageService;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Tables en ajout seul, partitionnées par mois sur {@code creation_date} et archivées au-delà
+ * de leur durée de rétention. Les noms SQL ne proviennent que d'ici : ils sont concaténés dans
+ * les requêtes DDL.
+ */
+public enum TableArchivee {
+    HISTORIQUE_ACTION("historique_action"),
+    NOTIFICATION("notification");
+
+    private final String nomTable;
+
+    TableArchivee(String nomTable) {
+        this.nomTable = nomTable;
+    }
+
+    public String nomTable() {
+        return nomTable;
+    }
+
+    public String partition(YearMonth mois) {
+        return String.format("%s_p%04d%02d", nomTable, mois.getYear(), mois.getMonthValue());
+    }
+
+    public String partitionParDefaut() {
+        return nomTable + "_defaut";
+    }
+
+    public static TableArchivee depuisNom(String nom) {
+        return Arrays.stream(values())
+                .filter(t -> t.nomTable.equalsIgnoreCase(nom) || t.name().equalsIgnoreCase(nom))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Table non archivable : " + nom));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.GestionClinique.service.authService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache à courte durée de vie des {@link MonUserDetailsCustom} chargés par le filtre JWT,
+ * pour éviter une requête base par appel authentifié. Vidé pour un utilisateur dès qu'un
+ * {@link UtilisateurModifieEvent} est publié.
+ */
+@Component
+public class CachePrincipaux {
+
+    private final long ttlMillis;
+    private final Map<String, Entree> principaux = new ConcurrentHashMap<>();
+    // Incrémentée à chaque invalidation : un chargement commencé avant n'est pas mis en cache.
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachePrincipaux(@Value("${security.principal-cache.ttl-ms:60000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public UserDetails obtenir(String username, Function<String, UserDetails> chargeur) {
+        long maintenant = System.currentTimeMillis();
+        Entree entree = principaux.get(username);
+        if (entree != null && entree.expireA() > maintenant) {
+            return entree.details();
+        }
+
+        long generationAvant = generation.get();
+        UserDetails details = chargeur.apply(username);
+        if (ttlMillis > 0 && generation.get() == generationAvant) {
+            principaux.put(username, new Entree(details, maintenant + ttlMillis));
+        }
+        return details;
+    }
+
+    public void invalider(String username) {
+        generation.incrementAndGet();
+        principaux.remove(username);
+    }
+
+    public void invalider(Long utilisateurId) {
+        generation.incrementAndGet();
+        principaux.values().removeIf(entree -> entree.details() instanceof MonUserDetailsCustom details
+                && utilisateurId.equals(details.getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUtilisateurModifie(UtilisateurModifieEvent event) {
+        invalider(event.utilisateurId());
+    }
+
+    public int getTaille() {
+        return principaux.size();
+    }
+
+    private record Entree(UserDetails details, long expireA) {
+    }
+}
@@ -37,6 +37,7 @@ public class CustomLogoutHandler implements LogoutHandler {
 
         jwt = authHeader.substring(7);
         String userEmail = jwtUtil.extractUsername(jwt);
+        jwtUtil.oublier(jwt);
 
         if (userEmail != null) {
             Utilisateur checkUser = utilisateurService.findUtilisateurByEmail(userEmail);
@@ -1,12 +1,9 @@
 package com.example.GestionClinique.service.authService;
 
 import com.example.GestionClinique.model.entity.Utilisateur;
-import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
 import com.example.GestionClinique.repository.UtilisateurRepository;
 import com.example.GestionClinique.service.HistoriqueActionService;
-import com.example.GestionClinique.service.UtilisateurService;
 import jakarta.transaction.Transactional;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,15 +14,11 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UtilisateurRepository utilisateurRepository;
     private final HistoriqueActionService historiqueActionService;
-    @Lazy
-    private final UtilisateurService utilisateurService;
 
     public UserDetailsServiceImpl(UtilisateurRepository utilisateurRepository,
-            HistoriqueActionService historiqueActionService,
-            @Lazy UtilisateurService utilisateurService) {
+            HistoriqueActionService historiqueActionService) {
         this.utilisateurRepository = utilisateurRepository;
         this.historiqueActionService = historiqueActionService;
-        this.utilisateurService = utilisateurService;
     }
 
     @Override
@@ -51,8 +44,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 true,
                 utilisateur.getAuthorities());
 
-        utilisateurService.updateUserConnectStatus(utilisateur.getId(), StatusConnect.CONNECTE);
-
+        // La présence est relevée par le filtre JWT (SuiviPresence) et la connexion par AuthController :
+        // plus d'écriture en base à chaque chargement du principal.
         return userDetails;
     }
 }
\ No newline at end of file
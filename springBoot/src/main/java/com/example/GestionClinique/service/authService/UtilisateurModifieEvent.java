@@ -0,0 +1,8 @@
+package com.example.GestionClinique.service.authService;
+
+/**
+ * Publié quand un utilisateur est modifié, désactivé, supprimé ou déconnecté :
+ * son principal mis en cache ne doit plus être servi.
+ */
+public record UtilisateurModifieEvent(Long utilisateurId) {
+}
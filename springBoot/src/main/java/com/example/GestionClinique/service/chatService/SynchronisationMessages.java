@@ -0,0 +1,14 @@
+package com.example.GestionClinique.service.chatService;
+
+import com.example.GestionClinique.model.entity.Message;
+
+import java.util.List;
+
+/**
+ * Changements d'une conversation depuis un jeton : messages envoyés, messages modifiés (dans leur
+ * état actuel) et identifiants des messages supprimés. {@code complet} est faux quand la limite a
+ * été atteinte : le client rappelle aussitôt avec le nouveau {@code jeton}.
+ */
+public record SynchronisationMessages(List<Message> nouveaux, List<Message> modifies, List<Long> supprimes,
+                                      String jeton, boolean complet) {
+}
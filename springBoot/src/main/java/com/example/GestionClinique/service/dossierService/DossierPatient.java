@@ -0,0 +1,15 @@
+package com.example.GestionClinique.service.dossierService;
+
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import com.example.GestionClinique.repository.projection.FactureLigne;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+
+import java.util.List;
+
+/** Une page du dossier d'un patient, le dossier médical étant chargé avec le patient. */
+public record DossierPatient(Patient patient,
+                             PageCurseur<ConsultationLigne> consultations,
+                             List<FactureLigne> factures,
+                             String version) {
+}
@@ -0,0 +1,63 @@
+package com.example.GestionClinique.service.dossierService;
+
+import com.example.GestionClinique.model.entity.DossierMedical;
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.repository.FactureRepository;
+import com.example.GestionClinique.repository.PatientRepository;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import com.example.GestionClinique.repository.projection.FactureLigne;
+import com.example.GestionClinique.repository.projection.VersionDossierLigne;
+import com.example.GestionClinique.service.ConsultationService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Dossier d'un patient pour l'écran de consultation : patient et dossier médical, consultations
+ * des plus récentes aux plus anciennes par page, avec leurs prescriptions et leurs factures.
+ * Une page coûte cinq requêtes quel que soit le nombre de lignes (version, patient et dossier,
+ * consultations, prescriptions par liste d'identifiants, factures par liste d'identifiants),
+ * plus le comptage si demandé.
+ * <p>
+ * La {@link #version} ne lit que les dates de modification et les nombres de lignes : le client
+ * qui présente la version de sa copie est renseigné en une requête si rien n'a changé. Sinon la
+ * version déjà calculée est passée à {@link #charger}, qui ne la relit pas. Lue avant le contenu,
+ * elle ne peut qu'être plus ancienne que lui : le client rechargera au pire une fois de trop.
+ */
+@Service
+@AllArgsConstructor
+public class DossierPatientService {
+
+    private final PatientRepository patientRepository;
+    private final FactureRepository factureRepository;
+    private final ConsultationService consultationService;
+
+    @Transactional(readOnly = true)
+    public String version(Long patientId, DemandePage demande) {
+        VersionDossierLigne version = patientRepository.findVersionDossier(patientId)
+                .orElseThrow(() -> new IllegalArgumentException("Patient not found with ID: " + patientId));
+        // La page demandée fait partie de la version : deux pages du même dossier ont des contenus différents.
+        String signature = version + "|" + demande.curseur() + "|" + demande.taille() + "|" + demande.avecTotal();
+        return DigestUtils.md5DigestAsHex(signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Transactional(readOnly = true)
+    public DossierPatient charger(Long patientId, DemandePage demande, String version) {
+        Patient patient = patientRepository.findAvecDossier(patientId)
+                .orElseThrow(() -> new IllegalArgumentException("Patient not found with ID: " + patientId));
+        DossierMedical dossier = patient.getDossierMedical();
+        PageCurseur<ConsultationLigne> consultations = dossier == null
+                ? new PageCurseur<>(List.of(), null, demande.avecTotal() ? 0L : null)
+                : consultationService.findPageByDossier(dossier.getId(), demande);
+        List<FactureLigne> factures = consultations.contenu().isEmpty()
+                ? List.of()
+                : factureRepository.findLignesByConsultationIds(consultations.contenu().stream().map(ConsultationLigne::id).toList());
+        return new DossierPatient(patient, consultations, factures, version);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.GestionClinique.service.historiqueService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Action à tracer, publiée par {@code HistoriqueActionService} et écrite après commit par
+ * {@link HistoriqueActionWriter}. Sérialisée sur une ligne dans le journal local, la description
+ * étant encodée en base64 pour ne jamais contenir de séparateur ni de retour à la ligne.
+ */
+public record ActionAudit(LocalDate date, String description, Long utilisateurId, LocalDateTime horodatage) {
+
+    private static final String SEPARATEUR = "|";
+
+    public String versLigne() {
+        return horodatage + SEPARATEUR + utilisateurId + SEPARATEUR + date + SEPARATEUR
+                + Base64.getEncoder().encodeToString(description.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ActionAudit depuisLigne(String ligne) {
+        String[] champs = ligne.split("\\|", 4);
+        if (champs.length != 4) {
+            throw new IllegalArgumentException("Ligne de journal invalide : " + ligne);
+        }
+        return new ActionAudit(
+                LocalDate.parse(champs[2]),
+                new String(Base64.getDecoder().decode(champs[3]), StandardCharsets.UTF_8),
+                Long.valueOf(champs[1]),
+                LocalDateTime.parse(champs[0]));
+    }
+}
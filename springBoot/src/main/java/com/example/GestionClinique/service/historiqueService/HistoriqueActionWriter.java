@@ -0,0 +1,308 @@
+package com.example.GestionClinique.service.historiqueService;
+
+import com.example.GestionClinique.repository.HistoriqueActionBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Mode {@code historique.mode=async} : les actions tracées sont mises en file après commit
+ * puis insérées par lots JDBC toutes les {@code historique.flush-ms}.
+ * <p>
+ * Chaque action mise en file est d'abord ajoutée au segment courant du journal local
+ * ({@code historique.journal-dir}) ; un segment est supprimé dès que toutes ses actions sont
+ * insérées, et les segments restants sont rejoués au démarrage. Après un arrêt brutal, une action
+ * déjà insérée mais dont le segment n'a pas encore été supprimé peut donc être écrite deux fois.
+ * Quand la file est pleine, l'appelant écrit lui-même un lot plutôt que de perdre l'action ; si la
+ * base reste indisponible, les actions en attente sont lâchées en mémoire et relues depuis le journal,
+ * sans les lignes du plus ancien segment déjà insérées.
+ */
+@Component
+@ConditionalOnProperty(name = "historique.mode", havingValue = "async", matchIfMissing = true)
+public class HistoriqueActionWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoriqueActionWriter.class);
+    private static final String EXTENSION = ".journal";
+
+    private final HistoriqueActionBatchRepository batchRepository;
+    private final BlockingQueue<ActionAudit> file;
+    private final int capacite;
+    private final int tailleLot;
+    private final Path repertoire;
+
+    // Ajout au journal et mise en file sont faits sous le même verrou : les actions retirées de la
+    // file lors d'une rotation sont exactement celles des segments fermés.
+    private final Object verrouJournal = new Object();
+    private BufferedWriter journal;
+    private Path segmentCourant;
+    private int actionsSegmentCourant;
+    private boolean segmentCourantIncomplet;
+    private long numeroSegment;
+
+    // enAttente suit l'ordre des segments : ses premières actions sont celles de segments.get(0),
+    // dont les insereesEnTete premières sont déjà en base.
+    private final ReentrantLock verrouVidage = new ReentrantLock();
+    private final List<ActionAudit> enAttente = new ArrayList<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private int insereesEnTete;
+    private boolean relireJournal;
+
+    /** Segment fermé et nombre d'actions mises en file pendant qu'il était courant. */
+    private record Segment(Path fichier, int actions, boolean complet) {
+    }
+
+    private final Timer dureeVidage;
+    private final Counter actionsEcrites;
+    private final Counter actionsRejetees;
+    private final Counter echecsVidage;
+
+    public HistoriqueActionWriter(HistoriqueActionBatchRepository batchRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${historique.buffer-capacity:10000}") int capacite,
+                                  @Value("${historique.batch-size:500}") int tailleLot,
+                                  @Value("${historique.journal-dir:data/historique}") String repertoire) {
+        this.batchRepository = batchRepository;
+        this.file = new ArrayBlockingQueue<>(capacite);
+        this.capacite = capacite;
+        this.tailleLot = tailleLot;
+        this.repertoire = Path.of(repertoire);
+
+        Gauge.builder("historique.backlog", this, HistoriqueActionWriter::getBacklog)
+                .description("Actions tracées pas encore insérées en base")
+                .register(meterRegistry);
+        this.dureeVidage = Timer.builder("historique.flush.duree")
+                .description("Durée d'insertion d'un lot d'actions tracées")
+                .register(meterRegistry);
+        this.actionsEcrites = Counter.builder("historique.actions.ecrites")
+                .register(meterRegistry);
+        this.actionsRejetees = Counter.builder("historique.actions.rejetees")
+                .description("Actions refusées par la base (utilisateur inexistant...)")
+                .register(meterRegistry);
+        this.echecsVidage = Counter.builder("historique.flush.echecs")
+                .register(meterRegistry);
+    }
+
+    /** Reprend les segments laissés par une exécution précédente. */
+    @PostConstruct
+    public void demarrer() {
+        try {
+            Files.createDirectories(repertoire);
+            List<Path> restants;
+            try (Stream<Path> fichiers = Files.list(repertoire)) {
+                restants = fichiers.filter(f -> f.getFileName().toString().endsWith(EXTENSION)).sorted().toList();
+            }
+            restants.forEach(fichier -> segments.add(new Segment(fichier, 0, false)));
+            enAttente.addAll(lireSegments());
+            if (!restants.isEmpty()) {
+                logger.warn("Reprise de {} actions tracées depuis {} segments de journal", enAttente.size(), restants.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal de l'historique inaccessible : " + repertoire, e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAction(ActionAudit action) {
+        soumettre(action);
+    }
+
+    public void soumettre(ActionAudit action) {
+        while (!ajouter(action)) {
+            vider();
+        }
+    }
+
+    private boolean ajouter(ActionAudit action) {
+        synchronized (verrouJournal) {
+            if (!file.offer(action)) {
+                return false;
+            }
+            if (segmentCourant == null) {
+                segmentCourant = repertoire.resolve(String.format("%d-%06d%s", System.currentTimeMillis(), numeroSegment++, EXTENSION));
+            }
+            actionsSegmentCourant++;
+            try {
+                if (journal == null) {
+                    journal = Files.newBufferedWriter(segmentCourant, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                journal.write(action.versLigne());
+                journal.newLine();
+                journal.flush();
+            } catch (IOException e) {
+                // L'action reste en file : seule la reprise après arrêt brutal est perdue pour elle.
+                segmentCourantIncomplet = true;
+                logger.error("Écriture du journal de l'historique impossible : {}", e.getMessage());
+            }
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${historique.flush-ms:1000}")
+    public void vider() {
+        verrouVidage.lock();
+        try {
+            synchronized (verrouJournal) {
+                fermerSegment();
+                file.drainTo(enAttente);
+            }
+            if (relireJournal) {
+                enAttente.clear();
+                enAttente.addAll(lireSegments());
+                relireJournal = false;
+            }
+            if (enAttente.isEmpty() && segments.isEmpty()) {
+                return;
+            }
+            dureeVidage.record(this::inserer);
+        } finally {
+            verrouVidage.unlock();
+        }
+    }
+
+    private void inserer() {
+        while (!enAttente.isEmpty()) {
+            List<ActionAudit> lot = enAttente.subList(0, Math.min(tailleLot, enAttente.size()));
+            try {
+                insererLot(List.copyOf(lot));
+                insereesEnTete += lot.size();
+                lot.clear();
+                effacerSegmentsInseres();
+            } catch (RuntimeException e) {
+                echecsVidage.increment();
+                logger.error("Échec de l'insertion de {} actions tracées, nouvel essai au prochain vidage : {}",
+                        enAttente.size(), e.getMessage());
+                if (enAttente.size() > capacite) {
+                    // Tout est dans les segments non supprimés : inutile de le garder aussi en mémoire.
+                    enAttente.clear();
+                    relireJournal = true;
+                }
+                return;
+            }
+        }
+        effacerSegmentsInseres();
+    }
+
+    private void effacerSegmentsInseres() {
+        while (!segments.isEmpty() && segments.get(0).actions() <= insereesEnTete) {
+            Segment segment = segments.remove(0);
+            insereesEnTete -= segment.actions();
+            try {
+                Files.deleteIfExists(segment.fichier());
+            } catch (IOException e) {
+                logger.warn("Suppression du segment {} impossible : {}", segment.fichier(), e.getMessage());
+            }
+        }
+    }
+
+    private void insererLot(List<ActionAudit> lot) {
+        try {
+            batchRepository.insertActions(lot);
+            actionsEcrites.increment(lot.size());
+        } catch (DataIntegrityViolationException e) {
+            // Une ligne invalide ferait échouer tout le lot indéfiniment : on isole les fautives.
+            for (ActionAudit action : lot) {
+                try {
+                    batchRepository.insertActions(List.of(action));
+                    actionsEcrites.increment();
+                } catch (DataIntegrityViolationException rejet) {
+                    actionsRejetees.increment();
+                    logger.error("Action tracée rejetée ({}) : {}", action.versLigne(), rejet.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Relit les segments restants, sans les {@code insereesEnTete} actions déjà insérées du premier,
+     * et recale le nombre d'actions de chacun sur ses lignes : une action dont l'écriture au journal a
+     * échoué n'est plus attendue. Si le premier segment est dans ce cas, la position de ses lignes
+     * déjà insérées est inconnue : il est relu en entier.
+     */
+    private List<ActionAudit> lireSegments() {
+        List<ActionAudit> actions = new ArrayList<>();
+        List<Segment> relus = new ArrayList<>(segments.size());
+        if (!segments.isEmpty() && !segments.get(0).complet() && insereesEnTete > 0) {
+            logger.warn("Segment {} incomplet : ses {} actions déjà insérées seront réinsérées",
+                    segments.get(0).fichier(), insereesEnTete);
+            insereesEnTete = 0;
+        }
+        for (Segment segment : segments) {
+            List<ActionAudit> lignes = new ArrayList<>();
+            if (Files.exists(segment.fichier())) {
+                try {
+                    for (String ligne : Files.readAllLines(segment.fichier(), StandardCharsets.UTF_8)) {
+                        if (!ligne.isBlank()) {
+                            lignes.add(ActionAudit.depuisLigne(ligne));
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Lecture du segment " + segment.fichier() + " impossible", e);
+                }
+            }
+            int dejaInserees = relus.isEmpty() ? Math.min(insereesEnTete, lignes.size()) : 0;
+            actions.addAll(lignes.subList(dejaInserees, lignes.size()));
+            relus.add(new Segment(segment.fichier(), lignes.size(), true));
+        }
+        segments.clear();
+        segments.addAll(relus);
+        insereesEnTete = Math.min(insereesEnTete, segments.isEmpty() ? 0 : segments.get(0).actions());
+        return actions;
+    }
+
+    private void fermerSegment() {
+        if (segmentCourant == null) {
+            return;
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.warn("Fermeture du segment {} impossible : {}", segmentCourant, e.getMessage());
+            }
+        }
+        segments.add(new Segment(segmentCourant, actionsSegmentCourant, !segmentCourantIncomplet));
+        journal = null;
+        segmentCourant = null;
+        actionsSegmentCourant = 0;
+        segmentCourantIncomplet = false;
+    }
+
+    @PreDestroy
+    public void arreter() {
+        vider();
+    }
+
+    public int getBacklog() {
+        return file.size() + enAttente.size();
+    }
+
+    public int getSegmentsEnAttente() {
+        return segments.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.GestionClinique.service.notificationService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envoie les notifications créées une fois la transaction validée : un rollback n'en pousse aucune,
+ * et le thread qui écrit (envoi de message, réservation) n'attend jamais le broker.
+ * <p>
+ * Les pushes sont regroupés par utilisateur : un seul thread virtuel vide la file d'un utilisateur,
+ * dans l'ordre, tant qu'elle n'est pas vide ; un client lent ne retient donc que ses propres
+ * notifications. La file est bornée à {@code notification.push.capacite} pushes en attente au total
+ * (au-delà ils sont perdus, le client les relira via l'API) et au plus
+ * {@code notification.push.concurrence} envois sont en cours en même temps.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    public static final String QUEUE = "/queue/notifications";
+
+    private record PushEnAttente(NotificationPush push, long enFileDepuis) {
+    }
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ExecutorService executor;
+    private final Semaphore envoisEnCours;
+    private final int capacite;
+
+    // Une entrée existe tant qu'un thread vide la file de l'utilisateur ; elle n'est modifiée que dans compute.
+    private final ConcurrentHashMap<String, Deque<PushEnAttente>> parUtilisateur = new ConcurrentHashMap<>();
+    private final AtomicInteger enFile = new AtomicInteger();
+
+    private final Timer latence;
+    private final Counter envoyees;
+    private final Counter perdues;
+
+    public NotificationDispatcher(@Lazy SimpMessageSendingOperations messagingTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.push.capacite:10000}") int capacite,
+                                  @Value("${notification.push.concurrence:32}") int concurrence) {
+        this.messagingTemplate = messagingTemplate;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notification-push-", 1).factory());
+        this.envoisEnCours = new Semaphore(concurrence);
+        this.capacite = capacite;
+
+        Gauge.builder("notification.push.file", enFile, AtomicInteger::get)
+                .description("Notifications en attente d'envoi WebSocket")
+                .register(meterRegistry);
+        this.latence = Timer.builder("notification.push.latence")
+                .description("Délai entre le commit et l'envoi au broker")
+                .register(meterRegistry);
+        this.envoyees = Counter.builder("notification.push.envoyees")
+                .register(meterRegistry);
+        this.perdues = Counter.builder("notification.push.perdues")
+                .description("Pushes abandonnés (file pleine, arrêt ou échec du broker)")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsCreees(NotificationsCreeesEvent event) {
+        // Sans transaction, l'écouteur est appelé dans le thread de l'écrivain : rien ne doit lui remonter.
+        try {
+            event.pushes().forEach(this::mettreEnFile);
+        } catch (RuntimeException e) {
+            logger.error("Mise en file de {} notifications impossible : {}", event.pushes().size(), e.getMessage());
+        }
+    }
+
+    void mettreEnFile(NotificationPush push) {
+        if (enFile.incrementAndGet() > capacite) {
+            abandonner(push, "file pleine");
+            return;
+        }
+        PushEnAttente attente = new PushEnAttente(push, System.nanoTime());
+        boolean[] premier = new boolean[1];
+        parUtilisateur.compute(push.username(), (username, file) -> {
+            if (file == null) {
+                file = new ArrayDeque<>();
+                premier[0] = true;
+            }
+            file.add(attente);
+            return file;
+        });
+        if (premier[0]) {
+            try {
+                executor.execute(() -> vider(push.username()));
+            } catch (RejectedExecutionException e) {
+                Deque<PushEnAttente> file = parUtilisateur.remove(push.username());
+                if (file != null) {
+                    file.forEach(p -> abandonner(p.push(), "arrêt en cours"));
+                }
+            }
+        }
+    }
+
+    private void vider(String username) {
+        List<PushEnAttente> lot;
+        while (!(lot = retirer(username)).isEmpty()) {
+            lot.forEach(this::envoyer);
+        }
+    }
+
+    /** Prend tout ce qui attend pour l'utilisateur ; une file vide libère l'entrée. */
+    private List<PushEnAttente> retirer(String username) {
+        List<PushEnAttente> lot = new ArrayList<>();
+        parUtilisateur.compute(username, (u, file) -> {
+            if (file == null || file.isEmpty()) {
+                return null;
+            }
+            lot.addAll(file);
+            file.clear();
+            return file;
+        });
+        return lot;
+    }
+
+    private void envoyer(PushEnAttente attente) {
+        NotificationPush push = attente.push();
+        try {
+            envoisEnCours.acquire();
+            try {
+                messagingTemplate.convertAndSendToUser(push.username(), QUEUE, push.notification());
+            } finally {
+                envoisEnCours.release();
+            }
+            latence.record(System.nanoTime() - attente.enFileDepuis(), TimeUnit.NANOSECONDS);
+            envoyees.increment();
+            enFile.decrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonner(push, "interruption");
+        } catch (RuntimeException e) {
+            abandonner(push, e.getMessage());
+        }
+    }
+
+    private void abandonner(NotificationPush push, String raison) {
+        enFile.decrementAndGet();
+        perdues.increment();
+        logger.warn("Push de la notification {} à {} abandonné : {}",
+                push.notification().getId(), push.username(), raison);
+    }
+
+    public int getEnFile() {
+        return enFile.get();
+    }
+
+    @PreDestroy
+    public void arreter() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
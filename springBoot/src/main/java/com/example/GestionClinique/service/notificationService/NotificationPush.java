@@ -0,0 +1,7 @@
+package com.example.GestionClinique.service.notificationService;
+
+import com.example.GestionClinique.dto.ResponseDto.NotificationResponseDto;
+
+/** Notification à pousser sur {@code /user/{username}/queue/notifications}, déjà convertie en DTO. */
+public record NotificationPush(String username, NotificationResponseDto notification) {
+}
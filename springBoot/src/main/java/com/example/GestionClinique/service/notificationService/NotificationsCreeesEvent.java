@@ -0,0 +1,7 @@
+package com.example.GestionClinique.service.notificationService;
+
+import java.util.List;
+
+/** Publié par {@code NotificationService} ; les pushes ne partent qu'après le commit. */
+public record NotificationsCreeesEvent(List<NotificationPush> pushes) {
+}
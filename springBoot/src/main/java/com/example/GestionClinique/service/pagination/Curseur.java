@@ -0,0 +1,38 @@
+package com.example.GestionClinique.service.pagination;
+
+import com.example.GestionClinique.model.BaseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans une liste triée par (creationDate desc, id desc). Exposée aux clients sous forme
+ * d'un jeton opaque : seule la ligne suivant la dernière renvoyée est demandée, sans OFFSET.
+ * Une ligne ancienne sans creationDate donne un curseur sans date, encodé par une date vide.
+ */
+public record Curseur(LocalDateTime creationDate, Long id) {
+
+    private static final char SEPARATEUR = '|';
+
+    public static Curseur apres(BaseEntity derniere) {
+        return new Curseur(derniere.getCreationDate(), derniere.getId());
+    }
+
+    public String encoder() {
+        String brut = (creationDate == null ? "" : creationDate.toString()) + SEPARATEUR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Curseur decoder(String jeton) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(jeton), StandardCharsets.UTF_8);
+            int sep = brut.lastIndexOf(SEPARATEUR);
+            String date = brut.substring(0, sep);
+            return new Curseur(date.isEmpty() ? null : LocalDateTime.parse(date), Long.parseLong(brut.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide.");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.GestionClinique.service.pagination;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Paramètres communs des listes paginées par curseur. {@code avecTotal} déclenche un COUNT
+ * supplémentaire, à ne demander que lorsque l'écran l'affiche.
+ */
+public record DemandePage(String curseur, int taille, boolean avecTotal) {
+
+    public static final int TAILLE_PAR_DEFAUT = 50;
+    public static final int TAILLE_MAX = 200;
+
+    public DemandePage {
+        if (taille < 1 || taille > TAILLE_MAX) {
+            throw new IllegalArgumentException("La taille de page doit être comprise entre 1 et " + TAILLE_MAX + ".");
+        }
+        if (curseur != null && curseur.isBlank()) {
+            curseur = null;
+        }
+    }
+
+    public LocalDateTime curseurDate() {
+        return curseur == null ? null : Curseur.decoder(curseur).creationDate();
+    }
+
+    public Long curseurId() {
+        return curseur == null ? null : Curseur.decoder(curseur).id();
+    }
+
+    /** Borne inclusive d'un filtre par jour, appliqué à une colonne date-heure. */
+    public static LocalDateTime debutJour(LocalDate du) {
+        return du == null ? null : du.atStartOfDay();
+    }
+
+    /** Borne exclusive : le lendemain de {@code au} à minuit. */
+    public static LocalDateTime finJour(LocalDate au) {
+        return au == null ? null : au.plusDays(1).atStartOfDay();
+    }
+
+    public static void verifierPeriode(LocalDate du, LocalDate au) {
+        if (du != null && au != null && au.isBefore(du)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure ou égale à la date de début.");
+        }
+    }
+
+    /** Une ligne de plus que la page pour savoir s'il existe une suite. */
+    public Pageable limite() {
+        return PageRequest.of(0, taille + 1);
+    }
+}
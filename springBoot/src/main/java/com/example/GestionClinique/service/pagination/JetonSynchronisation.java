@@ -0,0 +1,55 @@
+package com.example.GestionClinique.service.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Position d'un client dans une conversation : dernier message reçu et dernière ligne de
+ * HistoriqueMessage (modification, suppression) prise en compte, avec les identifiants déjà livrés
+ * dans la fenêtre de {@link Rattrapage}. Exposée sous forme d'un jeton opaque.
+ */
+public record JetonSynchronisation(Curseur messages, Curseur changements, Set<Long> messagesVus, Set<Long> changementsVus) {
+
+    private static final Curseur ORIGINE = new Curseur(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    private static final String SEPARATEUR = ".";
+
+    public static Curseur origine() {
+        return ORIGINE;
+    }
+
+    public String encoder() {
+        return messages.encoder() + SEPARATEUR + changements.encoder()
+                + SEPARATEUR + encoderIds(messagesVus) + SEPARATEUR + encoderIds(changementsVus);
+    }
+
+    public static JetonSynchronisation decoder(String jeton) {
+        String[] parties = jeton.split("\\" + SEPARATEUR, -1);
+        if (parties.length != 2 && parties.length != 4) {
+            throw new IllegalArgumentException("Jeton de synchronisation invalide.");
+        }
+        // Les jetons à deux parties, émis avant la fenêtre de rattrapage, n'ont pas d'identifiants vus.
+        return new JetonSynchronisation(Curseur.decoder(parties[0]), Curseur.decoder(parties[1]),
+                parties.length == 4 ? decoderIds(parties[2]) : Set.of(),
+                parties.length == 4 ? decoderIds(parties[3]) : Set.of());
+    }
+
+    private static String encoderIds(Set<Long> ids) {
+        String brut = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Set<Long> decoderIds(String partie) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(partie), StandardCharsets.UTF_8);
+            return brut.isEmpty() ? Set.of()
+                    : Arrays.stream(brut.split(",")).map(Long::valueOf).collect(Collectors.toCollection(LinkedHashSet::new));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Jeton de synchronisation invalide.");
+        }
+    }
+}
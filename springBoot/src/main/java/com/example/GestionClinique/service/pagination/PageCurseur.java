@@ -0,0 +1,22 @@
+package com.example.GestionClinique.service.pagination;
+
+import com.example.GestionClinique.model.BaseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record PageCurseur<T>(List<T> contenu, String curseurSuivant, Long total) {
+
+    /** {@code lignes} provient d'une requête limitée à {@link DemandePage#limite()}. */
+    public static <T extends BaseEntity> PageCurseur<T> of(List<T> lignes, DemandePage demande, Long total) {
+        return of(lignes, demande, total, Curseur::apres);
+    }
+
+    public static <T> PageCurseur<T> of(List<T> lignes, DemandePage demande, Long total, Function<T, Curseur> position) {
+        if (lignes.size() <= demande.taille()) {
+            return new PageCurseur<>(lignes, null, total);
+        }
+        List<T> contenu = lignes.subList(0, demande.taille());
+        return new PageCurseur<>(contenu, position.apply(contenu.get(contenu.size() - 1)).encoder(), total);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.GestionClinique.service.pagination;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Lecture « depuis un jeton » tolérante à l'ordre des commits. creationDate est attribuée par la
+ * JVM avant le commit : une ligne peut devenir visible après une ligne plus récente déjà livrée, et
+ * un curseur strict la sauterait. On relit donc {@link #FENETRE} derrière le curseur et on écarte
+ * les identifiants déjà livrés dans cette fenêtre, que le jeton transporte.
+ */
+public final class Rattrapage {
+
+    /** Écart maximal toléré entre l'horodatage d'une ligne et son commit (horloges des nœuds comprises). */
+    public static final Duration FENETRE = Duration.ofSeconds(30);
+
+    private Rattrapage() {
+    }
+
+    /** Lignes à rendre, position atteinte et identifiants déjà livrés dans la fenêtre de cette position. */
+    public record Resultat<T>(List<T> lignes, boolean complet, Curseur curseur, Set<Long> vus) {
+    }
+
+    /** Début de la relecture : la fenêtre derrière le curseur. */
+    public static LocalDateTime debut(Curseur curseur) {
+        return curseur.creationDate().minus(FENETRE);
+    }
+
+    /** Lignes à lire depuis {@link #debut} pour en rendre {@code taille} nouvelles et savoir s'il en reste. */
+    public static int limite(Set<Long> vus, int taille) {
+        return taille + 1 + vus.size();
+    }
+
+    /**
+     * @param lus lignes lues depuis {@link #debut(Curseur)} par (creationDate, id) croissants,
+     *            au plus {@link #limite(Set, int)}
+     */
+    public static <T> Resultat<T> filtrer(List<T> lus, Curseur curseur, Set<Long> vus, int taille,
+                                          Function<T, Curseur> position) {
+        List<T> lignes = new ArrayList<>();
+        Curseur atteint = curseur;
+        int parcourues = 0;
+        boolean complet = true;
+        for (T ligne : lus) {
+            Curseur p = position.apply(ligne);
+            if (!vus.contains(p.id())) {
+                if (lignes.size() == taille) {
+                    complet = false;
+                    break;
+                }
+                lignes.add(ligne);
+                if (compare(p, atteint) > 0) {
+                    atteint = p;
+                }
+            }
+            parcourues++;
+        }
+
+        LocalDateTime debut = debut(atteint);
+        Set<Long> encoreVus = new LinkedHashSet<>();
+        Set<Long> presents = new HashSet<>();
+        for (int i = 0; i < lus.size(); i++) {
+            Curseur p = position.apply(lus.get(i));
+            presents.add(p.id());
+            if ((i < parcourues || vus.contains(p.id())) && !p.creationDate().isBefore(debut)) {
+                encoreVus.add(p.id());
+            }
+        }
+        if (lus.size() >= limite(vus, taille)) {
+            // Lecture tronquée : des lignes déjà livrées peuvent suivre la dernière lue.
+            vus.stream().filter(id -> !presents.contains(id)).forEach(encoreVus::add);
+        }
+        return new Resultat<>(lignes, complet, atteint, encoreVus);
+    }
+
+    private static int compare(Curseur a, Curseur b) {
+        int parDate = a.creationDate().compareTo(b.creationDate());
+        return parDate != 0 ? parDate : Long.compare(a.id(), b.id());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.GestionClinique.service.planningService;
+
+import com.example.GestionClinique.model.entity.RendezVous;
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Créneau occupé par un rendez-vous : ce qui est soumis aux contraintes d'unicité
+ * (jour, heure, médecin) et (jour, heure, salle).
+ */
+public record Creneau(LocalDate jour, LocalTime heure, Long medecinId, Long salleId, StatutRDV statut) {
+
+    public static Creneau of(RendezVous rendezVous) {
+        return new Creneau(
+                rendezVous.getJour(),
+                rendezVous.getHeure(),
+                rendezVous.getMedecin() != null ? rendezVous.getMedecin().getId() : null,
+                rendezVous.getSalle() != null ? rendezVous.getSalle().getId() : null,
+                rendezVous.getStatut());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.GestionClinique.service.planningService;
+
+/**
+ * Changement d'occupation publié par les services qui écrivent des rendez-vous.
+ * {@code ancien} est null pour une création, {@code nouveau} est null pour une suppression.
+ */
+public record CreneauEvent(Creneau ancien, Creneau nouveau) {
+
+    public static CreneauEvent creation(Creneau creneau) {
+        return new CreneauEvent(null, creneau);
+    }
+
+    public static CreneauEvent suppression(Creneau creneau) {
+        return new CreneauEvent(creneau, null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.GestionClinique.service.planningService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record CreneauLibre(Long medecinId, Long salleId, LocalDate jour, LocalTime heure) {
+}
@@ -0,0 +1,180 @@
+package com.example.GestionClinique.service.planningService;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index mémoire des créneaux occupés : pour chaque jour, un bitmap des minutes prises par
+ * médecin et par salle. Un jour est chargé depuis la base à sa première consultation puis tenu
+ * à jour par les {@link CreneauEvent} après commit, y compris ceux des autres instances en mode
+ * relais. Les contraintes d'unicité de {@code RendezVous} restent la garde finale (délai du relais,
+ * écriture hors service).
+ * <p>
+ * L'index est borné à {@code rendezvous.occupation.max-jours} jours, le moins récemment consulté
+ * cédant sa place ; les jours passés et ceux non consultés depuis
+ * {@code rendezvous.occupation.inactivite-ms} sont retirés périodiquement.
+ */
+@Component
+public class OccupationCreneaux {
+
+    private final RendezVousRepository rendezVousRepository;
+    private final Map<LocalDate, Journee> journees = new ConcurrentHashMap<>();
+    /** Incrémenté avant chaque modification de l'index, pour écarter un chargement devenu périmé. */
+    private final AtomicLong modifications = new AtomicLong();
+    private final int maxJours;
+    private final long inactiviteNanos;
+
+    public OccupationCreneaux(RendezVousRepository rendezVousRepository, MeterRegistry meterRegistry,
+                              @Value("${rendezvous.occupation.max-jours:400}") int maxJours,
+                              @Value("${rendezvous.occupation.inactivite-ms:21600000}") long inactiviteMs) {
+        this.rendezVousRepository = rendezVousRepository;
+        this.maxJours = maxJours;
+        this.inactiviteNanos = TimeUnit.MILLISECONDS.toNanos(inactiviteMs);
+        Gauge.builder("rendezvous.occupation.jours", journees, Map::size)
+                .description("Jours chargés dans l'index d'occupation des créneaux")
+                .register(meterRegistry);
+    }
+
+    /** Vrai si aucun rendez-vous, quel que soit son statut, n'occupe ce médecin ni cette salle à cette heure. */
+    public boolean estLibre(LocalDate jour, LocalTime heure, Long medecinId, Long salleId) {
+        return journee(jour).estLibre(minute(heure), medecinId, salleId);
+    }
+
+    /** Vrai si le médecin a un rendez-vous confirmé à cette heure. */
+    public boolean aRendezVousConfirme(LocalDate jour, LocalTime heure, Long medecinId) {
+        return journee(jour).aRendezVousConfirme(minute(heure), medecinId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreneau(CreneauEvent event) {
+        modifications.incrementAndGet();
+        if (event.ancien() != null) {
+            // Un jour absent sera lu depuis la base, qui contient déjà la modification.
+            journees.computeIfPresent(event.ancien().jour(), (jour, journee) -> journee.liberer(event.ancien()));
+        }
+        if (event.nouveau() != null) {
+            journees.computeIfPresent(event.nouveau().jour(), (jour, journee) -> journee.occuper(event.nouveau()));
+        }
+    }
+
+    public void invalider(LocalDate jour) {
+        modifications.incrementAndGet();
+        journees.remove(jour);
+    }
+
+    @Scheduled(cron = "${rendezvous.occupation.eviction-cron:0 15 * * * *}")
+    public void evincerJours() {
+        LocalDate aujourdhui = LocalDate.now();
+        long limite = System.nanoTime() - inactiviteNanos;
+        journees.entrySet().removeIf(entree -> entree.getKey().isBefore(aujourdhui)
+                || entree.getValue().derniereLecture - limite < 0);
+    }
+
+    private Journee journee(LocalDate jour) {
+        Journee journee = journees.get(jour);
+        if (journee == null) {
+            // La lecture se fait hors de la map pour ne pas bloquer les autres jours ni les
+            // événements. Un événement passé pendant la lecture n'a pas trouvé le jour : la copie
+            // chargée peut l'avoir manqué, elle sert à cet appel sans être gardée.
+            long version = modifications.get();
+            Journee chargee = charger(jour);
+            journee = journees.putIfAbsent(jour, chargee);
+            if (journee == null) {
+                journee = chargee;
+                if (modifications.get() != version) {
+                    journees.remove(jour, chargee);
+                } else if (journees.size() > maxJours) {
+                    borner();
+                }
+            }
+        }
+        journee.derniereLecture = System.nanoTime();
+        return journee;
+    }
+
+    private void borner() {
+        while (journees.size() > maxJours) {
+            journees.entrySet().stream()
+                    .min(Comparator.comparingLong(entree -> entree.getValue().derniereLecture))
+                    .ifPresent(entree -> journees.remove(entree.getKey(), entree.getValue()));
+        }
+    }
+
+    private Journee charger(LocalDate jour) {
+        Journee journee = new Journee();
+        for (Object[] row : rendezVousRepository.findCreneauxByJour(jour)) {
+            journee.occuper(new Creneau(jour, (LocalTime) row[0], (Long) row[1], (Long) row[2], (StatutRDV) row[3]));
+        }
+        return journee;
+    }
+
+    private static int minute(LocalTime heure) {
+        return heure.getHour() * 60 + heure.getMinute();
+    }
+
+    private static final class Journee {
+        private volatile long derniereLecture = System.nanoTime();
+        private final Map<Long, BitSet> medecins = new HashMap<>();
+        private final Map<Long, BitSet> medecinsConfirmes = new HashMap<>();
+        private final Map<Long, BitSet> salles = new HashMap<>();
+
+        synchronized boolean estLibre(int minute, Long medecinId, Long salleId) {
+            return !estPris(medecins, medecinId, minute) && !estPris(salles, salleId, minute);
+        }
+
+        synchronized boolean aRendezVousConfirme(int minute, Long medecinId) {
+            return estPris(medecinsConfirmes, medecinId, minute);
+        }
+
+        synchronized Journee occuper(Creneau creneau) {
+            int minute = minute(creneau.heure());
+            marquer(medecins, creneau.medecinId(), minute, true);
+            marquer(salles, creneau.salleId(), minute, true);
+            marquer(medecinsConfirmes, creneau.medecinId(), minute, creneau.statut() == StatutRDV.CONFIRME);
+            return this;
+        }
+
+        synchronized Journee liberer(Creneau creneau) {
+            int minute = minute(creneau.heure());
+            marquer(medecins, creneau.medecinId(), minute, false);
+            marquer(salles, creneau.salleId(), minute, false);
+            marquer(medecinsConfirmes, creneau.medecinId(), minute, false);
+            return this;
+        }
+
+        private static boolean estPris(Map<Long, BitSet> bitmaps, Long id, int minute) {
+            BitSet bitmap = bitmaps.get(id);
+            return bitmap != null && bitmap.get(minute);
+        }
+
+        private static void marquer(Map<Long, BitSet> bitmaps, Long id, int minute, boolean occupe) {
+            if (id == null) {
+                return;
+            }
+            if (occupe) {
+                bitmaps.computeIfAbsent(id, k -> new BitSet(24 * 60)).set(minute);
+            } else {
+                BitSet bitmap = bitmaps.get(id);
+                if (bitmap != null) {
+                    bitmap.clear(minute);
+                }
+            }
+        }
+    }
+}
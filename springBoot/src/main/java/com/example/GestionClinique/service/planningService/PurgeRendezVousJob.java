@@ -0,0 +1,136 @@
+package com.example.GestionClinique.service.planningService;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.FactureRepository;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Annulation nocturne des rendez-vous restés EN_ATTENTE dont le jour est passé, et suppression
+ * de leurs factures impayées. Seule une fenêtre récente est parcourue, par lots paginés sur
+ * l'ID ; chaque lot est traité en quelques requêtes UPDATE/DELETE dans sa propre transaction.
+ */
+@Component
+public class PurgeRendezVousJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeRendezVousJob.class);
+
+    private final RendezVousRepository rendezVousRepository;
+    private final FactureRepository factureRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int joursFenetre;
+    private final int tailleLot;
+
+    private final Counter rendezVousAnnules;
+    private final Counter facturesSupprimees;
+    private final Counter lotsTraites;
+    private final Timer duree;
+
+    public PurgeRendezVousJob(RendezVousRepository rendezVousRepository,
+                              FactureRepository factureRepository,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${rendezvous.purge.window-days:31}") int joursFenetre,
+                              @Value("${rendezvous.purge.chunk-size:500}") int tailleLot) {
+        this.rendezVousRepository = rendezVousRepository;
+        this.factureRepository = factureRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.joursFenetre = joursFenetre;
+        this.tailleLot = tailleLot;
+
+        this.rendezVousAnnules = Counter.builder("rendezvous.purge.annules")
+                .description("Rendez-vous EN_ATTENTE passés annulés par la purge")
+                .register(meterRegistry);
+        this.facturesSupprimees = Counter.builder("rendezvous.purge.factures.supprimees")
+                .description("Factures impayées supprimées par la purge")
+                .register(meterRegistry);
+        this.lotsTraites = Counter.builder("rendezvous.purge.lots")
+                .register(meterRegistry);
+        this.duree = Timer.builder("rendezvous.purge.duree")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${rendezvous.purge.cron:0 0 1 * * *}")
+    public void purger() {
+        duree.record(this::purgerFenetre);
+    }
+
+    private void purgerFenetre() {
+        LocalDate fin = LocalDate.now();
+        LocalDate debut = fin.minusDays(joursFenetre);
+        long apresId = 0L;
+        int totalAnnules = 0;
+        int totalFactures = 0;
+
+        while (true) {
+            List<Object[]> lot = rendezVousRepository.findIdAndJourByStatutAndJourRangeAfterId(
+                    StatutRDV.EN_ATTENTE, debut, fin, apresId, PageRequest.of(0, tailleLot));
+            if (lot.isEmpty()) {
+                break;
+            }
+            apresId = (Long) lot.get(lot.size() - 1)[0];
+
+            int[] resultat = transactionTemplate.execute(status -> traiterLot(lot));
+            totalAnnules += resultat[0];
+            totalFactures += resultat[1];
+            lotsTraites.increment();
+            logger.debug("Purge des rendez-vous : lot jusqu'à l'ID {} traité ({} annulés, {} factures supprimées)",
+                    apresId, resultat[0], resultat[1]);
+
+            if (lot.size() < tailleLot) {
+                break;
+            }
+        }
+
+        logger.info("Purge des rendez-vous du {} au {} : {} annulés, {} factures impayées supprimées",
+                debut, fin.minusDays(1), totalAnnules, totalFactures);
+    }
+
+    private int[] traiterLot(List<Object[]> lot) {
+        // Un UPDATE par jour du lot : le nombre de lignes modifiées donne le delta exact
+        // des statistiques de ce jour, même si un rendez-vous a changé depuis la lecture.
+        Map<LocalDate, List<Long>> idsParJour = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(lot.size());
+        for (Object[] row : lot) {
+            idsParJour.computeIfAbsent((LocalDate) row[1], jour -> new ArrayList<>()).add((Long) row[0]);
+            ids.add((Long) row[0]);
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        int annules = 0;
+        for (Map.Entry<LocalDate, List<Long>> entry : idsParJour.entrySet()) {
+            int n = rendezVousRepository.updateStatutByIds(entry.getValue(), StatutRDV.EN_ATTENTE, StatutRDV.ANNULE, maintenant);
+            if (n > 0) {
+                eventPublisher.publishEvent(new StatDeltaEvent(entry.getKey(), 0, n, 0, 0, 0.0));
+                annules += n;
+            }
+        }
+        int factures = factureRepository.deleteImpayeesByRendezVousAnnules(ids);
+
+        rendezVousAnnules.increment(annules);
+        facturesSupprimees.increment(factures);
+        return new int[]{annules, factures};
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.GestionClinique.service.planningService;
+
+import com.example.GestionClinique.model.entity.Salle;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.repository.SalleRepository;
+import com.example.GestionClinique.repository.UtilisateurRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Recherche de tous les créneaux libres (médecin, salle, jour, heure) d'un service médical sur
+ * une plage de dates. Les rendez-vous sont lus par lots de quelques jours avec une seule requête
+ * par lot, puis les agendas des médecins et de la salle sont balayés en mémoire ; les résultats
+ * sont transmis au fur et à mesure pour que l'appelant puisse les écrire en flux.
+ */
+@Component
+public class RechercheCreneauxLibres {
+
+    private static final int JOURS_PAR_LOT = 7;
+
+    private final RendezVousRepository rendezVousRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final SalleRepository salleRepository;
+    private final int ouverture;
+    private final int fermeture;
+    private final int maxJours;
+
+    public RechercheCreneauxLibres(RendezVousRepository rendezVousRepository,
+                                   UtilisateurRepository utilisateurRepository,
+                                   SalleRepository salleRepository,
+                                   @Value("${rendezvous.ouverture:08:00}") String ouverture,
+                                   @Value("${rendezvous.fermeture:18:00}") String fermeture,
+                                   @Value("${rendezvous.free-slots.max-days:366}") int maxJours) {
+        this.rendezVousRepository = rendezVousRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.salleRepository = salleRepository;
+        this.ouverture = minute(LocalTime.parse(ouverture));
+        this.fermeture = minute(LocalTime.parse(fermeture));
+        this.maxJours = maxJours;
+    }
+
+    public void verifierParametres(LocalDate debut, LocalDate fin, int dureeMinutes) {
+        if (fin.isBefore(debut)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure ou égale à la date de début.");
+        }
+        if (ChronoUnit.DAYS.between(debut, fin) + 1 > maxJours) {
+            throw new IllegalArgumentException("La recherche est limitée à " + maxJours + " jours.");
+        }
+        if (dureeMinutes < 5 || dureeMinutes > fermeture - ouverture) {
+            throw new IllegalArgumentException("La durée d'un créneau doit être comprise entre 5 et " + (fermeture - ouverture) + " minutes.");
+        }
+    }
+
+    public void parcourir(ServiceMedical serviceMedical, LocalDate debut, LocalDate fin, int dureeMinutes,
+                          Consumer<CreneauLibre> sortie) {
+        verifierParametres(debut, fin, dureeMinutes);
+
+        Salle salle = salleRepository.findByServiceMedical(serviceMedical);
+        List<Long> medecinIds = utilisateurRepository.findIdsByServiceMedicalAndRoleType(serviceMedical, RoleType.MEDECIN);
+        if (salle == null || medecinIds.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDate premierJour = debut.isBefore(maintenant.toLocalDate()) ? maintenant.toLocalDate() : debut;
+        for (LocalDate lot = premierJour; !lot.isAfter(fin); lot = lot.plusDays(JOURS_PAR_LOT)) {
+            LocalDate finLot = lot.plusDays(JOURS_PAR_LOT).isAfter(fin) ? fin.plusDays(1) : lot.plusDays(JOURS_PAR_LOT);
+
+            Map<LocalDate, Map<Long, BitSet>> medecinsOccupes = new HashMap<>();
+            Map<LocalDate, BitSet> salleOccupee = new HashMap<>();
+            for (Object[] row : rendezVousRepository.findCreneauxByJourRange(lot, finLot, medecinIds, List.of(salle.getId()))) {
+                LocalDate jour = (LocalDate) row[0];
+                int minute = minute((LocalTime) row[1]);
+                medecinsOccupes.computeIfAbsent(jour, j -> new HashMap<>())
+                        .computeIfAbsent((Long) row[2], id -> new BitSet()).set(minute);
+                if (salle.getId().equals(row[3])) {
+                    salleOccupee.computeIfAbsent(jour, j -> new BitSet()).set(minute);
+                }
+            }
+
+            for (LocalDate jour = lot; jour.isBefore(finLot); jour = jour.plusDays(1)) {
+                Map<Long, BitSet> agendas = medecinsOccupes.getOrDefault(jour, Map.of());
+                BitSet agendaSalle = salleOccupee.get(jour);
+                int premierCreneau = jour.equals(maintenant.toLocalDate()) ? minute(maintenant.toLocalTime()) + 1 : 0;
+
+                for (int debutCreneau = ouverture; debutCreneau + dureeMinutes <= fermeture; debutCreneau += dureeMinutes) {
+                    if (debutCreneau < premierCreneau || estOccupe(agendaSalle, debutCreneau, dureeMinutes)) {
+                        continue;
+                    }
+                    LocalTime heure = LocalTime.of(debutCreneau / 60, debutCreneau % 60);
+                    for (Long medecinId : medecinIds) {
+                        if (!estOccupe(agendas.get(medecinId), debutCreneau, dureeMinutes)) {
+                            sortie.accept(new CreneauLibre(medecinId, salle.getId(), jour, heure));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Un créneau est pris si un rendez-vous commence entre son début (inclus) et sa fin (exclue). */
+    private static boolean estOccupe(BitSet agenda, int debutCreneau, int dureeMinutes) {
+        if (agenda == null) {
+            return false;
+        }
+        int suivant = agenda.nextSetBit(debutCreneau);
+        return suivant >= 0 && suivant < debutCreneau + dureeMinutes;
+    }
+
+    private static int minute(LocalTime heure) {
+        return heure.getHour() * 60 + heure.getMinute();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.GestionClinique.service.planningService;
+
+import com.example.GestionClinique.model.entity.RendezVous;
+
+/**
+ * Résultat d'une demande dans une réservation groupée, à la même position que la demande.
+ */
+public record ResultatReservation(int index, Statut statut, RendezVous rendezVous, String message) {
+
+    public enum Statut { CREE, CONFLIT, REJETE }
+
+    public static ResultatReservation cree(int index, RendezVous rendezVous) {
+        return new ResultatReservation(index, Statut.CREE, rendezVous, null);
+    }
+
+    public static ResultatReservation conflit(int index, String message) {
+        return new ResultatReservation(index, Statut.CONFLIT, null, message);
+    }
+
+    public static ResultatReservation rejete(int index, String message) {
+        return new ResultatReservation(index, Statut.REJETE, null, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.GestionClinique.service.presenceService;
+
+import java.util.List;
+
+/**
+ * Changements de présence diffusés sur {@code /topic/presence} : seuls les utilisateurs dont
+ * l'état a changé depuis la diffusion précédente y figurent.
+ */
+public record PresenceDiff(List<Long> connectes, List<Long> deconnectes) {
+}
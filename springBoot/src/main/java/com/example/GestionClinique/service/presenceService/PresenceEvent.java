@@ -0,0 +1,9 @@
+package com.example.GestionClinique.service.presenceService;
+
+/**
+ * Connexion ou déconnexion explicite, publiée par {@code UtilisateurService.updateUserConnectStatus}
+ * une fois l'état écrit en base. {@link SuiviPresence} est mis à jour directement par l'appelant ;
+ * l'événement ne sert qu'à prévenir les autres nœuds en mode relais.
+ */
+public record PresenceEvent(Long utilisateurId, boolean connecte) {
+}
@@ -0,0 +1,337 @@
+package com.example.GestionClinique.service.presenceService;
+
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.StatusConnect;
+import com.example.GestionClinique.repository.UtilisateurPresenceRepository;
+import com.example.GestionClinique.repository.UtilisateurRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Présence des utilisateurs tenue en mémoire. Un utilisateur est en ligne tant qu'il a une
+ * session WebSocket ouverte ou qu'il a été actif (requête HTTP authentifiée, heartbeat STOMP)
+ * depuis moins de {@code presence.inactivite-ms}.
+ * <p>
+ * Les changements d'état sont diffusés par lots sur {@code /topic/presence} et les dates sont
+ * écrites en base par lots toutes les {@code presence.flush-ms}. Seules la connexion et la
+ * déconnexion explicites sont écrites immédiatement, par {@code UtilisateurService.updateUserConnectStatus}.
+ * <p>
+ * En mode relais, les autres nœuds signalent périodiquement les utilisateurs qu'ils tiennent
+ * ({@link #presentsIci()}, {@link #presentsAilleurs(Collection)}). Un utilisateur vu seulement par
+ * un autre nœud est en ligne ici aussi, mais c'est ce nœud-là qui diffuse et écrit son départ : ici
+ * il expire sans bruit quand les signalements cessent.
+ */
+@Component
+public class SuiviPresence {
+
+    public static final String TOPIC = "/topic/presence";
+
+    private static final Logger logger = LoggerFactory.getLogger(SuiviPresence.class);
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final UtilisateurPresenceRepository presenceRepository;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final Duration inactivite;
+
+    private final Map<Long, LocalDateTime> connectes = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> deconnexions = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> sessionsParUtilisateur = new ConcurrentHashMap<>();
+    // Dernier état à écrire par utilisateur : les changements successifs entre deux vidages se fondent en un seul.
+    private final Map<Long, Ecriture> aEcrire = new ConcurrentHashMap<>();
+    // Dernier état à diffuser par utilisateur, comparé à ce qui a déjà été diffusé.
+    private final Map<Long, Boolean> changements = new ConcurrentHashMap<>();
+    private final Set<Long> diffuses = ConcurrentHashMap.newKeySet();
+    // Utilisateurs en ligne d'après un autre nœud seulement, sans activité ni session ici depuis.
+    private final Set<Long> distants = ConcurrentHashMap.newKeySet();
+
+    private final Counter activitesEcrites;
+    private final Counter echecsEcriture;
+
+    public SuiviPresence(UtilisateurRepository utilisateurRepository,
+                         UtilisateurPresenceRepository presenceRepository,
+                         @Lazy SimpMessageSendingOperations messagingTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${presence.inactivite-ms:60000}") long inactiviteMs) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.presenceRepository = presenceRepository;
+        // Lazy : le broker STOMP dépend lui-même de StompAuthInterceptor, qui dépend de ce bean.
+        this.messagingTemplate = messagingTemplate;
+        this.inactivite = Duration.ofMillis(inactiviteMs);
+
+        Gauge.builder("presence.connectes", connectes, Map::size)
+                .description("Utilisateurs considérés comme connectés")
+                .register(meterRegistry);
+        Gauge.builder("presence.sessions", sessions, Map::size)
+                .description("Sessions WebSocket authentifiées ouvertes")
+                .register(meterRegistry);
+        Gauge.builder("presence.en.attente", aEcrire, Map::size)
+                .description("Changements de présence pas encore écrits en base")
+                .register(meterRegistry);
+        this.activitesEcrites = Counter.builder("presence.activites.ecrites")
+                .register(meterRegistry);
+        this.echecsEcriture = Counter.builder("presence.echecs")
+                .register(meterRegistry);
+    }
+
+    public record Presence(Long utilisateurId, LocalDateTime derniereActivite) {
+    }
+
+    private record Ecriture(StatusConnect statut, LocalDateTime date) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        for (Utilisateur utilisateur : utilisateurRepository.findByStatusConnect(StatusConnect.CONNECTE)) {
+            LocalDateTime date = utilisateur.getLastLoginDate() != null
+                    ? utilisateur.getLastLoginDate() : LocalDateTime.now();
+            if (connectes.putIfAbsent(utilisateur.getId(), date) == null) {
+                diffuses.add(utilisateur.getId());
+            }
+        }
+    }
+
+    /** Requête authentifiée ou heartbeat : aucun accès base, la date sera écrite au prochain vidage. */
+    public void activite(Long utilisateurId) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        distants.remove(utilisateurId);
+        if (connectes.put(utilisateurId, maintenant) == null) {
+            enLigne(utilisateurId);
+        }
+        aEcrire.put(utilisateurId, new Ecriture(StatusConnect.CONNECTE, maintenant));
+    }
+
+    public void ouvertureSession(String sessionId, Long utilisateurId) {
+        sessions.put(sessionId, utilisateurId);
+        sessionsParUtilisateur.computeIfAbsent(utilisateurId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        activite(utilisateurId);
+    }
+
+    /**
+     * La fermeture de la dernière session ne déconnecte pas tout de suite : un rechargement de page
+     * rouvre une session dans la foulée. Le balayage s'en charge une fois le délai d'inactivité écoulé.
+     */
+    public void fermetureSession(String sessionId) {
+        Long utilisateurId = sessions.remove(sessionId);
+        if (utilisateurId == null) {
+            return;
+        }
+        sessionsParUtilisateur.computeIfPresent(utilisateurId, (id, ouvertes) -> {
+            ouvertes.remove(sessionId);
+            return ouvertes.isEmpty() ? null : ouvertes;
+        });
+        connectes.computeIfPresent(utilisateurId, (id, date) -> LocalDateTime.now());
+    }
+
+    public void heartbeat(String sessionId) {
+        Long utilisateurId = sessions.get(sessionId);
+        if (utilisateurId != null) {
+            activite(utilisateurId);
+        }
+    }
+
+    /** Connexion déjà écrite en base par l'appelant. */
+    public void connecte(Long utilisateurId, LocalDateTime date) {
+        aEcrire.remove(utilisateurId);
+        distants.remove(utilisateurId);
+        if (connectes.put(utilisateurId, date) == null) {
+            enLigne(utilisateurId);
+        }
+    }
+
+    /** Déconnexion déjà écrite en base par l'appelant ; les sessions encore ouvertes ne comptent plus. */
+    public void deconnecte(Long utilisateurId) {
+        aEcrire.remove(utilisateurId);
+        Set<String> ouvertes = sessionsParUtilisateur.remove(utilisateurId);
+        if (ouvertes != null) {
+            ouvertes.forEach(sessions::remove);
+        }
+        distants.remove(utilisateurId);
+        if (connectes.remove(utilisateurId) != null) {
+            horsLigne(utilisateurId, LocalDateTime.now());
+        }
+    }
+
+    /** Utilisateurs tenus par ce nœud (activité ou session ici), à signaler aux autres nœuds. */
+    public List<Long> presentsIci() {
+        return connectes.keySet().stream()
+                .filter(id -> !distants.contains(id))
+                .toList();
+    }
+
+    /**
+     * Signalement d'un autre nœud : ces utilisateurs y sont actifs. Leur départ y sera diffusé et
+     * écrit en base ; ici, sans session ouverte, ils ne sont gardés que tant que les signalements
+     * continuent.
+     */
+    public void presentsAilleurs(Collection<Long> utilisateurIds) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (Long utilisateurId : utilisateurIds) {
+            if (!sessionsParUtilisateur.containsKey(utilisateurId)) {
+                distants.add(utilisateurId);
+            }
+            if (connectes.put(utilisateurId, maintenant) == null) {
+                // Le nœud d'origine a déjà diffusé l'arrivée.
+                deconnexions.remove(utilisateurId);
+                changements.remove(utilisateurId);
+                diffuses.add(utilisateurId);
+            }
+        }
+    }
+
+    /** Déconnexion explicite écrite et diffusée par un autre nœud. */
+    public void deconnecteAilleurs(Long utilisateurId) {
+        aEcrire.remove(utilisateurId);
+        distants.remove(utilisateurId);
+        Set<String> ouvertes = sessionsParUtilisateur.remove(utilisateurId);
+        if (ouvertes != null) {
+            ouvertes.forEach(sessions::remove);
+        }
+        if (connectes.remove(utilisateurId) != null) {
+            deconnexions.put(utilisateurId, LocalDateTime.now());
+            changements.remove(utilisateurId);
+            diffuses.remove(utilisateurId);
+        }
+    }
+
+    public boolean estConnecte(Long utilisateurId) {
+        return connectes.containsKey(utilisateurId);
+    }
+
+    public LocalDateTime derniereActivite(Long utilisateurId) {
+        return connectes.get(utilisateurId);
+    }
+
+    /** Date de déconnexion connue en mémoire, plus récente que la base tant que le vidage n'est pas passé. */
+    public LocalDateTime derniereDeconnexion(Long utilisateurId) {
+        return deconnexions.get(utilisateurId);
+    }
+
+    /** Déconnexions relevées par le balayage et pas encore écrites en base, avec leur date. */
+    public Map<Long, LocalDateTime> sortiesNonEcrites() {
+        Map<Long, LocalDateTime> sorties = new HashMap<>();
+        aEcrire.forEach((id, ecriture) -> {
+            if (ecriture.statut() == StatusConnect.DECONNECTE) {
+                sorties.put(id, ecriture.date());
+            }
+        });
+        return sorties;
+    }
+
+    /** Utilisateurs connectés, du plus récemment actif au moins récent. */
+    public List<Presence> connectes() {
+        return connectes.entrySet().stream()
+                .map(e -> new Presence(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparing(Presence::derniereActivite).reversed())
+                .toList();
+    }
+
+    private void enLigne(Long utilisateurId) {
+        deconnexions.remove(utilisateurId);
+        changements.put(utilisateurId, Boolean.TRUE);
+    }
+
+    private void horsLigne(Long utilisateurId, LocalDateTime date) {
+        deconnexions.put(utilisateurId, date);
+        changements.put(utilisateurId, Boolean.FALSE);
+    }
+
+    /** Déconnecte les utilisateurs sans session et inactifs, puis diffuse les changements accumulés. */
+    @Scheduled(fixedDelayString = "${presence.balayage-ms:2000}")
+    public void balayer() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime limite = maintenant.minus(inactivite);
+        for (Map.Entry<Long, LocalDateTime> entry : connectes.entrySet()) {
+            Long utilisateurId = entry.getKey();
+            if (entry.getValue().isBefore(limite) && !sessionsParUtilisateur.containsKey(utilisateurId)
+                    && connectes.remove(utilisateurId, entry.getValue())) {
+                if (distants.remove(utilisateurId)) {
+                    // Plus signalé par le nœud qui le tenait : ce nœud a diffusé et écrit le départ.
+                    diffuses.remove(utilisateurId);
+                    continue;
+                }
+                horsLigne(utilisateurId, maintenant);
+                aEcrire.put(utilisateurId, new Ecriture(StatusConnect.DECONNECTE, maintenant));
+            }
+        }
+        diffuser();
+    }
+
+    private void diffuser() {
+        if (changements.isEmpty()) {
+            return;
+        }
+        List<Long> nouveaux = new ArrayList<>();
+        List<Long> partis = new ArrayList<>();
+        for (Long utilisateurId : List.copyOf(changements.keySet())) {
+            Boolean enLigne = changements.remove(utilisateurId);
+            if (Boolean.TRUE.equals(enLigne) && diffuses.add(utilisateurId)) {
+                nouveaux.add(utilisateurId);
+            } else if (Boolean.FALSE.equals(enLigne) && diffuses.remove(utilisateurId)) {
+                partis.add(utilisateurId);
+            }
+        }
+        if (nouveaux.isEmpty() && partis.isEmpty()) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSend(TOPIC, new PresenceDiff(nouveaux, partis));
+        } catch (RuntimeException e) {
+            logger.warn("Diffusion de la présence impossible : {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${presence.flush-ms:15000}")
+    public void vider() {
+        if (aEcrire.isEmpty()) {
+            return;
+        }
+        Map<Long, Ecriture> lot = new HashMap<>();
+        for (Long id : List.copyOf(aEcrire.keySet())) {
+            Ecriture ecriture = aEcrire.remove(id);
+            if (ecriture != null) {
+                lot.put(id, ecriture);
+            }
+        }
+        Map<Long, LocalDateTime> activites = new HashMap<>();
+        Map<Long, LocalDateTime> sorties = new HashMap<>();
+        lot.forEach((id, ecriture) ->
+                (ecriture.statut() == StatusConnect.CONNECTE ? activites : sorties).put(id, ecriture.date()));
+
+        try {
+            presenceRepository.updateActivites(activites);
+            presenceRepository.updateDeconnexions(sorties);
+            activitesEcrites.increment(lot.size());
+        } catch (RuntimeException e) {
+            echecsEcriture.increment();
+            logger.error("Échec de l'écriture de {} changements de présence : {}", lot.size(), e.getMessage());
+            // Un changement plus récent relevé entre-temps l'emporte.
+            lot.forEach((id, ecriture) -> aEcrire.merge(id, ecriture, (recente, echouee) -> recente));
+        }
+    }
+
+    public int getEnAttente() {
+        return aEcrire.size();
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.GestionClinique.service.rechercheService;
+
+import com.example.GestionClinique.model.TexteRecherche;
+import com.example.GestionClinique.repository.RechercheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplétion des patients pour l'accueil, sans aller-retour vers la base à chaque frappe. Les
+ * mots normalisés du nom, du prénom, de la partie locale de l'email et les chiffres du téléphone
+ * sont rangés dans deux tableaux parallèles triés (clé, identifiant) : un préfixe est une plage
+ * trouvée par dichotomie, et les clés en tête de plage sont les mots exacts. Seuls les
+ * identifiants sont gardés ; l'appelant charge les K patients retenus par clé primaire.
+ * <p>
+ * L'index est chargé au démarrage par une lecture en flux de la table. Les créations,
+ * modifications et suppressions arrivent après commit par {@link PatientModifieEvent} dans un
+ * petit delta qui masque les entrées de la base triée ; au-delà de
+ * {@code autocompletion.patients.seuil-fusion} patients, le delta est fusionné dans une nouvelle
+ * base. Les lectures ne prennent aucun verrou : base et delta sont publiés ensemble, immuables.
+ * <p>
+ * Si l'empreinte estimée dépasse {@code autocompletion.patients.memoire-max-mo}, l'index est vidé
+ * et désactivé ; {@link #isActif()} devient faux et la recherche repasse par la base.
+ */
+@Component
+public class AutocompletionPatients {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompletionPatients.class);
+
+    // Estimation de l'empreinte : un long et une référence par entrée, en-têtes et octets par clé distincte.
+    static final long OCTETS_PAR_ENTREE = Long.BYTES + 4;
+    static final long OCTETS_PAR_CLE = 56;
+
+    private static final String[] SUPPRIME = new String[0];
+
+    private final RechercheRepository rechercheRepository;
+    private final long memoireMax;
+    private final int seuilFusion;
+
+    private final Timer latence;
+    private final Counter fusions;
+
+    private volatile Etat etat = Etat.VIDE;
+    private volatile boolean pret;
+    private volatile boolean horsBudget;
+
+    /** Entrées triées par clé puis identifiant ; {@code octets} est l'empreinte estimée. */
+    record Base(String[] cles, long[] ids, long octets) {
+        static final Base VIDE = new Base(new String[0], new long[0], 0);
+    }
+
+    /** Clés triées par patient modifié depuis la dernière fusion, tableau vide pour un patient supprimé. */
+    private record Etat(Base base, Map<Long, String[]> delta) {
+        static final Etat VIDE = new Etat(Base.VIDE, Map.of());
+    }
+
+    private record Correspondance(String cle, long id) {
+    }
+
+    public AutocompletionPatients(RechercheRepository rechercheRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${autocompletion.patients.memoire-max-mo:64}") long memoireMaxMo,
+                                  @Value("${autocompletion.patients.seuil-fusion:1024}") int seuilFusion) {
+        this.rechercheRepository = rechercheRepository;
+        this.memoireMax = memoireMaxMo * 1024 * 1024;
+        this.seuilFusion = seuilFusion;
+
+        Gauge.builder("autocompletion.patients.entrees", this, a -> a.etat.base().ids().length)
+                .register(meterRegistry);
+        Gauge.builder("autocompletion.patients.memoire", this, a -> a.etat.base().octets())
+                .description("Empreinte estimée de l'index, en octets")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("autocompletion.patients.delta", this, a -> a.etat.delta().size())
+                .register(meterRegistry);
+        this.latence = Timer.builder("autocompletion.patients.latence")
+                .register(meterRegistry);
+        this.fusions = Counter.builder("autocompletion.patients.fusions")
+                .register(meterRegistry);
+    }
+
+    /** Le curseur PostgreSQL ne lit par lots que dans une transaction. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void charger() {
+        long debut = System.nanoTime();
+        Constructeur constructeur = new Constructeur();
+        try {
+            rechercheRepository.parcourirPatients(ligne -> constructeur.ajouter(ligne.id(),
+                    cles(ligne.nom(), ligne.prenom(), ligne.email(), ligne.telephone())));
+        } catch (BudgetDepasseException e) {
+            desactiver(e.octets);
+            return;
+        }
+        Base base = constructeur.construire();
+        synchronized (this) {
+            // Les événements reçus pendant la lecture sont plus récents qu'elle : le delta est conservé.
+            etat = new Etat(base, etat.delta());
+            horsBudget = false;
+            pret = true;
+            if (etat.delta().size() >= seuilFusion) {
+                fusionner();
+            }
+        }
+        logger.info("Autocomplétion des patients chargée : {} entrées, ~{} Ko en {} ms", base.ids().length,
+                base.octets() / 1024, (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    public boolean isActif() {
+        return pret && !horsBudget;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPatientModifie(PatientModifieEvent event) {
+        if (horsBudget) {
+            return;
+        }
+        Map<Long, String[]> delta = new HashMap<>(etat.delta());
+        delta.put(event.patientId(), event.supprime()
+                ? SUPPRIME
+                : cles(event.nom(), event.prenom(), event.email(), event.telephone()));
+        etat = new Etat(etat.base(), Map.copyOf(delta));
+        if (delta.size() >= seuilFusion) {
+            fusionner();
+        }
+    }
+
+    /**
+     * Identifiants des {@code limite} premiers patients dont chaque mot du terme commence l'une des
+     * clés, classés par la clé correspondant au premier mot (mot exact d'abord) puis par identifiant.
+     */
+    public List<Long> completer(String terme, int limite) {
+        String normalise = TexteRecherche.normaliser(terme);
+        if (normalise.isEmpty() || !isActif() || limite < 1) {
+            return List.of();
+        }
+        long debut = System.nanoTime();
+        Etat courant = etat;
+        String[] mots = normalise.split(" ");
+        List<Long> resultat;
+        if (mots.length == 1) {
+            resultat = meilleures(correspondances(courant, mots[0], limite), limite);
+        } else {
+            Map<Long, String> premier = parId(correspondances(courant, mots[0], Integer.MAX_VALUE));
+            for (int i = 1; i < mots.length && !premier.isEmpty(); i++) {
+                premier.keySet().retainAll(parId(correspondances(courant, mots[i], Integer.MAX_VALUE)).keySet());
+            }
+            List<Correspondance> retenues = new ArrayList<>();
+            premier.forEach((id, cle) -> retenues.add(new Correspondance(cle, id)));
+            resultat = meilleures(retenues, limite);
+        }
+        latence.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        return resultat;
+    }
+
+    /**
+     * Entrées commençant par {@code prefixe}, dans l'ordre de la base, jusqu'à {@code limite}
+     * patients distincts ; les patients du delta y sont ajoutés avec leur plus petite clé correspondante.
+     */
+    private static List<Correspondance> correspondances(Etat etat, String prefixe, int limite) {
+        List<Correspondance> resultat = new ArrayList<>();
+        Set<Long> vus = new HashSet<>();
+        Base base = etat.base();
+        int fin = borne(base.cles(), prefixe + Character.MAX_VALUE);
+        for (int i = borne(base.cles(), prefixe); i < fin && vus.size() < limite; i++) {
+            long id = base.ids()[i];
+            if (!etat.delta().containsKey(id) && vus.add(id)) {
+                resultat.add(new Correspondance(base.cles()[i], id));
+            }
+        }
+        etat.delta().forEach((id, cles) -> {
+            for (String cle : cles) {
+                if (cle.startsWith(prefixe)) {
+                    resultat.add(new Correspondance(cle, id));
+                    return;
+                }
+            }
+        });
+        return resultat;
+    }
+
+    private static Map<Long, String> parId(List<Correspondance> correspondances) {
+        Map<Long, String> resultat = new HashMap<>();
+        for (Correspondance correspondance : correspondances) {
+            resultat.merge(correspondance.id(), correspondance.cle(), (a, b) -> a.compareTo(b) <= 0 ? a : b);
+        }
+        return resultat;
+    }
+
+    private static List<Long> meilleures(List<Correspondance> correspondances, int limite) {
+        return correspondances.stream()
+                .sorted(Comparator.comparing(Correspondance::cle).thenComparingLong(Correspondance::id))
+                .map(Correspondance::id)
+                .distinct()
+                .limit(limite)
+                .toList();
+    }
+
+    /** Premier indice dont la clé est supérieure ou égale à {@code cle}. */
+    private static int borne(String[] cles, String cle) {
+        int bas = 0;
+        int haut = cles.length;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cles[milieu].compareTo(cle) < 0) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    /** Fusion linéaire : la base privée des patients du delta, et les entrées du delta triées. */
+    private void fusionner() {
+        Etat courant = etat;
+        List<Correspondance> ajouts = new ArrayList<>();
+        courant.delta().forEach((id, cles) -> {
+            for (String cle : cles) {
+                ajouts.add(new Correspondance(cle, id));
+            }
+        });
+        ajouts.sort(Comparator.comparing(Correspondance::cle).thenComparingLong(Correspondance::id));
+
+        Base base = courant.base();
+        Constructeur constructeur = new Constructeur(base.ids().length + ajouts.size());
+        int j = 0;
+        try {
+            for (int i = 0; i < base.ids().length; i++) {
+                if (courant.delta().containsKey(base.ids()[i])) {
+                    continue;
+                }
+                while (j < ajouts.size() && compare(ajouts.get(j), base.cles()[i], base.ids()[i]) < 0) {
+                    constructeur.ajouterTrie(ajouts.get(j).cle(), ajouts.get(j).id());
+                    j++;
+                }
+                constructeur.ajouterTrie(base.cles()[i], base.ids()[i]);
+            }
+            for (; j < ajouts.size(); j++) {
+                constructeur.ajouterTrie(ajouts.get(j).cle(), ajouts.get(j).id());
+            }
+        } catch (BudgetDepasseException e) {
+            desactiver(e.octets);
+            return;
+        }
+        etat = new Etat(constructeur.construireTrie(), Map.of());
+        fusions.increment();
+    }
+
+    private static int compare(Correspondance correspondance, String cle, long id) {
+        int parCle = correspondance.cle().compareTo(cle);
+        return parCle != 0 ? parCle : Long.compare(correspondance.id(), id);
+    }
+
+    private synchronized void desactiver(long octets) {
+        horsBudget = true;
+        etat = Etat.VIDE;
+        logger.error("Autocomplétion des patients désactivée : plus de {} Mo nécessaires (~{} Mo estimés), la recherche passe par la base",
+                memoireMax / (1024 * 1024), octets / (1024 * 1024));
+    }
+
+    /** Clés distinctes et triées d'un patient. */
+    static String[] cles(String nom, String prenom, String email, String telephone) {
+        TreeSet<String> cles = new TreeSet<>();
+        ajouterMots(cles, nom);
+        ajouterMots(cles, prenom);
+        if (email != null) {
+            int arobase = email.indexOf('@');
+            ajouterMots(cles, arobase >= 0 ? email.substring(0, arobase) : email);
+        }
+        if (telephone != null) {
+            String chiffres = telephone.replaceAll("\\D", "");
+            if (!chiffres.isEmpty()) {
+                cles.add(chiffres);
+            }
+        }
+        return cles.toArray(String[]::new);
+    }
+
+    private static void ajouterMots(Set<String> cles, String texte) {
+        for (String mot : TexteRecherche.normaliser(texte).split(" ")) {
+            if (!mot.isEmpty()) {
+                cles.add(mot);
+            }
+        }
+    }
+
+    private static final class BudgetDepasseException extends RuntimeException {
+        private final long octets;
+
+        private BudgetDepasseException(long octets) {
+            super(null, null, false, false);
+            this.octets = octets;
+        }
+    }
+
+    /**
+     * Remplit les tableaux en partageant les clés identiques et en suivant l'empreinte estimée ;
+     * le budget est vérifié à chaque ajout pour ne pas finir la lecture d'une table trop grande.
+     */
+    private final class Constructeur {
+        private final Map<String, String> partagees = new HashMap<>();
+        private String[] cles;
+        private long[] ids;
+        private int taille;
+        private long octets;
+
+        Constructeur() {
+            this(1024);
+        }
+
+        Constructeur(int capacite) {
+            this.cles = new String[Math.max(capacite, 16)];
+            this.ids = new long[cles.length];
+        }
+
+        void ajouter(long id, String[] clesPatient) {
+            for (String cle : clesPatient) {
+                ajouterTrie(cle, id);
+            }
+        }
+
+        void ajouterTrie(String cle, long id) {
+            String partagee = partagees.putIfAbsent(cle, cle);
+            if (partagee == null) {
+                partagee = cle;
+                octets += OCTETS_PAR_CLE + cle.length();
+            }
+            octets += OCTETS_PAR_ENTREE;
+            if (octets > memoireMax) {
+                throw new BudgetDepasseException(octets);
+            }
+            if (taille == cles.length) {
+                cles = Arrays.copyOf(cles, taille * 2);
+                ids = Arrays.copyOf(ids, taille * 2);
+            }
+            cles[taille] = partagee;
+            ids[taille] = id;
+            taille++;
+        }
+
+        /** Après une lecture en flux : les entrées arrivent dans l'ordre des patients et sont triées ici. */
+        Base construire() {
+            Integer[] ordre = new Integer[taille];
+            for (int i = 0; i < taille; i++) {
+                ordre[i] = i;
+            }
+            Arrays.sort(ordre, (a, b) -> {
+                int parCle = cles[a].compareTo(cles[b]);
+                return parCle != 0 ? parCle : Long.compare(ids[a], ids[b]);
+            });
+            String[] clesTriees = new String[taille];
+            long[] idsTries = new long[taille];
+            for (int i = 0; i < taille; i++) {
+                clesTriees[i] = cles[ordre[i]];
+                idsTries[i] = ids[ordre[i]];
+            }
+            return new Base(clesTriees, idsTries, octets);
+        }
+
+        Base construireTrie() {
+            return new Base(Arrays.copyOf(cles, taille), Arrays.copyOf(ids, taille), octets);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.GestionClinique.service.rechercheService;
+
+/** Tables portant une colonne {@code recherche} normalisée. */
+public enum CibleRecherche {
+    PATIENT("patient"),
+    UTILISATEUR("utilisateur");
+
+    private final String table;
+
+    CibleRecherche(String table) {
+        this.table = table;
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.GestionClinique.service.rechercheService;
+
+import com.example.GestionClinique.repository.projection.TexteRechercheLigne;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Équivalent en mémoire des index {@code pg_trgm}, pour les bases sans l'extension (H2 en test).
+ * Les trigrammes sont découpés comme PostgreSQL, chaque mot étant complété de deux espaces devant
+ * et d'une derrière ; le score d'une ligne est la part des trigrammes du terme qu'elle contient,
+ * approximation de {@code word_similarity}. Le classement suit celui de {@code RechercheRepository} :
+ * les mots commençant par le terme d'abord, puis le score, puis l'identifiant.
+ */
+class IndexNgrammes {
+
+    static final double SEUIL = 0.6;
+
+    private final Map<Long, String> textes = new HashMap<>();
+    private final Map<String, Set<Long>> trigrammes = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> parTexte = new TreeMap<>();
+    private boolean charge;
+    private LocalDateTime derniereModification;
+
+    synchronized boolean isCharge() {
+        return charge;
+    }
+
+    synchronized LocalDateTime getDerniereModification() {
+        return derniereModification;
+    }
+
+    synchronized void mettreAJour(List<TexteRechercheLigne> lignes) {
+        charge = true;
+        for (TexteRechercheLigne ligne : lignes) {
+            retirer(ligne.id());
+            textes.put(ligne.id(), ligne.recherche());
+            parTexte.computeIfAbsent(ligne.recherche(), t -> new HashSet<>()).add(ligne.id());
+            for (String trigramme : trigrammes(ligne.recherche())) {
+                trigrammes.computeIfAbsent(trigramme, t -> new HashSet<>()).add(ligne.id());
+            }
+            if (ligne.modificationDate() != null
+                    && (derniereModification == null || ligne.modificationDate().isAfter(derniereModification))) {
+                derniereModification = ligne.modificationDate();
+            }
+        }
+    }
+
+    synchronized boolean retirer(Long id) {
+        String texte = textes.remove(id);
+        if (texte == null) {
+            return false;
+        }
+        retirer(parTexte, texte, id);
+        for (String trigramme : trigrammes(texte)) {
+            retirer(trigrammes, trigramme, id);
+        }
+        return true;
+    }
+
+    private static void retirer(Map<String, Set<Long>> index, String cle, Long id) {
+        Set<Long> ids = index.get(cle);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(cle);
+        }
+    }
+
+    synchronized List<Long> findParPrefixe(String debut, int limite) {
+        List<Long> resultat = new ArrayList<>();
+        for (Set<Long> ids : parTexte.subMap(debut, true, debut + Character.MAX_VALUE, false).values()) {
+            ids.stream().sorted().forEach(resultat::add);
+            if (resultat.size() >= limite) {
+                return resultat.subList(0, limite);
+            }
+        }
+        return resultat;
+    }
+
+    synchronized List<Long> findSimilaires(String terme, int limite) {
+        Set<String> duTerme = trigrammes(terme);
+        Map<Long, Integer> communs = new HashMap<>();
+        for (String trigramme : duTerme) {
+            for (Long id : trigrammes.getOrDefault(trigramme, Set.of())) {
+                communs.merge(id, 1, Integer::sum);
+            }
+        }
+        record Candidat(long id, boolean debutDeMot, double score) {
+        }
+        List<Candidat> candidats = new ArrayList<>();
+        communs.forEach((id, nombre) -> {
+            String texte = textes.get(id);
+            boolean contient = texte.contains(terme);
+            double score = contient ? 1.0 : (double) nombre / duTerme.size();
+            if (contient || score >= SEUIL) {
+                boolean debutDeMot = texte.startsWith(terme) || texte.contains(" " + terme);
+                candidats.add(new Candidat(id, debutDeMot, score));
+            }
+        });
+        return candidats.stream()
+                .sorted(Comparator.comparing((Candidat c) -> !c.debutDeMot())
+                        .thenComparing(Candidat::score, Comparator.reverseOrder())
+                        .thenComparingLong(Candidat::id))
+                .limit(limite)
+                .map(Candidat::id)
+                .toList();
+    }
+
+    static Set<String> trigrammes(String texte) {
+        Set<String> resultat = new HashSet<>();
+        for (String mot : texte.split(" ")) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            String complete = "  " + mot + " ";
+            for (int i = 0; i + 3 <= complete.length(); i++) {
+                resultat.add(complete.substring(i, i + 3));
+            }
+        }
+        return resultat;
+    }
+}
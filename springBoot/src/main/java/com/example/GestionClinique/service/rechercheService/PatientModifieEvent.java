@@ -0,0 +1,21 @@
+package com.example.GestionClinique.service.rechercheService;
+
+import com.example.GestionClinique.model.entity.Patient;
+
+/**
+ * Publié par {@code PatientServiceImpl} à la création, la modification ou la suppression d'un
+ * patient, avec les champs indexés par {@link AutocompletionPatients} pour qu'il n'ait pas à relire
+ * la base.
+ */
+public record PatientModifieEvent(Long patientId, String nom, String prenom, String email, String telephone,
+                                  boolean supprime) {
+
+    public static PatientModifieEvent enregistre(Patient patient) {
+        return new PatientModifieEvent(patient.getId(), patient.getNom(), patient.getPrenom(),
+                patient.getEmail(), patient.getTelephone(), false);
+    }
+
+    public static PatientModifieEvent supprime(Long patientId) {
+        return new PatientModifieEvent(patientId, null, null, null, null, true);
+    }
+}
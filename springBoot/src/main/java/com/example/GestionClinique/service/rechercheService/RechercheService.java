@@ -0,0 +1,219 @@
+package com.example.GestionClinique.service.rechercheService;
+
+import com.example.GestionClinique.model.BaseEntity;
+import com.example.GestionClinique.model.InfoPersonnel;
+import com.example.GestionClinique.model.TexteRecherche;
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.model.entity.RendezVous;
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.PatientRepository;
+import com.example.GestionClinique.repository.RechercheRepository;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.repository.UtilisateurRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Recherche approchée des patients, des utilisateurs et des rendez-vous pour la saisie au fil de
+ * l'eau de l'accueil. Le terme est normalisé comme la colonne {@code recherche} puis :
+ * <ul>
+ *   <li>moins de {@link #LONGUEUR_TRIGRAMME} caractères : préfixe du texte normalisé, donc du nom ;</li>
+ *   <li>sinon : sous-chaîne ou similarité de trigrammes, les mots commençant par le terme en tête ;</li>
+ *   <li>un terme numérique ramène en plus, en premier, la ligne de cet identifiant.</li>
+ * </ul>
+ * Sous PostgreSQL la recherche est faite par {@link RechercheRepository} sur les index {@code pg_trgm}.
+ * Ailleurs, un {@link IndexNgrammes} par table est chargé au premier appel puis complété à chaque
+ * recherche par les lignes modifiées depuis la dernière lue, moins {@link #RATTRAPAGE} pour les
+ * transactions validées en retard. Les lignes supprimées en sont retirées quand elles ne sont plus
+ * trouvées en base.
+ */
+@Service
+public class RechercheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RechercheService.class);
+
+    public static final int LIMITE_DEFAUT = 20;
+    public static final int LIMITE_MAX = 100;
+    static final int LONGUEUR_TRIGRAMME = 3;
+    private static final Duration RATTRAPAGE = Duration.ofSeconds(10);
+    private static final LocalDateTime ORIGINE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final RechercheRepository rechercheRepository;
+    private final PatientRepository patientRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final RendezVousRepository rendezVousRepository;
+    private final AutocompletionPatients autocompletionPatients;
+
+    private final Map<CibleRecherche, IndexNgrammes> index = new EnumMap<>(CibleRecherche.class);
+
+    public RechercheService(RechercheRepository rechercheRepository,
+                            PatientRepository patientRepository,
+                            UtilisateurRepository utilisateurRepository,
+                            RendezVousRepository rendezVousRepository,
+                            AutocompletionPatients autocompletionPatients) {
+        this.rechercheRepository = rechercheRepository;
+        this.patientRepository = patientRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.rendezVousRepository = rendezVousRepository;
+        this.autocompletionPatients = autocompletionPatients;
+    }
+
+    /** Les lignes antérieures à la colonne {@code recherche} la reçoivent au démarrage, par lots. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completerRecherche() {
+        int patients = completer(patientRepository::findTop500ByRechercheIsNull, patientRepository);
+        int utilisateurs = completer(utilisateurRepository::findTop500ByRechercheIsNull, utilisateurRepository);
+        if (patients + utilisateurs > 0) {
+            logger.info("Colonne recherche renseignée pour {} patients et {} utilisateurs", patients, utilisateurs);
+        }
+    }
+
+    private static <T extends InfoPersonnel> int completer(Supplier<List<T>> sansRecherche, JpaRepository<T, Long> repository) {
+        int total = 0;
+        List<T> lot;
+        while (!(lot = sansRecherche.get()).isEmpty()) {
+            lot.forEach(InfoPersonnel::majRecherche);
+            repository.saveAll(lot);
+            total += lot.size();
+        }
+        return total;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Patient> rechercherPatients(String terme, int limite) {
+        return charger(CibleRecherche.PATIENT, terme, limite, patientRepository::findAllById);
+    }
+
+    /**
+     * Saisie au fil de l'eau : les identifiants viennent de {@link AutocompletionPatients} sans
+     * requête, puis les patients retenus sont chargés par clé primaire. Tant que l'index n'est pas
+     * chargé, ou s'il a été désactivé, la recherche approchée en base prend le relais.
+     */
+    @Transactional(readOnly = true)
+    public List<Patient> autocompleterPatients(String terme, int limite) {
+        if (!autocompletionPatients.isActif()) {
+            return rechercherPatients(terme, limite);
+        }
+        List<Long> ids = autocompletionPatients.completer(terme, borner(limite));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Patient> parId = new HashMap<>();
+        patientRepository.findAllById(ids).forEach(patient -> parId.put(patient.getId(), patient));
+        return ids.stream().map(parId::get).filter(Objects::nonNull).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Utilisateur> rechercherUtilisateurs(String terme, int limite) {
+        return charger(CibleRecherche.UTILISATEUR, terme, limite, utilisateurRepository::findAllById);
+    }
+
+    /**
+     * Rendez-vous des patients trouvés, dans l'ordre de pertinence des patients puis du plus récent au
+     * plus ancien. Aucune personne ne pouvant fournir plus que la limite, la base ne renvoie que les
+     * {@code limite} plus récents de chacune.
+     */
+    @Transactional(readOnly = true)
+    public List<RendezVous> rechercherRendezVous(CibleRecherche par, String terme, int limite) {
+        List<Long> ids = identifiants(par, terme, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        int borne = borner(limite);
+        List<RendezVous> rendezVous = par == CibleRecherche.PATIENT
+                ? rendezVousRepository.findPlusRecentsParPatient(ids, borne)
+                : rendezVousRepository.findPlusRecentsParMedecin(ids, borne);
+        Map<Long, Integer> rang = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rang.put(ids.get(i), i);
+        }
+        Function<RendezVous, Long> personne = par == CibleRecherche.PATIENT
+                ? r -> r.getPatient().getId()
+                : r -> r.getMedecin().getId();
+        return rendezVous.stream()
+                .sorted(Comparator.<RendezVous>comparingInt(r -> rang.get(personne.apply(r)))
+                        .thenComparing(RendezVous::getJour, Comparator.reverseOrder())
+                        .thenComparing(RendezVous::getHeure, Comparator.reverseOrder()))
+                .limit(borne)
+                .toList();
+    }
+
+    private <T extends BaseEntity> List<T> charger(CibleRecherche cible, String terme, int limite,
+                                                   Function<List<Long>, List<T>> findAllById) {
+        List<T> resultat;
+        boolean retires;
+        int essais = 0;
+        // Une ligne supprimée encore présente dans l'index en mémoire en est retirée et la recherche relancée.
+        do {
+            List<Long> ids = identifiants(cible, terme, limite);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            Map<Long, T> parId = new HashMap<>();
+            findAllById.apply(ids).forEach(entite -> parId.put(entite.getId(), entite));
+            resultat = new ArrayList<>(parId.size());
+            retires = false;
+            for (Long id : ids) {
+                T entite = parId.get(id);
+                if (entite != null) {
+                    resultat.add(entite);
+                } else if (!rechercheRepository.isTrigrammes()) {
+                    retires |= index.get(cible).retirer(id);
+                }
+            }
+        } while (retires && ++essais < 3);
+        return resultat;
+    }
+
+    List<Long> identifiants(CibleRecherche cible, String terme, int limite) {
+        String normalise = TexteRecherche.normaliser(terme);
+        if (normalise.isEmpty()) {
+            return List.of();
+        }
+        int borne = borner(limite);
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        if (normalise.chars().allMatch(Character::isDigit) && normalise.length() <= 18) {
+            ids.add(Long.parseLong(normalise));
+        }
+        if (rechercheRepository.isTrigrammes()) {
+            ids.addAll(normalise.length() < LONGUEUR_TRIGRAMME
+                    ? rechercheRepository.findParPrefixe(cible, normalise, borne)
+                    : rechercheRepository.findSimilaires(cible, normalise, borne));
+        } else {
+            IndexNgrammes memoire = synchroniser(cible);
+            ids.addAll(normalise.length() < LONGUEUR_TRIGRAMME
+                    ? memoire.findParPrefixe(normalise, borne)
+                    : memoire.findSimilaires(normalise, borne));
+        }
+        return ids.stream().limit(borne).toList();
+    }
+
+    private IndexNgrammes synchroniser(CibleRecherche cible) {
+        IndexNgrammes memoire;
+        synchronized (index) {
+            memoire = index.computeIfAbsent(cible, c -> new IndexNgrammes());
+        }
+        LocalDateTime depuis = null;
+        if (memoire.isCharge()) {
+            LocalDateTime derniere = memoire.getDerniereModification();
+            depuis = derniere == null ? ORIGINE : derniere.minus(RATTRAPAGE);
+        }
+        memoire.mettreAJour(rechercheRepository.findTextes(cible, depuis));
+        return memoire;
+    }
+
+    private static int borner(int limite) {
+        return Math.clamp(limite, 1, LIMITE_MAX);
+    }
+}
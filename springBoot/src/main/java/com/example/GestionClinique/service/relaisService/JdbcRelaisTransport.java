@@ -0,0 +1,188 @@
+package com.example.GestionClinique.service.relaisService;
+
+import com.example.GestionClinique.repository.RelaisRepository;
+import com.example.GestionClinique.repository.projection.TrameRelaisLigne;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Relais par la base de données : les trames sont insérées dans {@code websocket_relais} et chaque
+ * nœud lit celles des autres par identifiant croissant. Sous PostgreSQL, un thread garde une
+ * connexion en {@code LISTEN} et se réveille à chaque {@code NOTIFY} ; ailleurs (H2 en test) il
+ * interroge la table toutes les {@code websocket.relais.poll-ms}.
+ * <p>
+ * Un identifiant sauté peut appartenir à une insertion pas encore validée : il est relu pendant
+ * {@link #DUREE_TROU} avant d'être abandonné. Les trames sont purgées après
+ * {@code websocket.relais.retention-secondes} ; un nœud arrêté plus longtemps ne les reçoit pas.
+ */
+@Component
+@ConditionalOnExpression("'${websocket.broker:simple}' == 'relais' and '${websocket.relais.transport:jdbc}' == 'jdbc'")
+public class JdbcRelaisTransport implements RelaisTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRelaisTransport.class);
+    private static final int LOT = 500;
+    private static final int TROUS_MAX = 1000;
+    private static final Duration DUREE_TROU = Duration.ofSeconds(10);
+
+    private final RelaisRepository relaisRepository;
+    private final DataSource dataSource;
+    private final int pollMs;
+    private final long retentionSecondes;
+
+    private volatile boolean actif;
+    private Thread lecteur;
+    private String noeud;
+    private Consumer<TrameRelais> reception;
+
+    // Lus et modifiés par le seul thread lecteur.
+    private long dernierId;
+    private final Map<Long, Long> trous = new LinkedHashMap<>();
+
+    public JdbcRelaisTransport(RelaisRepository relaisRepository,
+                               DataSource dataSource,
+                               @Value("${websocket.relais.poll-ms:500}") int pollMs,
+                               @Value("${websocket.relais.retention-secondes:300}") long retentionSecondes) {
+        this.relaisRepository = relaisRepository;
+        this.dataSource = dataSource;
+        this.pollMs = pollMs;
+        this.retentionSecondes = retentionSecondes;
+    }
+
+    @Override
+    public void publier(TrameRelais trame) {
+        relaisRepository.inserer(trame);
+    }
+
+    @Override
+    public synchronized void demarrer(String noeud, Consumer<TrameRelais> reception) {
+        if (actif) {
+            return;
+        }
+        relaisRepository.creerTable();
+        this.noeud = noeud;
+        this.reception = reception;
+        this.dernierId = relaisRepository.dernierId();
+        this.actif = true;
+        this.lecteur = Thread.ofPlatform().name("websocket-relais").daemon(true).start(this::boucle);
+    }
+
+    private void boucle() {
+        while (actif) {
+            try {
+                if (relaisRepository.isPostgres()) {
+                    ecouter();
+                } else {
+                    lire();
+                    Thread.sleep(pollMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!actif) {
+                    return;
+                }
+                logger.warn("Lecture du relais WebSocket impossible, nouvel essai dans {} ms : {}", pollMs, e.getMessage());
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Le driver PostgreSQL n'est qu'en scope runtime : {@code PGConnection.getNotifications(int)} est
+     * appelé par réflexion. Il rend la main à la première notification ou après {@code pollMs}.
+     */
+    private void ecouter() throws Exception {
+        try (Connection connexion = dataSource.getConnection()) {
+            connexion.setAutoCommit(true);
+            try (Statement statement = connexion.createStatement()) {
+                statement.execute("LISTEN " + RelaisRepository.CANAL);
+            }
+            Class<?> pgConnection = Class.forName("org.postgresql.PGConnection");
+            Object pg = connexion.unwrap(pgConnection);
+            Method attendre = pgConnection.getMethod("getNotifications", int.class);
+            while (actif) {
+                lire();
+                try {
+                    attendre.invoke(pg, pollMs);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        }
+    }
+
+    void lire() {
+        List<TrameRelaisLigne> lignes;
+        do {
+            long maintenant = System.nanoTime();
+            trous.values().removeIf(detection -> maintenant - detection > DUREE_TROU.toNanos());
+            lignes = relaisRepository.lireDepuis(dernierId, trous.keySet(), noeud, LOT);
+            for (TrameRelaisLigne ligne : lignes) {
+                if (ligne.id() > dernierId) {
+                    for (long id = dernierId + 1; id < ligne.id() && trous.size() < TROUS_MAX; id++) {
+                        trous.put(id, maintenant);
+                    }
+                    dernierId = ligne.id();
+                } else {
+                    trous.remove(ligne.id());
+                }
+                if (!noeud.equals(ligne.noeud())) {
+                    remettre(new TrameRelais(ligne.noeud(), ligne.destination(), ligne.contentType(), ligne.contenu()));
+                }
+            }
+        } while (lignes.size() == LOT && actif);
+    }
+
+    private void remettre(TrameRelais trame) {
+        try {
+            reception.accept(trame);
+        } catch (RuntimeException e) {
+            logger.warn("Trame relayée vers {} non remise : {}", trame.destination(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.relais.purge-ms:60000}")
+    public void purger() {
+        if (!actif) {
+            return;
+        }
+        try {
+            int supprimees = relaisRepository.purger(LocalDateTime.now().minusSeconds(retentionSecondes));
+            if (supprimees > 0) {
+                logger.debug("{} trames du relais WebSocket purgées", supprimees);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Purge du relais WebSocket impossible : {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void arreter() {
+        actif = false;
+        if (lecteur != null) {
+            lecteur.interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.GestionClinique.service.relaisService;
+
+import com.example.GestionClinique.configuration.webocket.RelaisBroker;
+import com.example.GestionClinique.service.authService.CachePrincipaux;
+import com.example.GestionClinique.service.authService.UtilisateurModifieEvent;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.planningService.OccupationCreneaux;
+import com.example.GestionClinique.service.presenceService.PresenceEvent;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
+import com.example.GestionClinique.service.rechercheService.AutocompletionPatients;
+import com.example.GestionClinique.service.rechercheService.PatientModifieEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Mode {@code websocket.broker=relais} : les index tenus en mémoire par chaque nœud
+ * ({@link OccupationCreneaux}, {@link CachePrincipaux}, {@link AutocompletionPatients},
+ * {@link SuiviPresence}) reçoivent aussi les modifications faites sur les autres nœuds.
+ * <p>
+ * Les événements sont écrits sur le relais avant le commit, dans la transaction qui les publie :
+ * les autres nœuds ne les lisent qu'une fois la modification validée, et un relais indisponible
+ * fait échouer l'écriture plutôt que de laisser les autres nœuds sur un index périmé. À la
+ * réception, ils sont appliqués directement aux index, sans être republiés.
+ * <p>
+ * La présence est partagée par signalement : toutes les {@code presence.relais-ms}, chaque nœud
+ * publie les utilisateurs qu'il tient, et les connexions et déconnexions explicites sont relayées
+ * dès leur écriture.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker", havingValue = "relais")
+public class RelaisEvenements {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelaisEvenements.class);
+
+    static final String CRENEAU = "creneau";
+    static final String UTILISATEUR = "utilisateur";
+    static final String PATIENT = "patient";
+    static final String PRESENCE = "presence";
+    static final String PRESENTS = "presents";
+
+    private final RelaisBroker relaisBroker;
+    private final ObjectMapper objectMapper;
+    private final OccupationCreneaux occupationCreneaux;
+    private final CachePrincipaux cachePrincipaux;
+    private final AutocompletionPatients autocompletionPatients;
+    private final SuiviPresence suiviPresence;
+
+    public RelaisEvenements(RelaisBroker relaisBroker,
+                            ObjectMapper objectMapper,
+                            OccupationCreneaux occupationCreneaux,
+                            CachePrincipaux cachePrincipaux,
+                            AutocompletionPatients autocompletionPatients,
+                            SuiviPresence suiviPresence) {
+        this.relaisBroker = relaisBroker;
+        this.objectMapper = objectMapper;
+        this.occupationCreneaux = occupationCreneaux;
+        this.cachePrincipaux = cachePrincipaux;
+        this.autocompletionPatients = autocompletionPatients;
+        this.suiviPresence = suiviPresence;
+        relaisBroker.surEvenement(this::recevoir);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCreneau(CreneauEvent event) {
+        publier(CRENEAU, event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUtilisateurModifie(UtilisateurModifieEvent event) {
+        publier(UTILISATEUR, event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPatientModifie(PatientModifieEvent event) {
+        publier(PATIENT, event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPresence(PresenceEvent event) {
+        publier(PRESENCE, event);
+    }
+
+    /** Doit rester sous {@code presence.inactivite-ms} : un utilisateur non signalé à temps expire sur les autres nœuds. */
+    @Scheduled(fixedDelayString = "${presence.relais-ms:15000}")
+    public void signalerPresents() {
+        List<Long> presents = suiviPresence.presentsIci();
+        if (presents.isEmpty()) {
+            return;
+        }
+        try {
+            publier(PRESENTS, presents);
+        } catch (RuntimeException e) {
+            logger.warn("Signalement de {} utilisateurs présents impossible : {}", presents.size(), e.getMessage());
+        }
+    }
+
+    private void publier(String type, Object evenement) {
+        try {
+            relaisBroker.publierEvenement(type, objectMapper.writeValueAsBytes(evenement));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Événement " + type + " non sérialisable", e);
+        }
+    }
+
+    void recevoir(TrameRelais trame) {
+        String type = trame.destination().substring(RelaisBroker.PREFIXE_EVENEMENT.length());
+        try {
+            switch (type) {
+                case CRENEAU -> occupationCreneaux.onCreneau(lire(trame, CreneauEvent.class));
+                case UTILISATEUR -> cachePrincipaux.invalider(lire(trame, UtilisateurModifieEvent.class).utilisateurId());
+                case PATIENT -> autocompletionPatients.onPatientModifie(lire(trame, PatientModifieEvent.class));
+                case PRESENCE -> {
+                    PresenceEvent event = lire(trame, PresenceEvent.class);
+                    if (event.connecte()) {
+                        suiviPresence.presentsAilleurs(List.of(event.utilisateurId()));
+                    } else {
+                        suiviPresence.deconnecteAilleurs(event.utilisateurId());
+                    }
+                }
+                case PRESENTS -> suiviPresence.presentsAilleurs(List.of(lire(trame, Long[].class)));
+                default -> logger.warn("Événement relayé de type inconnu ignoré : {}", type);
+            }
+        } catch (IOException e) {
+            logger.warn("Événement {} du nœud {} illisible : {}", type, trame.noeud(), e.getMessage());
+        }
+    }
+
+    private <T> T lire(TrameRelais trame, Class<T> classe) throws IOException {
+        return objectMapper.readValue(trame.contenu(), classe);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.GestionClinique.service.relaisService;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport des trames entre les nœuds en mode {@code websocket.broker=relais}. L'implémentation
+ * par défaut passe par la base ({@link JdbcRelaisTransport}) ; une autre implémentation peut être
+ * fournie avec {@code websocket.relais.transport} différent de {@code jdbc}.
+ */
+public interface RelaisTransport {
+
+    void publier(TrameRelais trame);
+
+    /** Les trames publiées par les autres nœuds sont remises à {@code reception}, jamais celles de ce nœud. */
+    void demarrer(String noeud, Consumer<TrameRelais> reception);
+
+    void arreter();
+}
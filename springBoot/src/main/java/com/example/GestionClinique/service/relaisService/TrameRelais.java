@@ -0,0 +1,8 @@
+package com.example.GestionClinique.service.relaisService;
+
+/**
+ * Message destiné au broker, tel qu'il circule entre les nœuds : la destination STOMP
+ * ({@code /topic/...} ou {@code /user/{nom}/...}) et la charge déjà sérialisée.
+ */
+public record TrameRelais(String noeud, String destination, String contentType, byte[] contenu) {
+}
@@ -7,7 +7,16 @@ import com.example.GestionClinique.model.entity.*;
 import com.example.GestionClinique.model.entity.enumElem.Action;
 import com.example.GestionClinique.model.entity.enumElem.TypeConversation;
 import com.example.GestionClinique.repository.*;
+import com.example.GestionClinique.repository.projection.ChangementMessageLigne;
+import com.example.GestionClinique.repository.projection.DestinataireLigne;
+import com.example.GestionClinique.repository.projection.ResumeConversationLigne;
 import com.example.GestionClinique.service.NotificationService;
+import com.example.GestionClinique.service.chatService.SynchronisationMessages;
+import com.example.GestionClinique.service.pagination.Curseur;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.JetonSynchronisation;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.pagination.Rattrapage;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,8 +26,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +43,7 @@ public class ChatService {
     private final GroupeRepository groupeRepository;
     private final UtilisateurRepository utilisateurRepository;
     private final NotificationService notificationService;
+    private final ConversationResumeRepository conversationResumeRepository;
 
     @Transactional
     public Message sendMessage(MessageRequestDto messageDto, Long senderId) {
@@ -52,26 +65,15 @@ public class ChatService {
 
         Message savedMessage = messageRepository.save(message);
 
-        conversation.setLastMessageAt(LocalDateTime.now());
+        LocalDateTime maintenant = LocalDateTime.now();
+        conversation.setLastMessageAt(maintenant);
         conversation.setLastMessageSender(expediteur);
         conversationRepository.save(conversation);
 
-        List<ConversationParticipant> participants = conversation.getParticipants();
-        for (ConversationParticipant participant : participants) {
-            if (!participant.getUtilisateur().getId().equals(expediteur.getId())) {
-                participant.setUnreadCount(participant.getUnreadCount() + 1);
-                conversationParticipantRepository.save(participant);
-            }
-        }
-
-        for (ConversationParticipant participant : participants) {
-            if (!participant.getUtilisateur().getId().equals(expediteur.getId())) {
-                participant.setUnreadCount(participant.getUnreadCount() + 1);
-                conversationParticipantRepository.save(participant);
-
-                notificationService.creerNotificationPourMessage(savedMessage, participant.getUtilisateur());
-            }
-        }
+        // Un UPDATE groupé, une lecture des destinataires et un batch d'INSERT, quelle que soit la taille du groupe.
+        conversationParticipantRepository.incrementUnreadCount(conversation.getId(), expediteur.getId(), maintenant);
+        List<DestinataireLigne> destinataires = conversationParticipantRepository.findDestinataires(conversation.getId(), expediteur.getId());
+        notificationService.creerNotificationsPourMessage(savedMessage, destinataires);
 
         return savedMessage;
     }
@@ -79,6 +81,7 @@ public class ChatService {
     @Transactional
     public Message updateMessage(Long messageId, String newContent, Long userId) {
         Message message = messageRepository.findById(messageId)
+                .filter(m -> !m.isSupprime())
                 .orElseThrow(() -> new EntityNotFoundException("Message non trouvé avec l'ID: " + messageId));
 
         if (!message.getExpediteur().getId().equals(userId)) {
@@ -101,6 +104,7 @@ public class ChatService {
     @Transactional
     public void deleteMessage(Long messageId, Long userId) {
         Message message = messageRepository.findById(messageId)
+                .filter(m -> !m.isSupprime())
                 .orElseThrow(() -> new EntityNotFoundException("Message non trouvé avec l'ID: " + messageId));
 
         if (!message.getExpediteur().getId().equals(userId)) {
@@ -115,12 +119,103 @@ public class ChatService {
         historique.setTimestamp(LocalDateTime.now());
         historiqueMessageRepository.save(historique);
 
-        messageRepository.delete(message);
+        // Suppression logique : l'historique garde sa référence et la synchronisation signale la suppression.
+        message.setSupprime(true);
+        messageRepository.save(message);
     }
 
     public Page<Message> getMessagesByConversation(Long conversationId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return messageRepository.findByConversationIdOrderByCreationDateDesc(conversationId, pageable);
+        return messageRepository.findByConversationIdAndSupprimeFalseOrderByCreationDateDesc(conversationId, pageable);
+    }
+
+    /**
+     * Historique par curseur. Sans curseur ou avec {@code avant} : du plus récent au plus ancien ;
+     * avec {@code apres} : du plus ancien au plus récent, à partir du message suivant le curseur.
+     */
+    @Transactional(readOnly = true)
+    public PageCurseur<Message> getMessagesPage(Long conversationId, String avant, String apres, int taille) {
+        boolean versLePasse = apres == null || apres.isBlank();
+        if (!versLePasse && avant != null && !avant.isBlank()) {
+            throw new IllegalArgumentException("Les curseurs avant et apres ne peuvent pas être combinés.");
+        }
+        DemandePage demande = new DemandePage(versLePasse ? avant : apres, taille, false);
+        List<Message> lignes;
+        if (demande.curseur() == null) {
+            lignes = messageRepository.findPlusRecents(conversationId, demande.limite());
+        } else if (versLePasse) {
+            lignes = messageRepository.findPageAvant(conversationId, demande.curseurDate(), demande.curseurId(), demande.limite());
+        } else {
+            lignes = messageRepository.findPageApres(conversationId, demande.curseurDate(), demande.curseurId(), demande.limite());
+        }
+        return PageCurseur.of(lignes, demande, null);
+    }
+
+    /**
+     * Changements depuis {@code depuis}, au plus {@link DemandePage#TAILLE_MAX} messages et autant de
+     * lignes d'historique par appel. Sans jeton, renvoie seulement la position actuelle. Chaque appel
+     * relit la fenêtre de {@link Rattrapage} derrière le jeton pour rendre les lignes validées après
+     * une ligne plus récente déjà livrée.
+     */
+    @Transactional(readOnly = true)
+    public SynchronisationMessages synchroniser(Long conversationId, String depuis) {
+        if (depuis == null || depuis.isBlank()) {
+            return new SynchronisationMessages(List.of(), List.of(), List.of(), jetonActuel(conversationId).encoder(), true);
+        }
+        JetonSynchronisation jeton = JetonSynchronisation.decoder(depuis);
+        int taille = DemandePage.TAILLE_MAX;
+
+        List<Message> messagesLus = messageRepository.findPageApres(conversationId,
+                Rattrapage.debut(jeton.messages()), 0L,
+                PageRequest.of(0, Rattrapage.limite(jeton.messagesVus(), taille)));
+        Rattrapage.Resultat<Message> messages = Rattrapage.filtrer(messagesLus, jeton.messages(),
+                jeton.messagesVus(), taille, Curseur::apres);
+        List<ChangementMessageLigne> changementsLus = historiqueMessageRepository.findChangementsApres(conversationId,
+                Rattrapage.debut(jeton.changements()), 0L,
+                PageRequest.of(0, Rattrapage.limite(jeton.changementsVus(), taille)));
+        Rattrapage.Resultat<ChangementMessageLigne> changements = Rattrapage.filtrer(changementsLus, jeton.changements(),
+                jeton.changementsVus(), taille, c -> new Curseur(c.creationDate(), c.id()));
+
+        List<Message> nouveaux = messages.lignes();
+        Set<Long> supprimes = new LinkedHashSet<>();
+        Set<Long> modifies = new LinkedHashSet<>();
+        for (ChangementMessageLigne changement : changements.lignes()) {
+            if (changement.action() == Action.SUPPRIMER) {
+                supprimes.add(changement.messageId());
+            } else if (changement.action() == Action.MODIFIER) {
+                modifies.add(changement.messageId());
+            }
+        }
+        modifies.removeAll(supprimes);
+        nouveaux.forEach(m -> modifies.remove(m.getId()));
+
+        return new SynchronisationMessages(
+                nouveaux,
+                modifies.isEmpty() ? List.of() : messageRepository.findVisiblesByIdIn(modifies),
+                List.copyOf(supprimes),
+                new JetonSynchronisation(messages.curseur(), changements.curseur(), messages.vus(), changements.vus()).encoder(),
+                messages.complet() && changements.complet());
+    }
+
+    private JetonSynchronisation jetonActuel(Long conversationId) {
+        Pageable un = PageRequest.of(0, 1);
+        Curseur messages = messageRepository.findDerniers(conversationId, un).stream()
+                .findFirst().map(Curseur::apres).orElse(JetonSynchronisation.origine());
+        Curseur changements = historiqueMessageRepository.findDerniersChangements(conversationId, un).stream()
+                .findFirst().map(c -> new Curseur(c.creationDate(), c.id())).orElse(JetonSynchronisation.origine());
+
+        // Tout ce qui est déjà visible dans la fenêtre de rattrapage est considéré comme livré.
+        Pageable fenetre = PageRequest.of(0, DemandePage.TAILLE_MAX);
+        Set<Long> messagesVus = messageRepository.findPageApres(conversationId, Rattrapage.debut(messages), 0L, fenetre)
+                .stream().map(Message::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> changementsVus = historiqueMessageRepository.findChangementsApres(conversationId, Rattrapage.debut(changements), 0L, fenetre)
+                .stream().map(ChangementMessageLigne::id).collect(Collectors.toCollection(LinkedHashSet::new));
+        return new JetonSynchronisation(messages, changements, messagesVus, changementsVus);
+    }
+
+    /** Compteur de non lus et dernier message de toutes les conversations de l'utilisateur, en une requête. */
+    public List<ResumeConversationLigne> getResumesConversations(Long userId) {
+        return conversationResumeRepository.findResumes(userId);
     }
 
     @Transactional
@@ -5,16 +5,27 @@ import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
 import com.example.GestionClinique.model.entity.enumElem.StatutSalle;
 import com.example.GestionClinique.repository.*;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import com.example.GestionClinique.repository.projection.PrescriptionLigne;
 import com.example.GestionClinique.service.ConsultationService;
 import com.example.GestionClinique.service.FactureService;
 import com.example.GestionClinique.service.HistoriqueActionService;
-import com.example.GestionClinique.service.StatService;
+import com.example.GestionClinique.service.pagination.Curseur;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.planningService.Creneau;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -28,7 +39,7 @@ public class ConsultationServiceImpl implements ConsultationService {
     private final FactureService factureService;
     private final HistoriqueActionService historiqueActionService;
     private final LoggingAspect loggingAspect;
-    private final StatService statService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -58,9 +69,7 @@ public class ConsultationServiceImpl implements ConsultationService {
         );
         factureService.generateInvoiceForConsultation(savedConsultation.getId());
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+        eventPublisher.publishEvent(StatDeltaEvent.consultation(LocalDate.now(), 1));
 
         return savedConsultation;
     }
@@ -78,6 +87,8 @@ public class ConsultationServiceImpl implements ConsultationService {
             throw new RuntimeException("Cannot start consultation: invoice not found or not paid for rendez-vous with ID " + rendezVousId);
         }
 
+        StatutRDV ancienStatut = rendezVous.getStatut();
+        Creneau ancienCreneau = Creneau.of(rendezVous);
         rendezVous.setStatut(StatutRDV.ENCOURS);
 
         Utilisateur medecin = utilisateurRepository.findById(medecinId)
@@ -125,9 +136,9 @@ public class ConsultationServiceImpl implements ConsultationService {
                 loggingAspect.currentUserId()
         );
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+        eventPublisher.publishEvent(StatDeltaEvent.consultation(LocalDate.now(), 1));
+        eventPublisher.publishEvent(StatDeltaEvent.rendezVous(rendezVous.getJour(), ancienStatut, StatutRDV.TERMINE));
+        eventPublisher.publishEvent(new CreneauEvent(ancienCreneau, Creneau.of(rendezVous)));
 
         return newConsultation;
     }
@@ -163,8 +174,46 @@ public class ConsultationServiceImpl implements ConsultationService {
 
     @Override
     @Transactional
-    public List<Consultation> findAll() {
-        return consultationRepository.findAll();
+    public List<ConsultationLigne> findAll() {
+        return avecPrescriptions(consultationRepository.findAllLignes());
+    }
+
+    @Override
+    @Transactional
+    public PageCurseur<ConsultationLigne> findPage(LocalDate du, LocalDate au, Long medecinId, DemandePage demande) {
+        DemandePage.verifierPeriode(du, au);
+        LocalDateTime debut = DemandePage.debutJour(du);
+        LocalDateTime fin = DemandePage.finJour(au);
+        List<ConsultationLigne> lignes = consultationRepository.findLignesPage(debut, fin, medecinId,
+                demande.curseurDate(), demande.curseurId(), demande.limite());
+        Long total = demande.avecTotal() ? consultationRepository.countPage(debut, fin, medecinId) : null;
+        PageCurseur<ConsultationLigne> page = PageCurseur.of(lignes, demande, total,
+                ligne -> new Curseur(ligne.creationDate(), ligne.id()));
+        return new PageCurseur<>(avecPrescriptions(page.contenu()), page.curseurSuivant(), page.total());
+    }
+
+    @Override
+    @Transactional
+    public PageCurseur<ConsultationLigne> findPageByDossier(Long dossierMedicalId, DemandePage demande) {
+        List<ConsultationLigne> lignes = consultationRepository.findLignesByDossierPage(dossierMedicalId,
+                demande.curseurDate(), demande.curseurId(), demande.limite());
+        Long total = demande.avecTotal() ? consultationRepository.countByDossierMedicalId(dossierMedicalId) : null;
+        PageCurseur<ConsultationLigne> page = PageCurseur.of(lignes, demande, total,
+                ligne -> new Curseur(ligne.creationDate(), ligne.id()));
+        return new PageCurseur<>(avecPrescriptions(page.contenu()), page.curseurSuivant(), page.total());
+    }
+
+    // Une seule requête pour les prescriptions de toutes les consultations de la liste.
+    private List<ConsultationLigne> avecPrescriptions(List<ConsultationLigne> lignes) {
+        if (lignes.isEmpty()) {
+            return lignes;
+        }
+        Map<Long, List<PrescriptionLigne>> parConsultation = prescriptionRepository
+                .findLignesByConsultationIds(lignes.stream().map(ConsultationLigne::id).toList()).stream()
+                .collect(Collectors.groupingBy(PrescriptionLigne::consultationId));
+        return lignes.stream()
+                .map(ligne -> ligne.avecPrescriptions(parConsultation.getOrDefault(ligne.id(), List.of())))
+                .toList();
     }
 
     @Override
@@ -183,6 +232,7 @@ public class ConsultationServiceImpl implements ConsultationService {
         );
 
         consultationRepository.delete(consultation);
+        eventPublisher.publishEvent(StatDeltaEvent.consultation(consultation.getCreationDate().toLocalDate(), -1));
     }
 
     @Override
@@ -209,7 +259,9 @@ public class ConsultationServiceImpl implements ConsultationService {
     @Override
     @Transactional
     public List<Prescription> findPrescriptionsByConsultationId(Long consultationId) {
-        Consultation consultation = findById(consultationId);
-        return consultation.getPrescriptions();
+        if (!consultationRepository.existsById(consultationId)) {
+            throw new IllegalArgumentException("Consultation not found with ID: " + consultationId);
+        }
+        return prescriptionRepository.findByConsultationId(consultationId);
     }
 }
\ No newline at end of file
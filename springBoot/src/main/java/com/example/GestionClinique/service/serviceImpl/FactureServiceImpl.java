@@ -9,11 +9,18 @@ import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
 import com.example.GestionClinique.repository.ConsultationRepository;
 import com.example.GestionClinique.repository.RendezVousRepository;
 import com.example.GestionClinique.repository.FactureRepository;
+import com.example.GestionClinique.repository.projection.FactureLigne;
 import com.example.GestionClinique.service.FactureService;
 import com.example.GestionClinique.service.HistoriqueActionService;
-import com.example.GestionClinique.service.StatService;
+import com.example.GestionClinique.service.pagination.Curseur;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.planningService.Creneau;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -31,7 +38,7 @@ public class FactureServiceImpl implements FactureService {
     private final ConsultationRepository consultationRepository;
     private final LoggingAspect loggingAspect;
     private final HistoriqueActionService historiqueActionService;
-    private final StatService statService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public void generateInvoiceForRendesVous(Long rendezVousId) {
         RendezVous rendezVous = rendezVousRepository.findById(rendezVousId)
@@ -60,10 +67,6 @@ public class FactureServiceImpl implements FactureService {
         rendezVous.setFacture(savedFacture);
         rendezVousRepository.save(rendezVous);
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
-
         historiqueActionService.enregistrerAction(
                 String.format("Génération facture ID: %d pour rendez-vous ID: %d",
                         savedFacture.getId(), rendezVousId),
@@ -100,10 +103,6 @@ public class FactureServiceImpl implements FactureService {
         consultation.setFacture(savedFacture);
         consultationRepository.save(consultation);
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
-
         historiqueActionService.enregistrerAction(
                 String.format("Génération facture ID: %d pour rendez-vous ID: %d",
                         savedFacture.getId(), consultationId),
@@ -119,8 +118,20 @@ public class FactureServiceImpl implements FactureService {
 
     @Override
     @Transactional
-    public List<Facture> findAllFacturesIMPAYE() {
-        return findFacturesByStatut(StatutPaiement.IMPAYEE);
+    public List<FactureLigne> findAllFacturesIMPAYE() {
+        return factureRepository.findLignesByStatutPaiement(StatutPaiement.IMPAYEE);
+    }
+
+    @Override
+    @Transactional
+    public PageCurseur<FactureLigne> findFacturesPage(LocalDate du, LocalDate au, StatutPaiement statut, Long medecinId, DemandePage demande) {
+        DemandePage.verifierPeriode(du, au);
+        LocalDateTime debut = DemandePage.debutJour(du);
+        LocalDateTime fin = DemandePage.finJour(au);
+        List<FactureLigne> lignes = factureRepository.findLignesPage(debut, fin, statut, medecinId,
+                demande.curseurDate(), demande.curseurId(), demande.limite());
+        Long total = demande.avecTotal() ? factureRepository.countPage(debut, fin, statut, medecinId) : null;
+        return PageCurseur.of(lignes, demande, total, ligne -> new Curseur(ligne.creationDate(), ligne.id()));
     }
 
     @Override
@@ -147,6 +158,9 @@ public class FactureServiceImpl implements FactureService {
         );
 
         factureRepository.delete(facture);
+        if (facture.getStatutPaiement() == PAYEE) {
+            eventPublisher.publishEvent(StatDeltaEvent.revenu(facture.getDateEmission().toLocalDate(), -facture.getMontant()));
+        }
     }
 
     @Override
@@ -165,13 +179,15 @@ public class FactureServiceImpl implements FactureService {
         if (facture.getRendezVous() != null) {
             RendezVous rendezVous = rendezVousRepository.findById(facture.getRendezVous().getId())
                     .orElseThrow(() -> new IllegalArgumentException("rendezVous not found with ID: " + facture.getRendezVous().getId()));
+            StatutRDV ancienStatut = rendezVous.getStatut();
+            Creneau ancienCreneau = Creneau.of(rendezVous);
             rendezVous.setStatut(StatutRDV.CONFIRME);
             rendezVousRepository.save(rendezVous);
+            eventPublisher.publishEvent(StatDeltaEvent.rendezVous(rendezVous.getJour(), ancienStatut, StatutRDV.CONFIRME));
+            eventPublisher.publishEvent(new CreneauEvent(ancienCreneau, Creneau.of(rendezVous)));
         }
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+        eventPublisher.publishEvent(StatDeltaEvent.revenu(facture.getDateEmission().toLocalDate(), facture.getMontant()));
 
         historiqueActionService.enregistrerAction(
                 String.format("Paiement facture ID: %d via %s",
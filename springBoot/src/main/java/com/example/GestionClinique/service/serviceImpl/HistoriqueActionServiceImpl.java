@@ -1,15 +1,23 @@
 package com.example.GestionClinique.service.serviceImpl;
 
 import com.example.GestionClinique.model.entity.HistoriqueAction;
-import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.HistoriqueActionRechercheRepository;
 import com.example.GestionClinique.repository.HistoriqueActionRepository;
 import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.repository.projection.HistoriqueActionLigne;
 import com.example.GestionClinique.service.HistoriqueActionService;
+import com.example.GestionClinique.service.historiqueService.ActionAudit;
+import com.example.GestionClinique.service.pagination.Curseur;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -18,24 +26,45 @@ public class
 HistoriqueActionServiceImpl implements HistoriqueActionService {
 
     private final HistoriqueActionRepository historiqueActionRepository;
+    private final HistoriqueActionRechercheRepository historiqueActionRechercheRepository;
     private final UtilisateurRepository utilisateurRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean asynchrone;
 
     @Autowired
     public HistoriqueActionServiceImpl(HistoriqueActionRepository historiqueActionRepository,
-                                       UtilisateurRepository utilisateurRepository) {
+                                       HistoriqueActionRechercheRepository historiqueActionRechercheRepository,
+                                       UtilisateurRepository utilisateurRepository,
+                                       ApplicationEventPublisher eventPublisher,
+                                       @Value("${historique.mode:async}") String mode) {
         this.historiqueActionRepository = historiqueActionRepository;
+        this.historiqueActionRechercheRepository = historiqueActionRechercheRepository;
         this.utilisateurRepository = utilisateurRepository;
+        this.eventPublisher = eventPublisher;
+        this.asynchrone = !"sync".equals(mode);
     }
 
+    /**
+     * En mode {@code async} (par défaut), l'action est confiée après commit à HistoriqueActionWriter
+     * et l'entité renvoyée n'a pas encore d'identifiant. En mode {@code sync}, elle est insérée dans
+     * la transaction courante. Dans les deux cas l'utilisateur n'est pas chargé.
+     */
     @Override
     public HistoriqueAction enregistrerAction(String actionDescription, Long utilisateurId) {
-        Utilisateur utilisateur = utilisateurRepository.findById(utilisateurId)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé avec ID: " + utilisateurId));
+        if (utilisateurId == null) {
+            throw new IllegalArgumentException("Utilisateur non trouvé avec ID: null");
+        }
 
         HistoriqueAction action = new HistoriqueAction();
         action.setDate(LocalDate.now());
         action.setAction(actionDescription);
-        action.setUtilisateur(utilisateur);
+        action.setUtilisateur(utilisateurRepository.getReferenceById(utilisateurId));
+
+        if (asynchrone) {
+            eventPublisher.publishEvent(
+                    new ActionAudit(action.getDate(), actionDescription, utilisateurId, LocalDateTime.now()));
+            return action;
+        }
         return historiqueActionRepository.save(action);
     }
 
@@ -43,4 +72,16 @@ HistoriqueActionServiceImpl implements HistoriqueActionService {
     public List<HistoriqueAction> findAllHistoriqueActionsDesc() {
         return historiqueActionRepository.findAllByOrderByIdDesc();
     }
-}
\ No newline at end of file
+
+    @Override
+    public PageCurseur<HistoriqueActionLigne> findHistoriquePage(LocalDate du, LocalDate au, Long utilisateurId, String motCle, DemandePage demande) {
+        DemandePage.verifierPeriode(du, au);
+        LocalDateTime debut = DemandePage.debutJour(du);
+        LocalDateTime fin = DemandePage.finJour(au);
+        String mot = motCle == null || motCle.isBlank() ? null : motCle.trim();
+        List<HistoriqueActionLigne> lignes = historiqueActionRechercheRepository.findLignesPage(debut, fin, utilisateurId, mot,
+                demande.curseurDate(), demande.curseurId(), demande.taille() + 1);
+        Long total = demande.avecTotal() ? historiqueActionRechercheRepository.countPage(debut, fin, utilisateurId, mot) : null;
+        return PageCurseur.of(lignes, demande, total, ligne -> new Curseur(ligne.creationDate(), ligne.id()));
+    }
+}
@@ -4,16 +4,24 @@ import com.example.GestionClinique.model.entity.Message;
 import com.example.GestionClinique.model.entity.Notification;
 import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.NotificationBatchRepository;
 import com.example.GestionClinique.repository.NotificationRepository;
+import com.example.GestionClinique.repository.projection.DestinataireLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
 import com.example.GestionClinique.service.NotificationService;
 import com.example.GestionClinique.mapper.NotificationMapper;
 import com.example.GestionClinique.dto.ResponseDto.NotificationResponseDto;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.example.GestionClinique.service.notificationService.NotificationPush;
+import com.example.GestionClinique.service.notificationService.NotificationsCreeesEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.example.GestionClinique.model.entity.enumElem.NotificationType.MESSAGE;
@@ -22,9 +30,12 @@ import static com.example.GestionClinique.model.entity.enumElem.NotificationType
 @Service
 @AllArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
+
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
     private final NotificationMapper notificationMapper;
+    private final NotificationBatchRepository notificationBatchRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Notification creerNotificationPourMessage(Message message, Utilisateur destinataire) {
@@ -36,13 +47,50 @@ public class NotificationServiceImpl implements NotificationService {
         notification.setLu(false);
         notification.setDateCreation(LocalDateTime.now());
         Notification savedNotification = notificationRepository.save(notification);
-        
-        // Push notification via WebSocket
+
         pushNotification(savedNotification);
         
         return savedNotification;
     }
 
+    /**
+     * Diffusion d'un message : une notification par destinataire, insérées en un seul batch JDBC.
+     * Les pushes WebSocket partent après le commit, hors du thread appelant.
+     */
+    @Transactional
+    public List<Notification> creerNotificationsPourMessage(Message message, List<DestinataireLigne> destinataires) {
+        String contenu = "Nouveau message de " + message.getExpediteur().getNom();
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>(destinataires.size());
+        for (DestinataireLigne destinataire : destinataires) {
+            Utilisateur utilisateur = new Utilisateur();
+            utilisateur.setId(destinataire.utilisateurId());
+            utilisateur.setUsername(destinataire.username());
+
+            Notification notification = new Notification();
+            notification.setType(MESSAGE);
+            notification.setMessage(message);
+            notification.setUtilisateur(utilisateur);
+            notification.setContenu(contenu);
+            notification.setLu(false);
+            notification.setDateCreation(maintenant);
+            notifications.add(notification);
+        }
+        notificationBatchRepository.insertNotifications(notifications);
+
+        try {
+            List<NotificationPush> pushes = notifications.stream()
+                    .filter(n -> n.getUtilisateur().getUsername() != null)
+                    .map(n -> new NotificationPush(n.getUtilisateur().getUsername(), notificationMapper.toDto(n)))
+                    .toList();
+            eventPublisher.publishEvent(new NotificationsCreeesEvent(pushes));
+        } catch (RuntimeException e) {
+            // Les notifications restent en base : un push manqué ne doit pas annuler l'envoi du message.
+            logger.error("Push des notifications du message {} impossible : {}", message.getId(), e.getMessage());
+        }
+        return notifications;
+    }
+
     @Transactional
     public Notification creerNotificationPourRendezVous(RendezVous rendezVous, Utilisateur utilisateur) {
         Notification notification = new Notification();
@@ -53,24 +101,52 @@ public class NotificationServiceImpl implements NotificationService {
         notification.setLu(false);
         notification.setDateCreation(LocalDateTime.now());
         Notification savedNotification = notificationRepository.save(notification);
-        
-        // Push notification via WebSocket
+
         pushNotification(savedNotification);
         
         return savedNotification;
     }
 
+    @Transactional
+    public Notification creerNotificationPourRendezVous(List<RendezVous> rendezVous, Utilisateur utilisateur) {
+        if (rendezVous.size() == 1) {
+            return creerNotificationPourRendezVous(rendezVous.get(0), utilisateur);
+        }
+        // Le contenu tient dans une colonne VARCHAR(255) : seuls les premiers créneaux sont listés.
+        StringBuilder contenu = new StringBuilder(rendezVous.size() + " nouveaux rendez-vous prévus :");
+        rendezVous.stream().limit(5).forEach(rv ->
+                contenu.append(' ').append(rv.getJour()).append(" à ").append(rv.getHeure()).append(','));
+        contenu.setLength(contenu.length() - 1);
+        if (rendezVous.size() > 5) {
+            contenu.append(" et ").append(rendezVous.size() - 5).append(" autres");
+        }
+
+        Notification notification = new Notification();
+        notification.setType(RENDEZVOUS);
+        notification.setUtilisateur(utilisateur);
+        notification.setContenu(contenu.toString());
+        notification.setLu(false);
+        notification.setDateCreation(LocalDateTime.now());
+        Notification savedNotification = notificationRepository.save(notification);
+
+        pushNotification(savedNotification);
+
+        return savedNotification;
+    }
+
+    /**
+     * Le push part après le commit, depuis {@code NotificationDispatcher}. Une erreur de mapping ou
+     * de publication est journalisée sans annuler la transaction métier qui a créé la notification.
+     */
     private void pushNotification(Notification notification) {
         try {
-            NotificationResponseDto dto = notificationMapper.toDto(notification);
             String username = notification.getUtilisateur().getUsername();
             if (username != null) {
-                messagingTemplate.convertAndSendToUser(username, "/queue/notifications", dto);
-                System.out.println("Notification poussée à l'utilisateur: " + username);
+                NotificationResponseDto dto = notificationMapper.toDto(notification);
+                eventPublisher.publishEvent(new NotificationsCreeesEvent(List.of(new NotificationPush(username, dto))));
             }
-        } catch (Exception e) {
-            System.err.println("Erreur lors du push de la notification: " + e.getMessage());
-            // On ne bloque pas la transaction si le push échoue
+        } catch (RuntimeException e) {
+            logger.error("Push de la notification {} impossible : {}", notification.getId(), e.getMessage());
         }
     }
 
@@ -89,4 +165,8 @@ public class NotificationServiceImpl implements NotificationService {
         notification.setLu(true);
         notificationRepository.save(notification);
     }
+
+    public VersionLigne findVersionByUtilisateurId(Long utilisateurId) {
+        return notificationRepository.findVersionByUtilisateurId(utilisateurId);
+    }
 }
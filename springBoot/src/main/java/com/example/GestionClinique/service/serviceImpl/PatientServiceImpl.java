@@ -4,14 +4,20 @@ import com.example.GestionClinique.model.entity.DossierMedical;
 import com.example.GestionClinique.model.entity.Patient;
 import com.example.GestionClinique.repository.PatientRepository;
 import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.repository.projection.VersionLigne;
 import com.example.GestionClinique.service.HistoriqueActionService;
 import com.example.GestionClinique.service.PatientService;
-import com.example.GestionClinique.service.StatService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.rechercheService.PatientModifieEvent;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.List;
 
@@ -23,7 +29,7 @@ public class PatientServiceImpl implements PatientService {
     private final RendezVousRepository rendezVousRepository;
     private final HistoriqueActionService historiqueActionService;
     private final LoggingAspect loggingAspect;
-    private final StatService statService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
@@ -39,9 +45,8 @@ public class PatientServiceImpl implements PatientService {
 
         historiqueActionService.enregistrerAction(String.format("Création patient ID: %d - %s %s", savedPatient.getId(), savedPatient.getNom(), savedPatient.getPrenom()), loggingAspect.currentUserId());
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+        eventPublisher.publishEvent(StatDeltaEvent.patient(LocalDate.now(), 1));
+        eventPublisher.publishEvent(PatientModifieEvent.enregistre(savedPatient));
 
         return savedPatient;
     }
@@ -78,7 +83,9 @@ public class PatientServiceImpl implements PatientService {
         }
 
         historiqueActionService.enregistrerAction(String.format("Mise à jour patient ID: %d", id), loggingAspect.currentUserId());
-        return patientRepository.save(existingPatient);
+        Patient savedPatient = patientRepository.save(existingPatient);
+        eventPublisher.publishEvent(PatientModifieEvent.enregistre(savedPatient));
+        return savedPatient;
     }
 
     @Transactional
@@ -87,6 +94,27 @@ public class PatientServiceImpl implements PatientService {
         return patientRepository.findAll();
     }
 
+    @Transactional
+    @Override
+    public PageCurseur<Patient> findPatientsPage(LocalDate du, LocalDate au, DemandePage demande) {
+        DemandePage.verifierPeriode(du, au);
+        LocalDateTime debut = DemandePage.debutJour(du);
+        LocalDateTime fin = DemandePage.finJour(au);
+        List<Patient> lignes = patientRepository.findPage(debut, fin, demande.curseurDate(), demande.curseurId(), demande.limite());
+        Long total = demande.avecTotal() ? patientRepository.countPage(debut, fin) : null;
+        return PageCurseur.of(lignes, demande, total);
+    }
+
+    @Override
+    public VersionLigne findVersion() {
+        return patientRepository.findVersion();
+    }
+
+    @Override
+    public VersionLigne findVersionById(Long id) {
+        return patientRepository.findVersionById(id);
+    }
+
     @Transactional
     @Override
     public Patient findById(Long id) {
@@ -99,6 +127,8 @@ public class PatientServiceImpl implements PatientService {
         Patient patient = patientRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Patient not found with ID: " + id));
         historiqueActionService.enregistrerAction(String.format("Suppression patient ID: %d - %s %s", patient.getId(), patient.getNom(), patient.getPrenom()), loggingAspect.currentUserId());
         patientRepository.delete(patient);
+        eventPublisher.publishEvent(StatDeltaEvent.patient(patient.getCreationDate().toLocalDate(), -1));
+        eventPublisher.publishEvent(PatientModifieEvent.supprime(id));
     }
 
     @Transactional
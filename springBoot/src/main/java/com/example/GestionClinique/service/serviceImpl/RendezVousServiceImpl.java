@@ -1,40 +1,60 @@
 package com.example.GestionClinique.service.serviceImpl;
 
 import com.example.GestionClinique.model.entity.Facture;
+import com.example.GestionClinique.model.entity.Patient;
 import com.example.GestionClinique.model.entity.RendezVous;
 import com.example.GestionClinique.model.entity.Salle;
 import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.ModePaiement;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
 import com.example.GestionClinique.model.entity.enumElem.StatutPaiement;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
-import com.example.GestionClinique.repository.FactureRepository;
+import com.example.GestionClinique.repository.PatientRepository;
+import com.example.GestionClinique.repository.RendezVousBatchRepository;
 import com.example.GestionClinique.repository.RendezVousRepository;
 import com.example.GestionClinique.repository.SalleRepository;
 import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.repository.projection.RendezVousLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
 import com.example.GestionClinique.service.*;
+import com.example.GestionClinique.service.pagination.Curseur;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.planningService.Creneau;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.planningService.OccupationCreneaux;
+import com.example.GestionClinique.service.planningService.ResultatReservation;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ConcurrentModificationException;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class RendezVousServiceImpl implements RendezVousService {
 
+    private static final int MAX_RESERVATIONS_GROUPEES = 200;
+
     private final RendezVousRepository rendezVousRepository;
     private final UtilisateurRepository utilisateurRepository;
     private final SalleRepository salleRepository;
     private final FactureService factureService;
     private final HistoriqueActionService historiqueActionService;
     private final LoggingAspect loggingAspect;
-    private final FactureRepository factureRepository;
     private final NotificationService notificationService;
-    private final StatService statService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OccupationCreneaux occupationCreneaux;
+    private final PatientRepository patientRepository;
+    private final RendezVousBatchRepository rendezVousBatchRepository;
 
     @Override
     @Transactional
@@ -70,13 +90,153 @@ public class RendezVousServiceImpl implements RendezVousService {
                 loggingAspect.currentUserId()
         );
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+        eventPublisher.publishEvent(StatDeltaEvent.rendezVous(saveRendezVous.getJour(), null, saveRendezVous.getStatut()));
+        eventPublisher.publishEvent(CreneauEvent.creation(Creneau.of(saveRendezVous)));
 
         return saveRendezVous;
     }
 
+    @Override
+    @Transactional
+    public List<ResultatReservation> createRendezVousBatch(List<RendezVous> demandes) {
+        if (demandes.size() > MAX_RESERVATIONS_GROUPEES) {
+            throw new IllegalArgumentException("Une réservation groupée est limitée à " + MAX_RESERVATIONS_GROUPEES + " rendez-vous.");
+        }
+
+        Map<Long, Patient> patients = patientRepository.findAllById(demandes.stream()
+                        .map(d -> d.getPatient() != null ? d.getPatient().getId() : null)
+                        .filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Patient::getId, Function.identity()));
+        Map<Long, Utilisateur> medecins = utilisateurRepository.findAllById(demandes.stream()
+                        .map(d -> d.getMedecin() != null ? d.getMedecin().getId() : null)
+                        .filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Utilisateur::getId, Function.identity()));
+        Map<ServiceMedical, Salle> salles = new EnumMap<>(ServiceMedical.class);
+        demandes.stream().map(RendezVous::getServiceMedical).filter(Objects::nonNull).distinct()
+                .forEach(service -> {
+                    Salle salle = salleRepository.findByServiceMedical(service);
+                    if (salle != null) {
+                        salles.put(service, salle);
+                    }
+                });
+
+        ResultatReservation[] resultats = new ResultatReservation[demandes.size()];
+        List<Integer> valides = new ArrayList<>();
+        LocalDate aujourdhui = LocalDate.now();
+        for (int i = 0; i < demandes.size(); i++) {
+            RendezVous demande = demandes.get(i);
+            Patient patient = demande.getPatient() != null ? patients.get(demande.getPatient().getId()) : null;
+            Utilisateur medecin = demande.getMedecin() != null ? medecins.get(demande.getMedecin().getId()) : null;
+            Salle salle = salles.get(demande.getServiceMedical());
+            if (demande.getJour() == null || demande.getHeure() == null) {
+                resultats[i] = ResultatReservation.rejete(i, "Le jour et l'heure sont obligatoires.");
+            } else if (demande.getJour().isBefore(aujourdhui)) {
+                resultats[i] = ResultatReservation.rejete(i, "Le rendez-vous ne peut pas être dans le passé.");
+            } else if (patient == null) {
+                resultats[i] = ResultatReservation.rejete(i, "Patient introuvable.");
+            } else if (medecin == null) {
+                resultats[i] = ResultatReservation.rejete(i, "Médecin introuvable.");
+            } else if (salle == null) {
+                resultats[i] = ResultatReservation.rejete(i, "Aucune salle pour le service médical " + demande.getServiceMedical() + ".");
+            } else {
+                demande.setPatient(patient);
+                demande.setMedecin(medecin);
+                demande.setSalle(salle);
+                demande.setStatut(StatutRDV.EN_ATTENTE);
+                valides.add(i);
+            }
+        }
+
+        List<RendezVous> acceptes = new ArrayList<>();
+        if (!valides.isEmpty()) {
+            // Une seule requête couvre tous les créneaux demandés ; les demandes du lot sont
+            // ensuite ajoutées aux ensembles pour détecter les conflits internes.
+            LocalDate debut = valides.stream().map(i -> demandes.get(i).getJour()).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDate fin = valides.stream().map(i -> demandes.get(i).getJour()).max(Comparator.naturalOrder()).orElseThrow().plusDays(1);
+            Set<Long> medecinIds = valides.stream().map(i -> demandes.get(i).getMedecin().getId()).collect(Collectors.toSet());
+            Set<Long> salleIds = valides.stream().map(i -> demandes.get(i).getSalle().getId()).collect(Collectors.toSet());
+
+            Set<CleCreneau> medecinsPris = new HashSet<>();
+            Set<CleCreneau> sallesPrises = new HashSet<>();
+            for (Object[] row : rendezVousRepository.findCreneauxByJourRange(debut, fin, medecinIds, salleIds)) {
+                medecinsPris.add(new CleCreneau((LocalDate) row[0], (LocalTime) row[1], (Long) row[2]));
+                sallesPrises.add(new CleCreneau((LocalDate) row[0], (LocalTime) row[1], (Long) row[3]));
+            }
+
+            for (int i : valides) {
+                RendezVous demande = demandes.get(i);
+                CleCreneau cleMedecin = new CleCreneau(demande.getJour(), demande.getHeure(), demande.getMedecin().getId());
+                CleCreneau cleSalle = new CleCreneau(demande.getJour(), demande.getHeure(), demande.getSalle().getId());
+                if (medecinsPris.contains(cleMedecin)) {
+                    resultats[i] = ResultatReservation.conflit(i, "Le créneau est déjà pris pour ce médecin.");
+                } else if (sallesPrises.contains(cleSalle)) {
+                    resultats[i] = ResultatReservation.conflit(i, "Le créneau est déjà pris pour cette salle.");
+                } else {
+                    medecinsPris.add(cleMedecin);
+                    sallesPrises.add(cleSalle);
+                    acceptes.add(demande);
+                    resultats[i] = ResultatReservation.cree(i, demande);
+                }
+            }
+        }
+
+        if (acceptes.isEmpty()) {
+            return Arrays.asList(resultats);
+        }
+
+        // Un créneau pris par une réservation concurrente depuis la vérification ne fait échouer que
+        // sa propre demande ; les autres sont créées normalement.
+        List<RendezVous> enConflit = rendezVousBatchRepository.insertRendezVous(acceptes);
+        if (!enConflit.isEmpty()) {
+            // Comparaison par identité : l'égalité Lombok des entités porte sur tous leurs champs.
+            Set<RendezVous> perdus = Collections.newSetFromMap(new IdentityHashMap<>());
+            perdus.addAll(enConflit);
+            for (int i = 0; i < resultats.length; i++) {
+                if (perdus.contains(resultats[i].rendezVous())) {
+                    resultats[i] = ResultatReservation.conflit(i, "Le créneau vient d'être pris par une autre réservation.");
+                }
+            }
+            acceptes.removeIf(perdus::contains);
+            if (acceptes.isEmpty()) {
+                return Arrays.asList(resultats);
+            }
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<Facture> factures = new ArrayList<>();
+        for (RendezVous rendezVous : acceptes) {
+            Facture facture = new Facture();
+            facture.setRendezVous(rendezVous);
+            facture.setPatient(rendezVous.getPatient());
+            facture.setDateEmission(maintenant);
+            facture.setStatutPaiement(StatutPaiement.IMPAYEE);
+            facture.setModePaiement(ModePaiement.ESPECES);
+            facture.setMontant(rendezVous.getMedecin().getServiceMedical().getMontant());
+            factures.add(facture);
+            rendezVous.setFacture(facture);
+        }
+        rendezVousBatchRepository.insertFactures(factures);
+
+        Map<Long, List<RendezVous>> parMedecin = new LinkedHashMap<>();
+        acceptes.forEach(rendezVous -> parMedecin.computeIfAbsent(rendezVous.getMedecin().getId(), id -> new ArrayList<>()).add(rendezVous));
+        parMedecin.forEach((medecinId, rendezVous) ->
+                notificationService.creerNotificationPourRendezVous(rendezVous, medecins.get(medecinId)));
+
+        historiqueActionService.enregistrerAction(
+                String.format("Création groupée de %d RDV (IDs: %s)", acceptes.size(),
+                        acceptes.stream().map(r -> String.valueOf(r.getId())).collect(Collectors.joining(", "))),
+                loggingAspect.currentUserId()
+        );
+
+        // Les rendez-vous créés sont EN_ATTENTE : ils ne modifient aucun compteur de statistiques.
+        acceptes.forEach(rendezVous -> eventPublisher.publishEvent(CreneauEvent.creation(Creneau.of(rendezVous))));
+
+        return Arrays.asList(resultats);
+    }
+
+    private record CleCreneau(LocalDate jour, LocalTime heure, Long ressourceId) {
+    }
+
     @Override
     @Transactional
     public RendezVous findRendezVousById(Long id) {
@@ -92,6 +252,8 @@ public class RendezVousServiceImpl implements RendezVousService {
         if (existingRendezVous.getStatut() == StatutRDV.TERMINE || existingRendezVous.getStatut() == StatutRDV.ANNULE) {
             throw new IllegalStateException("Impossible de modifier un rendez-vous " + existingRendezVous.getStatut().name().toLowerCase());
         }
+        LocalDate ancienJour = existingRendezVous.getJour();
+        Creneau ancienCreneau = Creneau.of(existingRendezVous);
 
         if (rendezVous.getHeure() != null) {
             existingRendezVous.setHeure(rendezVous.getHeure());
@@ -129,7 +291,13 @@ public class RendezVousServiceImpl implements RendezVousService {
                 loggingAspect.currentUserId()
         );
 
-        return rendezVousRepository.save(existingRendezVous);
+        RendezVous updatedRendezVous = rendezVousRepository.save(existingRendezVous);
+        if (!ancienJour.equals(updatedRendezVous.getJour())) {
+            eventPublisher.publishEvent(StatDeltaEvent.rendezVous(ancienJour, updatedRendezVous.getStatut(), null));
+            eventPublisher.publishEvent(StatDeltaEvent.rendezVous(updatedRendezVous.getJour(), null, updatedRendezVous.getStatut()));
+        }
+        eventPublisher.publishEvent(new CreneauEvent(ancienCreneau, Creneau.of(updatedRendezVous)));
+        return updatedRendezVous;
     }
 
     @Override
@@ -147,32 +315,39 @@ public class RendezVousServiceImpl implements RendezVousService {
                 loggingAspect.currentUserId()
         );
         rendezVousRepository.delete(rendezVous);
+        eventPublisher.publishEvent(StatDeltaEvent.rendezVous(rendezVous.getJour(), rendezVous.getStatut(), null));
+        eventPublisher.publishEvent(CreneauEvent.suppression(Creneau.of(rendezVous)));
     }
 
     @Override
     @Transactional
-    public List<RendezVous> findAllRendezVous() {
-        return rendezVousRepository.findAll();
+    public List<RendezVousLigne> findAllRendezVous() {
+        return rendezVousRepository.findAllLignes();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageCurseur<RendezVousLigne> findRendezVousPage(LocalDate du, LocalDate au, StatutRDV statut, Long medecinId, DemandePage demande) {
+        DemandePage.verifierPeriode(du, au);
+        List<RendezVousLigne> lignes = rendezVousRepository.findLignesPage(du, au, statut, medecinId,
+                demande.curseurDate(), demande.curseurId(), demande.limite());
+        Long total = demande.avecTotal() ? rendezVousRepository.countPage(du, au, statut, medecinId) : null;
+        return PageCurseur.of(lignes, demande, total, ligne -> new Curseur(ligne.creationDate(), ligne.id()));
     }
 
     @Override
     @Transactional
     public boolean isRendezVousAvailable(LocalDate jour, LocalTime heure, Long medecinId, Long salleId) {
-        Optional<RendezVous> existingMedecinRv = rendezVousRepository.findByJourAndHeureAndMedecinId(jour, heure, medecinId);
-        if (existingMedecinRv.isPresent()) {
-            return false;
-        }
-
-        Optional<RendezVous> existingSalleRv = rendezVousRepository.findByJourAndHeureAndSalleId(jour, heure, salleId);
-        if (existingSalleRv.isPresent()) {
-            return false;
-        }
-        return true;
+        return occupationCreneaux.estLibre(jour, heure, medecinId, salleId);
     }
 
     @Transactional
     @Override
     public boolean isRendezVousAvailableForUpdate(Long rendezVousId, LocalDate jour, LocalTime heure, Long medecinId, Long salleId) {
+        if (occupationCreneaux.estLibre(jour, heure, medecinId, salleId)) {
+            return true;
+        }
+        // Le créneau peut être occupé par le rendez-vous lui-même : l'index ne le sait pas.
         Optional<RendezVous> existingMedecinRv = rendezVousRepository.findByJourAndHeureAndMedecinId(jour, heure, medecinId);
         if (existingMedecinRv.isPresent() && !existingMedecinRv.get().getId().equals(rendezVousId)) {
             return false;
@@ -197,6 +372,8 @@ public class RendezVousServiceImpl implements RendezVousService {
             throw new IllegalStateException("Cannot cancel a past rendez-vous.");
         }
 
+        StatutRDV ancienStatut = rendezVous.getStatut();
+        Creneau ancienCreneau = Creneau.of(rendezVous);
         rendezVous.setStatut(StatutRDV.ANNULE);
         RendezVous updatedRendezVous = rendezVousRepository.save(rendezVous);
 
@@ -205,59 +382,54 @@ public class RendezVousServiceImpl implements RendezVousService {
                 loggingAspect.currentUserId()
         );
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+        eventPublisher.publishEvent(StatDeltaEvent.rendezVous(updatedRendezVous.getJour(), ancienStatut, StatutRDV.ANNULE));
+        eventPublisher.publishEvent(new CreneauEvent(ancienCreneau, Creneau.of(updatedRendezVous)));
 
         return updatedRendezVous;
     }
 
     @Override
     @Transactional
-    public List<RendezVous> findRendezVousByJour(LocalDate jour) {
-        return rendezVousRepository.findByJour(jour);
+    public List<RendezVousLigne> findRendezVousByJour(LocalDate jour) {
+        return rendezVousRepository.findLignesByJour(jour);
     }
 
     @Override
-    @Transactional
-    public void cancelRendezVousByJour() {
-        LocalDate today = LocalDate.now();
-        List<RendezVous> rendezVousList = rendezVousRepository.findByJourBefore(today);
-
-        if (rendezVousList.isEmpty()) {
-            return;
-        }
+    public List<RendezVousLigne> findUtilisateurConfirmedRendezVousByMonth(Long idUtilisateur, int year, int month) {
+        LocalDate startDate = LocalDate.of(year, month, 1);
+        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
+        return rendezVousRepository.findLignesByMedecinAndStatutAndJourBetween(idUtilisateur, StatutRDV.CONFIRME, startDate, endDate);
+    }
 
-        for (RendezVous rendezVous : rendezVousList) {
-            if (rendezVous.getStatut() == StatutRDV.EN_ATTENTE) {
-                rendezVous.setStatut(StatutRDV.ANNULE);
-                rendezVousRepository.save(rendezVous);
+    @Override
+    public List<RendezVousLigne> findRendezVousByMonth(int year, int month) {
+        LocalDate startDate = LocalDate.of(year, month, 1);
+        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
+        return rendezVousRepository.findLignesByJourBetween(startDate, endDate);
+    }
 
-                Optional<Facture> factureOptional = factureRepository.findByRendezVousId(rendezVous.getId());
-                factureOptional.ifPresent(facture -> {
-                    if (facture.getStatutPaiement() == StatutPaiement.IMPAYEE) {
-                        factureService.deleteFacture(facture.getId());
-                    }
-                });
-            }
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public VersionLigne findVersion() {
+        return rendezVousRepository.findVersion();
+    }
 
-        statService.refreshStatDuJour(LocalDate.now());
-        statService.refreshStatParMois(LocalDate.now().getMonthValue());
-        statService.refreshStatsSurLannee(LocalDate.now().getYear());
+    @Override
+    @Transactional(readOnly = true)
+    public VersionLigne findVersionById(Long id) {
+        return rendezVousRepository.findVersionById(id);
     }
 
     @Override
-    public List<RendezVous> findUtilisateurConfirmedRendezVousByMonth(Long idUtilisateur, int year, int month) {
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        return rendezVousRepository.findConfirmedByUtilisateurAndMonth(idUtilisateur, StatutRDV.CONFIRME, startDate, endDate);
+    @Transactional(readOnly = true)
+    public VersionLigne findVersionByJour(LocalDate jour) {
+        return rendezVousRepository.findVersionByJour(jour);
     }
 
     @Override
-    public List<RendezVous> findRendezVousByMonth(int year, int month) {
+    @Transactional(readOnly = true)
+    public VersionLigne findVersionByMonth(int year, int month) {
         LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        return rendezVousRepository.findByJourBetween(startDate, endDate);
+        return rendezVousRepository.findVersionByJourBetween(startDate, startDate.plusMonths(1).minusDays(1));
     }
 }
\ No newline at end of file
@@ -4,15 +4,26 @@ import com.example.GestionClinique.model.entity.stats.*;
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
 import com.example.GestionClinique.repository.*;
 import com.example.GestionClinique.service.StatService;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import com.example.GestionClinique.service.statService.StatPeriod;
+import com.example.GestionClinique.service.statService.StatSeries;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Month;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
@@ -51,13 +62,15 @@ public class StatServiceImpl implements StatService {
     }
 
     private StatDuJour calculateStatDuJour(LocalDate date) {
+        LocalDate debut = date;
+        LocalDate fin = date.plusDays(1);
         StatDuJour stat = new StatDuJour();
         stat.setJour(date.format(DateTimeFormatter.ISO_LOCAL_DATE));
-        stat.setNbrRendezVousCONFIRME(rendezVousRepository.countByJourAndStatut(date, StatutRDV.CONFIRME));
-        stat.setNbrRendezANNULE(rendezVousRepository.countByJourAndStatut(date, StatutRDV.ANNULE));
-        stat.setNbrPatientEnrg(patientRepository.countByDateEnregistrement(date));
-        stat.setNbrConsultation(consultationRepository.countByDateConsultation(date));
-        stat.setRevenu(factureRepository.sumMontantTotalByDateFacture(date));
+        stat.setNbrRendezVousCONFIRME(rendezVousRepository.countByStatutAndJourRange(StatutRDV.CONFIRME, debut, fin));
+        stat.setNbrRendezANNULE(rendezVousRepository.countByStatutAndJourRange(StatutRDV.ANNULE, debut, fin));
+        stat.setNbrPatientEnrg(patientRepository.countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay()));
+        stat.setNbrConsultation(consultationRepository.countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay()));
+        stat.setRevenu(factureRepository.sumMontantPayeByDateEmissionRange(debut.atStartOfDay(), fin.atStartOfDay()));
         return stat;
     }
 
@@ -67,19 +80,17 @@ public class StatServiceImpl implements StatService {
 
     @Override
     @Transactional
-    public StatsMois getOrCreateStatParMois(int moisNumber) {
-        String moisNom = Month.of(moisNumber).getDisplayName(TextStyle.FULL, Locale.FRENCH).toUpperCase();
-        return statsMoisRepository.findByMois(moisNom)
-                .orElseGet(() -> statsMoisRepository.save(calculateStatsForMonth(moisNumber)));
+    public StatsMois getOrCreateStatParMois(int annee, int moisNumber) {
+        return statsMoisRepository.findByAnneeAndNumeroMois(annee, moisNumber)
+                .orElseGet(() -> statsMoisRepository.save(calculateStatsForMonth(YearMonth.of(annee, moisNumber))));
     }
 
     @Transactional
     @Override
-    public StatsMois refreshStatParMois(int moisNumber) {
-        StatsMois recalculated = calculateStatsForMonth(moisNumber);
-        String moisNom = recalculated.getMois();
+    public StatsMois refreshStatParMois(int annee, int moisNumber) {
+        StatsMois recalculated = calculateStatsForMonth(YearMonth.of(annee, moisNumber));
 
-        return statsMoisRepository.findByMois(moisNom)
+        return statsMoisRepository.findByAnneeAndNumeroMois(annee, moisNumber)
                 .map(existing -> {
                     existing.setNbrRendezVousCONFIRME(recalculated.getNbrRendezVousCONFIRME());
                     existing.setNbrRendezANNULE(recalculated.getNbrRendezANNULE());
@@ -91,14 +102,18 @@ public class StatServiceImpl implements StatService {
                 .orElseGet(() -> statsMoisRepository.save(recalculated));
     }
 
-    private StatsMois calculateStatsForMonth(int monthNumber) {
+    private StatsMois calculateStatsForMonth(YearMonth mois) {
+        LocalDate debut = mois.atDay(1);
+        LocalDate fin = debut.plusMonths(1);
         StatsMois stats = new StatsMois();
-        stats.setMois(Month.of(monthNumber).getDisplayName(TextStyle.FULL, Locale.FRENCH).toUpperCase());
-        stats.setNbrRendezVousCONFIRME(rendezVousRepository.countByStatusAndMonth(StatutRDV.CONFIRME, monthNumber));
-        stats.setNbrRendezANNULE(rendezVousRepository.countByStatusAndMonth(StatutRDV.ANNULE, monthNumber));
-        stats.setNbrPatientEnrg(patientRepository.countByMonth(monthNumber));
-        stats.setNbrConsultation(consultationRepository.countByMonth(monthNumber));
-        stats.setRevenu(factureRepository.sumRevenueByMonth(monthNumber));
+        stats.setAnnee(mois.getYear());
+        stats.setNumeroMois(mois.getMonthValue());
+        stats.setMois(moisNom(mois.getMonthValue()));
+        stats.setNbrRendezVousCONFIRME(rendezVousRepository.countByStatutAndJourRange(StatutRDV.CONFIRME, debut, fin));
+        stats.setNbrRendezANNULE(rendezVousRepository.countByStatutAndJourRange(StatutRDV.ANNULE, debut, fin));
+        stats.setNbrPatientEnrg(patientRepository.countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay()));
+        stats.setNbrConsultation(consultationRepository.countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay()));
+        stats.setRevenu(factureRepository.sumMontantPayeByDateEmissionRange(debut.atStartOfDay(), fin.atStartOfDay()));
         return stats;
     }
 
@@ -129,13 +144,175 @@ public class StatServiceImpl implements StatService {
     }
 
     private StatsSurLannee calculateStatsSurLannee(int year) {
+        LocalDate debut = LocalDate.of(year, 1, 1);
+        LocalDate fin = debut.plusYears(1);
         StatsSurLannee stat = new StatsSurLannee();
         stat.setAnnee(String.valueOf(year));
-        stat.setNbrRendezVousCONFIRME(rendezVousRepository.countByAnneeAndStatut(year, StatutRDV.CONFIRME));
-        stat.setNbrRendezANNULE(rendezVousRepository.countByAnneeAndStatut(year, StatutRDV.ANNULE));
-        stat.setNbrPatientEnrg(patientRepository.countByYearEnregistrement(year));
-        stat.setNbrConsultation(consultationRepository.countByYearConsultation(year));
-        stat.setRevenu(factureRepository.sumMontantTotalByYearFacture(year));
+        stat.setNbrRendezVousCONFIRME(rendezVousRepository.countByStatutAndJourRange(StatutRDV.CONFIRME, debut, fin));
+        stat.setNbrRendezANNULE(rendezVousRepository.countByStatutAndJourRange(StatutRDV.ANNULE, debut, fin));
+        stat.setNbrPatientEnrg(patientRepository.countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay()));
+        stat.setNbrConsultation(consultationRepository.countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay()));
+        stat.setRevenu(factureRepository.sumMontantPayeByDateEmissionRange(debut.atStartOfDay(), fin.atStartOfDay()));
         return stat;
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void applyDelta(StatDeltaEvent delta) {
+        LocalDate date = delta.date();
+        // Une période sans ligne n'est pas créée ici : une ligne à zéro plus le delta ignorerait ce
+        // que les tables sources contiennent déjà. Elle sera calculée depuis les sources à la
+        // première lecture (getOrCreate, getSeries) ou par la réconciliation.
+        appliquerJour(date.format(DateTimeFormatter.ISO_LOCAL_DATE), delta);
+        appliquerMois(date, delta);
+        appliquerAnnee(String.valueOf(date.getYear()), delta);
+    }
+
+    private int appliquerJour(String jour, StatDeltaEvent delta) {
+        return statDuJourRepository.applyDelta(jour,
+                delta.rendezVousConfirme(), delta.rendezVousAnnule(), delta.patients(), delta.consultations(), delta.revenu());
+    }
+
+    private int appliquerMois(LocalDate date, StatDeltaEvent delta) {
+        return statsMoisRepository.applyDelta(date.getYear(), date.getMonthValue(),
+                delta.rendezVousConfirme(), delta.rendezVousAnnule(), delta.patients(), delta.consultations(), delta.revenu());
+    }
+
+    private int appliquerAnnee(String annee, StatDeltaEvent delta) {
+        return statsSurLanneeRepository.applyDelta(annee,
+                delta.rendezVousConfirme(), delta.rendezVousAnnule(), delta.patients(), delta.consultations(), delta.revenu());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StatSeries getSeries(StatPeriod.Granularite granularite, LocalDate debut, LocalDate fin) {
+        boolean parMois = granularite == StatPeriod.Granularite.MOIS;
+        List<LocalDate> periodes = new ArrayList<>();
+        for (LocalDate p = bucketOf(debut, parMois); !p.isAfter(fin); p = parMois ? p.plusMonths(1) : p.plusDays(1)) {
+            periodes.add(p);
+        }
+        Map<LocalDate, Integer> index = new HashMap<>();
+        for (int i = 0; i < periodes.size(); i++) {
+            index.put(periodes.get(i), i);
+        }
+
+        int n = periodes.size();
+        long[] confirme = new long[n];
+        long[] annule = new long[n];
+        long[] patients = new long[n];
+        long[] consultations = new long[n];
+        double[] revenu = new double[n];
+        boolean[] rempli = new boolean[n];
+
+        // 1. Les périodes déjà matérialisées sont lues telles quelles.
+        if (parMois) {
+            for (StatsMois s : statsMoisRepository.findByAnneeBetween(periodes.get(0).getYear(), periodes.get(n - 1).getYear())) {
+                if (s.getAnnee() == null || s.getNumeroMois() == null) {
+                    continue;
+                }
+                Integer i = index.get(LocalDate.of(s.getAnnee(), s.getNumeroMois(), 1));
+                if (i != null) {
+                    confirme[i] = valeur(s.getNbrRendezVousCONFIRME());
+                    annule[i] = valeur(s.getNbrRendezANNULE());
+                    patients[i] = valeur(s.getNbrPatientEnrg());
+                    consultations[i] = valeur(s.getNbrConsultation());
+                    revenu[i] = s.getRevenu() != null ? s.getRevenu() : 0.0;
+                    rempli[i] = true;
+                }
+            }
+        } else {
+            for (StatDuJour s : statDuJourRepository.findByJourBetween(periodes.get(0).toString(), periodes.get(n - 1).toString())) {
+                Integer i = index.get(LocalDate.parse(s.getJour()));
+                if (i != null) {
+                    confirme[i] = valeur(s.getNbrRendezVousCONFIRME());
+                    annule[i] = valeur(s.getNbrRendezANNULE());
+                    patients[i] = valeur(s.getNbrPatientEnrg());
+                    consultations[i] = valeur(s.getNbrConsultation());
+                    revenu[i] = s.getRevenu() != null ? s.getRevenu() : 0.0;
+                    rempli[i] = true;
+                }
+            }
+        }
+
+        // 2. Les trous sont calculés en une requête groupée par métrique, bornée aux périodes manquantes.
+        int premier = -1;
+        int dernier = -1;
+        for (int i = 0; i < n; i++) {
+            if (!rempli[i]) {
+                if (premier < 0) {
+                    premier = i;
+                }
+                dernier = i;
+            }
+        }
+        if (premier >= 0) {
+            LocalDate d = periodes.get(premier);
+            LocalDate f = parMois ? periodes.get(dernier).plusMonths(1) : periodes.get(dernier).plusDays(1);
+            LocalDateTime dt = d.atStartOfDay();
+            LocalDateTime ft = f.atStartOfDay();
+            List<StatutRDV> statuts = List.of(StatutRDV.CONFIRME, StatutRDV.ANNULE);
+
+            for (Object[] row : parMois
+                    ? rendezVousRepository.countByStatutGroupedByMois(statuts, d, f)
+                    : rendezVousRepository.countByStatutGroupedByJour(statuts, d, f)) {
+                Integer i = index.get(bucketOf(toLocalDate(row[0]), parMois));
+                if (i != null && !rempli[i]) {
+                    long count = ((Number) row[2]).longValue();
+                    if (row[1] == StatutRDV.CONFIRME) {
+                        confirme[i] += count;
+                    } else {
+                        annule[i] += count;
+                    }
+                }
+            }
+            for (Object[] row : parMois ? patientRepository.countGroupedByMois(dt, ft) : patientRepository.countGroupedByJour(dt, ft)) {
+                Integer i = index.get(bucketOf(toLocalDate(row[0]), parMois));
+                if (i != null && !rempli[i]) {
+                    patients[i] += ((Number) row[1]).longValue();
+                }
+            }
+            for (Object[] row : parMois ? consultationRepository.countGroupedByMois(dt, ft) : consultationRepository.countGroupedByJour(dt, ft)) {
+                Integer i = index.get(bucketOf(toLocalDate(row[0]), parMois));
+                if (i != null && !rempli[i]) {
+                    consultations[i] += ((Number) row[1]).longValue();
+                }
+            }
+            for (Object[] row : parMois ? factureRepository.sumMontantPayeGroupedByMois(dt, ft) : factureRepository.sumMontantPayeGroupedByJour(dt, ft)) {
+                Integer i = index.get(bucketOf(toLocalDate(row[0]), parMois));
+                if (i != null && !rempli[i] && row[1] != null) {
+                    revenu[i] += ((Number) row[1]).doubleValue();
+                }
+            }
+        }
+
+        return new StatSeries(granularite, periodes, confirme, annule, patients, consultations, revenu);
+    }
+
+    private static LocalDate bucketOf(LocalDate date, boolean parMois) {
+        return parMois ? date.withDayOfMonth(1) : date;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        throw new IllegalStateException("Type de période inattendu : " + value);
+    }
+
+    private static long valeur(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static String moisNom(int moisNumber) {
+        return Month.of(moisNumber).getDisplayName(TextStyle.FULL, Locale.FRENCH).toUpperCase();
+    }
+}
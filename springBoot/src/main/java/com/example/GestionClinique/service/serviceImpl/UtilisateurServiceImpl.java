@@ -11,11 +11,19 @@ import com.example.GestionClinique.repository.RoleRepository;
 import com.example.GestionClinique.repository.UtilisateurRepository;
 import com.example.GestionClinique.service.HistoriqueActionService;
 import com.example.GestionClinique.service.UtilisateurService;
+import com.example.GestionClinique.service.authService.UtilisateurModifieEvent;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import com.example.GestionClinique.service.photoService.FileStorageServiceImpl;
+import com.example.GestionClinique.service.planningService.OccupationCreneaux;
+import com.example.GestionClinique.service.presenceService.PresenceEvent;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
+import com.example.GestionClinique.service.rechercheService.RechercheService;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -33,6 +41,9 @@ import static com.example.GestionClinique.model.entity.enumElem.RoleType.*;
 @AllArgsConstructor
 public class UtilisateurServiceImpl implements UtilisateurService {
 
+    // Un NOT IN sur une liste vide n'est pas portable : une liste vide est remplacée par un identifiant impossible.
+    private static final List<Long> AUCUN_ID = List.of(-1L);
+
     private final UtilisateurRepository utilisateurRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
@@ -40,6 +51,10 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     private final FileStorageServiceImpl fileStorageService;
     private final HistoriqueActionService historiqueActionService;
     private final LoggingAspect loggingAspect;
+    private final OccupationCreneaux occupationCreneaux;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SuiviPresence suiviPresence;
+    private final RechercheService rechercheService;
 
     @PostConstruct
     public void init() {
@@ -109,6 +124,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
             }
             String newPhotoPath = fileStorageService.save(photoProfil, userId);
             utilisateurRepository.updatePhotoProfil(userId, newPhotoPath);
+            eventPublisher.publishEvent(new UtilisateurModifieEvent(userId));
 
             historiqueActionService.enregistrerAction(
                     String.format("Mise à jour de la photo de profil de l'utilisateur ID: %d", userId),
@@ -142,6 +158,18 @@ public class UtilisateurServiceImpl implements UtilisateurService {
         return utilisateurRepository.findAll();
     }
 
+    @Override
+    @Transactional
+    public PageCurseur<Utilisateur> findUtilisateursPage(LocalDate du, LocalDate au, RoleType roleType, DemandePage demande) {
+        DemandePage.verifierPeriode(du, au);
+        LocalDateTime debut = DemandePage.debutJour(du);
+        LocalDateTime fin = DemandePage.finJour(au);
+        List<Utilisateur> lignes = utilisateurRepository.findPage(debut, fin, roleType,
+                demande.curseurDate(), demande.curseurId(), demande.limite());
+        Long total = demande.avecTotal() ? utilisateurRepository.countPage(debut, fin, roleType) : null;
+        return PageCurseur.of(lignes, demande, total);
+    }
+
     @Override
     @Transactional
     public Utilisateur updateUtilisateur(Long id, Utilisateur utilisateurDetails) {
@@ -189,6 +217,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
                 String.format("Mise à jour des informations de l'utilisateur ID: %d", id),
                 loggingAspect.currentUserId());
 
+        eventPublisher.publishEvent(new UtilisateurModifieEvent(id));
         return utilisateurRepository.save(existingUtilisateur);
     }
 
@@ -203,6 +232,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
                 loggingAspect.currentUserId());
 
         utilisateurRepository.delete(utilisateur);
+        eventPublisher.publishEvent(new UtilisateurModifieEvent(id));
     }
 
     @Override
@@ -233,6 +263,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
                 String.format("Changement de statut de l'utilisateur ID: %d à %s",
                         id, isActive ? "ACTIF" : "INACTIF"),
                 loggingAspect.currentUserId());
+        eventPublisher.publishEvent(new UtilisateurModifieEvent(id));
         return utilisateurRepository.findById(id).orElse(null);
     }
 
@@ -243,11 +274,11 @@ public class UtilisateurServiceImpl implements UtilisateurService {
 
     @Transactional
     @Override
-    public List<Utilisateur> searchUsers(String searchTerm) {
+    public List<Utilisateur> searchUsers(String searchTerm, int limite) {
         if (searchTerm == null || searchTerm.trim().length() < 2) {
             return List.of();
         }
-        return utilisateurRepository.searchByTerm(searchTerm);
+        return rechercheService.rechercherUtilisateurs(searchTerm, limite);
     }
 
     @Override
@@ -269,17 +300,41 @@ public class UtilisateurServiceImpl implements UtilisateurService {
                 loggingAspect.currentUserId());
 
         utilisateur.setPassword(passwordEncoder.encode(newPassword));
+        eventPublisher.publishEvent(new UtilisateurModifieEvent(utilisateurId));
         return utilisateurRepository.save(utilisateur);
     }
 
     @Override
     public List<Utilisateur> findUsersWithStatusConnectedByOrderLastConnected() {
-        return utilisateurRepository.findByStatusConnectOrderByLastLoginDateDesc(StatusConnect.CONNECTE);
+        List<SuiviPresence.Presence> presences = suiviPresence.connectes();
+        if (presences.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Utilisateur> parId = new HashMap<>();
+        for (Utilisateur utilisateur : utilisateurRepository.findAllById(
+                presences.stream().map(SuiviPresence.Presence::utilisateurId).toList())) {
+            parId.put(utilisateur.getId(), utilisateur);
+        }
+        return presences.stream()
+                .map(presence -> parId.get(presence.utilisateurId()))
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
     public List<Utilisateur> findUsersWithStatusDisconnectedByOrderLastDeConnected() {
-        return utilisateurRepository.findByStatusConnectOrderByLastLogoutDateDesc(StatusConnect.DECONNECTE);
+        // Le statut en base peut avoir un vidage de retard : les sorties pas encore écrites passent devant.
+        Map<Long, LocalDateTime> sorties = suiviPresence.sortiesNonEcrites();
+        List<Long> connectes = suiviPresence.connectes().stream().map(SuiviPresence.Presence::utilisateurId).toList();
+        List<Utilisateur> deconnectes = utilisateurRepository.findDeconnectes(
+                sorties.isEmpty() ? AUCUN_ID : sorties.keySet(),
+                connectes.isEmpty() ? AUCUN_ID : connectes);
+        if (sorties.isEmpty()) {
+            return deconnectes;
+        }
+        Comparator<Utilisateur> parSortie = Comparator.comparing(
+                utilisateur -> sorties.get(utilisateur.getId()), Comparator.nullsLast(Comparator.reverseOrder()));
+        return deconnectes.stream().sorted(parSortie).toList();
     }
 
     public List<Utilisateur> getMedecinsByServiceMedical(ServiceMedical serviceMedical) {
@@ -290,16 +345,23 @@ public class UtilisateurServiceImpl implements UtilisateurService {
             ServiceMedical serviceMedical,
             LocalDate date,
             LocalTime heure) {
-        return utilisateurRepository.findMedecinsByServiceMedicalWithoutRendezVousAt(
-                serviceMedical, date, heure);
+        return utilisateurRepository.findByServiceMedicalAndRole_RoleType(serviceMedical, MEDECIN).stream()
+                .filter(medecin -> !occupationCreneaux.aRendezVousConfirme(date, heure, medecin.getId()))
+                .toList();
     }
 
     @Transactional
     public Utilisateur updateUserConnectStatus(Long utilisateurId, StatusConnect statusConnect) {
+        LocalDateTime maintenant = LocalDateTime.now();
         if (statusConnect.equals(StatusConnect.DECONNECTE)) {
-            utilisateurRepository.updateLogout(utilisateurId, statusConnect, LocalDateTime.now());
+            utilisateurRepository.updateLogout(utilisateurId, statusConnect, maintenant);
+            suiviPresence.deconnecte(utilisateurId);
+            eventPublisher.publishEvent(new UtilisateurModifieEvent(utilisateurId));
+            eventPublisher.publishEvent(new PresenceEvent(utilisateurId, false));
         } else if (statusConnect.equals(StatusConnect.CONNECTE)) {
-            utilisateurRepository.updateLogin(utilisateurId, statusConnect, LocalDateTime.now());
+            utilisateurRepository.updateLogin(utilisateurId, statusConnect, maintenant);
+            suiviPresence.connecte(utilisateurId, maintenant);
+            eventPublisher.publishEvent(new PresenceEvent(utilisateurId, true));
         }
         return utilisateurRepository.findById(utilisateurId).orElseThrow();
     }
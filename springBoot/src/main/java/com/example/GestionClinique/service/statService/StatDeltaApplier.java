@@ -0,0 +1,41 @@
+package com.example.GestionClinique.service.statService;
+
+import com.example.GestionClinique.service.StatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Mode {@code stats.mode=incremental} : applique après commit les variations publiées par les
+ * services d'écriture aux lignes de statistiques, par {@code UPDATE ... SET n = n + ?}. L'incrément
+ * atomique sérialise les écrivains concurrents sur une ligne existante. Une période sans ligne est
+ * laissée telle quelle : elle est calculée depuis les tables sources à sa première lecture, qui voit
+ * déjà la modification validée. Les écarts éventuels sont corrigés par {@link StatReconciliationJob}.
+ */
+@Component
+@ConditionalOnProperty(name = "stats.mode", havingValue = "incremental", matchIfMissing = true)
+public class StatDeltaApplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatDeltaApplier.class);
+
+    private final StatService statService;
+
+    public StatDeltaApplier(StatService statService) {
+        this.statService = statService;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatDelta(StatDeltaEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        try {
+            statService.applyDelta(event);
+        } catch (RuntimeException e) {
+            // La transaction métier est déjà validée : l'écart sera rattrapé par la réconciliation.
+            logger.error("Échec de l'application du delta de statistiques {} : {}", event, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.GestionClinique.service.statService;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+
+import java.time.LocalDate;
+
+/**
+ * Variation signée des compteurs de statistiques pour la journée {@code date}, publiée par
+ * les services d'écriture. Appliquée après commit aux lignes du jour, du mois et de l'année.
+ */
+public record StatDeltaEvent(LocalDate date,
+                             long rendezVousConfirme,
+                             long rendezVousAnnule,
+                             long patients,
+                             long consultations,
+                             double revenu) {
+
+    public static StatDeltaEvent rendezVous(LocalDate jour, StatutRDV ancien, StatutRDV nouveau) {
+        return new StatDeltaEvent(jour,
+                compte(nouveau, StatutRDV.CONFIRME) - compte(ancien, StatutRDV.CONFIRME),
+                compte(nouveau, StatutRDV.ANNULE) - compte(ancien, StatutRDV.ANNULE),
+                0, 0, 0.0);
+    }
+
+    public static StatDeltaEvent patient(LocalDate date, int signe) {
+        return new StatDeltaEvent(date, 0, 0, signe, 0, 0.0);
+    }
+
+    public static StatDeltaEvent consultation(LocalDate date, int signe) {
+        return new StatDeltaEvent(date, 0, 0, 0, signe, 0.0);
+    }
+
+    public static StatDeltaEvent revenu(LocalDate date, double montant) {
+        return new StatDeltaEvent(date, 0, 0, 0, 0, montant);
+    }
+
+    public boolean isEmpty() {
+        return rendezVousConfirme == 0 && rendezVousAnnule == 0 && patients == 0
+                && consultations == 0 && revenu == 0.0;
+    }
+
+    private static long compte(StatutRDV statut, StatutRDV cible) {
+        return statut == cible ? 1 : 0;
+    }
+}
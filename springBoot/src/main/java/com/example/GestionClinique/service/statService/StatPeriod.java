@@ -0,0 +1,24 @@
+package com.example.GestionClinique.service.statService;
+
+import java.time.LocalDate;
+
+/**
+ * Période de statistiques à recalculer. {@code debut} est normalisé sur le premier jour
+ * de la période pour que deux événements de la même période fusionnent.
+ */
+public record StatPeriod(Granularite granularite, LocalDate debut) {
+
+    public enum Granularite { JOUR, MOIS, ANNEE }
+
+    public static StatPeriod jour(LocalDate date) {
+        return new StatPeriod(Granularite.JOUR, date);
+    }
+
+    public static StatPeriod mois(LocalDate date) {
+        return new StatPeriod(Granularite.MOIS, date.withDayOfMonth(1));
+    }
+
+    public static StatPeriod annee(LocalDate date) {
+        return new StatPeriod(Granularite.ANNEE, date.withDayOfYear(1));
+    }
+}
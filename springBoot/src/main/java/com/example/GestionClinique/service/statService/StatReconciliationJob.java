@@ -0,0 +1,47 @@
+package com.example.GestionClinique.service.statService;
+
+import com.example.GestionClinique.service.StatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Recompte complet nocturne des périodes récentes, pour corriger la dérive des compteurs
+ * incrémentaux (delta perdu, modification faite hors des services).
+ */
+@Component
+@ConditionalOnProperty(name = "stats.mode", havingValue = "incremental", matchIfMissing = true)
+public class StatReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatReconciliationJob.class);
+
+    private final StatService statService;
+    private final int joursARecompter;
+
+    public StatReconciliationJob(StatService statService,
+                                 @Value("${stats.reconciliation.days:31}") int joursARecompter) {
+        this.statService = statService;
+        this.joursARecompter = joursARecompter;
+    }
+
+    @Scheduled(cron = "${stats.reconciliation.cron:0 30 2 * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < joursARecompter; i++) {
+            statService.refreshStatDuJour(today.minusDays(i));
+        }
+        YearMonth moisCourant = YearMonth.from(today);
+        statService.refreshStatParMois(moisCourant.getYear(), moisCourant.getMonthValue());
+        YearMonth moisPrecedent = moisCourant.minusMonths(1);
+        statService.refreshStatParMois(moisPrecedent.getYear(), moisPrecedent.getMonthValue());
+        statService.refreshStatsSurLannee(today.getYear());
+        statService.refreshStatsSurLannee(today.getYear() - 1);
+        logger.info("Réconciliation des statistiques terminée ({} jours recomptés)", joursARecompter);
+    }
+}
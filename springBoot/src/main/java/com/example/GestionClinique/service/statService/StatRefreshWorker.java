@@ -0,0 +1,115 @@
+package com.example.GestionClinique.service.statService;
+
+import com.example.GestionClinique.service.StatService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mode {@code stats.mode=recompute} : recalcule les statistiques en arrière-plan. Les écritures
+ * ne font que marquer des périodes "sales" après commit ; chaque période est recalculée une seule
+ * fois quand elle n'a plus changé depuis {@code debounce}, ou au plus tard après {@code max-staleness}.
+ */
+@Component
+@ConditionalOnProperty(name = "stats.mode", havingValue = "recompute")
+public class StatRefreshWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatRefreshWorker.class);
+
+    private final StatService statService;
+    private final long debounceNanos;
+    private final long maxStalenessNanos;
+    private final Map<StatPeriod, Pending> pending = new ConcurrentHashMap<>();
+
+    private final Timer refreshLag;
+    private final Counter refreshFailures;
+
+    public StatRefreshWorker(StatService statService,
+                             MeterRegistry meterRegistry,
+                             @Value("${stats.refresh.debounce-ms:2000}") long debounceMs,
+                             @Value("${stats.refresh.max-staleness-ms:30000}") long maxStalenessMs) {
+        this.statService = statService;
+        this.debounceNanos = Duration.ofMillis(debounceMs).toNanos();
+        this.maxStalenessNanos = Duration.ofMillis(maxStalenessMs).toNanos();
+
+        Gauge.builder("stats.refresh.queue.depth", pending, Map::size)
+                .description("Périodes de statistiques en attente de recalcul")
+                .register(meterRegistry);
+        this.refreshLag = Timer.builder("stats.refresh.lag")
+                .description("Délai entre la première modification d'une période et son recalcul")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("stats.refresh.failures")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatDelta(StatDeltaEvent event) {
+        markDirty(StatPeriod.jour(event.date()));
+        markDirty(StatPeriod.mois(event.date()));
+        markDirty(StatPeriod.annee(event.date()));
+    }
+
+    public void markDirty(StatPeriod period) {
+        long now = System.nanoTime();
+        pending.merge(period, new Pending(now, now), (old, ignored) -> new Pending(old.firstDirty(), now));
+    }
+
+    @Scheduled(fixedDelayString = "${stats.refresh.poll-ms:500}")
+    public void drain() {
+        long now = System.nanoTime();
+        List<Map.Entry<StatPeriod, Pending>> ready = new ArrayList<>();
+        for (Map.Entry<StatPeriod, Pending> entry : pending.entrySet()) {
+            Pending p = entry.getValue();
+            if (now - p.lastDirty() >= debounceNanos || now - p.firstDirty() >= maxStalenessNanos) {
+                ready.add(entry);
+            }
+        }
+
+        for (Map.Entry<StatPeriod, Pending> entry : ready) {
+            // Retirée avant le recalcul : un événement arrivé entre-temps recrée l'entrée
+            // et déclenchera un nouveau passage.
+            Pending p = pending.remove(entry.getKey());
+            if (p == null) {
+                continue;
+            }
+            try {
+                refresh(entry.getKey());
+                refreshLag.record(System.nanoTime() - p.firstDirty(), TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                refreshFailures.increment();
+                logger.error("Échec du recalcul des statistiques pour {} : {}", entry.getKey(), e.getMessage());
+                pending.merge(entry.getKey(), p, (current, failed) -> new Pending(failed.firstDirty(), current.lastDirty()));
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    private void refresh(StatPeriod period) {
+        switch (period.granularite()) {
+            case JOUR -> statService.refreshStatDuJour(period.debut());
+            case MOIS -> statService.refreshStatParMois(period.debut().getYear(), period.debut().getMonthValue());
+            case ANNEE -> statService.refreshStatsSurLannee(period.debut().getYear());
+        }
+    }
+
+    private record Pending(long firstDirty, long lastDirty) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.GestionClinique.service.statService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Série temporelle en colonnes : la valeur d'indice {@code i} de chaque tableau correspond
+ * à la période {@code periodes.get(i)} (premier jour du jour ou du mois).
+ */
+public record StatSeries(StatPeriod.Granularite granularite,
+                         List<LocalDate> periodes,
+                         long[] nbrRendezVousCONFIRME,
+                         long[] nbrRendezANNULE,
+                         long[] nbrPatientEnrg,
+                         long[] nbrConsultation,
+                         double[] revenu) {
+}
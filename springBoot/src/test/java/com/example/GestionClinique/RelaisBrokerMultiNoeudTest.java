@@ -0,0 +1,249 @@
+package com.example.GestionClinique;
+
+import com.example.GestionClinique.configuration.webocket.RelaisBroker;
+import com.example.GestionClinique.configuration.webocket.StompAuthInterceptor;
+import com.example.GestionClinique.configuration.webocket.WebSocketConfig;
+import com.example.GestionClinique.repository.RelaisRepository;
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.service.authService.CachePrincipaux;
+import com.example.GestionClinique.service.authService.UtilisateurModifieEvent;
+import com.example.GestionClinique.service.planningService.Creneau;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.planningService.OccupationCreneaux;
+import com.example.GestionClinique.service.presenceService.PresenceEvent;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
+import com.example.GestionClinique.service.rechercheService.AutocompletionPatients;
+import com.example.GestionClinique.service.rechercheService.PatientModifieEvent;
+import com.example.GestionClinique.service.relaisService.JdbcRelaisTransport;
+import com.example.GestionClinique.service.relaisService.RelaisEvenements;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deux contextes sur la même base H2, chacun avec son broker simple : un message envoyé sur un nœud
+ * doit atteindre les sessions abonnées sur l'autre, et ses événements d'invalidation ses index.
+ */
+@DisplayName("Relay Broker Multi-node Integration Tests")
+class RelaisBrokerMultiNoeudTest {
+
+    private static final String URL = "jdbc:h2:mem:relais;DB_CLOSE_DELAY=-1";
+
+    private ConfigurableApplicationContext noeudA;
+    private ConfigurableApplicationContext noeudB;
+
+    @Configuration
+    @Import({WebSocketConfig.class, RelaisBroker.class, JdbcRelaisTransport.class, RelaisRepository.class,
+            RelaisEvenements.class})
+    static class Noeud {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource(URL, "sa", "");
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+            return new NamedParameterJdbcTemplate(dataSource);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        StompAuthInterceptor stompAuthInterceptor() {
+            return mock(StompAuthInterceptor.class);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return JsonMapper.builder().findAndAddModules().build();
+        }
+
+        @Bean
+        OccupationCreneaux occupationCreneaux() {
+            return mock(OccupationCreneaux.class);
+        }
+
+        @Bean
+        CachePrincipaux cachePrincipaux() {
+            return mock(CachePrincipaux.class);
+        }
+
+        @Bean
+        AutocompletionPatients autocompletionPatients() {
+            return mock(AutocompletionPatients.class);
+        }
+
+        @Bean
+        SuiviPresence suiviPresence() {
+            return mock(SuiviPresence.class);
+        }
+    }
+
+    private static ConfigurableApplicationContext demarrer(String nom) {
+        return new SpringApplicationBuilder(Noeud.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "websocket.broker=relais",
+                        "websocket.relais.noeud=" + nom,
+                        "websocket.relais.poll-ms=50")
+                .run();
+    }
+
+    @BeforeEach
+    void setUp() {
+        noeudA = demarrer("A");
+        noeudB = demarrer("B");
+    }
+
+    @AfterEach
+    void tearDown() {
+        noeudA.close();
+        noeudB.close();
+        new JdbcTemplate(new DriverManagerDataSource(URL, "sa", "")).execute("DROP TABLE IF EXISTS websocket_relais");
+    }
+
+    /** Simule une session STOMP connectée sur le nœud et capture ce que le broker lui envoie. */
+    private static BlockingQueue<Message<?>> session(ConfigurableApplicationContext noeud, String sessionId,
+                                                     String username, String destination) {
+        BlockingQueue<Message<?>> recus = new LinkedBlockingQueue<>();
+        MessageHandler capture = message -> {
+            if (sessionId.equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))
+                    && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                recus.add(message);
+            }
+        };
+        noeud.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(capture);
+        if (username != null) {
+            SimpMessageHeaderAccessor connectAck = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+            connectAck.setSessionId(sessionId);
+            noeud.publishEvent(new SessionConnectedEvent(noeud,
+                    MessageBuilder.createMessage(new byte[0], connectAck.getMessageHeaders()),
+                    new UsernamePasswordAuthenticationToken(username, null, List.of())));
+        }
+        SimpleBrokerMessageHandler broker = noeud.getBean(SimpleBrokerMessageHandler.class);
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId(sessionId);
+        broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId(sessionId);
+        subscribe.setSubscriptionId("sub-" + sessionId);
+        subscribe.setDestination(destination);
+        broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+
+        return recus;
+    }
+
+    private static String texte(Message<?> message) {
+        return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should deliver topic and user messages sent on one node to sessions of the other")
+    void testRelais_DeuxNoeuds() throws InterruptedException {
+        BlockingQueue<Message<?>> aliceSurB = session(noeudB, "s1", "alice", "/queue/notifications-users1");
+        BlockingQueue<Message<?>> presenceSurB = session(noeudB, "s2", null, "/topic/presence");
+        BlockingQueue<Message<?>> presenceSurA = session(noeudA, "s3", null, "/topic/presence");
+
+        SimpMessageSendingOperations templateA = noeudA.getBean(SimpMessageSendingOperations.class);
+        templateA.convertAndSendToUser("alice", "/queue/notifications", Map.of("id", 1));
+        templateA.convertAndSend("/topic/presence", Map.of("connectes", List.of(7)));
+
+        Message<?> notification = aliceSurB.poll(5, TimeUnit.SECONDS);
+        assertThat(notification).isNotNull();
+        assertThat(texte(notification)).isEqualTo("{\"id\":1}");
+        Message<?> presence = presenceSurB.poll(5, TimeUnit.SECONDS);
+        assertThat(presence).isNotNull();
+        assertThat(texte(presence)).contains("\"connectes\":[7]");
+
+        // Le nœud émetteur livre ses abonnés localement, une seule fois.
+        assertThat(presenceSurA.poll(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(presenceSurA.poll(300, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(aliceSurB.poll(300, TimeUnit.MILLISECONDS)).isNull();
+
+        // Les messages réinjectés sur B ne sont pas republiés.
+        assertThat(noeudA.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM websocket_relais", Long.class))
+                .isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should apply invalidation events of one node to the in-memory indexes of the other")
+    void testRelais_EvenementsInvalidation() {
+        Creneau creneau = new Creneau(LocalDate.of(2030, 1, 7), LocalTime.of(9, 30), 3L, 4L, StatutRDV.CONFIRME);
+        noeudA.publishEvent(CreneauEvent.creation(creneau));
+        noeudA.publishEvent(new UtilisateurModifieEvent(7L));
+        noeudA.publishEvent(PatientModifieEvent.supprime(11L));
+        noeudA.publishEvent(new PresenceEvent(8L, false));
+        when(noeudA.getBean(SuiviPresence.class).presentsIci()).thenReturn(List.of(5L, 6L));
+        noeudA.getBean(RelaisEvenements.class).signalerPresents();
+
+        // Les trames sont remises dans l'ordre : la dernière arrivée, les précédentes l'ont été. Pas
+        // de timeout sur onPatientModifie, synchronized : l'attente garderait le moniteur du mock.
+        verify(noeudB.getBean(SuiviPresence.class), timeout(5000)).presentsAilleurs(List.of(5L, 6L));
+        verify(noeudB.getBean(OccupationCreneaux.class)).onCreneau(CreneauEvent.creation(creneau));
+        verify(noeudB.getBean(CachePrincipaux.class)).invalider(7L);
+        verify(noeudB.getBean(AutocompletionPatients.class)).onPatientModifie(PatientModifieEvent.supprime(11L));
+        verify(noeudB.getBean(SuiviPresence.class)).deconnecteAilleurs(8L);
+
+        // Le nœud émetteur applique ses événements par ses propres écouteurs : ils ne lui reviennent pas.
+        verify(noeudA.getBean(OccupationCreneaux.class), times(1)).onCreneau(CreneauEvent.creation(creneau));
+        verify(noeudA.getBean(CachePrincipaux.class), never()).invalider(anyLong());
+        verify(noeudA.getBean(SuiviPresence.class), never()).presentsAilleurs(any());
+        // Aucun événement n'est livré aux abonnés du broker.
+        assertThat(noeudA.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM websocket_relais WHERE destination NOT LIKE 'evenement:%'", Long.class)).isZero();
+    }
+}
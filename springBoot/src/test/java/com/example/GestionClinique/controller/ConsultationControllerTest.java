@@ -1,6 +1,8 @@
 package com.example.GestionClinique.controller;
 
 import com.example.GestionClinique.model.entity.Consultation;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
 import com.example.GestionClinique.service.ConsultationService;
 import com.example.GestionClinique.exception.ResourceNotFoundException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -14,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static com.example.GestionClinique.testutils.MockDataFactory.*;
@@ -39,22 +42,30 @@ class ConsultationControllerTest {
 
     private Consultation mockConsultation;
     private List<Consultation> mockConsultationList;
+    private List<ConsultationLigne> mockConsultationLignes;
 
     @BeforeEach
     void setUp() {
         mockConsultation = createMockConsultation();
         mockConsultationList = createList(createMockConsultation(), 5);
+        mockConsultationLignes = createList(new ConsultationLigne(1L, LocalDateTime.now(), null, 70.5f, 175.0f,
+                "12/8", 37.2f, "Consultation générale", "Diagnostic #1", "Compte rendu #1", "Ngono", "Hélène",
+                ServiceMedical.CARDIOLOGIE, "Ébodé", "Marie"), 5);
     }
 
     @Test
     @DisplayName("GET /api/consultations - Should return all consultations")
     void testGetAllConsultations() throws Exception {
-        when(consultationService.findAll()).thenReturn(mockConsultationList);
+        when(consultationService.findAll()).thenReturn(mockConsultationLignes);
 
         mockMvc.perform(get("/api/consultations"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(5)))
-                .andExpect(jsonPath("$[0].motif", is(notNullValue())));
+                .andExpect(jsonPath("$[0].motifs", is("Consultation générale")))
+                .andExpect(jsonPath("$[0].medecinNomComplet", is("Ngono Hélène")))
+                .andExpect(jsonPath("$[0].patientNomComplet", is("Ébodé Marie")))
+                .andExpect(jsonPath("$[0].serviceMedecin", is("CARDIOLOGIE")))
+                .andExpect(jsonPath("$[0].prescriptions", hasSize(0)));
 
         verify(consultationService, times(1)).findAll();
     }
@@ -0,0 +1,155 @@
+package com.example.GestionClinique.controller;
+
+import com.example.GestionClinique.dto.ResponseDto.PatientResponseDto;
+import com.example.GestionClinique.mapper.PatientMapper;
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.repository.projection.VersionLigne;
+import com.example.GestionClinique.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Conditional GET Tests")
+class RequetesConditionnellesTest {
+
+    private static final String PATIENTS = "/Api/V1/clinique/patients";
+    private static final LocalDateTime MODIFICATION = LocalDateTime.of(2025, 7, 21, 9, 30, 15, 123_456_000);
+
+    @Mock
+    private PatientService patientService;
+    @Mock
+    private PatientMapper patientMapper;
+
+    @InjectMocks
+    private PatientController patientController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(patientController).build();
+    }
+
+    private String etagPatient() throws Exception {
+        Patient patient = new Patient();
+        patient.setId(1L);
+        PatientResponseDto dto = new PatientResponseDto();
+        dto.setNom("Ebode");
+        when(patientService.findById(1L)).thenReturn(patient);
+        when(patientMapper.toDto(patient)).thenReturn(dto);
+
+        MvcResult resultat = mockMvc.perform(get(PATIENTS + "/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nom").value("Ebode"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        clearInvocations(patientService, patientMapper);
+        return resultat.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    @DisplayName("A matching If-None-Match should answer 304 without loading nor mapping the patient")
+    void testEntite_IfNoneMatch() throws Exception {
+        when(patientService.findVersionById(1L)).thenReturn(new VersionLigne(MODIFICATION, 1));
+        String etag = etagPatient();
+
+        assertThat(etag).startsWith("W/\"");
+        mockMvc.perform(get(PATIENTS + "/1").header(HttpHeaders.IF_NONE_MATCH, "\"autre\", " + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(patientService).findVersionById(1L);
+        verify(patientService, never()).findById(any());
+        verifyNoInteractions(patientMapper);
+    }
+
+    @Test
+    @DisplayName("A stale ETag should get the full response")
+    void testEntite_EtagPerime() throws Exception {
+        when(patientService.findVersionById(1L)).thenReturn(new VersionLigne(MODIFICATION, 1));
+        String etag = etagPatient();
+        when(patientService.findVersionById(1L)).thenReturn(new VersionLigne(MODIFICATION.plusNanos(1_000), 1));
+
+        mockMvc.perform(get(PATIENTS + "/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+
+        verify(patientService).findById(1L);
+    }
+
+    @Test
+    @DisplayName("If-Modified-Since should answer 304 for a single entity without loading it")
+    void testEntite_IfModifiedSince() throws Exception {
+        when(patientService.findVersionById(1L)).thenReturn(new VersionLigne(MODIFICATION, 1));
+        String depuis = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                MODIFICATION.withNano(0).atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneId.of("GMT")));
+
+        mockMvc.perform(get(PATIENTS + "/1").header(HttpHeaders.IF_MODIFIED_SINCE, depuis))
+                .andExpect(status().isNotModified());
+
+        verify(patientService, never()).findById(any());
+        verifyNoInteractions(patientMapper);
+    }
+
+    @Test
+    @DisplayName("Collections should revalidate on the ETag only: a deletion changes the row count")
+    void testCollection() throws Exception {
+        when(patientService.findVersion()).thenReturn(new VersionLigne(MODIFICATION, 3));
+        when(patientService.findAllPatients()).thenReturn(List.of(new Patient()));
+        when(patientMapper.toDtoList(any())).thenReturn(List.of(new PatientResponseDto()));
+
+        String etag = mockMvc.perform(get(PATIENTS))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(patientService, patientMapper);
+
+        mockMvc.perform(get(PATIENTS).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(patientService, never()).findAllPatients();
+
+        when(patientService.findVersion()).thenReturn(new VersionLigne(MODIFICATION, 2));
+        String dansUneHeure = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusHours(1));
+        mockMvc.perform(get(PATIENTS).header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, dansUneHeure))
+                .andExpect(status().isOk());
+        verify(patientService).findAllPatients();
+    }
+
+    @Test
+    @DisplayName("An unknown entity should fall through to the regular lookup")
+    void testEntite_Inconnue() throws Exception {
+        when(patientService.findVersionById(9L)).thenReturn(new VersionLigne(null, 0));
+        when(patientService.findById(9L)).thenReturn(new Patient());
+        when(patientMapper.toDto(any())).thenReturn(new PatientResponseDto());
+
+        mockMvc.perform(get(PATIENTS + "/9").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        verify(patientService).findById(9L);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.configuration.cache.CacheNiveau2Metrics;
+import com.example.GestionClinique.model.entity.Role;
+import com.example.GestionClinique.model.entity.Salle;
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatutSalle;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.clinique.cache.taille.reference.salle=2"
+})
+// Les régions en lecture-écriture et le cache de requêtes ne sont alimentés qu'après validation.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Second-Level Cache Tests")
+class CacheReferenceTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private SalleRepository salleRepository;
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private Role role;
+    private Salle cardiologie;
+    private Utilisateur medecin;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        role = roleRepository.save(new Role(RoleType.MEDECIN));
+        cardiologie = salle("S-101", ServiceMedical.CARDIOLOGIE);
+        medecin = medecin("ngono");
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        utilisateurRepository.deleteAll();
+        salleRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("A role should be read from the database once, then from the cache")
+    void testEntite() {
+        roleRepository.findById(role.getId());
+        long succes = region("reference.role").getHitCount();
+
+        assertThat(roleRepository.findById(role.getId())).get().extracting(Role::getRoleType).isEqualTo(RoleType.MEDECIN);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(region("reference.role").getHitCount()).isEqualTo(succes + 1);
+    }
+
+    @Test
+    @DisplayName("Cacheable finders should run once until their table is written")
+    void testRequetes() {
+        assertThat(roleRepository.findFirstByRoleType(RoleType.MEDECIN)).isPresent();
+        assertThat(salleRepository.findByServiceMedical(ServiceMedical.CARDIOLOGIE).getId()).isEqualTo(cardiologie.getId());
+        assertThat(utilisateurRepository.findIdsByServiceMedicalAndRoleType(ServiceMedical.CARDIOLOGIE, RoleType.MEDECIN))
+                .containsExactly(medecin.getId());
+        statistics.clear();
+
+        roleRepository.findFirstByRoleType(RoleType.MEDECIN);
+        salleRepository.findByServiceMedical(ServiceMedical.CARDIOLOGIE);
+        utilisateurRepository.findIdsByServiceMedicalAndRoleType(ServiceMedical.CARDIOLOGIE, RoleType.MEDECIN);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(3);
+
+        transaction.executeWithoutResult(statut ->
+                salleRepository.findById(cardiologie.getId()).orElseThrow().setStatutSalle(StatutSalle.OCCUPEE));
+        Utilisateur nouveau = medecin("mbarga");
+        statistics.clear();
+
+        assertThat(salleRepository.findByServiceMedical(ServiceMedical.CARDIOLOGIE).getStatutSalle()).isEqualTo(StatutSalle.OCCUPEE);
+        assertThat(utilisateurRepository.findIdsByServiceMedicalAndRoleType(ServiceMedical.CARDIOLOGIE, RoleType.MEDECIN))
+                .containsExactly(medecin.getId(), nouveau.getId());
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("A region should evict entries beyond its configured size")
+    void testTailleRegion() {
+        Salle pediatrie = salle("S-201", ServiceMedical.PEDIATRIE);
+        Salle dentaire = salle("S-301", ServiceMedical.DENTISTE);
+
+        for (Salle salle : new Salle[]{cardiologie, pediatrie, dentaire}) {
+            salleRepository.findById(salle.getId());
+        }
+
+        Cache<?, ?> salles = caffeine("reference.salle");
+        salles.cleanUp();
+        assertThat(salles.policy().eviction().orElseThrow().getMaximum()).isEqualTo(2);
+        assertThat(salles.estimatedSize()).isEqualTo(2);
+        assertThat(salles.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Region counters should be exported as cache meters")
+    void testMetriques() {
+        roleRepository.findById(role.getId());
+        roleRepository.findById(role.getId());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new CacheNiveau2Metrics(entityManagerFactory).bindTo(registry);
+
+        CacheRegionStatistics roles = region("reference.role");
+        assertThat(registry.get("cache.gets").tag("cache", "reference.role").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(roles.getHitCount()).isPositive();
+        assertThat(registry.get("cache.gets").tag("cache", "reference.role").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(roles.getMissCount());
+        assertThat(registry.get("cache.size").tag("cache", "reference.role").gauge().value()).isEqualTo(1);
+        assertThat(registry.find("cache.evictions").tag("cache", "default-query-results-region").functionCounter()).isNotNull();
+    }
+
+    private CacheRegionStatistics region(String region) {
+        return statistics.getCacheRegionStatistics(region);
+    }
+
+    private Cache<?, ?> caffeine(String region) {
+        JCacheRegionFactory regions = (JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        return regions.getCacheManager().getCache(region).unwrap(Cache.class);
+    }
+
+    private Salle salle(String numero, ServiceMedical serviceMedical) {
+        Salle salle = new Salle();
+        salle.setNumeroSalle(numero);
+        salle.setServiceMedical(serviceMedical);
+        salle.setStatutSalle(StatutSalle.DISPONIBLE);
+        return salleRepository.save(salle);
+    }
+
+    private Utilisateur medecin(String username) {
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setUsername(username);
+        utilisateur.setPassword("secret");
+        utilisateur.setRole(role);
+        utilisateur.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        utilisateur.setNom(username);
+        utilisateur.setPrenom("Hélène");
+        utilisateur.setDateNaissance(LocalDate.of(1980, 1, 1));
+        utilisateur.setTelephone("6000" + username.length());
+        utilisateur.setAdresse("Douala");
+        utilisateur.setGenre("F");
+        utilisateur.setEmail(username + "@clinique.cm");
+        return utilisateurRepository.save(utilisateur);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.dto.RequestDto.messageRequestDto.MessageRequestDto;
+import com.example.GestionClinique.mapper.NotificationMapperImpl;
+import com.example.GestionClinique.model.entity.*;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.TypeConversation;
+import com.example.GestionClinique.service.serviceImpl.ChatService;
+import com.example.GestionClinique.service.serviceImpl.NotificationServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * L'envoi d'un message doit coûter le même nombre de requêtes JPA quelle que soit la taille du
+ * groupe : un UPDATE groupé des compteurs non lus et un batch JDBC pour les notifications.
+ */
+@DataJpaTest
+@Import({ChatService.class, ConversationResumeRepository.class, NotificationServiceImpl.class, NotificationBatchRepository.class, NotificationMapperImpl.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Message Fan-out Statement Count Tests")
+class DiffusionMessageStatementCountTest {
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ChatService chatService;
+
+    private int utilisateurs;
+
+    @Test
+    @DisplayName("Sending to 40 members should cost as many JPA statements as sending to 3")
+    void testSendMessage_StatementsIndependantsDeLaTaille() {
+        Role role = new Role(RoleType.MEDECIN);
+        em.persist(role);
+        List<Utilisateur> petit = membres(3, role);
+        List<Utilisateur> grand = membres(40, role);
+        Conversation petiteConversation = conversation(petit);
+        Conversation grandeConversation = conversation(grand);
+        em.flush();
+        em.clear();
+
+        long petitCout = envoyer(petiteConversation, petit.get(0));
+        long grandCout = envoyer(grandeConversation, grand.get(0));
+
+        assertThat(grandCout).isEqualTo(petitCout);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification WHERE id_utilisateur <> ?", Long.class, grand.get(0).getId()))
+                .isEqualTo(2L + 39L);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT unread_count FROM conversation_participant WHERE conversation_id = ? AND utilisateur_id <> ?",
+                Integer.class, grandeConversation.getId(), grand.get(0).getId()))
+                .hasSize(39)
+                .containsOnly(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT unread_count FROM conversation_participant WHERE conversation_id = ? AND utilisateur_id = ?",
+                Integer.class, grandeConversation.getId(), grand.get(0).getId()))
+                .isZero();
+    }
+
+    private long envoyer(Conversation conversation, Utilisateur expediteur) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MessageRequestDto dto = new MessageRequestDto();
+        dto.setConversationId(conversation.getId());
+        dto.setContenu("Bonjour");
+        chatService.sendMessage(dto, expediteur.getId());
+        em.flush();
+        em.clear();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Conversation conversation(List<Utilisateur> membres) {
+        Conversation conversation = new Conversation();
+        conversation.setTypeConversation(TypeConversation.GROUP);
+        conversation.setTitre("Groupe de " + membres.size());
+        em.persist(conversation);
+        for (Utilisateur membre : membres) {
+            ConversationParticipant participant = new ConversationParticipant();
+            participant.setConversation(conversation);
+            participant.setUtilisateur(membre);
+            em.persist(participant);
+        }
+        return conversation;
+    }
+
+    private List<Utilisateur> membres(int nombre, Role role) {
+        List<Utilisateur> membres = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            int n = utilisateurs++;
+            Utilisateur utilisateur = new Utilisateur();
+            utilisateur.setUsername("membre" + n);
+            utilisateur.setPassword("secret");
+            utilisateur.setRole(role);
+            utilisateur.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+            utilisateur.setNom("Membre" + n);
+            utilisateur.setPrenom("Prenom" + n);
+            utilisateur.setDateNaissance(LocalDate.of(1980, 1, 1));
+            utilisateur.setTelephone("6000000" + n);
+            utilisateur.setAdresse("Yaoundé");
+            utilisateur.setGenre("F");
+            utilisateur.setEmail("membre" + n + "@clinique.cm");
+            em.persist(utilisateur);
+            membres.add(utilisateur);
+        }
+        return membres;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.*;
+import com.example.GestionClinique.model.entity.enumElem.*;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import com.example.GestionClinique.repository.projection.FactureLigne;
+import com.example.GestionClinique.service.FactureService;
+import com.example.GestionClinique.service.HistoriqueActionService;
+import com.example.GestionClinique.service.dossierService.DossierPatient;
+import com.example.GestionClinique.service.dossierService.DossierPatientService;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.serviceImpl.ConsultationServiceImpl;
+import com.example.GestionClinique.service.serviceImpl.LoggingAspect;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({DossierPatientService.class, ConsultationServiceImpl.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Patient Chart Tests")
+class DossierPatientServiceTest {
+
+    @MockitoBean
+    private FactureService factureService;
+    @MockitoBean
+    private HistoriqueActionService historiqueActionService;
+    @MockitoBean
+    private LoggingAspect loggingAspect;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DossierPatientService dossierPatientService;
+
+    private Statistics statistics;
+    private Patient patient;
+    private final List<Consultation> consultations = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role(RoleType.MEDECIN);
+        em.persist(role);
+        Utilisateur medecin = medecin(role);
+        Salle salle = new Salle();
+        salle.setNumeroSalle("S-101");
+        salle.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        salle.setStatutSalle(StatutSalle.DISPONIBLE);
+        em.persist(salle);
+
+        patient = patient("Ebode", "690000001");
+        for (int i = 0; i < 3; i++) {
+            RendezVous rdv = rendezVous(patient, medecin, salle, LocalDate.of(2025, 7, 1 + i));
+            Consultation consultation = consultation(patient, medecin, rdv, "Visite " + i);
+            consultations.add(consultation);
+            prescription(consultation, medecin, patient);
+            prescription(consultation, medecin, patient);
+            // La dernière facture n'est liée qu'au rendez-vous de la consultation.
+            facture(patient, i < 2 ? consultation : null, rdv);
+        }
+        Patient autre = patient("Atangana", "690000002");
+        Consultation autreConsultation = consultation(autre, medecin,
+                rendezVous(autre, medecin, salle, LocalDate.of(2025, 7, 10)), "Autre");
+        facture(autre, autreConsultation, null);
+        em.flush();
+        em.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("A full response, version included, should page consultations with their prescriptions and invoices in five statements")
+    void testCharger_NombreFixeDeRequetes() {
+        DossierPatient premiere = repondre(new DemandePage(null, 2, false));
+
+        assertThat(premiere.patient().getDossierMedical()).isNotNull();
+        assertThat(premiere.consultations().contenu()).extracting(ConsultationLigne::motifs)
+                .containsExactly("Visite 2", "Visite 1");
+        assertThat(premiere.consultations().contenu()).allSatisfy(ligne -> assertThat(ligne.prescriptions()).hasSize(2));
+        assertThat(premiere.factures()).extracting(FactureLigne::patientNom).containsExactly("Ebode", "Ebode");
+        assertThat(premiere.consultations().curseurSuivant()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+
+        statistics.clear();
+        DossierPatient suivante = repondre(new DemandePage(premiere.consultations().curseurSuivant(), 2, true));
+
+        assertThat(suivante.consultations().contenu()).extracting(ConsultationLigne::motifs).containsExactly("Visite 0");
+        assertThat(suivante.consultations().curseurSuivant()).isNull();
+        assertThat(suivante.consultations().total()).isEqualTo(3);
+        assertThat(suivante.factures()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Version should be read in one statement and change with the data or the page")
+    void testVersion() {
+        DemandePage demande = new DemandePage(null, 2, false);
+        String version = dossierPatientService.version(patient.getId(), demande);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(dossierPatientService.version(patient.getId(), demande)).isEqualTo(version);
+        assertThat(dossierPatientService.version(patient.getId(), new DemandePage(null, 3, false))).isNotEqualTo(version);
+
+        prescription(em.find(Consultation.class, consultations.get(0).getId()),
+                em.find(Utilisateur.class, consultations.get(0).getMedecin().getId()),
+                em.find(Patient.class, patient.getId()));
+        em.flush();
+        String apresAjout = dossierPatientService.version(patient.getId(), demande);
+        assertThat(apresAjout).isNotEqualTo(version);
+
+        em.getEntityManager().createQuery("DELETE FROM Facture f WHERE f.consultation.id = :id")
+                .setParameter("id", consultations.get(0).getId()).executeUpdate();
+        assertThat(dossierPatientService.version(patient.getId(), demande)).isNotEqualTo(apresAjout);
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown patient")
+    void testPatientInconnu() {
+        assertThatThrownBy(() -> dossierPatientService.version(-1L, new DemandePage(null, 20, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Comme {@code GET /patients/{id}/chart} sans If-None-Match : la version puis le contenu. */
+    private DossierPatient repondre(DemandePage demande) {
+        String version = dossierPatientService.version(patient.getId(), demande);
+        DossierPatient dossier = dossierPatientService.charger(patient.getId(), demande, version);
+        assertThat(dossier.version()).isEqualTo(version);
+        return dossier;
+    }
+
+    private Consultation consultation(Patient patient, Utilisateur medecin, RendezVous rdv, String motifs) {
+        Consultation consultation = new Consultation();
+        consultation.setPoids(70f);
+        consultation.setTaille(175f);
+        consultation.setTemperature(37f);
+        consultation.setTensionArterielle("12/8");
+        consultation.setMotifs(motifs);
+        consultation.setCompteRendu("RAS");
+        consultation.setDiagnostic("RAS");
+        consultation.setMedecin(medecin);
+        consultation.setDossierMedical(patient.getDossierMedical());
+        consultation.setRendezVous(rdv);
+        em.persist(consultation);
+        return consultation;
+    }
+
+    private void prescription(Consultation consultation, Utilisateur medecin, Patient patient) {
+        Prescription prescription = new Prescription();
+        prescription.setTypePrescription("Médicament");
+        prescription.setQuantite(1);
+        prescription.setConsultation(consultation);
+        prescription.setMedecin(medecin);
+        prescription.setPatient(patient);
+        em.persist(prescription);
+    }
+
+    private void facture(Patient patient, Consultation consultation, RendezVous rdv) {
+        Facture facture = new Facture();
+        facture.setMontant(15000.0);
+        facture.setDateEmission(LocalDateTime.of(2025, 7, 21, 9, 0));
+        facture.setStatutPaiement(StatutPaiement.IMPAYEE);
+        facture.setModePaiement(ModePaiement.ESPECES);
+        facture.setPatient(patient);
+        facture.setConsultation(consultation);
+        facture.setRendezVous(rdv);
+        em.persist(facture);
+    }
+
+    private RendezVous rendezVous(Patient patient, Utilisateur medecin, Salle salle, LocalDate jour) {
+        RendezVous rdv = new RendezVous();
+        rdv.setJour(jour);
+        rdv.setHeure(LocalTime.of(9, 0));
+        rdv.setStatut(StatutRDV.CONFIRME);
+        rdv.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        rdv.setPatient(patient);
+        rdv.setMedecin(medecin);
+        rdv.setSalle(salle);
+        em.persist(rdv);
+        return rdv;
+    }
+
+    private Patient patient(String nom, String telephone) {
+        Patient patient = new Patient();
+        patient.setNom(nom);
+        patient.setPrenom("Marie");
+        patient.setDateNaissance(LocalDate.of(1990, 1, 1));
+        patient.setTelephone(telephone);
+        patient.setAdresse("Yaoundé");
+        patient.setGenre("F");
+        patient.setEmail(nom.toLowerCase() + "@mail.cm");
+        DossierMedical dossier = new DossierMedical();
+        dossier.setPatient(patient);
+        patient.setDossierMedical(dossier);
+        em.persist(patient);
+        return patient;
+    }
+
+    private Utilisateur medecin(Role role) {
+        Utilisateur medecin = new Utilisateur();
+        medecin.setUsername("medecin");
+        medecin.setPassword("secret");
+        medecin.setRole(role);
+        medecin.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        medecin.setNom("Ngono");
+        medecin.setPrenom("Hélène");
+        medecin.setDateNaissance(LocalDate.of(1980, 1, 1));
+        medecin.setTelephone("600000001");
+        medecin.setAdresse("Douala");
+        medecin.setGenre("F");
+        medecin.setEmail("ngono@clinique.cm");
+        em.persist(medecin);
+        return medecin;
+    }
+}
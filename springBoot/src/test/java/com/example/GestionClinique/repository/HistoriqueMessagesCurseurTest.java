@@ -0,0 +1,192 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.dto.RequestDto.messageRequestDto.MessageRequestDto;
+import com.example.GestionClinique.mapper.NotificationMapperImpl;
+import com.example.GestionClinique.model.entity.*;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.TypeConversation;
+import com.example.GestionClinique.repository.projection.ResumeConversationLigne;
+import com.example.GestionClinique.service.chatService.SynchronisationMessages;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.serviceImpl.ChatService;
+import com.example.GestionClinique.service.serviceImpl.NotificationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({ChatService.class, ConversationResumeRepository.class, NotificationServiceImpl.class,
+        NotificationBatchRepository.class, NotificationMapperImpl.class})
+@DisplayName("Chat Cursor History and Sync Tests")
+class HistoriqueMessagesCurseurTest {
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private ChatService chatService;
+
+    private Utilisateur alice;
+    private Utilisateur bob;
+    private Conversation conversation;
+    private final List<Long> messages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role(RoleType.MEDECIN);
+        em.persist(role);
+        alice = utilisateur("alice", role);
+        bob = utilisateur("bob", role);
+        conversation = conversation(alice, bob);
+        em.flush();
+        for (int i = 1; i <= 5; i++) {
+            messages.add(envoyer("Message " + i, alice).getId());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private Message envoyer(String contenu, Utilisateur expediteur) {
+        MessageRequestDto dto = new MessageRequestDto();
+        dto.setConversationId(conversation.getId());
+        dto.setContenu(contenu);
+        return chatService.sendMessage(dto, expediteur.getId());
+    }
+
+    private static List<String> contenus(List<Message> messages) {
+        return messages.stream().map(Message::getContenu).toList();
+    }
+
+    @Test
+    @DisplayName("Should page backwards and forwards with opaque cursors")
+    void testGetMessagesPage() {
+        PageCurseur<Message> recents = chatService.getMessagesPage(conversation.getId(), null, null, 2);
+        assertThat(contenus(recents.contenu())).containsExactly("Message 5", "Message 4");
+
+        PageCurseur<Message> anciens = chatService.getMessagesPage(conversation.getId(), recents.curseurSuivant(), null, 2);
+        assertThat(contenus(anciens.contenu())).containsExactly("Message 3", "Message 2");
+
+        PageCurseur<Message> suivants = chatService.getMessagesPage(conversation.getId(), null, anciens.curseurSuivant(), 10);
+        assertThat(contenus(suivants.contenu())).containsExactly("Message 3", "Message 4", "Message 5");
+        assertThat(suivants.curseurSuivant()).isNull();
+
+        assertThatThrownBy(() -> chatService.getMessagesPage(conversation.getId(), recents.curseurSuivant(), recents.curseurSuivant(), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should return new, edited and deleted messages since the sync token")
+    void testSynchroniser() {
+        String jeton = chatService.synchroniser(conversation.getId(), null).jeton();
+
+        envoyer("Message 6", bob);
+        chatService.updateMessage(messages.get(2), "Message 3 corrigé", alice.getId());
+        chatService.deleteMessage(messages.get(3), alice.getId());
+        em.flush();
+        em.clear();
+
+        SynchronisationMessages sync = chatService.synchroniser(conversation.getId(), jeton);
+        assertThat(contenus(sync.nouveaux())).containsExactly("Message 6");
+        assertThat(contenus(sync.modifies())).containsExactly("Message 3 corrigé");
+        assertThat(sync.supprimes()).containsExactly(messages.get(3));
+        assertThat(sync.complet()).isTrue();
+
+        SynchronisationMessages suivante = chatService.synchroniser(conversation.getId(), sync.jeton());
+        assertThat(suivante.nouveaux()).isEmpty();
+        assertThat(suivante.modifies()).isEmpty();
+        assertThat(suivante.supprimes()).isEmpty();
+
+        assertThat(contenus(chatService.getMessagesPage(conversation.getId(), null, null, 10).contenu()))
+                .containsExactly("Message 6", "Message 5", "Message 3 corrigé", "Message 2", "Message 1");
+    }
+
+    @Test
+    @DisplayName("Should return a message committed after the token even when it is stamped before it")
+    void testSynchroniser_CommitTardif() {
+        String jeton = chatService.synchroniser(conversation.getId(), null).jeton();
+
+        // Horodaté avant le dernier message livré mais validé après l'émission du jeton.
+        Long tardif = envoyer("Message tardif", bob).getId();
+        em.flush();
+        em.getEntityManager().createNativeQuery(
+                        "UPDATE message SET creation_date = (SELECT creation_date FROM message WHERE id = :premier) WHERE id = :tardif")
+                .setParameter("premier", messages.get(0))
+                .setParameter("tardif", tardif)
+                .executeUpdate();
+        em.clear();
+
+        SynchronisationMessages sync = chatService.synchroniser(conversation.getId(), jeton);
+        assertThat(contenus(sync.nouveaux())).containsExactly("Message tardif");
+
+        SynchronisationMessages suivante = chatService.synchroniser(conversation.getId(), sync.jeton());
+        assertThat(suivante.nouveaux()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should summarize unread counts and last visible message of every conversation")
+    void testGetResumesConversations() {
+        Utilisateur carol = utilisateur("carol", em.find(Role.class, alice.getRole().getId()));
+        Conversation vide = conversation(bob, carol);
+        chatService.deleteMessage(messages.get(4), alice.getId());
+        em.flush();
+        em.clear();
+
+        List<ResumeConversationLigne> resumes = chatService.getResumesConversations(bob.getId());
+
+        assertThat(resumes).extracting(ResumeConversationLigne::conversationId)
+                .containsExactlyInAnyOrder(conversation.getId(), vide.getId());
+        ResumeConversationLigne active = resume(resumes, conversation);
+        assertThat(active.unreadCount()).isEqualTo(5);
+        assertThat(active.dernierMessageId()).isEqualTo(messages.get(3));
+        assertThat(active.dernierMessageContenu()).isEqualTo("Message 4");
+        assertThat(active.expediteurNom()).isEqualTo("Nom alice");
+        ResumeConversationLigne sansMessage = resume(resumes, vide);
+        assertThat(sansMessage.dernierMessageId()).isNull();
+        assertThat(sansMessage.unreadCount()).isZero();
+    }
+
+    private static ResumeConversationLigne resume(List<ResumeConversationLigne> resumes, Conversation conversation) {
+        return resumes.stream().filter(r -> r.conversationId().equals(conversation.getId())).findFirst().orElseThrow();
+    }
+
+    private Conversation conversation(Utilisateur... membres) {
+        Conversation nouvelle = new Conversation();
+        nouvelle.setTypeConversation(TypeConversation.DIRECT);
+        em.persist(nouvelle);
+        for (Utilisateur membre : membres) {
+            ConversationParticipant participant = new ConversationParticipant();
+            participant.setConversation(nouvelle);
+            participant.setUtilisateur(membre);
+            em.persist(participant);
+        }
+        return nouvelle;
+    }
+
+    private Utilisateur utilisateur(String username, Role role) {
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setUsername(username);
+        utilisateur.setPassword("secret");
+        utilisateur.setRole(role);
+        utilisateur.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        utilisateur.setNom("Nom " + username);
+        utilisateur.setPrenom("Prenom " + username);
+        utilisateur.setDateNaissance(LocalDate.of(1980, 1, 1));
+        utilisateur.setTelephone("600" + username);
+        utilisateur.setAdresse("Douala");
+        utilisateur.setGenre("M");
+        utilisateur.setEmail(username + "@clinique.cm");
+        em.persist(utilisateur);
+        return utilisateur;
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.dto.ResponseDto.ConsultationResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.FactureResponseDto;
+import com.example.GestionClinique.dto.ResponseDto.RendezVousResponseDto;
+import com.example.GestionClinique.mapper.*;
+import com.example.GestionClinique.model.entity.*;
+import com.example.GestionClinique.model.entity.enumElem.*;
+import com.example.GestionClinique.repository.projection.ConsultationLigne;
+import com.example.GestionClinique.repository.projection.PrescriptionLigne;
+import com.example.GestionClinique.repository.projection.VersionLigne;
+import com.example.GestionClinique.service.RendezVousService;
+import com.example.GestionClinique.service.pagination.Curseur;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garde-fou contre le retour du N+1 : chaque liste doit être servie par un nombre fixe de
+ * requêtes, quel que soit le nombre de lignes.
+ */
+@DataJpaTest
+@Import({RendezVousMapperImpl.class, ConsultationMapperImpl.class, PrescriptionMapperImpl.class,
+        FactureMapperImpl.class, PatientMapperImpl.class, DossierMedicalMapperImpl.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Listing Statement Count Tests")
+class ListesProjectionStatementCountTest {
+
+    private static final int NB_RENDEZ_VOUS = 12;
+
+    @MockitoBean
+    private RendezVousService rendezVousService;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RendezVousRepository rendezVousRepository;
+    @Autowired
+    private ConsultationRepository consultationRepository;
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+    @Autowired
+    private FactureRepository factureRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+    @Autowired
+    private RendezVousMapper rendezVousMapper;
+    @Autowired
+    private ConsultationMapper consultationMapper;
+    @Autowired
+    private FactureMapper factureMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role(RoleType.MEDECIN);
+        em.persist(role);
+        Salle salle = new Salle();
+        salle.setNumeroSalle("S-101");
+        salle.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        salle.setStatutSalle(StatutSalle.DISPONIBLE);
+        em.persist(salle);
+
+        for (int i = 0; i < NB_RENDEZ_VOUS; i++) {
+            Utilisateur medecin = medecin(i, role);
+            Patient patient = patient(i);
+            RendezVous rdv = new RendezVous();
+            rdv.setJour(LocalDate.of(2025, 7, 21));
+            rdv.setHeure(LocalTime.of(8, 0).plusMinutes(30L * i));
+            rdv.setStatut(StatutRDV.CONFIRME);
+            rdv.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+            rdv.setPatient(patient);
+            rdv.setMedecin(medecin);
+            rdv.setSalle(salle);
+            em.persist(rdv);
+
+            Consultation consultation = new Consultation();
+            consultation.setPoids(70f);
+            consultation.setTaille(175f);
+            consultation.setTemperature(37f);
+            consultation.setTensionArterielle("12/8");
+            consultation.setMotifs("Contrôle");
+            consultation.setCompteRendu("RAS");
+            consultation.setDiagnostic("RAS");
+            consultation.setMedecin(medecin);
+            consultation.setDossierMedical(patient.getDossierMedical());
+            consultation.setRendezVous(rdv);
+            em.persist(consultation);
+
+            Prescription prescription = new Prescription();
+            prescription.setTypePrescription("Médicament");
+            prescription.setQuantite(1);
+            prescription.setConsultation(consultation);
+            prescription.setMedecin(medecin);
+            prescription.setPatient(patient);
+            em.persist(prescription);
+
+            Facture facture = new Facture();
+            facture.setMontant(15000.0);
+            facture.setDateEmission(LocalDateTime.of(2025, 7, 21, 9, 0));
+            facture.setStatutPaiement(StatutPaiement.IMPAYEE);
+            facture.setModePaiement(ModePaiement.ESPECES);
+            facture.setPatient(patient);
+            facture.setRendezVous(rdv);
+            facture.setConsultation(consultation);
+            em.persist(facture);
+        }
+        em.flush();
+        em.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Appointment listings should be served by a single statement")
+    void testRendezVousListings_SingleStatement() {
+        List<RendezVousResponseDto> tous = rendezVousMapper.fromLignes(rendezVousRepository.findAllLignes());
+
+        assertThat(tous).hasSize(NB_RENDEZ_VOUS);
+        assertThat(tous.get(0).getPatientNomComplet()).isEqualTo("Prenom0 Patient0");
+        assertThat(tous.get(0).getNomSalle()).isEqualTo("S-101");
+        assertThat(tous.get(0).getFactureId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        rendezVousMapper.fromLignes(rendezVousRepository.findLignesPage(null, null, StatutRDV.CONFIRME, null,
+                null, null, PageRequest.of(0, 50)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Entity-based mapping issues one statement per association (baseline)")
+    void testRendezVousEntityMapping_NPlusOne() {
+        rendezVousMapper.toDtoList(rendezVousRepository.findAll());
+
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(NB_RENDEZ_VOUS);
+    }
+
+    @Test
+    @DisplayName("Invoice listing should be served by a single statement")
+    void testFactureListing_SingleStatement() {
+        List<FactureResponseDto> impayees = factureMapper.fromLignes(
+                factureRepository.findLignesByStatutPaiement(StatutPaiement.IMPAYEE));
+
+        assertThat(impayees).hasSize(NB_RENDEZ_VOUS);
+        assertThat(impayees.get(0).getServiceMedicalNom()).isEqualTo("CARDIOLOGIE");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Consultation listing should need two statements whatever its size")
+    void testConsultationListing_TwoStatements() {
+        List<ConsultationLigne> lignes = consultationRepository.findAllLignes();
+        Map<Long, List<PrescriptionLigne>> prescriptions = prescriptionRepository
+                .findLignesByConsultationIds(lignes.stream().map(ConsultationLigne::id).toList()).stream()
+                .collect(Collectors.groupingBy(PrescriptionLigne::consultationId));
+        List<ConsultationResponseDto> dtos = consultationMapper.fromLignes(lignes.stream()
+                .map(l -> l.avecPrescriptions(prescriptions.getOrDefault(l.id(), List.of())))
+                .toList());
+
+        assertThat(dtos).hasSize(NB_RENDEZ_VOUS);
+        assertThat(dtos.get(0).getPrescriptions()).hasSize(1);
+        assertThat(dtos.get(0).getPatientNomComplet()).isEqualTo("Patient0 Prenom0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Conditional GET versions should be one aggregate statement each, without loading entities")
+    void testVersions_SansChargerLesEntites() {
+        VersionLigne patients = patientRepository.findVersion();
+        VersionLigne rendezVous = rendezVousRepository.findVersion();
+        VersionLigne duJour = rendezVousRepository.findVersionByJour(LocalDate.of(2025, 7, 21));
+
+        assertThat(patients.nombre()).isEqualTo(NB_RENDEZ_VOUS);
+        assertThat(rendezVous.nombre()).isEqualTo(NB_RENDEZ_VOUS);
+        assertThat(rendezVous.jointes()).isEqualTo(NB_RENDEZ_VOUS);
+        assertThat(duJour).isEqualTo(rendezVous);
+        assertThat(rendezVousRepository.findVersionByJour(LocalDate.of(2025, 7, 22)).nombre()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        // Un patient renommé change la version des rendez-vous qui affichent son nom.
+        Patient patient = patientRepository.findAll().get(0);
+        patient.setNom("Renomme");
+        em.flush();
+        assertThat(rendezVousRepository.findVersion()).isNotEqualTo(rendezVous);
+        assertThat(patientRepository.findVersionById(patient.getId()).nombre()).isEqualTo(1);
+        assertThat(patientRepository.findVersionById(-1L).nombre()).isZero();
+    }
+
+    @Test
+    @DisplayName("Keyset pages should visit every row once, legacy rows without a creation date included")
+    void testPagesCurseur_LignesSansDate() {
+        List<Long> anciens = patientRepository.findAll().stream().map(Patient::getId).sorted().limit(6).toList();
+        em.getEntityManager().createNativeQuery("UPDATE patient SET creation_date = NULL WHERE id IN (:ids)")
+                .setParameter("ids", anciens)
+                .executeUpdate();
+        em.clear();
+
+        List<Long> vus = new ArrayList<>();
+        Curseur curseur = null;
+        do {
+            List<Patient> page = patientRepository.findPage(null, null,
+                    curseur == null ? null : curseur.creationDate(), curseur == null ? null : curseur.id(), PageRequest.of(0, 5));
+            page.forEach(p -> vus.add(p.getId()));
+            curseur = page.size() < 5 ? null : Curseur.decoder(Curseur.apres(page.get(4)).encoder());
+        } while (curseur != null);
+
+        assertThat(vus).doesNotHaveDuplicates().hasSize(NB_RENDEZ_VOUS);
+        assertThat(vus.subList(0, 6)).containsExactlyElementsOf(anciens.stream().sorted(Comparator.reverseOrder()).toList());
+        assertThat(patientRepository.countPage(null, null)).isEqualTo(NB_RENDEZ_VOUS);
+    }
+
+    @Test
+    @DisplayName("Disconnected users should be filtered and ordered by the database")
+    void testDeconnectes() {
+        Map<String, Long> ids = utilisateurRepository.findAll().stream()
+                .collect(Collectors.toMap(Utilisateur::getUsername, Utilisateur::getId));
+        for (int i = 0; i < 3; i++) {
+            em.getEntityManager().createQuery("UPDATE Utilisateur u SET u.lastLogoutDate = :date WHERE u.id = :id")
+                    .setParameter("date", LocalDateTime.of(2025, 7, 21, 10 + i, 0))
+                    .setParameter("id", ids.get("medecin" + i))
+                    .executeUpdate();
+        }
+
+        // medecin2 est de nouveau en ligne, medecin3 vient de partir sans que ce soit encore écrit.
+        List<Utilisateur> deconnectes = utilisateurRepository.findDeconnectes(
+                List.of(ids.get("medecin3")), List.of(ids.get("medecin2")));
+
+        assertThat(deconnectes).extracting(Utilisateur::getUsername).containsExactly("medecin1", "medecin0", "medecin3");
+    }
+
+    private Utilisateur medecin(int i, Role role) {
+        Utilisateur medecin = new Utilisateur();
+        medecin.setUsername("medecin" + i);
+        medecin.setPassword("secret");
+        medecin.setRole(role);
+        medecin.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        medecin.setNom("Medecin" + i);
+        medecin.setPrenom("Docteur" + i);
+        medecin.setDateNaissance(LocalDate.of(1980, 1, 1));
+        medecin.setTelephone("6000000" + i);
+        medecin.setAdresse("Yaoundé");
+        medecin.setGenre("F");
+        medecin.setEmail("medecin" + i + "@clinique.cm");
+        em.persist(medecin);
+        return medecin;
+    }
+
+    private Patient patient(int i) {
+        Patient patient = new Patient();
+        patient.setNom("Patient" + i);
+        patient.setPrenom("Prenom" + i);
+        patient.setDateNaissance(LocalDate.of(1990, 1, 1));
+        patient.setTelephone("6900000" + i);
+        patient.setAdresse("Douala");
+        patient.setGenre("M");
+        patient.setEmail("patient" + i + "@mail.cm");
+        DossierMedical dossier = new DossierMedical();
+        dossier.setPatient(patient);
+        patient.setDossierMedical(dossier);
+        em.persist(patient);
+        return patient;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.service.archivageService.TableArchivee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Conversion en table partitionnée contre un vrai PostgreSQL, dans un schéma jetable :
+ * {@code POSTGRES_TEST_URL=jdbc:postgresql://localhost:5432/clinique POSTGRES_TEST_USER=postgres
+ * POSTGRES_TEST_PASSWORD=root mvn test -Dtest=PartitionRepositoryPostgresTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+@DisplayName("PostgreSQL Partitioning Tests")
+class PartitionRepositoryPostgresTest {
+
+    private static final String SCHEMA = "partition_test";
+    private static final TableArchivee TABLE = TableArchivee.NOTIFICATION;
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transaction;
+    private PartitionRepository partitionRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource administration = dataSource(null);
+        new JdbcTemplate(administration).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        new JdbcTemplate(administration).execute("CREATE SCHEMA " + SCHEMA);
+
+        DriverManagerDataSource dataSource = dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        partitionRepository = new PartitionRepository(new NamedParameterJdbcTemplate(dataSource));
+
+        jdbc.execute("CREATE TABLE utilisateur (id bigint PRIMARY KEY)");
+        jdbc.execute("CREATE TABLE notification (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "creation_date timestamp(6), modification_date timestamp(6), contenu varchar(255) NOT NULL, " +
+                "id_utilisateur bigint NOT NULL REFERENCES utilisateur (id))");
+        jdbc.execute("CREATE INDEX idx_notification_utilisateur_date ON notification (id_utilisateur, creation_date)");
+        jdbc.update("INSERT INTO utilisateur VALUES (1)");
+        jdbc.update("INSERT INTO notification (creation_date, contenu, id_utilisateur) VALUES " +
+                "(now() - interval '8 months', 'ancienne', 1), (now() - interval '1 month', 'récente', 1), " +
+                "(now(), 'du jour', 1), (NULL, 'sans date', 1)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource(null)).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    private Boolean partitionner() {
+        return transaction.execute(status ->
+                partitionRepository.partitionner(TABLE, YearMonth.now().minusMonths(6), YearMonth.now().plusMonths(3)));
+    }
+
+    @Test
+    @DisplayName("Should convert the table once, keeping rows, indexes, foreign keys and id generation")
+    void testPartitionner() {
+        assertThat(partitionner()).isTrue();
+
+        assertThat(partitionRepository.estPartitionnee(TABLE)).isTrue();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM notification WHERE creation_date IS NOT NULL", Long.class)).isEqualTo(4);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM notification_defaut", Long.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT to_regclass('notification_avant_partition') IS NULL", Boolean.class)).isTrue();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'notification' " +
+                "AND indexname = 'idx_notification_utilisateur_date'", Long.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM pg_constraint WHERE conrelid = to_regclass('notification') " +
+                "AND contype = 'f'", Long.class)).isEqualTo(1);
+        Long id = jdbc.queryForObject("INSERT INTO notification (creation_date, contenu, id_utilisateur) " +
+                "VALUES (now(), 'après', 1) RETURNING id", Long.class);
+        assertThat(id).isEqualTo(5);
+
+        assertThat(partitionner()).isFalse();
+        transaction.executeWithoutResult(status -> partitionRepository.creerPartition(TABLE, YearMonth.now().plusMonths(4)));
+        assertThat(partitionRepository.partitions(TABLE)).hasSize(12);
+    }
+
+    @Test
+    @DisplayName("A failure part-way through should leave the original table untouched")
+    void testPartitionner_EchecAnnule() {
+        // La vue empêche le DROP de l'ancienne table, après le renommage et la copie.
+        jdbc.execute("CREATE VIEW notifications_lues AS SELECT id, contenu FROM notification");
+
+        assertThatThrownBy(this::partitionner).isInstanceOf(RuntimeException.class);
+
+        assertThat(partitionRepository.estPartitionnee(TABLE)).isFalse();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM notification", Long.class)).isEqualTo(4);
+        assertThat(jdbc.queryForObject("SELECT to_regclass('notification_avant_partition') IS NULL", Boolean.class)).isTrue();
+        assertThat(jdbc.queryForObject("SELECT to_regclass('notification_defaut') IS NULL", Boolean.class)).isTrue();
+    }
+
+    private static DriverManagerDataSource dataSource(String schema) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getenv("POSTGRES_TEST_URL"),
+                System.getenv().getOrDefault("POSTGRES_TEST_USER", "postgres"),
+                System.getenv().getOrDefault("POSTGRES_TEST_PASSWORD", ""));
+        if (schema != null) {
+            Properties proprietes = new Properties();
+            proprietes.setProperty("currentSchema", schema);
+            dataSource.setConnectionProperties(proprietes);
+        }
+        return dataSource;
+    }
+}
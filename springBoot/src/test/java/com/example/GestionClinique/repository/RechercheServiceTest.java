@@ -0,0 +1,178 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.*;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.model.entity.enumElem.StatutSalle;
+import com.example.GestionClinique.service.rechercheService.AutocompletionPatients;
+import com.example.GestionClinique.service.rechercheService.CibleRecherche;
+import com.example.GestionClinique.service.rechercheService.RechercheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({RechercheService.class, RechercheRepository.class, AutocompletionPatients.class, SimpleMeterRegistry.class})
+@DisplayName("Fuzzy Search Tests")
+class RechercheServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RechercheService rechercheService;
+    @Autowired
+    private RendezVousRepository rendezVousRepository;
+
+    private Patient ebode;
+    private Patient ebongue;
+    private Patient atangana;
+    private Utilisateur medecin;
+    private Salle salle;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role(RoleType.MEDECIN);
+        em.persist(role);
+        medecin = medecin("Ngono", "Hélène", role);
+        salle = new Salle();
+        salle.setNumeroSalle("S-101");
+        salle.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        salle.setStatutSalle(StatutSalle.DISPONIBLE);
+        em.persist(salle);
+        ebode = patient("Ébodé", "Marie", "677001122");
+        ebongue = patient("Ebongue", "Paul", "699887766");
+        atangana = patient("Atangana", "Jean", "655443322");
+        rendezVous(ebode, LocalDate.of(2025, 7, 1));
+        rendezVous(ebode, LocalDate.of(2025, 7, 21));
+        rendezVous(atangana, LocalDate.of(2025, 7, 10));
+        em.flush();
+        em.clear();
+    }
+
+    private static List<String> noms(List<Patient> patients) {
+        return patients.stream().map(Patient::getNom).toList();
+    }
+
+    @Test
+    @DisplayName("Should match without accents, rank word prefixes first and tolerate typos")
+    void testRechercherPatients() {
+        assertThat(noms(rechercheService.rechercherPatients("ebode", 10))).containsExactly("Ébodé");
+        assertThat(noms(rechercheService.rechercherPatients("ÉBO", 10))).containsExactly("Ébodé", "Ebongue");
+        assertThat(noms(rechercheService.rechercherPatients("atangena", 10))).containsExactly("Atangana");
+        assertThat(noms(rechercheService.rechercherPatients("8877", 10))).containsExactly("Ebongue");
+        assertThat(noms(rechercheService.rechercherPatients("ebo", 1))).hasSize(1);
+        assertThat(rechercheService.rechercherPatients("  -- ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Short terms should only match the beginning of the name, numeric terms the id first")
+    void testRechercherPatients_PrefixeEtIdentifiant() {
+        assertThat(noms(rechercheService.rechercherPatients("at", 10))).containsExactly("Atangana");
+        assertThat(rechercheService.rechercherPatients("je", 10)).isEmpty();
+        assertThat(noms(rechercheService.rechercherPatients(atangana.getId().toString(), 10))).first().isEqualTo("Atangana");
+    }
+
+    @Test
+    @DisplayName("Should see updated, new and deleted rows on the next search")
+    void testIndexSuitLesModifications() {
+        assertThat(noms(rechercheService.rechercherPatients("ebongue", 10))).containsExactly("Ebongue");
+
+        Patient modifie = em.find(Patient.class, ebongue.getId());
+        modifie.setNom("Mbarga");
+        patient("Essomba", "Luc", "690000000");
+        em.remove(em.find(Patient.class, atangana.getId()));
+        em.flush();
+        em.clear();
+
+        assertThat(rechercheService.rechercherPatients("ebongue", 10)).isEmpty();
+        assertThat(noms(rechercheService.rechercherPatients("mbarga", 10))).containsExactly("Mbarga");
+        assertThat(noms(rechercheService.rechercherPatients("essomba", 10))).containsExactly("Essomba");
+        assertThat(rechercheService.rechercherPatients("atangana", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should search users by service and appointments by patient or doctor")
+    void testRechercherUtilisateursEtRendezVous() {
+        assertThat(rechercheService.rechercherUtilisateurs("helene", 10)).extracting(Utilisateur::getId)
+                .containsExactly(medecin.getId());
+        assertThat(rechercheService.rechercherUtilisateurs("cardiologie", 10)).hasSize(1);
+
+        List<RendezVous> duPatient = rechercheService.rechercherRendezVous(CibleRecherche.PATIENT, "ebode", 10);
+        assertThat(duPatient).extracting(RendezVous::getJour)
+                .containsExactly(LocalDate.of(2025, 7, 21), LocalDate.of(2025, 7, 1));
+        assertThat(rechercheService.rechercherRendezVous(CibleRecherche.UTILISATEUR, "ngono", 10)).hasSize(3);
+        assertThat(rendezVousRepository.findPlusRecentsParPatient(List.of(ebode.getId()), 1)).extracting(RendezVous::getJour)
+                .containsExactly(LocalDate.of(2025, 7, 21));
+    }
+
+    @Test
+    @DisplayName("Should fill the search column of rows written before it existed")
+    void testCompleterRecherche() {
+        jdbcTemplate.update("UPDATE patient SET recherche = NULL");
+
+        rechercheService.completerRecherche();
+        em.clear();
+
+        assertThat(em.find(Patient.class, ebode.getId()).getRecherche()).isEqualTo("ebode marie patient677001122 clinique cm 677001122");
+    }
+
+    private void rendezVous(Patient patient, LocalDate jour) {
+        RendezVous rdv = new RendezVous();
+        rdv.setJour(jour);
+        rdv.setHeure(LocalTime.of(9, 0));
+        rdv.setStatut(StatutRDV.CONFIRME);
+        rdv.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        rdv.setPatient(em.find(Patient.class, patient.getId()));
+        rdv.setMedecin(medecin);
+        rdv.setSalle(salle);
+        em.persist(rdv);
+    }
+
+    private Patient patient(String nom, String prenom, String telephone) {
+        Patient patient = new Patient();
+        patient.setNom(nom);
+        patient.setPrenom(prenom);
+        patient.setDateNaissance(LocalDate.of(1990, 1, 1));
+        patient.setTelephone(telephone);
+        patient.setAdresse("Yaoundé");
+        patient.setGenre("F");
+        patient.setEmail("patient" + telephone + "@clinique.cm");
+        DossierMedical dossier = new DossierMedical();
+        dossier.setPatient(patient);
+        patient.setDossierMedical(dossier);
+        em.persist(patient);
+        return patient;
+    }
+
+    private Utilisateur medecin(String nom, String prenom, Role role) {
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setUsername("medecin");
+        utilisateur.setPassword("secret");
+        utilisateur.setRole(role);
+        utilisateur.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        utilisateur.setNom(nom);
+        utilisateur.setPrenom(prenom);
+        utilisateur.setDateNaissance(LocalDate.of(1980, 1, 1));
+        utilisateur.setTelephone("600000001");
+        utilisateur.setAdresse("Douala");
+        utilisateur.setGenre("F");
+        utilisateur.setEmail("ngono@clinique.cm");
+        em.persist(utilisateur);
+        return utilisateur;
+    }
+}
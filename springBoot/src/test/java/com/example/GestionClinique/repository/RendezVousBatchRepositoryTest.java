@@ -0,0 +1,133 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.*;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.model.entity.enumElem.StatutSalle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(RendezVousBatchRepository.class)
+@DisplayName("RendezVous Batch Insert Tests")
+class RendezVousBatchRepositoryTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RendezVousBatchRepository rendezVousBatchRepository;
+
+    private Patient patient;
+    private Utilisateur medecin;
+    private Salle salle;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role(RoleType.MEDECIN);
+        em.persist(role);
+        medecin = medecin(role);
+        salle = new Salle();
+        salle.setNumeroSalle("S-101");
+        salle.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        salle.setStatutSalle(StatutSalle.DISPONIBLE);
+        em.persist(salle);
+        patient = patient();
+        em.flush();
+    }
+
+    @Test
+    @DisplayName("Should insert the whole batch in one go when no slot is taken")
+    void testInsertRendezVous_SansConflit() {
+        List<RendezVous> lot = List.of(rendezVous(LocalTime.of(9, 0)), rendezVous(LocalTime.of(10, 0)));
+
+        assertThat(rendezVousBatchRepository.insertRendezVous(lot)).isEmpty();
+
+        assertThat(lot).extracting(RendezVous::getId).doesNotContainNull();
+        assertThat(compterRendezVous()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should report a slot taken concurrently and still insert the rest of the batch")
+    void testInsertRendezVous_CreneauPrisEntreTemps() {
+        // Réservation concurrente arrivée après la vérification des créneaux.
+        jdbcTemplate.update("INSERT INTO rendez_vous (jour, heure, statut, service_medical, patient_id, medecin_id, salle_id) " +
+                        "VALUES (?, ?, 'EN_ATTENTE', 'CARDIOLOGIE', ?, ?, ?)",
+                JOUR, LocalTime.of(10, 0), patient.getId(), medecin.getId(), salle.getId());
+        RendezVous pris = rendezVous(LocalTime.of(10, 0));
+        List<RendezVous> lot = List.of(rendezVous(LocalTime.of(9, 0)), pris, rendezVous(LocalTime.of(11, 0)));
+
+        List<RendezVous> enConflit = rendezVousBatchRepository.insertRendezVous(lot);
+
+        assertThat(enConflit).containsExactly(pris);
+        assertThat(pris.getId()).isNull();
+        assertThat(lot.get(0).getId()).isNotNull();
+        assertThat(lot.get(2).getId()).isNotNull();
+        assertThat(compterRendezVous()).isEqualTo(3);
+    }
+
+    private Integer compterRendezVous() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rendez_vous", Integer.class);
+    }
+
+    private RendezVous rendezVous(LocalTime heure) {
+        RendezVous rdv = new RendezVous();
+        rdv.setJour(JOUR);
+        rdv.setHeure(heure);
+        rdv.setStatut(StatutRDV.EN_ATTENTE);
+        rdv.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        rdv.setPatient(patient);
+        rdv.setMedecin(medecin);
+        rdv.setSalle(salle);
+        return rdv;
+    }
+
+    private Patient patient() {
+        Patient patient = new Patient();
+        patient.setNom("Ébodé");
+        patient.setPrenom("Marie");
+        patient.setDateNaissance(LocalDate.of(1990, 1, 1));
+        patient.setTelephone("677001122");
+        patient.setAdresse("Yaoundé");
+        patient.setGenre("F");
+        patient.setEmail("patient677001122@clinique.cm");
+        DossierMedical dossier = new DossierMedical();
+        dossier.setPatient(patient);
+        patient.setDossierMedical(dossier);
+        em.persist(patient);
+        return patient;
+    }
+
+    private Utilisateur medecin(Role role) {
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setUsername("medecin");
+        utilisateur.setPassword("secret");
+        utilisateur.setRole(role);
+        utilisateur.setServiceMedical(ServiceMedical.CARDIOLOGIE);
+        utilisateur.setNom("Ngono");
+        utilisateur.setPrenom("Hélène");
+        utilisateur.setDateNaissance(LocalDate.of(1980, 1, 1));
+        utilisateur.setTelephone("600000001");
+        utilisateur.setAdresse("Douala");
+        utilisateur.setGenre("F");
+        utilisateur.setEmail("ngono@clinique.cm");
+        em.persist(utilisateur);
+        return utilisateur;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.GestionClinique.repository;
+
+import com.example.GestionClinique.model.entity.DossierMedical;
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.model.entity.stats.StatsMois;
+import com.example.GestionClinique.service.StatService;
+import com.example.GestionClinique.service.serviceImpl.StatServiceImpl;
+import com.example.GestionClinique.service.statService.StatDeltaApplier;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({StatServiceImpl.class, StatDeltaApplier.class})
+// Les deltas sont appliqués après commit : chaque étape est validée pour de bon.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Stat Delta on Unmaterialized Period Tests")
+class StatDeltaPeriodeAbsenteTest {
+
+    private static final LocalDate JOUR_ANCIEN = LocalDate.of(2023, 3, 10);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private StatsMoisRepository statsMoisRepository;
+    @Autowired
+    private StatDuJourRepository statDuJourRepository;
+    @Autowired
+    private StatsSurLanneeRepository statsSurLanneeRepository;
+    @Autowired
+    private StatService statService;
+
+    private TransactionTemplate transaction;
+    private Patient supprime;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        patient("677000001");
+        supprime = patient("677000002");
+        jdbcTemplate.update("UPDATE patient SET creation_date = ?", JOUR_ANCIEN.atTime(9, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+        statDuJourRepository.deleteAll();
+        statsMoisRepository.deleteAll();
+        statsSurLanneeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deleting a patient of a month nobody viewed should not persist a negative count")
+    void testSuppression_MoisNonMaterialise() {
+        transaction.executeWithoutResult(statut -> {
+            Patient patient = patientRepository.findById(supprime.getId()).orElseThrow();
+            LocalDateTime creation = patient.getCreationDate();
+            patientRepository.delete(patient);
+            eventPublisher.publishEvent(StatDeltaEvent.patient(creation.toLocalDate(), -1));
+        });
+
+        assertThat(statsMoisRepository.findByAnneeAndNumeroMois(2023, 3)).isEmpty();
+        assertThat(statDuJourRepository.findByJour("2023-03-10")).isEmpty();
+        assertThat(statsSurLanneeRepository.findByAnnee("2023")).isEmpty();
+        assertThat(statService.getOrCreateStatParMois(2023, 3).getNbrPatientEnrg()).isEqualTo(1);
+        assertThat(statService.getOrCreateStatDuJour(JOUR_ANCIEN).getNbrPatientEnrg()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deleting a patient of an already materialized month should decrement it")
+    void testSuppression_MoisMaterialise() {
+        assertThat(statService.getOrCreateStatParMois(2023, 3).getNbrPatientEnrg()).isEqualTo(2);
+
+        transaction.executeWithoutResult(statut -> {
+            Patient patient = patientRepository.findById(supprime.getId()).orElseThrow();
+            patientRepository.delete(patient);
+            eventPublisher.publishEvent(StatDeltaEvent.patient(patient.getCreationDate().toLocalDate(), -1));
+        });
+
+        assertThat(statsMoisRepository.findByAnneeAndNumeroMois(2023, 3)).get()
+                .extracting(StatsMois::getNbrPatientEnrg).isEqualTo(1L);
+    }
+
+    private Patient patient(String telephone) {
+        Patient patient = new Patient();
+        patient.setNom("Nom" + telephone);
+        patient.setPrenom("Prenom");
+        patient.setDateNaissance(LocalDate.of(1990, 1, 1));
+        patient.setTelephone(telephone);
+        patient.setAdresse("Yaoundé");
+        patient.setGenre("F");
+        patient.setEmail("patient" + telephone + "@clinique.cm");
+        DossierMedical dossier = new DossierMedical();
+        dossier.setPatient(patient);
+        patient.setDossierMedical(dossier);
+        return patientRepository.save(patient);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.repository.PartitionRepository;
+import com.example.GestionClinique.service.archivageService.ArchivageService;
+import com.example.GestionClinique.service.archivageService.ArchiveInfo;
+import com.example.GestionClinique.service.archivageService.TableArchivee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Archivage Service Unit Tests")
+class ArchivageServiceTest {
+
+    private static final TableArchivee TABLE = TableArchivee.HISTORIQUE_ACTION;
+    private static final YearMonth MOIS = YearMonth.now().minusMonths(25);
+
+    @Mock
+    private PartitionRepository partitionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path repertoire;
+
+    private ArchivageService archivageService() {
+        return new ArchivageService(partitionRepository, transactionManager, new ObjectMapper(), new SimpleMeterRegistry(),
+                repertoire.toString(), 24, 6, 3, true, 30, 500);
+    }
+
+    @Test
+    @DisplayName("Should only convert tables on explicit request, never at startup")
+    void testPartitionner_Explicite() {
+        when(partitionRepository.isPostgres()).thenReturn(true);
+        when(partitionRepository.estPartitionnee(any())).thenReturn(false);
+
+        archivageService().demarrer();
+        verify(partitionRepository, never()).partitionner(any(), any(), any());
+
+        ArchivageService desactive = new ArchivageService(partitionRepository, transactionManager, new ObjectMapper(),
+                new SimpleMeterRegistry(), repertoire.toString(), 24, 6, 3, false, 30, 500);
+        assertThatThrownBy(() -> desactive.partitionner(TABLE)).isInstanceOf(IllegalArgumentException.class);
+        verify(partitionRepository, never()).partitionner(any(), any(), any());
+
+        when(partitionRepository.partitionner(eq(TABLE), any(), any())).thenReturn(true);
+        assertThat(archivageService().partitionner(TABLE)).isTrue();
+        verify(partitionRepository).partitionner(TABLE, YearMonth.now().minusMonths(24), YearMonth.now().plusMonths(3));
+    }
+
+    private static Map<String, Object> ligne(long id) {
+        Map<String, Object> ligne = new LinkedHashMap<>();
+        ligne.put("ID", id);
+        ligne.put("CREATION_DATE", Timestamp.valueOf(MOIS.atDay(2).atTime(10, 30)));
+        ligne.put("ACTION_DESCRIPTION", "Action " + id);
+        return ligne;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void exporter(Map<String, Object>... lignes) {
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> consommateur = invocation.getArgument(2);
+            for (Map<String, Object> ligne : lignes) {
+                consommateur.accept(ligne);
+            }
+            return null;
+        }).when(partitionRepository).parcourir(eq(TABLE), eq(MOIS), any());
+    }
+
+    @Test
+    @DisplayName("Should export old months to compressed NDJSON, drop them, and restore them")
+    @SuppressWarnings("unchecked")
+    void testArchiverPuisRestaurer() {
+        ArchivageService archivageService = archivageService();
+        when(partitionRepository.plusAncienne(TABLE)).thenReturn(MOIS.atDay(2).atStartOfDay());
+        when(partitionRepository.compter(TABLE, MOIS)).thenReturn(2L, 0L);
+        exporter(ligne(1), ligne(2));
+
+        assertThat(archivageService.archiverAnciennes(TABLE)).isEqualTo(2);
+
+        verify(partitionRepository).supprimer(TABLE, MOIS);
+        assertThat(archivageService.archives()).extracting(ArchiveInfo::periode).containsExactly(MOIS.toString());
+
+        assertThat(archivageService.restaurer(TABLE, MOIS)).isEqualTo(2);
+
+        ArgumentCaptor<List<Map<String, Object>>> lignes = ArgumentCaptor.forClass(List.class);
+        verify(partitionRepository).inserer(eq(TABLE), lignes.capture());
+        assertThat(lignes.getValue()).hasSize(2);
+        assertThat(lignes.getValue().get(0))
+                .containsEntry("id", 1)
+                .containsEntry("creation_date", MOIS.atDay(2).atTime(10, 30).toString())
+                .containsEntry("action_description", "Action 1");
+        assertThat(archivageService.archives()).singleElement().extracting(ArchiveInfo::restauree).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Should keep the rows of an already archived month when new rows arrive in it")
+    @SuppressWarnings("unchecked")
+    void testArchiver_AjouteALArchiveExistante() {
+        ArchivageService archivageService = archivageService();
+        when(partitionRepository.compter(TABLE, MOIS)).thenReturn(1L, 1L, 0L);
+        exporter(ligne(1));
+        archivageService.archiver(TABLE, MOIS);
+        exporter(ligne(2));
+        archivageService.archiver(TABLE, MOIS);
+
+        assertThat(archivageService.restaurer(TABLE, MOIS)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should rewrite the archive without duplicates when the deletion failed after the export")
+    @SuppressWarnings("unchecked")
+    void testArchiver_RepriseApresEchecSuppression() {
+        ArchivageService archivageService = archivageService();
+        when(partitionRepository.compter(TABLE, MOIS)).thenReturn(2L, 2L, 0L);
+        when(partitionRepository.supprimer(TABLE, MOIS))
+                .thenThrow(new IllegalStateException("connexion perdue"))
+                .thenReturn(2);
+        exporter(ligne(1), ligne(2));
+
+        assertThatThrownBy(() -> archivageService.archiver(TABLE, MOIS)).isInstanceOf(IllegalStateException.class);
+        assertThat(archivageService.archiver(TABLE, MOIS)).isEqualTo(2);
+
+        assertThat(archivageService.restaurer(TABLE, MOIS)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should refuse to restore a period that still has rows")
+    void testRestaurer_PeriodePresente() throws Exception {
+        ArchivageService archivageService = archivageService();
+        Path dossier = Files.createDirectories(repertoire.resolve(TABLE.nomTable()));
+        Files.createFile(dossier.resolve(TABLE.nomTable() + "-" + MOIS + ".ndjson.gz"));
+        when(partitionRepository.compter(TABLE, MOIS)).thenReturn(5L);
+
+        assertThatThrownBy(() -> archivageService.restaurer(TABLE, MOIS))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(partitionRepository, never()).inserer(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not archive a recently restored month again")
+    void testArchiverAnciennes_IgnoreRestaurationRecente() throws Exception {
+        ArchivageService archivageService = archivageService();
+        Path dossier = Files.createDirectories(repertoire.resolve(TABLE.nomTable()));
+        Files.writeString(dossier.resolve(TABLE.nomTable() + "-" + MOIS + ".restauree"), LocalDateTime.now().toString());
+        when(partitionRepository.plusAncienne(TABLE)).thenReturn(MOIS.atDay(1).atStartOfDay());
+
+        archivageService.archiverAnciennes(TABLE);
+
+        verify(partitionRepository, never()).compter(TABLE, MOIS);
+        verify(partitionRepository, never()).parcourir(eq(TABLE), eq(MOIS), any());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.configuration.security.jwtConfig.JwtUtil;
+import com.example.GestionClinique.service.authService.CachePrincipaux;
+import com.example.GestionClinique.service.authService.MonUserDetailsCustom;
+import com.example.GestionClinique.service.authService.UtilisateurModifieEvent;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Authentication Cache Unit Tests")
+class AuthentificationCacheTest {
+
+    private static UserDetails principal(Long id, String username) {
+        return new MonUserDetailsCustom(id, username, "secret", null, List.of());
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve later checks from the cache")
+    void testVerifier_CachesVerifiedToken() {
+        JwtUtil jwtUtil = new JwtUtil(100);
+        String token = jwtUtil.generateToken(principal(1L, "dr.house"));
+
+        JwtUtil.JetonVerifie premier = jwtUtil.verifier(token);
+        JwtUtil.JetonVerifie second = jwtUtil.verifier(token);
+
+        assertThat(premier.username()).isEqualTo("dr.house");
+        assertThat(second).isSameAs(premier);
+        assertThat(jwtUtil.getNombreJetonsEnCache()).isEqualTo(1);
+        assertThat(jwtUtil.validateToken(token, principal(1L, "dr.house"))).isTrue();
+
+        jwtUtil.oublier(token);
+        assertThat(jwtUtil.getNombreJetonsEnCache()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered token and never cache it")
+    void testVerifier_RejectsTamperedToken() {
+        JwtUtil jwtUtil = new JwtUtil(100);
+        String token = jwtUtil.generateToken(principal(1L, "dr.house"));
+        String falsifie = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.verifier(falsifie)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.getNombreJetonsEnCache()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load a principal once and reload it after a user change event")
+    void testObtenir_InvalidatedByEvent() {
+        CachePrincipaux cache = new CachePrincipaux(60_000);
+        AtomicInteger chargements = new AtomicInteger();
+        Function<String, UserDetails> chargeur = username -> {
+            chargements.incrementAndGet();
+            return principal(7L, username);
+        };
+
+        cache.obtenir("dr.house", chargeur);
+        cache.obtenir("dr.house", chargeur);
+        assertThat(chargements).hasValue(1);
+
+        cache.onUtilisateurModifie(new UtilisateurModifieEvent(7L));
+        assertThat(cache.getTaille()).isZero();
+
+        cache.obtenir("dr.house", chargeur);
+        assertThat(chargements).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not cache a principal loaded while an invalidation happened")
+    void testObtenir_InvalidationDuringLoad() {
+        CachePrincipaux cache = new CachePrincipaux(60_000);
+
+        cache.obtenir("dr.house", username -> {
+            cache.invalider(7L);
+            return principal(7L, username);
+        });
+
+        assertThat(cache.getTaille()).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.repository.RechercheRepository;
+import com.example.GestionClinique.repository.projection.PatientCleLigne;
+import com.example.GestionClinique.service.rechercheService.AutocompletionPatients;
+import com.example.GestionClinique.service.rechercheService.PatientModifieEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Patient Autocomplete Index Unit Tests")
+class AutocompletionPatientsTest {
+
+    @Mock
+    private RechercheRepository rechercheRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AutocompletionPatients charger(long memoireMaxMo, int seuilFusion, PatientCleLigne... patients) {
+        doAnswer(invocation -> {
+            Consumer<PatientCleLigne> traitement = invocation.getArgument(0);
+            List.of(patients).forEach(traitement);
+            return null;
+        }).when(rechercheRepository).parcourirPatients(any());
+        AutocompletionPatients autocompletion = new AutocompletionPatients(rechercheRepository, meterRegistry, memoireMaxMo, seuilFusion);
+        autocompletion.charger();
+        return autocompletion;
+    }
+
+    private AutocompletionPatients chargerPatients(int seuilFusion) {
+        return charger(64, seuilFusion,
+                new PatientCleLigne(1, "Ébodé", "Marie", "marie.ebode@mail.cm", "+237 677 00 11 22"),
+                new PatientCleLigne(2, "Ebongue", "Paul", "paul@mail.cm", "699887766"),
+                new PatientCleLigne(3, "Atangana", "Jean-Marie", "jm.atangana@mail.cm", "655443322"),
+                new PatientCleLigne(4, "Ebo", "Luc", null, "690000000"));
+    }
+
+    @Test
+    @DisplayName("Should complete word prefixes, exact words first, across name, email and phone")
+    void testCompleter() {
+        AutocompletionPatients autocompletion = chargerPatients(1024);
+
+        assertThat(autocompletion.isActif()).isTrue();
+        assertThat(autocompletion.completer("ebo", 10)).containsExactly(4L, 1L, 2L);
+        assertThat(autocompletion.completer("EBO", 2)).containsExactly(4L, 1L);
+        assertThat(autocompletion.completer("mar", 10)).containsExactly(1L, 3L);
+        assertThat(autocompletion.completer("jm", 10)).containsExactly(3L);
+        assertThat(autocompletion.completer("23767700", 10)).containsExactly(1L);
+        assertThat(autocompletion.completer("marie ata", 10)).containsExactly(3L);
+        assertThat(autocompletion.completer("mail", 10)).isEmpty();
+        assertThat(autocompletion.completer("  ", 10)).isEmpty();
+        assertThat(meterRegistry.get("autocompletion.patients.latence").timer().count()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should apply creations, updates and deletions, before and after merging the delta")
+    void testModifications() {
+        AutocompletionPatients autocompletion = chargerPatients(3);
+
+        autocompletion.onPatientModifie(new PatientModifieEvent(5L, "Ebolo", "Anne", null, "600", false));
+        autocompletion.onPatientModifie(new PatientModifieEvent(2L, "Mbarga", "Paul", "paul@mail.cm", "699887766", false));
+        assertThat(autocompletion.completer("ebo", 10)).containsExactly(4L, 1L, 5L);
+        assertThat(autocompletion.completer("mbar", 10)).containsExactly(2L);
+        assertThat(meterRegistry.get("autocompletion.patients.delta").gauge().value()).isEqualTo(2);
+
+        autocompletion.onPatientModifie(PatientModifieEvent.supprime(4L));
+
+        assertThat(meterRegistry.get("autocompletion.patients.fusions").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("autocompletion.patients.delta").gauge().value()).isZero();
+        assertThat(autocompletion.completer("ebo", 10)).containsExactly(1L, 5L);
+        assertThat(autocompletion.completer("paul", 10)).containsExactly(2L);
+        assertThat(autocompletion.completer("ebongue", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should disable itself when the memory budget is exceeded")
+    void testBudgetDepasse() {
+        PatientCleLigne[] patients = new PatientCleLigne[20_000];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new PatientCleLigne(i, "Nom" + i, "Prenom" + i, "patient" + i + "@mail.cm", "6" + i);
+        }
+
+        AutocompletionPatients autocompletion = charger(1, 1024, patients);
+
+        assertThat(autocompletion.isActif()).isFalse();
+        assertThat(autocompletion.completer("nom1", 10)).isEmpty();
+        assertThat(meterRegistry.get("autocompletion.patients.memoire").gauge().value()).isZero();
+    }
+}
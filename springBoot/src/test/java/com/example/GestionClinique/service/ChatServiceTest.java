@@ -20,6 +20,7 @@ import static com.example.GestionClinique.testutils.MockDataFactory.createMockUs
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -74,6 +75,9 @@ class ChatServiceTest {
         assertThat(result.getContenu()).isEqualTo("Hello World");
         verify(messageRepository).save(any(Message.class));
         verify(conversationRepository).save(testConversation);
+        verify(conversationParticipantRepository).incrementUnreadCount(eq(10L), eq(1L), any());
+        verify(conversationParticipantRepository, never()).save(any());
+        verify(notificationService).creerNotificationsPourMessage(eq(result), any());
     }
 
     @Test
@@ -98,7 +102,9 @@ class ChatServiceTest {
 
         chatService.deleteMessage(100L, 1L);
 
-        verify(messageRepository).delete(message);
+        assertThat(message.isSupprime()).isTrue();
+        verify(messageRepository).save(message);
+        verify(messageRepository, never()).delete(any());
         verify(historiqueMessageRepository).save(any());
     }
 
@@ -2,21 +2,32 @@ package com.example.GestionClinique.service;
 
 import com.example.GestionClinique.model.entity.HistoriqueAction;
 import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.repository.HistoriqueActionRechercheRepository;
 import com.example.GestionClinique.repository.HistoriqueActionRepository;
 import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.repository.projection.HistoriqueActionLigne;
+import com.example.GestionClinique.service.historiqueService.ActionAudit;
+import com.example.GestionClinique.service.pagination.Curseur;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
 import com.example.GestionClinique.service.serviceImpl.HistoriqueActionServiceImpl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
-import java.util.Optional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
-import static com.example.GestionClinique.testutils.MockDataFactory.createMockUser;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,22 +37,73 @@ class HistoriqueActionServiceTest {
     @Mock
     private HistoriqueActionRepository historiqueActionRepository;
     @Mock
+    private HistoriqueActionRechercheRepository historiqueActionRechercheRepository;
+    @Mock
     private UtilisateurRepository utilisateurRepository;
-
-    @InjectMocks
-    private HistoriqueActionServiceImpl historiqueActionService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @Test
-    @DisplayName("Should record action successfully")
-    void testEnregistrerAction() {
-        Utilisateur user = createMockUser();
-        when(utilisateurRepository.findById(1L)).thenReturn(Optional.of(user));
+    @DisplayName("Should record action synchronously without loading the user")
+    void testEnregistrerAction_Sync() {
+        HistoriqueActionServiceImpl historiqueActionService = new HistoriqueActionServiceImpl(
+                historiqueActionRepository, historiqueActionRechercheRepository, utilisateurRepository, eventPublisher, "sync");
+        Utilisateur reference = new Utilisateur();
+        reference.setId(1L);
+        when(utilisateurRepository.getReferenceById(1L)).thenReturn(reference);
         when(historiqueActionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
         HistoriqueAction result = historiqueActionService.enregistrerAction("TEST_ACTION", 1L);
 
         assertThat(result.getAction()).isEqualTo("TEST_ACTION");
-        assertThat(result.getUtilisateur()).isEqualTo(user);
+        assertThat(result.getUtilisateur()).isSameAs(reference);
         verify(historiqueActionRepository).save(any(HistoriqueAction.class));
+        verify(utilisateurRepository, never()).findById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should hand the action to the async writer instead of inserting it")
+    void testEnregistrerAction_Async() {
+        HistoriqueActionServiceImpl historiqueActionService = new HistoriqueActionServiceImpl(
+                historiqueActionRepository, historiqueActionRechercheRepository, utilisateurRepository, eventPublisher, "async");
+
+        historiqueActionService.enregistrerAction("TEST_ACTION", 1L);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ActionAudit action
+                && action.utilisateurId().equals(1L) && action.description().equals("TEST_ACTION")));
+        verifyNoInteractions(historiqueActionRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject an action without user")
+    void testEnregistrerAction_NullUser() {
+        HistoriqueActionServiceImpl historiqueActionService = new HistoriqueActionServiceImpl(
+                historiqueActionRepository, historiqueActionRechercheRepository, utilisateurRepository, eventPublisher, "async");
+
+        assertThatThrownBy(() -> historiqueActionService.enregistrerAction("TEST_ACTION", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should return a keyset page with the next cursor and ignore a blank keyword")
+    void testFindHistoriquePage() {
+        HistoriqueActionServiceImpl historiqueActionService = new HistoriqueActionServiceImpl(
+                historiqueActionRepository, historiqueActionRechercheRepository, utilisateurRepository, eventPublisher, "async");
+        LocalDateTime t = LocalDateTime.of(2025, 7, 19, 10, 0);
+        List<HistoriqueActionLigne> lignes = List.of(
+                new HistoriqueActionLigne(3L, t, t, t.toLocalDate(), "C", 1L, "Doe", "John", "j@d.fr"),
+                new HistoriqueActionLigne(2L, t, t, t.toLocalDate(), "B", 1L, "Doe", "John", "j@d.fr"),
+                new HistoriqueActionLigne(1L, t, t, t.toLocalDate(), "A", 1L, "Doe", "John", "j@d.fr"));
+        when(historiqueActionRechercheRepository.findLignesPage(eq(LocalDateTime.of(2025, 7, 1, 0, 0)),
+                eq(LocalDateTime.of(2025, 8, 1, 0, 0)), eq(1L), isNull(), isNull(), isNull(), eq(3))).thenReturn(lignes);
+
+        PageCurseur<HistoriqueActionLigne> page = historiqueActionService.findHistoriquePage(
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31), 1L, "  ", new DemandePage(null, 2, false));
+
+        assertThat(page.contenu()).extracting(HistoriqueActionLigne::id).containsExactly(3L, 2L);
+        assertThat(Curseur.decoder(page.curseurSuivant())).isEqualTo(new Curseur(t, 2L));
+        assertThat(page.total()).isNull();
+        verify(historiqueActionRechercheRepository, never()).countPage(any(), any(), any(), any());
     }
 }
@@ -0,0 +1,166 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.repository.HistoriqueActionBatchRepository;
+import com.example.GestionClinique.service.historiqueService.ActionAudit;
+import com.example.GestionClinique.service.historiqueService.HistoriqueActionWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HistoriqueAction Writer Unit Tests")
+class HistoriqueActionWriterTest {
+
+    @Mock
+    private HistoriqueActionBatchRepository batchRepository;
+
+    @TempDir
+    Path journal;
+
+    private HistoriqueActionWriter writer(int capacite) {
+        return writer(capacite, 500);
+    }
+
+    private HistoriqueActionWriter writer(int capacite, int tailleLot) {
+        HistoriqueActionWriter writer = new HistoriqueActionWriter(
+                batchRepository, new SimpleMeterRegistry(), capacite, tailleLot, journal.toString());
+        writer.demarrer();
+        return writer;
+    }
+
+    private static ActionAudit action(String description) {
+        return new ActionAudit(LocalDate.now(), description, 1L, LocalDateTime.now());
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> fichiers = Files.list(journal)) {
+            return fichiers.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should insert queued actions in one batch and drop the journal segment")
+    @SuppressWarnings("unchecked")
+    void testVider_OneBatch() throws IOException {
+        HistoriqueActionWriter writer = writer(100);
+
+        writer.onAction(action("Création du patient 1"));
+        writer.onAction(action("Création du patient 2 |\nmultiligne"));
+        verifyNoInteractions(batchRepository);
+        assertThat(segments()).isEqualTo(1);
+
+        writer.vider();
+
+        ArgumentCaptor<List<ActionAudit>> lot = ArgumentCaptor.forClass(List.class);
+        verify(batchRepository, times(1)).insertActions(lot.capture());
+        assertThat(lot.getValue()).extracting(ActionAudit::description)
+                .containsExactly("Création du patient 1", "Création du patient 2 |\nmultiligne");
+        assertThat(writer.getBacklog()).isZero();
+        assertThat(segments()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the journal when the database is down and replay it after a restart")
+    void testVider_FailureThenReplay() throws IOException {
+        HistoriqueActionWriter writer = writer(100);
+        doThrow(new RuntimeException("db down")).when(batchRepository).insertActions(any());
+
+        writer.onAction(action("Suppression de la facture 7"));
+        writer.vider();
+
+        assertThat(writer.getBacklog()).isEqualTo(1);
+        assertThat(segments()).isEqualTo(1);
+
+        // Redémarrage : un nouvel écrivain relit le segment laissé sur disque.
+        reset(batchRepository);
+        HistoriqueActionWriter apresRedemarrage = writer(100);
+        assertThat(apresRedemarrage.getBacklog()).isEqualTo(1);
+
+        apresRedemarrage.vider();
+
+        verify(batchRepository).insertActions(argThat(lot -> lot.size() == 1
+                && lot.get(0).description().equals("Suppression de la facture 7")));
+        assertThat(segments()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not reinsert actions already written when the journal is replayed after an overflow")
+    void testVider_OverflowReplaysOnlyPendingActions() throws IOException {
+        List<String> inserees = new ArrayList<>();
+        AtomicInteger lotsAvantPanne = new AtomicInteger(1);
+        doAnswer(invocation -> {
+            if (lotsAvantPanne.getAndDecrement() <= 0) {
+                throw new RuntimeException("db down");
+            }
+            List<ActionAudit> lot = invocation.getArgument(0);
+            lot.forEach(action -> inserees.add(action.description()));
+            return null;
+        }).when(batchRepository).insertActions(any());
+        HistoriqueActionWriter writer = writer(2, 1);
+
+        // "a" est inséré puis la base tombe ; le débordement suivant lâche la mémoire pour le journal.
+        for (String description : List.of("a", "b", "c", "d", "e")) {
+            writer.onAction(action(description));
+        }
+        assertThat(inserees).containsExactly("a");
+
+        lotsAvantPanne.set(Integer.MAX_VALUE);
+        writer.vider();
+
+        assertThat(inserees).containsExactly("a", "b", "c", "d", "e");
+        assertThat(writer.getBacklog()).isZero();
+        assertThat(writer.getSegmentsEnAttente()).isZero();
+        assertThat(segments()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should flush on the caller thread when the buffer is full")
+    void testSoumettre_FullBufferFlushesInline() {
+        HistoriqueActionWriter writer = writer(2);
+
+        writer.onAction(action("a"));
+        writer.onAction(action("b"));
+        writer.onAction(action("c"));
+
+        verify(batchRepository, times(1)).insertActions(argThat(lot -> lot.size() == 2));
+        assertThat(writer.getBacklog()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should isolate a rejected row instead of blocking the whole batch")
+    void testVider_RejectedRowIsolated() {
+        HistoriqueActionWriter writer = writer(100);
+        doThrow(new DataIntegrityViolationException("fk"))
+                .when(batchRepository).insertActions(argThat(lot -> lot.size() > 1
+                        || lot.get(0).description().equals("invalide")));
+
+        writer.onAction(action("valide"));
+        writer.onAction(action("invalide"));
+        writer.vider();
+
+        verify(batchRepository).insertActions(argThat(lot -> lot.size() == 1
+                && lot.get(0).description().equals("valide")));
+        assertThat(writer.getBacklog()).isZero();
+    }
+}
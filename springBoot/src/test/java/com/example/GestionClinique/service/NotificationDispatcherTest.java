@@ -0,0 +1,125 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.dto.ResponseDto.NotificationResponseDto;
+import com.example.GestionClinique.service.notificationService.NotificationDispatcher;
+import com.example.GestionClinique.service.notificationService.NotificationPush;
+import com.example.GestionClinique.service.notificationService.NotificationsCreeesEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Notification Dispatcher Unit Tests")
+class NotificationDispatcherTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.arreter();
+    }
+
+    private static NotificationPush push(String username, long id) {
+        NotificationResponseDto dto = new NotificationResponseDto();
+        dto.setId(id);
+        return new NotificationPush(username, dto);
+    }
+
+    /** Bloque le premier envoi jusqu'à {@code liberer}. */
+    private CountDownLatch bloquerPremierEnvoi(CountDownLatch enCours) {
+        CountDownLatch liberer = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            enCours.countDown();
+            liberer.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(messagingTemplate).convertAndSendToUser(any(), any(), any());
+        return liberer;
+    }
+
+    @Test
+    @DisplayName("Should deliver a user's pushes in order while a slow send is in progress")
+    void testOnNotificationsCreees_OrdreParUtilisateur() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(messagingTemplate, meterRegistry, 100, 4);
+        CountDownLatch enCours = new CountDownLatch(1);
+        CountDownLatch liberer = bloquerPremierEnvoi(enCours);
+        NotificationPush premier = push("alice", 1L);
+        NotificationPush second = push("alice", 2L);
+        NotificationPush troisieme = push("alice", 3L);
+
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(List.of(premier)));
+        assertThat(enCours.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(List.of(second, troisieme)));
+        assertThat(dispatcher.getEnFile()).isEqualTo(3);
+        assertThat(meterRegistry.get("notification.push.file").gauge().value()).isEqualTo(3.0);
+        liberer.countDown();
+
+        InOrder ordre = inOrder(messagingTemplate);
+        ordre.verify(messagingTemplate, timeout(5000)).convertAndSendToUser("alice", NotificationDispatcher.QUEUE, premier.notification());
+        ordre.verify(messagingTemplate, timeout(5000)).convertAndSendToUser("alice", NotificationDispatcher.QUEUE, second.notification());
+        ordre.verify(messagingTemplate, timeout(5000)).convertAndSendToUser("alice", NotificationDispatcher.QUEUE, troisieme.notification());
+        verify(messagingTemplate, timeout(5000).times(3)).convertAndSendToUser(any(), any(), any());
+        dispatcher.arreter();
+        assertThat(dispatcher.getEnFile()).isZero();
+        assertThat(meterRegistry.get("notification.push.latence").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should not hold other users behind a slow client")
+    void testOnNotificationsCreees_ClientLentIsole() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(messagingTemplate, meterRegistry, 100, 4);
+        CountDownLatch enCours = new CountDownLatch(1);
+        CountDownLatch liberer = bloquerPremierEnvoi(enCours);
+
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(List.of(push("lent", 1L))));
+        assertThat(enCours.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(List.of(push("bob", 2L))));
+
+        verify(messagingTemplate, timeout(5000)).convertAndSendToUser(eq("bob"), any(), any());
+        liberer.countDown();
+    }
+
+    @Test
+    @DisplayName("Should drop pushes beyond the queue capacity and after a broker failure")
+    void testOnNotificationsCreees_Perdues() throws InterruptedException {
+        dispatcher = new NotificationDispatcher(messagingTemplate, meterRegistry, 2, 4);
+        CountDownLatch enCours = new CountDownLatch(1);
+        CountDownLatch liberer = bloquerPremierEnvoi(enCours);
+
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(List.of(push("alice", 1L))));
+        assertThat(enCours.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(
+                List.of(push("alice", 2L), push("alice", 3L), push("bob", 4L))));
+
+        assertThat(meterRegistry.get("notification.push.perdues").counter().count()).isEqualTo(2.0);
+        liberer.countDown();
+        verify(messagingTemplate, timeout(5000).times(2)).convertAndSendToUser(eq("alice"), any(), any());
+
+        doThrow(new IllegalStateException("broker indisponible"))
+                .when(messagingTemplate).convertAndSendToUser(eq("carol"), any(), any());
+        dispatcher.onNotificationsCreees(new NotificationsCreeesEvent(List.of(push("carol", 5L))));
+        dispatcher.arreter();
+
+        assertThat(meterRegistry.get("notification.push.perdues").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("notification.push.envoyees").counter().count()).isEqualTo(2.0);
+        assertThat(dispatcher.getEnFile()).isZero();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.GestionClinique.service;
 
 import com.example.GestionClinique.model.entity.*;
 import com.example.GestionClinique.model.entity.enumElem.NotificationType;
+import com.example.GestionClinique.mapper.NotificationMapper;
 import com.example.GestionClinique.repository.NotificationRepository;
 import com.example.GestionClinique.service.serviceImpl.NotificationServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -26,6 +28,12 @@ class NotificationServiceTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private NotificationMapper notificationMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private NotificationServiceImpl notificationService;
 
@@ -61,6 +69,19 @@ class NotificationServiceTest {
         verify(notificationRepository).save(any(Notification.class));
     }
 
+    @Test
+    @DisplayName("A failing push should not fail the notification creation")
+    void testCreerNotification_PushEnEchec() {
+        RendezVous rdv = createMockRendezVous();
+        when(notificationRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+        when(notificationMapper.toDto(any())).thenThrow(new IllegalStateException("mapping"));
+
+        Notification result = notificationService.creerNotificationPourRendezVous(rdv, testUser);
+
+        assertThat(result.getType()).isEqualTo(NotificationType.RENDEZVOUS);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     @DisplayName("Should mark as read")
     void testMarkAsRead() {
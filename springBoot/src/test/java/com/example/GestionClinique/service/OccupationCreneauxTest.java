@@ -0,0 +1,147 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.service.planningService.Creneau;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.planningService.OccupationCreneaux;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Occupation Creneaux Unit Tests")
+class OccupationCreneauxTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2025, 7, 21);
+    private static final LocalTime DIX_HEURES = LocalTime.of(10, 0);
+
+    @Mock
+    private RendezVousRepository rendezVousRepository;
+
+    private OccupationCreneaux occupation;
+
+    @BeforeEach
+    void setUp() {
+        occupation = new OccupationCreneaux(rendezVousRepository, new SimpleMeterRegistry(), 400, 21_600_000);
+    }
+
+    @Test
+    @DisplayName("Should load a day once and answer later checks from memory")
+    void testEstLibre_LoadsDayOnce() {
+        when(rendezVousRepository.findCreneauxByJour(JOUR))
+                .thenReturn(List.<Object[]>of(new Object[]{DIX_HEURES, 1L, 5L, StatutRDV.EN_ATTENTE}));
+
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 6L)).isFalse();
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 2L, 5L)).isFalse();
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 2L, 6L)).isTrue();
+        assertThat(occupation.estLibre(JOUR, LocalTime.of(10, 30), 1L, 5L)).isTrue();
+
+        verify(rendezVousRepository, times(1)).findCreneauxByJour(JOUR);
+    }
+
+    @Test
+    @DisplayName("Should apply create, move and delete events to a loaded day")
+    void testOnCreneau_UpdatesLoadedDay() {
+        when(rendezVousRepository.findCreneauxByJour(JOUR)).thenReturn(List.of());
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L)).isTrue();
+
+        Creneau creneau = new Creneau(JOUR, DIX_HEURES, 1L, 5L, StatutRDV.EN_ATTENTE);
+        occupation.onCreneau(CreneauEvent.creation(creneau));
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L)).isFalse();
+
+        Creneau deplace = new Creneau(JOUR, LocalTime.of(11, 0), 1L, 5L, StatutRDV.EN_ATTENTE);
+        occupation.onCreneau(new CreneauEvent(creneau, deplace));
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L)).isTrue();
+        assertThat(occupation.estLibre(JOUR, LocalTime.of(11, 0), 1L, 5L)).isFalse();
+
+        occupation.onCreneau(CreneauEvent.suppression(deplace));
+        assertThat(occupation.estLibre(JOUR, LocalTime.of(11, 0), 1L, 5L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should track confirmed appointments separately and release them on cancel")
+    void testARendezVousConfirme_FollowsStatus() {
+        when(rendezVousRepository.findCreneauxByJour(JOUR))
+                .thenReturn(List.<Object[]>of(new Object[]{DIX_HEURES, 1L, 5L, StatutRDV.CONFIRME}));
+        assertThat(occupation.aRendezVousConfirme(JOUR, DIX_HEURES, 1L)).isTrue();
+
+        occupation.onCreneau(new CreneauEvent(
+                new Creneau(JOUR, DIX_HEURES, 1L, 5L, StatutRDV.CONFIRME),
+                new Creneau(JOUR, DIX_HEURES, 1L, 5L, StatutRDV.ANNULE)));
+
+        assertThat(occupation.aRendezVousConfirme(JOUR, DIX_HEURES, 1L)).isFalse();
+        // La ligne annulée garde le créneau au regard des contraintes d'unicité.
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 6L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should ignore events for days that are not loaded")
+    void testOnCreneau_IgnoresUnloadedDay() {
+        occupation.onCreneau(CreneauEvent.creation(new Creneau(JOUR, DIX_HEURES, 1L, 5L, StatutRDV.EN_ATTENTE)));
+
+        verifyNoInteractions(rendezVousRepository);
+    }
+
+    @Test
+    @DisplayName("Should not keep a day loaded while an event for it was being published")
+    void testEstLibre_EventDuringLoadIsNotLost() {
+        Creneau creneau = new Creneau(JOUR, DIX_HEURES, 1L, 5L, StatutRDV.EN_ATTENTE);
+        // Le rendez-vous est validé pendant la lecture : la copie chargée ne le contient pas.
+        when(rendezVousRepository.findCreneauxByJour(JOUR))
+                .thenAnswer(invocation -> {
+                    occupation.onCreneau(CreneauEvent.creation(creneau));
+                    return List.of();
+                })
+                .thenReturn(List.<Object[]>of(new Object[]{DIX_HEURES, 1L, 5L, StatutRDV.EN_ATTENTE}));
+
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L)).isTrue();
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L)).isFalse();
+        assertThat(occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L)).isFalse();
+
+        verify(rendezVousRepository, times(2)).findCreneauxByJour(JOUR);
+    }
+
+    @Test
+    @DisplayName("Should drop the least recently read day beyond the configured number of days")
+    void testEstLibre_BoundedToMaxDays() {
+        occupation = new OccupationCreneaux(rendezVousRepository, new SimpleMeterRegistry(), 2, 21_600_000);
+        when(rendezVousRepository.findCreneauxByJour(any())).thenReturn(List.of());
+
+        occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L);
+        occupation.estLibre(JOUR.plusDays(1), DIX_HEURES, 1L, 5L);
+        occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L);
+        occupation.estLibre(JOUR.plusDays(2), DIX_HEURES, 1L, 5L);
+        occupation.estLibre(JOUR, DIX_HEURES, 1L, 5L);
+        occupation.estLibre(JOUR.plusDays(1), DIX_HEURES, 1L, 5L);
+
+        verify(rendezVousRepository, times(1)).findCreneauxByJour(JOUR);
+        verify(rendezVousRepository, times(2)).findCreneauxByJour(JOUR.plusDays(1));
+        verify(rendezVousRepository, times(1)).findCreneauxByJour(JOUR.plusDays(2));
+    }
+
+    @Test
+    @DisplayName("Should evict past days and days not read for a while")
+    void testEvincerJours_PastAndIdleDays() {
+        occupation = new OccupationCreneaux(rendezVousRepository, new SimpleMeterRegistry(), 400, 0);
+        LocalDate demain = LocalDate.now().plusDays(1);
+        when(rendezVousRepository.findCreneauxByJour(any())).thenReturn(List.of());
+        occupation.estLibre(demain, DIX_HEURES, 1L, 5L);
+
+        occupation.evincerJours();
+        occupation.estLibre(demain, DIX_HEURES, 1L, 5L);
+
+        verify(rendezVousRepository, times(2)).findCreneauxByJour(demain);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.repository.PatientRepository;
+import com.example.GestionClinique.service.pagination.DemandePage;
+import com.example.GestionClinique.service.pagination.PageCurseur;
+import com.example.GestionClinique.service.serviceImpl.PatientServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Keyset Pagination Unit Tests")
+class PaginationCurseurTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @InjectMocks
+    private PatientServiceImpl patientService;
+
+    @Test
+    @DisplayName("Should return a next cursor when more rows exist and resume after it")
+    void testFindPatientsPage_KeysetCursor() {
+        Patient first = patient(1L, LocalDateTime.of(2025, 7, 19, 9, 0));
+        Patient second = patient(2L, LocalDateTime.of(2025, 7, 18, 9, 0));
+        Patient third = patient(3L, LocalDateTime.of(2025, 7, 17, 9, 0));
+        when(patientRepository.findPage(isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(first, second, third));
+
+        PageCurseur<Patient> page = patientService.findPatientsPage(null, null, new DemandePage(null, 2, false));
+
+        assertThat(page.contenu()).containsExactly(first, second);
+        assertThat(page.curseurSuivant()).isNotNull();
+        assertThat(page.total()).isNull();
+        verify(patientRepository, never()).countPage(any(), any());
+
+        when(patientRepository.findPage(notNull(), notNull(), notNull(), notNull(), any())).thenReturn(List.of(third));
+        when(patientRepository.countPage(any(), any())).thenReturn(3L);
+
+        PageCurseur<Patient> suite = patientService.findPatientsPage(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31),
+                new DemandePage(page.curseurSuivant(), 2, true));
+
+        assertThat(suite.contenu()).containsExactly(third);
+        assertThat(suite.curseurSuivant()).isNull();
+        assertThat(suite.total()).isEqualTo(3L);
+        verify(patientRepository).findPage(eq(LocalDateTime.of(2025, 7, 1, 0, 0)), eq(LocalDateTime.of(2025, 8, 1, 0, 0)),
+                eq(second.getCreationDate()), eq(2L), argThat(p -> p.getPageSize() == 3));
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered cursor and an out-of-range page size")
+    void testFindPatientsPage_InvalidRequest() {
+        assertThatThrownBy(() -> patientService.findPatientsPage(null, null, new DemandePage("pas-un-curseur", 20, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DemandePage(null, DemandePage.TAILLE_MAX + 1, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(patientRepository);
+    }
+
+    private Patient patient(Long id, LocalDateTime creationDate) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setCreationDate(creationDate);
+        return patient;
+    }
+}
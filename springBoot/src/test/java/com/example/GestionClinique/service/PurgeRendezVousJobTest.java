@@ -0,0 +1,88 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
+import com.example.GestionClinique.repository.FactureRepository;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.service.planningService.PurgeRendezVousJob;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Purge RendezVous Job Unit Tests")
+class PurgeRendezVousJobTest {
+
+    @Mock
+    private RendezVousRepository rendezVousRepository;
+    @Mock
+    private FactureRepository factureRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PurgeRendezVousJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new PurgeRendezVousJob(rendezVousRepository, factureRepository, transactionManager,
+                eventPublisher, meterRegistry, 31, 2);
+    }
+
+    @Test
+    @DisplayName("Should walk the window in keyset chunks with set-based statements")
+    void testPurger_KeysetChunks() {
+        LocalDate hier = LocalDate.now().minusDays(1);
+        LocalDate avantHier = LocalDate.now().minusDays(2);
+        when(rendezVousRepository.findIdAndJourByStatutAndJourRangeAfterId(eq(StatutRDV.EN_ATTENTE), any(), any(), eq(0L), any()))
+                .thenReturn(List.of(new Object[]{4L, avantHier}, new Object[]{7L, hier}));
+        when(rendezVousRepository.findIdAndJourByStatutAndJourRangeAfterId(eq(StatutRDV.EN_ATTENTE), any(), any(), eq(7L), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{9L, hier}));
+        when(rendezVousRepository.updateStatutByIds(any(), eq(StatutRDV.EN_ATTENTE), eq(StatutRDV.ANNULE), any())).thenReturn(1);
+        when(factureRepository.deleteImpayeesByRendezVousAnnules(any())).thenReturn(2, 1);
+
+        job.purger();
+
+        verify(rendezVousRepository, times(2)).findIdAndJourByStatutAndJourRangeAfterId(any(), any(), any(), anyLong(), any());
+        verify(rendezVousRepository).updateStatutByIds(eq(List.of(4L)), any(), any(), any());
+        verify(rendezVousRepository).updateStatutByIds(eq(List.of(7L)), any(), any(), any());
+        verify(rendezVousRepository).updateStatutByIds(eq(List.of(9L)), any(), any(), any());
+        verify(factureRepository).deleteImpayeesByRendezVousAnnules(List.of(4L, 7L));
+        verify(factureRepository).deleteImpayeesByRendezVousAnnules(List.of(9L));
+        verify(eventPublisher).publishEvent(new StatDeltaEvent(avantHier, 0, 1, 0, 0, 0.0));
+        verify(eventPublisher, times(2)).publishEvent(new StatDeltaEvent(hier, 0, 1, 0, 0, 0.0));
+        verify(rendezVousRepository, never()).save(any());
+        assertThat(meterRegistry.get("rendezvous.purge.annules").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("rendezvous.purge.factures.supprimees").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("rendezvous.purge.lots").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should skip the stats delta when a row changed status in the meantime")
+    void testPurger_NoDeltaWhenNothingUpdated() {
+        when(rendezVousRepository.findIdAndJourByStatutAndJourRangeAfterId(any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{4L, LocalDate.now().minusDays(3)}));
+        when(rendezVousRepository.updateStatutByIds(any(), any(), any(), any())).thenReturn(0);
+
+        job.purger();
+
+        verifyNoInteractions(eventPublisher);
+    }
+}
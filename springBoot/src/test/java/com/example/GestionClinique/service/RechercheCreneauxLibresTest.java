@@ -0,0 +1,105 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.model.entity.Salle;
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.RoleType;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.repository.RendezVousRepository;
+import com.example.GestionClinique.repository.SalleRepository;
+import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.service.planningService.CreneauLibre;
+import com.example.GestionClinique.service.planningService.RechercheCreneauxLibres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Recherche Creneaux Libres Unit Tests")
+class RechercheCreneauxLibresTest {
+
+    @Mock
+    private RendezVousRepository rendezVousRepository;
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+    @Mock
+    private SalleRepository salleRepository;
+
+    private RechercheCreneauxLibres recherche;
+
+    @BeforeEach
+    void setUp() {
+        recherche = new RechercheCreneauxLibres(rendezVousRepository, utilisateurRepository, salleRepository,
+                "08:00", "10:00", 366);
+    }
+
+    @Test
+    @DisplayName("Should sweep doctor and room calendars with one query per batch of days")
+    void testParcourir_SkipsOccupiedSlots() {
+        LocalDate jour = LocalDate.now().plusDays(1);
+        Salle salle = new Salle();
+        salle.setId(9L);
+        Utilisateur medecin1 = new Utilisateur();
+        medecin1.setId(1L);
+        Utilisateur medecin2 = new Utilisateur();
+        medecin2.setId(2L);
+        when(salleRepository.findByServiceMedical(ServiceMedical.CARDIOLOGIE)).thenReturn(salle);
+        when(utilisateurRepository.findIdsByServiceMedicalAndRoleType(ServiceMedical.CARDIOLOGIE, RoleType.MEDECIN))
+                .thenReturn(List.of(medecin1.getId(), medecin2.getId()));
+        when(rendezVousRepository.findCreneauxByJourRange(jour, jour.plusDays(1), List.of(1L, 2L), List.of(9L)))
+                .thenReturn(List.of(
+                        // Médecin 1 pris à 08:15 : le créneau 08:00-09:00 lui est fermé.
+                        new Object[]{jour, LocalTime.of(8, 15), 1L, 7L},
+                        // Salle prise à 09:00 : personne ne peut y consulter.
+                        new Object[]{jour, LocalTime.of(9, 0), 3L, 9L}));
+
+        List<CreneauLibre> libres = new ArrayList<>();
+        recherche.parcourir(ServiceMedical.CARDIOLOGIE, jour, jour, 60, libres::add);
+
+        assertThat(libres).containsExactly(new CreneauLibre(2L, 9L, jour, LocalTime.of(8, 0)));
+        verify(rendezVousRepository, times(1)).findCreneauxByJourRange(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should query each batch of days only once over a long range")
+    void testParcourir_BatchesLongRanges() {
+        LocalDate debut = LocalDate.now().plusDays(1);
+        Salle salle = new Salle();
+        salle.setId(9L);
+        Utilisateur medecin = new Utilisateur();
+        medecin.setId(1L);
+        when(salleRepository.findByServiceMedical(any())).thenReturn(salle);
+        when(utilisateurRepository.findIdsByServiceMedicalAndRoleType(any(), any())).thenReturn(List.of(medecin.getId()));
+        when(rendezVousRepository.findCreneauxByJourRange(any(), any(), any(), any())).thenReturn(List.of());
+
+        List<CreneauLibre> libres = new ArrayList<>();
+        recherche.parcourir(ServiceMedical.CARDIOLOGIE, debut, debut.plusDays(19), 30, libres::add);
+
+        assertThat(libres).hasSize(20 * 4);
+        verify(rendezVousRepository, times(3)).findCreneauxByJourRange(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject inverted ranges and invalid slot lengths")
+    void testVerifierParametres() {
+        LocalDate jour = LocalDate.now();
+        assertThatThrownBy(() -> recherche.verifierParametres(jour, jour.minusDays(1), 30))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> recherche.verifierParametres(jour, jour, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> recherche.verifierParametres(jour, jour.plusDays(400), 30))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
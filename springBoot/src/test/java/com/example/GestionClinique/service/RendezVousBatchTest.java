@@ -0,0 +1,180 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.model.entity.Patient;
+import com.example.GestionClinique.model.entity.RendezVous;
+import com.example.GestionClinique.model.entity.Salle;
+import com.example.GestionClinique.model.entity.Utilisateur;
+import com.example.GestionClinique.model.entity.enumElem.ServiceMedical;
+import com.example.GestionClinique.repository.*;
+import com.example.GestionClinique.service.planningService.CreneauEvent;
+import com.example.GestionClinique.service.planningService.OccupationCreneaux;
+import com.example.GestionClinique.service.planningService.ResultatReservation;
+import com.example.GestionClinique.service.serviceImpl.LoggingAspect;
+import com.example.GestionClinique.service.serviceImpl.RendezVousServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RendezVous Batch Creation Tests")
+class RendezVousBatchTest {
+
+    @Mock
+    private RendezVousRepository rendezVousRepository;
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+    @Mock
+    private SalleRepository salleRepository;
+    @Mock
+    private FactureService factureService;
+    @Mock
+    private HistoriqueActionService historiqueActionService;
+    @Mock
+    private LoggingAspect loggingAspect;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OccupationCreneaux occupationCreneaux;
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private RendezVousBatchRepository rendezVousBatchRepository;
+
+    @InjectMocks
+    private RendezVousServiceImpl rendezVousService;
+
+    @Test
+    @DisplayName("Should report conflicts per item and insert the rest in one batch")
+    void testCreateRendezVousBatch_PerItemResults() {
+        LocalDate jour = LocalDate.now().plusDays(7);
+        Patient patient = new Patient();
+        patient.setId(1L);
+        Utilisateur medecin = new Utilisateur();
+        medecin.setId(2L);
+        medecin.setServiceMedical(ServiceMedical.KINESITHERAPIE);
+        Salle salle = new Salle();
+        salle.setId(3L);
+        when(patientRepository.findAllById(any())).thenReturn(List.of(patient));
+        when(utilisateurRepository.findAllById(any())).thenReturn(List.of(medecin));
+        when(salleRepository.findByServiceMedical(ServiceMedical.KINESITHERAPIE)).thenReturn(salle);
+        // Le médecin a déjà un rendez-vous à 09:00 la première semaine.
+        when(rendezVousRepository.findCreneauxByJourRange(any(), any(), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{jour, LocalTime.of(9, 0), 2L, 3L}));
+        doAnswer(invocation -> {
+            List<RendezVous> inseres = invocation.getArgument(0);
+            for (int i = 0; i < inseres.size(); i++) {
+                inseres.get(i).setId(100L + i);
+            }
+            return List.of();
+        }).when(rendezVousBatchRepository).insertRendezVous(anyList());
+
+        List<ResultatReservation> resultats = rendezVousService.createRendezVousBatch(List.of(
+                demande(1L, 2L, jour, LocalTime.of(9, 0)),
+                demande(1L, 2L, jour.plusWeeks(1), LocalTime.of(9, 0)),
+                demande(1L, 2L, jour.plusWeeks(1), LocalTime.of(9, 0)),
+                demande(99L, 2L, jour.plusWeeks(2), LocalTime.of(9, 0)),
+                demande(1L, 2L, jour.plusWeeks(3), LocalTime.of(9, 0))));
+
+        assertThat(resultats).extracting(ResultatReservation::statut).containsExactly(
+                ResultatReservation.Statut.CONFLIT,
+                ResultatReservation.Statut.CREE,
+                ResultatReservation.Statut.CONFLIT,
+                ResultatReservation.Statut.REJETE,
+                ResultatReservation.Statut.CREE);
+        verify(rendezVousRepository, times(1)).findCreneauxByJourRange(any(), any(), any(), any());
+        verify(rendezVousBatchRepository, times(1)).insertRendezVous(argThat(list -> list.size() == 2));
+        verify(rendezVousBatchRepository, times(1)).insertFactures(argThat(list -> list.size() == 2));
+        verify(notificationService, times(1)).creerNotificationPourRendezVous(argThat((List<RendezVous> list) -> list.size() == 2), eq(medecin));
+        verify(historiqueActionService, times(1)).enregistrerAction(any(), any());
+        verify(eventPublisher, times(2)).publishEvent(any(CreneauEvent.class));
+        verify(rendezVousRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should report a slot taken after the check as a conflict and create the others")
+    void testCreateRendezVousBatch_ConflitConcurrent() {
+        LocalDate jour = LocalDate.now().plusDays(7);
+        Patient patient = new Patient();
+        patient.setId(1L);
+        Utilisateur medecin = new Utilisateur();
+        medecin.setId(2L);
+        medecin.setServiceMedical(ServiceMedical.KINESITHERAPIE);
+        Salle salle = new Salle();
+        salle.setId(3L);
+        when(patientRepository.findAllById(any())).thenReturn(List.of(patient));
+        when(utilisateurRepository.findAllById(any())).thenReturn(List.of(medecin));
+        when(salleRepository.findByServiceMedical(ServiceMedical.KINESITHERAPIE)).thenReturn(salle);
+        when(rendezVousRepository.findCreneauxByJourRange(any(), any(), any(), any())).thenReturn(List.of());
+        // Le deuxième créneau est pris par une autre réservation entre la vérification et l'insertion.
+        doAnswer(invocation -> {
+            List<RendezVous> inseres = invocation.getArgument(0);
+            inseres.get(0).setId(100L);
+            inseres.get(2).setId(102L);
+            return List.of(inseres.get(1));
+        }).when(rendezVousBatchRepository).insertRendezVous(anyList());
+
+        List<ResultatReservation> resultats = rendezVousService.createRendezVousBatch(List.of(
+                demande(1L, 2L, jour, LocalTime.of(9, 0)),
+                demande(1L, 2L, jour, LocalTime.of(10, 0)),
+                demande(1L, 2L, jour, LocalTime.of(11, 0))));
+
+        assertThat(resultats).extracting(ResultatReservation::statut).containsExactly(
+                ResultatReservation.Statut.CREE,
+                ResultatReservation.Statut.CONFLIT,
+                ResultatReservation.Statut.CREE);
+        assertThat(resultats.get(1).rendezVous()).isNull();
+        verify(rendezVousBatchRepository, times(1)).insertFactures(argThat(list -> list.size() == 2
+                && list.stream().allMatch(facture -> facture.getRendezVous().getId() != null)));
+        verify(eventPublisher, times(2)).publishEvent(any(CreneauEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should not touch the database when every item is rejected")
+    void testCreateRendezVousBatch_AllRejected() {
+        List<ResultatReservation> resultats = rendezVousService.createRendezVousBatch(List.of(
+                demande(1L, 2L, LocalDate.now().minusDays(1), LocalTime.of(9, 0))));
+
+        assertThat(resultats).extracting(ResultatReservation::statut).containsExactly(ResultatReservation.Statut.REJETE);
+        verifyNoInteractions(rendezVousBatchRepository, notificationService, historiqueActionService);
+    }
+
+    @Test
+    @DisplayName("Should refuse oversized batches")
+    void testCreateRendezVousBatch_TooLarge() {
+        List<RendezVous> demandes = Collections.nCopies(201, new RendezVous());
+
+        assertThatThrownBy(() -> rendezVousService.createRendezVousBatch(demandes))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RendezVous demande(Long patientId, Long medecinId, LocalDate jour, LocalTime heure) {
+        RendezVous rendezVous = new RendezVous();
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        Utilisateur medecin = new Utilisateur();
+        medecin.setId(medecinId);
+        rendezVous.setPatient(patient);
+        rendezVous.setMedecin(medecin);
+        rendezVous.setJour(jour);
+        rendezVous.setHeure(heure);
+        rendezVous.setServiceMedical(ServiceMedical.KINESITHERAPIE);
+        return rendezVous;
+    }
+}
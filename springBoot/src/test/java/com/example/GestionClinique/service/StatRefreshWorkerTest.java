@@ -0,0 +1,80 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import com.example.GestionClinique.service.statService.StatRefreshWorker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Stat Refresh Worker Unit Tests")
+class StatRefreshWorkerTest {
+
+    @Mock
+    private StatService statService;
+
+    @Test
+    @DisplayName("Should coalesce a burst of events into one refresh per period")
+    void testDrain_CoalescesBurst() {
+        StatRefreshWorker worker = new StatRefreshWorker(statService, new SimpleMeterRegistry(), 0, 60_000);
+        LocalDate today = LocalDate.of(2025, 7, 19);
+
+        worker.onStatDelta(StatDeltaEvent.patient(today, 1));
+        worker.onStatDelta(StatDeltaEvent.patient(today, 1));
+        worker.onStatDelta(StatDeltaEvent.patient(today, 1));
+        assertThat(worker.getQueueDepth()).isEqualTo(3);
+
+        worker.drain();
+
+        verify(statService, times(1)).refreshStatDuJour(today);
+        verify(statService, times(1)).refreshStatParMois(2025, 7);
+        verify(statService, times(1)).refreshStatsSurLannee(2025);
+        assertThat(worker.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should wait for the debounce window before refreshing")
+    void testDrain_WaitsForDebounce() {
+        StatRefreshWorker worker = new StatRefreshWorker(statService, new SimpleMeterRegistry(), 60_000, 120_000);
+
+        worker.onStatDelta(StatDeltaEvent.patient(LocalDate.now(), 1));
+        worker.drain();
+
+        verifyNoInteractions(statService);
+        assertThat(worker.getQueueDepth()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should refresh once max staleness is reached even if events keep arriving")
+    void testDrain_MaxStaleness() {
+        StatRefreshWorker worker = new StatRefreshWorker(statService, new SimpleMeterRegistry(), 60_000, 0);
+
+        worker.onStatDelta(StatDeltaEvent.patient(LocalDate.now(), 1));
+        worker.drain();
+
+        verify(statService).refreshStatDuJour(any());
+        verify(statService).refreshStatParMois(anyInt(), anyInt());
+        verify(statService).refreshStatsSurLannee(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should keep a period pending when its refresh fails")
+    void testDrain_FailureKeepsPeriodPending() {
+        StatRefreshWorker worker = new StatRefreshWorker(statService, new SimpleMeterRegistry(), 0, 60_000);
+        when(statService.refreshStatDuJour(any())).thenThrow(new RuntimeException("db down"));
+
+        worker.onStatDelta(StatDeltaEvent.patient(LocalDate.now(), 1));
+        worker.drain();
+
+        assertThat(worker.getQueueDepth()).isEqualTo(1);
+    }
+}
@@ -2,8 +2,12 @@ package com.example.GestionClinique.service;
 
 import com.example.GestionClinique.model.entity.enumElem.StatutRDV;
 import com.example.GestionClinique.model.entity.stats.StatDuJour;
+import com.example.GestionClinique.model.entity.stats.StatsMois;
 import com.example.GestionClinique.repository.*;
 import com.example.GestionClinique.service.serviceImpl.StatServiceImpl;
+import com.example.GestionClinique.service.statService.StatDeltaEvent;
+import com.example.GestionClinique.service.statService.StatPeriod;
+import com.example.GestionClinique.service.statService.StatSeries;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,10 +16,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -69,7 +77,7 @@ class StatServiceTest {
     @DisplayName("Should refresh stat du jour with correct counts")
     void testRefreshStatDuJour() {
         LocalDate now = LocalDate.now();
-        when(rendezVousRepository.countByJourAndStatut(now, StatutRDV.CONFIRME)).thenReturn(5L);
+        when(rendezVousRepository.countByStatutAndJourRange(StatutRDV.CONFIRME, now, now.plusDays(1))).thenReturn(5L);
         when(statDuJourRepository.findByJour(anyString())).thenReturn(Optional.empty());
         when(statDuJourRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
@@ -77,4 +85,113 @@ class StatServiceTest {
 
         assertThat(result.getNbrRendezVousCONFIRME()).isEqualTo(5L);
     }
+
+    @Test
+    @DisplayName("Should apply a delta to existing stat rows without recounting")
+    void testApplyDelta_ExistingRows() {
+        LocalDate date = LocalDate.of(2025, 7, 19);
+        when(statDuJourRepository.applyDelta("2025-07-19", 1L, 0L, 0L, 0L, 0.0)).thenReturn(1);
+        when(statsMoisRepository.applyDelta(2025, 7, 1L, 0L, 0L, 0L, 0.0)).thenReturn(1);
+        when(statsSurLanneeRepository.applyDelta("2025", 1L, 0L, 0L, 0L, 0.0)).thenReturn(1);
+
+        statService.applyDelta(StatDeltaEvent.rendezVous(date, StatutRDV.EN_ATTENTE, StatutRDV.CONFIRME));
+
+        verifyNoInteractions(rendezVousRepository, patientRepository, consultationRepository, factureRepository);
+    }
+
+    @Test
+    @DisplayName("Should leave a missing stat row to be computed from source data")
+    void testApplyDelta_MissingRow() {
+        LocalDate date = LocalDate.of(2023, 3, 10);
+        when(statDuJourRepository.applyDelta(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble())).thenReturn(0);
+        when(statsMoisRepository.applyDelta(anyInt(), anyInt(), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble())).thenReturn(0);
+        when(statsSurLanneeRepository.applyDelta(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble())).thenReturn(0);
+
+        statService.applyDelta(StatDeltaEvent.patient(date, -1));
+
+        verify(statDuJourRepository).applyDelta("2023-03-10", 0L, 0L, -1L, 0L, 0.0);
+        verify(statDuJourRepository, never()).save(any());
+        verify(statsMoisRepository, never()).save(any());
+        verify(statsSurLanneeRepository, never()).save(any());
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    @DisplayName("Should compute signed deltas for a rendez-vous status transition")
+    void testStatDeltaEvent_RendezVousTransition() {
+        StatDeltaEvent delta = StatDeltaEvent.rendezVous(LocalDate.now(), StatutRDV.CONFIRME, StatutRDV.ANNULE);
+
+        assertThat(delta.rendezVousConfirme()).isEqualTo(-1L);
+        assertThat(delta.rendezVousAnnule()).isEqualTo(1L);
+        assertThat(StatDeltaEvent.rendezVous(LocalDate.now(), null, StatutRDV.EN_ATTENTE).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should key monthly stats by year and month and count over a half-open range")
+    void testRefreshStatParMois_YearQualified() {
+        LocalDate debut = LocalDate.of(2024, 12, 1);
+        LocalDate fin = LocalDate.of(2025, 1, 1);
+        when(rendezVousRepository.countByStatutAndJourRange(StatutRDV.CONFIRME, debut, fin)).thenReturn(7L);
+        when(statsMoisRepository.findByAnneeAndNumeroMois(2024, 12)).thenReturn(Optional.empty());
+        when(statsMoisRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        StatsMois result = statService.refreshStatParMois(2024, 12);
+
+        assertThat(result.getAnnee()).isEqualTo(2024);
+        assertThat(result.getNumeroMois()).isEqualTo(12);
+        assertThat(result.getMois()).isEqualTo("DÉCEMBRE");
+        assertThat(result.getNbrRendezVousCONFIRME()).isEqualTo(7L);
+        verify(patientRepository).countByCreationDateRange(debut.atStartOfDay(), fin.atStartOfDay());
+    }
+
+    @Test
+    @DisplayName("Should build a daily series from persisted rows and grouped queries for the gaps")
+    void testGetSeries_FillsGapsWithGroupedQueries() {
+        LocalDate debut = LocalDate.of(2025, 7, 1);
+        LocalDate fin = LocalDate.of(2025, 7, 3);
+        StatDuJour persisted = new StatDuJour();
+        persisted.setJour("2025-07-01");
+        persisted.setNbrRendezVousCONFIRME(4L);
+        persisted.setNbrPatientEnrg(2L);
+        persisted.setRevenu(100.0);
+        when(statDuJourRepository.findByJourBetween("2025-07-01", "2025-07-03")).thenReturn(List.of(persisted));
+        when(rendezVousRepository.countByStatutGroupedByJour(any(), eq(LocalDate.of(2025, 7, 2)), eq(LocalDate.of(2025, 7, 4))))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{LocalDate.of(2025, 7, 3), StatutRDV.CONFIRME, 3L},
+                        new Object[]{LocalDate.of(2025, 7, 3), StatutRDV.ANNULE, 1L}));
+        when(patientRepository.countGroupedByJour(any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{LocalDate.of(2025, 7, 2).atStartOfDay(), 5L}));
+        when(consultationRepository.countGroupedByJour(any(), any())).thenReturn(List.of());
+        when(factureRepository.sumMontantPayeGroupedByJour(any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{LocalDate.of(2025, 7, 3).atStartOfDay(), 250.0}));
+
+        StatSeries series = statService.getSeries(StatPeriod.Granularite.JOUR, debut, fin);
+
+        assertThat(series.periodes()).containsExactly(debut, debut.plusDays(1), fin);
+        assertThat(series.nbrRendezVousCONFIRME()).containsExactly(4L, 0L, 3L);
+        assertThat(series.nbrRendezANNULE()).containsExactly(0L, 0L, 1L);
+        assertThat(series.nbrPatientEnrg()).containsExactly(2L, 5L, 0L);
+        assertThat(series.revenu()).containsExactly(100.0, 0.0, 250.0);
+        verify(rendezVousRepository, never()).countByStatutAndJourRange(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not run grouped queries when every month is already persisted")
+    void testGetSeries_MonthlyFromPersistedRows() {
+        StatsMois juin = new StatsMois();
+        juin.setAnnee(2025);
+        juin.setNumeroMois(6);
+        juin.setNbrConsultation(7L);
+        StatsMois juillet = new StatsMois();
+        juillet.setAnnee(2025);
+        juillet.setNumeroMois(7);
+        juillet.setNbrConsultation(9L);
+        when(statsMoisRepository.findByAnneeBetween(2025, 2025)).thenReturn(List.of(juin, juillet));
+
+        StatSeries series = statService.getSeries(StatPeriod.Granularite.MOIS, LocalDate.of(2025, 6, 15), LocalDate.of(2025, 7, 2));
+
+        assertThat(series.periodes()).containsExactly(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 7, 1));
+        assertThat(series.nbrConsultation()).containsExactly(7L, 9L);
+        verifyNoInteractions(rendezVousRepository, patientRepository, consultationRepository, factureRepository);
+    }
 }
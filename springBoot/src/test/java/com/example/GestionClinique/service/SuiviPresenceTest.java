@@ -0,0 +1,181 @@
+package com.example.GestionClinique.service;
+
+import com.example.GestionClinique.repository.UtilisateurPresenceRepository;
+import com.example.GestionClinique.repository.UtilisateurRepository;
+import com.example.GestionClinique.service.presenceService.PresenceDiff;
+import com.example.GestionClinique.service.presenceService.SuiviPresence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Presence Tracker Unit Tests")
+class SuiviPresenceTest {
+
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+
+    @Mock
+    private UtilisateurPresenceRepository presenceRepository;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private SuiviPresence suiviPresence;
+
+    @BeforeEach
+    void setUp() {
+        suiviPresence = new SuiviPresence(utilisateurRepository, presenceRepository, messagingTemplate,
+                new SimpleMeterRegistry(), 60_000);
+    }
+
+    @Test
+    @DisplayName("Should write a burst of activity in one batch per flush")
+    @SuppressWarnings("unchecked")
+    void testVider_OneBatchPerFlush() {
+        suiviPresence.activite(1L);
+        suiviPresence.activite(2L);
+        suiviPresence.activite(1L);
+        verifyNoInteractions(presenceRepository, utilisateurRepository);
+
+        suiviPresence.vider();
+
+        ArgumentCaptor<Map<Long, LocalDateTime>> lot = ArgumentCaptor.forClass(Map.class);
+        verify(presenceRepository, times(1)).updateActivites(lot.capture());
+        verify(presenceRepository, times(1)).updateDeconnexions(Map.of());
+        assertThat(lot.getValue()).containsOnlyKeys(1L, 2L);
+        assertThat(suiviPresence.getEnAttente()).isZero();
+
+        suiviPresence.vider();
+        verifyNoMoreInteractions(presenceRepository);
+    }
+
+    @Test
+    @DisplayName("Should drop pending activity of a user who logged out")
+    void testDeconnecte_DropsPendingActivity() {
+        suiviPresence.activite(1L);
+        suiviPresence.deconnecte(1L);
+
+        suiviPresence.vider();
+
+        verifyNoInteractions(presenceRepository);
+        assertThat(suiviPresence.connectes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep activity pending when the batch fails")
+    void testVider_FailureKeepsPending() {
+        doThrow(new RuntimeException("db down")).when(presenceRepository).updateActivites(any());
+        suiviPresence.activite(1L);
+
+        suiviPresence.vider();
+
+        assertThat(suiviPresence.getEnAttente()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should list connected users by most recent activity")
+    void testConnectes_OrderedByLastActivity() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        suiviPresence.connecte(1L, maintenant.minusMinutes(10));
+        suiviPresence.connecte(2L, maintenant.minusMinutes(5));
+        suiviPresence.activite(1L);
+
+        assertThat(suiviPresence.connectes())
+                .extracting(SuiviPresence.Presence::utilisateurId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should publish one coalesced diff per sweep")
+    void testBalayer_PublishesCoalescedDiff() {
+        suiviPresence.ouvertureSession("s1", 1L);
+        suiviPresence.activite(2L);
+        suiviPresence.activite(3L);
+        suiviPresence.deconnecte(3L);
+
+        suiviPresence.balayer();
+        suiviPresence.balayer();
+
+        verify(messagingTemplate, times(1))
+                .convertAndSend(SuiviPresence.TOPIC, new PresenceDiff(List.of(1L, 2L), List.of()));
+    }
+
+    @Test
+    @DisplayName("Should keep a user with an open session online and expire idle ones")
+    void testBalayer_ExpiresIdleUsersWithoutSession() {
+        suiviPresence = new SuiviPresence(utilisateurRepository, presenceRepository, messagingTemplate,
+                new SimpleMeterRegistry(), 0);
+        suiviPresence.ouvertureSession("s1", 1L);
+        suiviPresence.activite(2L);
+
+        suiviPresence.balayer();
+
+        assertThat(suiviPresence.estConnecte(1L)).isTrue();
+        assertThat(suiviPresence.estConnecte(2L)).isFalse();
+        assertThat(suiviPresence.derniereDeconnexion(2L)).isNotNull();
+        assertThat(suiviPresence.sortiesNonEcrites()).containsOnlyKeys(2L);
+
+        suiviPresence.heartbeat("s1");
+        suiviPresence.fermetureSession("s1");
+        suiviPresence.balayer();
+        assertThat(suiviPresence.estConnecte(1L)).isFalse();
+
+        suiviPresence.vider();
+        verify(presenceRepository).updateDeconnexions(argThat(lot -> lot.keySet().equals(Set.of(1L, 2L))));
+    }
+
+    @Test
+    @DisplayName("Should let users reported by another node expire silently, without writing or broadcasting")
+    void testPresentsAilleurs_ExpireSansDiffusion() {
+        suiviPresence = new SuiviPresence(utilisateurRepository, presenceRepository, messagingTemplate,
+                new SimpleMeterRegistry(), 0);
+        suiviPresence.activite(1L);
+        suiviPresence.presentsAilleurs(List.of(2L));
+
+        assertThat(suiviPresence.estConnecte(2L)).isTrue();
+        assertThat(suiviPresence.presentsIci()).containsExactly(1L);
+
+        suiviPresence.balayer();
+
+        assertThat(suiviPresence.estConnecte(2L)).isFalse();
+        assertThat(suiviPresence.sortiesNonEcrites()).containsOnlyKeys(1L);
+        // Arrivée et départ de 1 fondus dans le même balayage ; le départ de 2 est diffusé par l'autre nœud.
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    @DisplayName("Should keep a user active on another node online and leave the logout to that node")
+    void testPresentsAilleurs_GardeEnLigne() {
+        suiviPresence.ouvertureSession("s1", 1L);
+        suiviPresence.presentsAilleurs(List.of(1L, 2L));
+        suiviPresence.activite(2L);
+
+        assertThat(suiviPresence.presentsIci()).containsExactlyInAnyOrder(1L, 2L);
+
+        suiviPresence.deconnecteAilleurs(1L);
+        suiviPresence.balayer();
+
+        assertThat(suiviPresence.estConnecte(1L)).isFalse();
+        assertThat(suiviPresence.derniereDeconnexion(1L)).isNotNull();
+        // Arrivée de 2 et départ de 1 déjà diffusés par l'autre nœud.
+        verify(messagingTemplate, never()).convertAndSend(eq(SuiviPresence.TOPIC), any(Object.class));
+    }
+}